@@ -0,0 +1,578 @@
+/*
+    Structorizer
+    A little tool which you can use to create Nassi-Schneiderman Diagrams (NSD)
+
+    Copyright (C) 2009  Bob Fisch
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or any
+    later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package lu.fisch.structorizer.elements;
+
+/******************************************************************************************************
+ *
+ *      Author:         agent
+ *
+ *      Description:    Differential check and benchmark of the single-pass lexer against the former one.
+ *
+ ******************************************************************************************************
+ *
+ *      Revision List
+ *
+ *      Author          Date            Description
+ *      ------          ----            -----------
+ *      agent           2026.10.18      First Issue (AGT#21)
+ *
+ ******************************************************************************************************
+ *
+ *      Comment:
+ *      2026.10.18 / agent
+ *      - Compares Element.splitLexically() with the former multi-pass implementation (retained here
+ *        as splitLexicallyMultiPass(), outside the production sources) for both settings of
+ *        _restoreStrings on
+ *        a) all text lines of the given diagram files (.nsd, .arrz or directories containing
+ *           them; the executor benchmark diagrams if no file is given),
+ *        b) a set of crafted lines covering the symbol and literal reassembly cases,
+ *        c) random lines composed of delimiters, digits, letters, and literal fragments.
+ *        Then both implementations are timed on the collected lines.
+ *      - Usage: ant lexer-check [-Dlexer.check.args="[-n RANDOMLINES] [FILE|DIR...]"]
+ *        (compiled from the bench source folder, hence not part of the jar)
+ *
+ ******************************************************************************************************///
+
+import java.io.File;
+import java.util.Random;
+import java.util.Vector;
+
+import lu.fisch.structorizer.executor.DiagramFilePool;
+import lu.fisch.structorizer.parsers.NSDParser;
+import lu.fisch.structorizer.io.ArrZipFilter;
+import lu.fisch.structorizer.io.StructogramFilter;
+import lu.fisch.utils.StringList;
+
+/**
+ * Differential test harness and micro benchmark for {@link Element#splitLexically(String, boolean)}.
+ * @author agent
+ */
+public class LexerCheck {
+
+	/** Delimiters of the former splitting, in the order of their treatment (copied from Element) */
+	private static final String[] LEXICAL_DELIMITERS = new String[] {
+			" ", "\t", "\n", ".", ",", ";", "(", ")", "[", "]", "{", "}", "-", "+", "/", "*", ">", "<",
+			"=", ":", "!", "'", "\"", "\\", "%", "\u2260", "\u2264", "\u2265"
+	};
+	private static final java.util.regex.Pattern FLOAT_PATTERN1 = java.util.regex.Pattern.compile("[0-9]+([eE][0-9]+)?");
+	private static final java.util.regex.Pattern FLOAT_PATTERN2 = java.util.regex.Pattern.compile("[0-9]+[eE]");
+	private static final java.util.regex.Pattern INT_PATTERN = java.util.regex.Pattern.compile("[0-9]+");
+	private static final java.util.regex.Pattern SIGN_PATTERN = java.util.regex.Pattern.compile("[+-]");
+
+	private static final String[] CRAFTED_LINES = {
+		"",
+		"x <- 5",
+		"x <-- 5",
+		"x := y + 1",
+		"a[i] <- b[i-1] * .5e-3",
+		"if a <> b and c <= d or e >= f then",
+		"a != b == c",
+		"x << 2 >> 1 < 3 > 4",
+		"a && b || c & d | e",
+		"a \u2260 b \u2264 c \u2265 d \u2265\u2265",
+		"\u2265x",
+		"for i <- 1 .. 10",
+		"case x of 1..3, 5...7",
+		"...",
+		"..",
+		".",
+		"-.5 + +.7e+12 - 3.e-4 * 12.34 / 1.2.3",
+		"1e5 + 2E-7 + 3e + 4e+",
+		"s <- \"ab\\\"c\" + 'd\\'e' + \"\\\\\"",
+		"s <- \"unterminated + x",
+		"t <- 'it''s' + \"say \"\"hi\"\"\"",
+		"OUTPUT \"a\", 'b', \"\", ''",
+		"p <- Point{x: 1, y: -2.5}",
+		"foo(a, b[3], {1, 2}) % 7; bar\t\\ baz\n",
+		"x<-y<-z",
+		"  leading and trailing  ",
+		"+", "-", "+.", "-.", "1.", "1..", "1...", ".1", "..1"
+	};
+
+	/** Building blocks of the random lines */
+	private static final String[] FRAGMENTS = {
+		" ", "\t", "\n", ".", ",", ";", "(", ")", "[", "]", "{", "}", "-", "+", "/", "*", ">", "<",
+		"=", ":", "!", "'", "\"", "\\", "%", "&", "|", "\u2260", "\u2264", "\u2265",
+		"0", "7", "12", "3e", "4E", "5e6", "x", "ab", "e", "_y1", "..", "<-", ":=", "\u00E9"
+	};
+
+	/**
+	 * Command line entry: [-n RANDOMLINES] [FILE|DIR...]
+	 * @param args - the command line arguments
+	 */
+	public static void main(String[] args)
+	{
+		int nRandom = 100000;
+		Vector<String> lines = new Vector<String>();
+		Vector<File> files = new Vector<File>();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-n") && i+1 < args.length) {
+				nRandom = Integer.parseInt(args[++i]);
+			}
+			else {
+				collectFiles(new File(args[i]), files);
+			}
+		}
+		int nDiagramLines = 0;
+		try {
+			if (files.isEmpty()) {
+				String[] benchmarks = {"BenchLoops.nsd", "BenchRecursion.nsd", "BenchFib.nsd",
+						"BenchStrings.nsd", "BenchArrays.nsd", "BenchFiles.nsd"};
+				for (String name: benchmarks) {
+					Root root = new NSDParser().parse(
+							DiagramFilePool.class.getResourceAsStream("benchmarks/" + name));
+					collectLines(root, lines);
+				}
+			}
+			else {
+				DiagramFilePool pool = new DiagramFilePool();
+				for (File file: files) {
+					for (Root root: pool.loadFile(file)) {
+						collectLines(root, lines);
+					}
+				}
+			}
+		}
+		catch (Exception ex) {
+			System.err.println("*** " + ex);
+			System.exit(1);
+		}
+		nDiagramLines = lines.size();
+		for (String line: CRAFTED_LINES) {
+			lines.add(line);
+		}
+		Random random = new Random(591);
+		for (int i = 0; i < nRandom; i++) {
+			StringBuilder sb = new StringBuilder();
+			int nFragments = random.nextInt(12);
+			for (int j = 0; j < nFragments; j++) {
+				sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+			}
+			lines.add(sb.toString());
+		}
+
+		int nMismatches = 0;
+		for (String line: lines) {
+			for (int r = 0; r < 2; r++) {
+				StringList expected = splitLexicallyMultiPass(line, r > 0);
+				StringList actual = Element.splitLexically(line, r > 0);
+				if (!equal(expected, actual)) {
+					if (nMismatches++ < 20) {
+						System.out.println("MISMATCH (restoreStrings = " + (r > 0) + ") on \"" + line + "\":");
+						System.out.println("  expected: " + expected.concatenate("\u00B7"));
+						System.out.println("  actual:   " + actual.concatenate("\u00B7"));
+					}
+				}
+			}
+		}
+		System.out.println(lines.size() + " lines checked (" + nDiagramLines + " from diagrams, "
+				+ CRAFTED_LINES.length + " crafted, " + nRandom + " random): " + nMismatches + " mismatches");
+
+		// Benchmark on the diagram and crafted lines (repeated) plus the random lines
+		for (int round = 0; round < 3; round++) {
+			long timeOld = 0, timeNew = 0;
+			for (int r = 0; r < 2; r++) {
+				long start = System.nanoTime();
+				for (String line: lines) {
+					splitLexicallyMultiPass(line, r > 0);
+				}
+				timeOld += System.nanoTime() - start;
+				start = System.nanoTime();
+				for (String line: lines) {
+					Element.splitLexically(line, r > 0);
+				}
+				timeNew += System.nanoTime() - start;
+			}
+			System.out.println(String.format("Round %d: multi-pass %.1f ms, single-pass %.1f ms (factor %.1f)",
+					round+1, timeOld / 1e6, timeNew / 1e6, (double)timeOld / Math.max(timeNew, 1)));
+		}
+		System.exit(nMismatches > 0 ? 1 : 0);
+	}
+
+	/**
+	 * The former implementation of {@link Element#splitLexically(String, boolean)}, which exploded
+	 * the text once per entry of {@link #LEXICAL_DELIMITERS} and reassembled the compound symbols
+	 * and literals afterwards. Serves as reference for the differential check and the timing.
+	 * @param _text - the string to be split
+	 * @param _restoreStrings - whether string and character literals are to be reassembled
+	 * @return the token list
+	 */
+	private static StringList splitLexicallyMultiPass(String _text, boolean _restoreStrings)
+	{
+		StringList parts = new StringList();
+		parts.add(_text);
+		
+		// split
+		// START KGU#425 2017-09-29: Code revision
+		//parts=StringList.explodeWithDelimiter(parts," ");
+		//parts=StringList.explodeWithDelimiter(parts,"\t");
+		//parts=StringList.explodeWithDelimiter(parts,"\n");
+		//parts=StringList.explodeWithDelimiter(parts,".");
+		//parts=StringList.explodeWithDelimiter(parts,",");
+		//parts=StringList.explodeWithDelimiter(parts,";");
+		//parts=StringList.explodeWithDelimiter(parts,"(");
+		//parts=StringList.explodeWithDelimiter(parts,")");
+		//parts=StringList.explodeWithDelimiter(parts,"[");
+		//parts=StringList.explodeWithDelimiter(parts,"]");
+		//parts=StringList.explodeWithDelimiter(parts,"{");
+		//parts=StringList.explodeWithDelimiter(parts,"}");
+		//parts=StringList.explodeWithDelimiter(parts,"-");
+		//parts=StringList.explodeWithDelimiter(parts,"+");
+		//parts=StringList.explodeWithDelimiter(parts,"/");
+		//parts=StringList.explodeWithDelimiter(parts,"*");
+		//parts=StringList.explodeWithDelimiter(parts,">");
+		//parts=StringList.explodeWithDelimiter(parts,"<");
+		//parts=StringList.explodeWithDelimiter(parts,"=");
+		//parts=StringList.explodeWithDelimiter(parts,":");
+		//parts=StringList.explodeWithDelimiter(parts,"!");
+		//parts=StringList.explodeWithDelimiter(parts,"'");
+		//parts=StringList.explodeWithDelimiter(parts,"\"");
+		//parts=StringList.explodeWithDelimiter(parts,"\\");
+		//parts=StringList.explodeWithDelimiter(parts,"%");
+		//parts=StringList.explodeWithDelimiter(parts,"\u2260");
+		//parts=StringList.explodeWithDelimiter(parts,"\u2264");
+		//parts=StringList.explodeWithDelimiter(parts,"\u2265");
+		for (int i = 0; i < LEXICAL_DELIMITERS.length; i++) {
+			parts = StringList.explodeWithDelimiter(parts, LEXICAL_DELIMITERS[i]);
+		}
+		// END KGU#425 2017-09-29
+
+		// reassemble symbols
+		int i = 0;
+		while (i < parts.count())
+		{
+			String thisPart = parts.get(i);
+			if (i < parts.count()-1)
+			{
+				String nextPart = parts.get(i+1);
+				boolean isInt = false;
+				boolean isSign = false;
+				boolean isEllipse = false;
+				if (thisPart.equals("<") && nextPart.equals("-"))
+				{
+					parts.set(i,"<-");
+					parts.delete(i+1);
+					// START KGU 2014-10-18 potential three-character assignment symbol?
+					if (i < parts.count()-1 && parts.get(i+1).equals("-"))
+					{
+						parts.delete(i+1);
+					}
+					// END KGU 2014-10-18
+				}
+				else if (thisPart.equals(":") && nextPart.equals("="))
+				{
+					parts.set(i,":=");
+					parts.delete(i+1);
+				}
+				else if (thisPart.equals("!") && nextPart.equals("="))
+				{
+					parts.set(i,"!=");
+					parts.delete(i+1);
+				}
+				// START KGU 2015-11-04
+				else if (thisPart.equals("=") && nextPart.equals("="))
+				{
+					parts.set(i,"==");
+					parts.delete(i+1);
+				}
+				// END KGU 2015-11-04
+				else if (thisPart.equals("<"))
+				{
+					if (nextPart.equals(">"))
+					{
+						parts.set(i,"<>");
+						parts.delete(i+1);
+					}
+					else if (nextPart.equals("="))
+					{
+						parts.set(i,"<=");
+						parts.delete(i+1);
+					}
+					// START KGU#92 2015-12-01: Bugfix #41
+					else if (nextPart.equals("<"))
+					{
+						parts.set(i,"<<");
+						parts.delete(i+1);
+					}					
+					// END KGU#92 2015-12-01
+				}
+				else if (thisPart.equals(">"))
+				{
+					if (nextPart.equals("="))
+					{
+						parts.set(i,">=");
+						parts.delete(i+1);
+					}
+					// START KGU#92 2015-12-01: Bugfix #41
+					else if (nextPart.equals(">"))
+					{
+						parts.set(i,">>");
+						parts.delete(i+1);
+					}					
+					// END KGU#92 2015-12-01
+				}
+				// START KGU#24 2014-10-18: Logical two-character operators should be detected, too ...
+				else if (thisPart.equals("&") && nextPart.equals("&"))
+				{
+					parts.set(i,"&&");
+					parts.delete(i+1);
+				}
+				else if (thisPart.equals("|") && nextPart.equals("|"))
+				{
+					parts.set(i,"||");
+					parts.delete(i+1);
+				}
+				// END KGU#24 2014-10-18
+				// START KGU#26 2015-11-04: Find escaped quotes
+				else if (thisPart.equals("\\"))
+				{
+					if (nextPart.equals("\""))
+					{
+						parts.set(i, "\\\"");
+						parts.delete(i+1);
+					}
+					// START KGU#344 201702-08: Issue #341 - Precaution against string/character delimiter replacement
+					else if (nextPart.equals("'"))
+					{
+						parts.set(i, "\\'");
+						parts.delete(i+1);
+					}
+					// END KGU#344 2017-02-08
+					else if (nextPart.equals("\\"))
+					{
+						parts.set(i, "\\\\");
+						parts.delete(i+1);
+					}
+				}
+				// END KGU#26 2015-11-04
+				// START KGU#331 2017-01-13: Enh. #333 Precaution against unicode comparison operators
+				else if (thisPart.equals("\u2260")) {
+					parts.set(i, "<>");
+				}
+				else if (thisPart.equals("\u2264")) {
+					parts.set(i, "<=");
+				}
+				else if (thisPart.equals("\u2265")) {
+					parts.set(i, ">=");
+				}
+				// END KGU#331 2017-01-13
+				// START KGU#335/KGU#425 2017-09-29: Re-compose floating-point literals (including those starting or ending with ".")
+				// These are legal cases ($ = line end, ? = don't care):
+				// i             i+1             i+2           i+3        comment
+				// .              .               ?             ?         two-dot-ellipse (Pascal range)
+				// .              .               .             ?         three-dot-ellipse (rarely used)
+				// .            FLOAT1            ?             ?         float literal
+				// .            FLOAT2           [+-]        [0-9]+       float literal
+				// [+-]           .            FLOAT1           ?         float literal - reduce this case the the one -2
+				// [+-]           .            FLOAT2         [+-] [0-9]+ float literal - reduce this case the the one -2
+				// [0-9]+         .            FLOAT1           ?         float literal - reduce this case the the one -4
+				// [0-9]+         .            FLOAT2         [+-] [0-9]+ float literal - reduce this case the the one -4
+				// These are the illegal cases:
+				// [+-]           .               $
+				// [+-]           .               ?
+				// [0-9]+         .               .
+				// So we will first do the necessary lookahead before we manipulate parts
+				else if ( (isEllipse = thisPart.equals("."))	// a single dot might merge with another one or a float pattern
+						|| (	// Otherwise a digit sequence might melt with a dot
+								(isInt = INT_PATTERN.matcher(thisPart).matches())
+								|| (isSign = (thisPart.equals("+") || thisPart.equals("-"))	// a sign with a dot requires more...
+										&& i+2 < parts.count())
+								&& nextPart.equals(".")) 
+						) {
+					int nDelete = 0;
+					// Glue the two together - the only pathologic case would be 
+					if (nextPart.equals(".")) {
+						thisPart += nextPart;
+						nDelete = 1;
+						// Is there anything left at all?
+						if (i+2 < parts.count()) {
+							nextPart = parts.get(i+2);
+						}
+						if (isEllipse && nextPart.equals(".")) {
+							// Okay, then be it a three-point ellipse "..."
+							thisPart += nextPart;
+							nDelete++;
+						}
+						// In case of an ellipse we are done here
+					}
+					else {
+						isEllipse = false;
+					}
+					// nextPart.matches("[0-9]+([eE][0-9]+)?")
+					if (!isEllipse && FLOAT_PATTERN1.matcher(nextPart).matches()) {
+						thisPart += nextPart;
+						nDelete++;
+					}
+					// nextPart.matches("[0-9]+[eE]")
+					else if (!isEllipse && FLOAT_PATTERN2.matcher(nextPart).matches()
+							&& i+nDelete+3 < parts.count()
+							&& SIGN_PATTERN.matcher(parts.get(i+nDelete+2)).matches()
+							&& INT_PATTERN.matcher(parts.get(i+nDelete+3)).matches()) {
+						for (int j = 1; j <= 3; j++) {
+							nDelete++;
+							thisPart += parts.get(i+nDelete);
+						}
+					}
+					else if (isSign || isInt && i+2 < parts.count() && parts.get(i+2).equals(".")) {
+						// In this case the amalgamation may not take place
+						nDelete = 0;
+					}
+					// Now carry out the amalgamation if sensible
+					if (nDelete > 0) {
+						parts.set(i, thisPart);
+						parts.remove(i+1, i+nDelete+1);
+					}
+				}
+				// END KGU#335/KGU#425 2017-09-29
+			}
+			i++;
+		}
+		
+		if (_restoreStrings)
+		{
+			// START KGU#344 2017-02-07: Bugfix #341 Wrong loop inclusion
+			//String[] delimiters = {"\"", "'"};
+			final String delimiters = "\"'";
+			// END KGU#344 2017-02-07
+			// START KGU#139 2016-01-12: Bugfix #105 - apparently incomplete strings got lost
+			// We mustn't eat seemingly incomplete strings, instead we re-feed them
+			StringList parkedTokens = new StringList();
+			// END KGU#139 2016-01-12
+			// START #344 2017-02-07: Bugfix #341: Wrong strategy - the token must select the start delimiter
+			//for (int d = 0; d < delimiters.length; d++)
+			//{
+			int ixDelim = -1;	// delimiter index in delimiters
+			String delim = "";	// starting delimiter for matching the closing delimiter
+			// END KGU#344 2017-02-07
+				boolean withinString = false;
+				String composed = "";
+				i = 0;
+				while (i < parts.count())
+				{
+					String lexeme = parts.get(i);
+					if (withinString)
+					{
+						composed = composed + lexeme;
+						// START KGU#344 2017-02-07: Bugfix #341
+						//if (lexeme.equals(delimiters[d]))
+						if (lexeme.equals(delim))
+						// END KGU#344 2017-02-07
+						{
+							// START KGU#139 2016-01-12: Bugfix #105
+							parkedTokens.clear();
+							// END KGU#139 2016-01-12
+							parts.set(i, composed+"");
+							composed = "";
+							withinString = false;
+							i++;
+						}
+						else
+						{
+							// START KGU#139 2016-01-12: Bugfix #105
+							parkedTokens.add(lexeme);
+							// END KGU#139 2016-01-12
+							parts.delete(i);
+						}
+					}
+					// START KGU#344 2017-02-07: Bugfix #341
+					//else if (lexeme.equals(delimiters[d]))
+					else if (lexeme.length() == 1 && (ixDelim = delimiters.indexOf(lexeme)) >= 0)
+					// END KGU#344 2017-02-27
+					{
+						// START KGU#139 2016-01-12: Bugfix #105
+						parkedTokens.add(lexeme);
+						// END KGU#139 2016-01-12
+						withinString = true;
+						// START KGU#344 2017-02-07: Bugfix #341
+						delim = delimiters.substring(ixDelim, ixDelim+1);
+						// END KGU#344 2017-02-07
+						composed = lexeme+"";
+						parts.delete(i);
+					}
+					else
+					{
+						i++;
+					}
+				}
+			// START KGU#344 2017-02-07: Bugfix #341 No outer loop anymore
+			//}
+			// END KGU#344 2017-02-07
+			// START KGU#139 2916-01-12: Bugfix #105
+			if (parkedTokens.count() > 0)
+			{
+				parts.add(parkedTokens);
+			}
+			// END KGU#139 2016-01-12
+		}
+		return parts;
+	}
+
+	private static boolean equal(StringList _list1, StringList _list2)
+	{
+		if (_list1.count() != _list2.count()) {
+			return false;
+		}
+		for (int i = 0; i < _list1.count(); i++) {
+			if (!_list1.get(i).equals(_list2.get(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void collectFiles(File _file, Vector<File> _files)
+	{
+		if (_file.isDirectory()) {
+			File[] children = _file.listFiles();
+			if (children != null) {
+				for (File child: children) {
+					collectFiles(child, _files);
+				}
+			}
+		}
+		else {
+			String path = _file.getPath();
+			if (StructogramFilter.isNSD(path) || ArrZipFilter.isArr(path)) {
+				_files.add(_file);
+			}
+		}
+	}
+
+	private static void collectLines(Root _root, final Vector<String> _lines)
+	{
+		_root.traverse(new IElementVisitor() {
+			@Override
+			public boolean visitPreOrder(Element _ele) {
+				StringList text = _ele.getText();
+				for (int i = 0; i < text.count(); i++) {
+					_lines.add(text.get(i));
+				}
+				_lines.add(_ele.getUnbrokenText().getLongString());
+				return true;
+			}
+			@Override
+			public boolean visitPostOrder(Element _ele) {
+				return true;
+			}
+		});
+	}
+
+}
@@ -0,0 +1,422 @@
+/*
+    Structorizer
+    A little tool which you can use to create Nassi-Schneiderman Diagrams (NSD)
+
+    Copyright (C) 2009  Bob Fisch
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or any
+    later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package lu.fisch.structorizer.executor;
+
+/******************************************************************************************************
+ *
+ *      Author:         agent
+ *
+ *      Description:    Benchmark suite for the headless Executor (steps per second, allocation rate).
+ *
+ ******************************************************************************************************
+ *
+ *      Revision List
+ *
+ *      Author          Date            Description
+ *      ------          ----            -----------
+ *      agent           2026.10.18      First Issue (AGT#20)
+ *      agent           2026.10.18      AGT#5: Benchmark "deeprecursion" (linear recursion of depth 10000)
+ *      agent           2026.10.18      AGT#20: Rounds repeat the execution for a minimum time (option -t)
+ *      agent           2026.10.18      AGT#20: Moved with its diagrams to the bench source folder (not in the jar)
+ *
+ ******************************************************************************************************
+ *
+ *      Comment:
+ *      2026.10.18 / agent
+ *      - The benchmark diagrams reside in the resource folder "benchmarks" beside this class (nested
+ *        loops, recursion, strings, arrays and records, file API). Each of them is parsed once by the
+ *        NSDParser and then executed repeatedly by fresh headless Executors: some warm-up rounds (to
+ *        let the JIT compiler settle) followed by the measured rounds. Only executeHeadless() is
+ *        timed, not the set-up of the Executor and its interpreter.
+ *      - The allocation is measured per thread (com.sun.management.ThreadMXBean), which is exact as
+ *        long as the execution runs on the calling thread, i.e. without concurrent Parallel branches.
+ *        Where the JVM doesn't support it, -1 is reported.
+ *      - The output of every round is compared with the expected output, so a benchmark run also
+ *        detects behavioural regressions of the Executor.
+ *      - Usage: ant benchmark [-Dbenchmark.args="[-w WARMUPS] [-i ROUNDS] [-f] [-t MILLISECONDS]
+ *        [-o CSVFILE] [BENCHMARK...]"] (compiled from the bench source folder, hence not part of the jar)
+ *      2026.10.18 / agent
+ *      - Benchmark "deeprecursion" reproduces the per-call overhead of subroutine calls (AGT#5) with
+ *        a recursion depth of 10000. Since every call level occupies several Java stack frames, the
+ *        rounds of a benchmark are executed by a separate thread with a stack of BENCHMARK_STACK_SIZE.
+ *      - A single execution of most benchmark diagrams takes only some thousand steps, which is too
+ *        short for a reliable measurement. Hence a round repeats the execution (with fresh Executors)
+ *        until the accumulated execution time reaches a minimum round time (default 5 s, option -t),
+ *        i.e. some 10^5 steps with the current Executor. The results are given per execution.
+ *
+ ******************************************************************************************************///
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+
+import lu.fisch.structorizer.elements.Element;
+import lu.fisch.structorizer.elements.Root;
+import lu.fisch.structorizer.parsers.NSDParser;
+
+/**
+ * Executes a set of representative diagrams repeatedly without GUI and reports the execution
+ * time, the number of executed steps per second, and the allocated memory per execution, such that
+ * the performance of the {@link Executor} can be tracked over the versions.
+ * @author agent
+ */
+public class ExecutorBenchmark {
+
+	/**
+	 * The benchmarks: name, expected output, file name of the main diagram, file names of the
+	 * called diagrams (all in the resource folder "benchmarks")
+	 */
+	private static final String[][] BENCHMARKS = {
+		{"loops", "65854 600", "BenchLoops.nsd"},
+		{"recursion", "144", "BenchRecursion.nsd", "BenchFib.nsd"},
+		{"deeprecursion", "50005000", "BenchDeepRecursion.nsd", "BenchSum.nsd"},
+		{"strings", "53 287 MNQRS", "BenchStrings.nsd"},
+		{"arrays", "0 39 576", "BenchArrays.nsd"},
+		{"files", "150 33975", "BenchFiles.nsd"}
+	};
+	
+	/** Default minimum execution time per round in milliseconds */
+	public static final int DEFAULT_ROUND_TIME = 5000;
+	
+	/** Stack size of the benchmark thread (the executed recursions nest up to 10000 calls deep) */
+	private static final long BENCHMARK_STACK_SIZE = 1L << 30;
+
+	/**
+	 * Measurement results of one benchmark
+	 */
+	public static final class Result {
+		public final String name;
+		public final int rounds;
+		/** Total number of measured executions (at least one per round) */
+		public final int executions;
+		/** Number of executed steps per execution */
+		public final long steps;
+		/** Mean time per execution in nanoseconds */
+		public final long meanTime;
+		/** Minimum of the mean times per execution of the rounds in nanoseconds */
+		public final long minTime;
+		/** Mean number of allocated bytes per execution (-1 if not measurable) */
+		public final long allocated;
+
+		public Result(String _name, int _rounds, int _executions, long _steps, long _meanTime, long _minTime, long _allocated)
+		{
+			this.name = _name;
+			this.rounds = _rounds;
+			this.executions = _executions;
+			this.steps = _steps;
+			this.meanTime = _meanTime;
+			this.minTime = _minTime;
+			this.allocated = _allocated;
+		}
+
+		/** @return the number of executed steps per second (based on the mean time) */
+		public double getStepsPerSecond()
+		{
+			return meanTime > 0 ? steps * 1e9 / meanTime : 0;
+		}
+
+		/** @return the allocation rate in bytes per second (or -1 if not measurable) */
+		public double getAllocationRate()
+		{
+			return allocated < 0 || meanTime <= 0 ? -1 : allocated * 1e9 / meanTime;
+		}
+	}
+
+	private final int warmups;
+	private final int rounds;
+	private long roundTime = DEFAULT_ROUND_TIME * 1000000L;
+	private boolean fastEvaluation = false;
+	private final com.sun.management.ThreadMXBean threadBean;
+
+	/**
+	 * Creates a benchmark runner
+	 * @param _warmups - number of unmeasured rounds per benchmark
+	 * @param _rounds - number of measured rounds per benchmark (at least 1)
+	 */
+	public ExecutorBenchmark(int _warmups, int _rounds)
+	{
+		this.warmups = Math.max(_warmups, 0);
+		this.rounds = Math.max(_rounds, 1);
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean)bean).isThreadAllocatedMemorySupported()) {
+			this.threadBean = (com.sun.management.ThreadMXBean)bean;
+			this.threadBean.setThreadAllocatedMemoryEnabled(true);
+		}
+		else {
+			this.threadBean = null;
+		}
+	}
+
+	/**
+	 * Enables or disables the memoization of pure subroutine results
+	 * @param _fastEvaluation - true to enable memoization
+	 * @see Executor#setFastEvaluation(boolean)
+	 */
+	public void setFastEvaluation(boolean _fastEvaluation)
+	{
+		this.fastEvaluation = _fastEvaluation;
+	}
+
+	/**
+	 * Sets the minimum execution time per round. The diagram of a benchmark is executed repeatedly
+	 * within a round until the accumulated execution time reaches it.
+	 * @param _millis - the minimum time in milliseconds (0 for a single execution per round)
+	 */
+	public void setRoundTime(int _millis)
+	{
+		this.roundTime = Math.max(_millis, 0) * 1000000L;
+	}
+
+	/**
+	 * @return the names of the available benchmarks
+	 */
+	public static Vector<String> getBenchmarkNames()
+	{
+		Vector<String> names = new Vector<String>();
+		for (String[] benchmark: BENCHMARKS) {
+			names.add(benchmark[0]);
+		}
+		return names;
+	}
+
+	/**
+	 * Runs the benchmarks with the given names (all if the list is empty)
+	 * @param _names - names of the benchmarks to be run
+	 * @return the results in the order of execution
+	 * @throws Exception if a diagram can't be loaded, fails, or produces unexpected output
+	 */
+	public Vector<Result> run(List<String> _names) throws Exception
+	{
+		Vector<Result> results = new Vector<Result>();
+		for (String[] benchmark: BENCHMARKS) {
+			if (_names.isEmpty() || _names.contains(benchmark[0])) {
+				results.add(run(benchmark));
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Runs the given benchmark on a separate thread with a stack of {@link #BENCHMARK_STACK_SIZE}
+	 * @param _benchmark - name, expected output, and diagram file names
+	 * @return the measured result
+	 * @throws Exception if a diagram can't be loaded, fails, or produces unexpected output
+	 */
+	private Result run(final String[] _benchmark) throws Exception
+	{
+		final Result[] result = {null};
+		final Exception[] failure = {null};
+		Thread runner = new Thread(null, new Runnable() {
+			@Override
+			public void run() {
+				try {
+					result[0] = measure(_benchmark);
+				}
+				catch (Exception ex) {
+					failure[0] = ex;
+				}
+				catch (StackOverflowError err) {
+					failure[0] = new Exception(_benchmark[0] + ": " + err);
+				}
+			}
+		}, "Benchmark " + _benchmark[0], BENCHMARK_STACK_SIZE);
+		runner.start();
+		runner.join();
+		if (failure[0] != null) {
+			throw failure[0];
+		}
+		return result[0];
+	}
+
+	private Result measure(String[] _benchmark) throws Exception
+	{
+		String name = _benchmark[0];
+		DiagramFilePool pool = new DiagramFilePool();
+		Root mainRoot = null;
+		for (int i = 2; i < _benchmark.length; i++) {
+			InputStream istr = ExecutorBenchmark.class.getResourceAsStream("benchmarks/" + _benchmark[i]);
+			if (istr == null) {
+				throw new IOException(name + ": missing benchmark diagram " + _benchmark[i]);
+			}
+			try {
+				Root root = new NSDParser().parse(istr);
+				if (mainRoot == null) {
+					mainRoot = root;
+				}
+				pool.addRoot(root);
+			}
+			finally {
+				istr.close();
+			}
+		}
+		Vector<IRoutinePool> pools = new Vector<IRoutinePool>();
+		pools.add(pool);
+		// The file benchmark gets the name of a scratch file as input
+		File scratchFile = File.createTempFile("structorizer-bench", ".txt");
+		scratchFile.deleteOnExit();
+		long steps = 0;
+		int executions = 0;
+		long totalTime = 0, minTime = Long.MAX_VALUE;
+		long totalAllocated = 0;
+		try {
+			for (int round = 0; round < warmups + rounds; round++) {
+				int roundExecutions = 0;
+				long time = 0;
+				long allocated = 0;
+				do {
+					ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+					PrintStream output = new PrintStream(outBytes, true, "UTF-8");
+					Executor executor = new Executor(new BufferedReader(new StringReader(scratchFile.getPath())), output);
+					executor.setFastEvaluation(fastEvaluation);
+					long allocBefore = getAllocatedBytes();
+					long startTime = System.nanoTime();
+					String trouble = executor.executeHeadless(mainRoot, pools);
+					time += System.nanoTime() - startTime;
+					allocated += getAllocatedBytes() - allocBefore;
+					output.close();
+					if (!trouble.isEmpty()) {
+						throw new Exception(name + ": " + trouble);
+					}
+					String actual = outBytes.toString("UTF-8").trim();
+					if (!actual.equals(_benchmark[1])) {
+						throw new Exception(name + ": expected output \"" + _benchmark[1] + "\", got \"" + actual + "\"");
+					}
+					steps = executor.getStepCount();
+					roundExecutions++;
+				} while (time < roundTime);
+				if (round >= warmups) {
+					executions += roundExecutions;
+					totalTime += time;
+					minTime = Math.min(minTime, time / roundExecutions);
+					totalAllocated += allocated;
+				}
+			}
+		}
+		finally {
+			scratchFile.delete();
+		}
+		return new Result(name, rounds, executions, steps, totalTime / executions, minTime,
+				threadBean == null ? -1 : totalAllocated / executions);
+	}
+
+	private long getAllocatedBytes()
+	{
+		return threadBean == null ? 0 : threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Writes the results as semicolon-separated lines (one per benchmark)
+	 * @param _results - the results as obtained by {@link #run(List)}
+	 * @param _out - the target stream
+	 */
+	public static void writeReport(List<Result> _results, PrintStream _out)
+	{
+		_out.println("Benchmark;Rounds;Executions;Steps;Mean[ms];Min[ms];Steps/s;Alloc/execution[KiB];Alloc rate[MiB/s]");
+		for (Result result: _results) {
+			_out.println(result.name + ";" + result.rounds + ";" + result.executions + ";" + result.steps + ";"
+					+ String.format("%.1f;%.1f;%.0f;", result.meanTime / 1e6, result.minTime / 1e6, result.getStepsPerSecond())
+					+ (result.allocated < 0 ? "-1;-1" :
+						String.format("%d;%.1f", result.allocated / 1024, result.getAllocationRate() / (1024 * 1024))));
+		}
+	}
+
+	/**
+	 * Command line entry: [-w WARMUPS] [-i ROUNDS] [-f] [-t MILLISECONDS] [-o CSVFILE] [BENCHMARK...]
+	 * @param args - the command line arguments
+	 */
+	public static void main(String[] args)
+	{
+		int warmups = 3, rounds = 5;
+		int roundTime = DEFAULT_ROUND_TIME;
+		boolean fastEvaluation = false;
+		String outFileName = null;
+		Vector<String> names = new Vector<String>();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				if ((args[i].equals("-w") || args[i].equals("-i") || args[i].equals("-t")) && i+1 < args.length) {
+					int value = Integer.parseInt(args[++i]);
+					if (args[i-1].equals("-w")) {
+						warmups = value;
+					}
+					else if (args[i-1].equals("-i")) {
+						rounds = value;
+					}
+					else {
+						roundTime = value;
+					}
+				}
+				else if (args[i].equals("-f")) {
+					fastEvaluation = true;
+				}
+				else if (args[i].equals("-o") && i+1 < args.length) {
+					outFileName = args[++i];
+				}
+				else if (getBenchmarkNames().contains(args[i])) {
+					names.add(args[i]);
+				}
+				else {
+					throw new IllegalArgumentException(args[i]);
+				}
+			}
+		}
+		catch (IllegalArgumentException ex) {
+			System.err.println("*** Invalid argument " + ex.getMessage());
+			System.err.println("Usage: ExecutorBenchmark [-w WARMUPS] [-i ROUNDS] [-f] [-t MILLISECONDS] [-o CSVFILE] [BENCHMARK...]");
+			System.err.println("with BENCHMARK = " + Arrays.toString(getBenchmarkNames().toArray()));
+			System.exit(1);
+		}
+		Element.E_COLLECTRUNTIMEDATA = false;
+		ExecutorBenchmark benchmark = new ExecutorBenchmark(warmups, rounds);
+		benchmark.setFastEvaluation(fastEvaluation);
+		benchmark.setRoundTime(roundTime);
+		int exitCode = 0;
+		PrintStream report = System.out;
+		try {
+			Vector<Result> results = benchmark.run(names);
+			if (outFileName != null) {
+				report = new PrintStream(new FileOutputStream(outFileName), true, "UTF-8");
+			}
+			writeReport(results, report);
+		}
+		catch (Exception ex) {
+			System.err.println("*** " + ex.getMessage());
+			exitCode = 1;
+		}
+		finally {
+			if (report != System.out) {
+				report.close();
+			}
+		}
+		System.exit(exitCode);
+	}
+
+}
@@ -53,6 +53,16 @@
  *      Kay Gürtzig     2018.07.03      Bugfix #554: Now a specified parser will override the automatic search.
  *      Kay Gürtzig     2018.08.17      Help text for parser updated (now list is from parsers.xml).
  *      Kay Gürtzig     2018.08.18      Bugfix #581: Loading of a list of .nsd/.arr/.arrz files as command line argument
+ *      agent           2026.10.18      AGT#3: New option -r for headless batch execution of a diagram
+ *      agent           2026.10.18      AGT#4: New option -g for concurrent grading of many diagrams
+ *      agent           2026.10.18      AGT#7: New option -t for an execution time profile with -r
+ *      agent           2026.10.18      AGT#8: New option -c for concurrent Parallel branches with -r
+ *      agent           2026.10.18      AGT#10: New option -T for the recording of an execution trace with -r
+ *      agent           2026.10.18      AGT#15: New options -l, -n, -d, -b (execution budget) for -r and -g
+ *      agent           2026.10.18      AGT#16: New option -f (fast evaluation) for -r and -g
+ *      agent           2026.10.18      AGT#17: Option -e also specifies the encoding of the file API for -r and -g
+ *      agent           2026.10.18      AGT#19: New option -C (accumulated test coverage file) for -r and -g
+ *      agent           2026.10.18      AGT#3: Standard input of -r is decoded with the charset of option -e
  *
  ******************************************************************************************************
  *
@@ -63,14 +73,19 @@
 
 import java.awt.EventQueue;
 import java.io.BufferedInputStream;
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
+import java.nio.charset.Charset;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URISyntaxException;
 import java.security.CodeSource;
@@ -87,7 +102,14 @@ import java.util.logging.Logger;
 import javax.swing.JOptionPane;
 import javax.swing.UIManager;
 
+import lu.fisch.structorizer.elements.Element;
 import lu.fisch.structorizer.elements.Root;
+import lu.fisch.structorizer.executor.CoverageStore;
+import lu.fisch.structorizer.executor.DiagramFilePool;
+import lu.fisch.structorizer.executor.ExecutionBudget;
+import lu.fisch.structorizer.executor.Executor;
+import lu.fisch.structorizer.executor.GradingRunner;
+import lu.fisch.structorizer.executor.IRoutinePool;
 import lu.fisch.structorizer.generators.Generator;
 import lu.fisch.structorizer.generators.XmlGenerator;
 import lu.fisch.structorizer.gui.Mainform;
@@ -152,6 +174,35 @@ public class Structorizer
 		// START KGU#538 2018-07-01: issue #554
 		String settingsFile = null;
 		// END KGU#538 2018-07-01
+		// START AGT#3 2026-10-18: Headless execution
+		boolean run = false;
+		String inFileName = null;
+		// END AGT#3 2026-10-18
+		// START AGT#7 2026-10-18: Execution time profile
+		String profileFileName = null;
+		// END AGT#7 2026-10-18
+		// START AGT#8 2026-10-18: Concurrent execution of Parallel branches
+		boolean concurrent = false;
+		// END AGT#8 2026-10-18
+		// START AGT#10 2026-10-18: Execution trace
+		String traceFileName = null;
+		// END AGT#10 2026-10-18
+		// START AGT#4 2026-10-18: Concurrent grading
+		String testDir = null;
+		int nThreads = 0;
+		int timeLimit = 0;
+		// END AGT#4 2026-10-18
+		// START AGT#15 2026-10-18: Execution budget
+		long maxSteps = 0;
+		int maxCallDepth = 0;
+		long maxOutputBytes = 0;
+		// END AGT#15 2026-10-18
+		// START AGT#16 2026-10-18: Memoization of pure functions
+		boolean fastEvaluation = false;
+		// END AGT#16 2026-10-18
+		// START AGT#19 2026-10-18: Accumulated test coverage
+		String coverageFileName = null;
+		// END AGT#19 2026-10-18
 		//System.out.println("arg 0: " + args[0]);
 		if (args.length == 1 && args[0].equals("-h"))
 		{
@@ -190,6 +241,89 @@ public class Structorizer
 			//	parser += "pas";
 			//}
 			// END KGU#538 2018-07-01
+			// START AGT#3 2026-10-18: Headless execution of a diagram
+			else if (i == 0 && args[i].equals("-r") && args.length > 1)
+			{
+				run = true;
+			}
+			else if (run && args[i].equals("-i") && i+1 < args.length)
+			{
+				// Input file name
+				inFileName = args[++i];
+			}
+			// END AGT#3 2026-10-18
+			// START AGT#7 2026-10-18: Execution time profile
+			else if (run && args[i].equals("-t") && i+1 < args.length)
+			{
+				// Profile file name
+				profileFileName = args[++i];
+			}
+			// END AGT#7 2026-10-18
+			// START AGT#8 2026-10-18: Concurrent execution of Parallel branches
+			else if (run && args[i].equals("-c"))
+			{
+				concurrent = true;
+			}
+			// END AGT#8 2026-10-18
+			// START AGT#10 2026-10-18: Execution trace
+			else if (run && args[i].equals("-T") && i+1 < args.length)
+			{
+				// Trace file name
+				traceFileName = args[++i];
+			}
+			// END AGT#10 2026-10-18
+			// START AGT#16 2026-10-18: Memoization of pure functions
+			else if ((run || testDir != null) && args[i].equals("-f"))
+			{
+				fastEvaluation = true;
+			}
+			// END AGT#16 2026-10-18
+			// START AGT#19 2026-10-18: Accumulated test coverage
+			else if ((run || testDir != null) && args[i].equals("-C") && i+1 < args.length)
+			{
+				// Coverage file name
+				coverageFileName = args[++i];
+			}
+			// END AGT#19 2026-10-18
+			// START AGT#4 2026-10-18: Concurrent grading of many diagrams
+			else if (i == 0 && args[i].equals("-g") && args.length > 2)
+			{
+				testDir = args[++i];
+			}
+			// Execution budget options (AGT#15) also for -r
+			else if ((testDir != null && args[i].equals("-j")
+					|| (testDir != null || run) && (args[i].equals("-l") || args[i].equals("-n") || args[i].equals("-d") || args[i].equals("-b")))
+					&& i+1 < args.length)
+			{
+				// Number of threads, time limit per job in seconds, maximum number of steps,
+				// call depth, or output bytes
+				try {
+					long value = Long.parseLong(args[i+1]);
+					if (value < 0 || (value > Integer.MAX_VALUE && !args[i].equals("-n") && !args[i].equals("-b"))) {
+						throw new NumberFormatException(args[i+1]);
+					}
+					if (args[i].equals("-j")) {
+						nThreads = (int)value;
+					}
+					else if (args[i].equals("-l")) {
+						timeLimit = (int)value;
+					}
+					else if (args[i].equals("-n")) {
+						maxSteps = value;
+					}
+					else if (args[i].equals("-d")) {
+						maxCallDepth = (int)value;
+					}
+					else {
+						maxOutputBytes = value;
+					}
+				}
+				catch (NumberFormatException ex) {
+					System.err.println("*** Ignored invalid number for option " + args[i] + ": " + args[i+1]);
+				}
+				i++;
+			}
+			// END AGT#4 2026-10-18
 			else if (args[i].equals("-o") && i+1 < args.length)
 			{
 				// Output file name
@@ -238,6 +372,20 @@ public class Structorizer
 			// END KGU#354 2017-04-27
 			return;
 		}
+		// START AGT#3 2026-10-18: Headless execution
+		else if (run)
+		{
+			ExecutionBudget budget = new ExecutionBudget(maxSteps, timeLimit * 1000L, maxCallDepth, maxOutputBytes);
+			System.exit(Structorizer.run(fileNames, inFileName, outFileName, profileFileName, traceFileName, concurrent, budget, fastEvaluation, coverageFileName, charSet));
+		}
+		// END AGT#3 2026-10-18
+		// START AGT#4 2026-10-18: Concurrent grading
+		else if (testDir != null)
+		{
+			ExecutionBudget budget = new ExecutionBudget(maxSteps, timeLimit * 1000L, maxCallDepth, maxOutputBytes);
+			System.exit(Structorizer.grade(testDir, fileNames, nThreads, budget, fastEvaluation, coverageFileName, outFileName, charSet));
+		}
+		// END AGT#4 2026-10-18
 		// END KGU#187 2016-04-28
 		
 		// START KGU#521 2018-06-12: Workaround for #536 (corrupted rendering on certain machines) 
@@ -373,6 +521,8 @@ public class Structorizer
 		"Structorizer [NSDFILE|ARRFILE|ARRZFILE]",
 		"Structorizer -x GENERATOR [-a] [-b] [-c] [-f] [-l] [-t] [-e CHARSET] [-] [-o OUTFILE] NSDFILE...",
 		"Structorizer -p [PARSER] [-f] [-v LOGPATH] [-e CHARSET] [-s SETTINGSFILE] [-o OUTFILE] SOURCEFILE...",
+		"Structorizer -r [-c] [-f] [-e CHARSET] [-i INFILE] [-o OUTFILE] [-t PROFILEFILE] [-T TRACEFILE] [-C COVERAGEFILE] [-l SECONDS] [-n STEPS] [-d DEPTH] [-b BYTES] NSDFILE [NSDFILE|ARRZFILE...]",
+		"Structorizer -g TESTDIR [-f] [-C COVERAGEFILE] [-j THREADS] [-l SECONDS] [-n STEPS] [-d DEPTH] [-b BYTES] [-e CHARSET] [-o REPORTFILE] DIRECTORY|NSDFILE|ARRZFILE...",
 		"Structorizer -h"
 	};
 	// END KGU#187 2016-05-02
@@ -859,6 +1009,227 @@ public class Structorizer
 	}
 	// END KGU#416 2017-07-02
 
+	// START AGT#3 2026-10-18: Headless execution
+	/*****************************************
+	 * batch execution method
+	 *****************************************/
+	/**
+	 * Executes the diagram from the first of the given files without GUI. The remaining
+	 * .nsd or .arrz files provide the diagrams potentially called or included.
+	 * INPUT instructions read lines from the given input file or the standard input,
+	 * OUTPUT instructions write to the given output file or the standard output.
+	 * @param _fileNames - paths of the main diagram and of the subroutine/includable sources
+	 * @param _inFileName - path of the input file (or null for standard input)
+	 * @param _outFileName - path of the output file (or null for standard output)
+	 * @param _profileFileName - path of a CSV file for the execution time profile (or null)
+	 * @param _traceFileName - path of a file to record the execution trace to (or null)
+	 * @param _concurrent - whether the branches of Parallel elements are to be run on worker threads
+	 * @param _budget - resource limits for the execution (or null)
+	 * @param _fastEvaluation - whether results of pure subroutine diagrams are to be memoized
+	 * @param _coverageFileName - path of a coverage file to add the test coverage of the execution to (or null)
+	 * @param _charSet - name of the character set for input and output files (also used by the file API)
+	 * @return the exit code: 0 on success, the value of an exit instruction, or 1 on error
+	 */
+	public static int run(Vector<String> _fileNames, String _inFileName, String _outFileName, String _profileFileName, String _traceFileName, boolean _concurrent, ExecutionBudget _budget, boolean _fastEvaluation, String _coverageFileName, String _charSet)
+	{
+		if (_fileNames.isEmpty()) {
+			System.err.println("Usage: " + synopsis[3]);
+			return 1;
+		}
+		Root mainRoot = null;
+		DiagramFilePool pool = new DiagramFilePool();
+		for (String fName : _fileNames)
+		{
+			try {
+				Vector<Root> roots = pool.loadFile(new File(fName));
+				if (mainRoot == null && !roots.isEmpty()) {
+					mainRoot = roots.get(0);
+				}
+			}
+			catch (Exception ex) {
+				System.err.println("*** Error while trying to load " + fName + ": " + ex.getMessage());
+				return 1;
+			}
+		}
+		if (mainRoot == null) {
+			System.err.println("*** No diagram to execute.");
+			return 1;
+		}
+		BufferedReader input = null;
+		PrintStream output = System.out;
+		int exitCode = 0;
+		try {
+			if (_inFileName != null) {
+				input = new BufferedReader(new InputStreamReader(new FileInputStream(_inFileName), _charSet));
+			}
+			else {
+				input = new BufferedReader(new InputStreamReader(System.in, _charSet));
+			}
+			if (_outFileName != null) {
+				output = new PrintStream(new FileOutputStream(_outFileName), true, _charSet);
+			}
+			Vector<IRoutinePool> pools = new Vector<IRoutinePool>();
+			pools.add(pool);
+			Executor executor = new Executor(input, output);
+			// Runtime data collection comprises the time profile and the test coverage
+			Element.E_COLLECTRUNTIMEDATA = _profileFileName != null || _coverageFileName != null;
+			// START AGT#8 2026-10-18
+			executor.setConcurrentParallel(_concurrent);
+			// END AGT#8 2026-10-18
+			// START AGT#15 2026-10-18
+			executor.setBudget(_budget);
+			// END AGT#15 2026-10-18
+			// START AGT#16 2026-10-18
+			executor.setFastEvaluation(_fastEvaluation);
+			// END AGT#16 2026-10-18
+			// START AGT#17 2026-10-18: Files accessed via the file API are to be encoded alike
+			try {
+				executor.setFileCharset(Charset.forName(_charSet));
+			}
+			catch (IllegalArgumentException ex) {
+				System.err.println("*** Unsupported charset " + _charSet + " - file API uses UTF-8");
+			}
+			// END AGT#17 2026-10-18
+			// START AGT#10 2026-10-18
+			if (_traceFileName != null) {
+				executor.setTraceFile(new File(_traceFileName));
+			}
+			// END AGT#10 2026-10-18
+			String trouble = executor.executeHeadless(mainRoot, pools);
+			// START AGT#7 2026-10-18
+			if (_profileFileName != null) {
+				Vector<Root> roots = new Vector<Root>();
+				roots.add(mainRoot);
+				for (Root root: pool.getAllRoots()) {
+					if (root != mainRoot) {
+						roots.add(root);
+					}
+				}
+				PrintStream profile = new PrintStream(new FileOutputStream(_profileFileName), true, _charSet);
+				try {
+					Executor.writeProfile(roots, profile);
+				}
+				finally {
+					profile.close();
+				}
+			}
+			// END AGT#7 2026-10-18
+			// START AGT#19 2026-10-18: Add the coverage of this run to the coverage file
+			if (_coverageFileName != null) {
+				File coverageFile = new File(_coverageFileName);
+				CoverageStore coverage = coverageFile.exists() ? CoverageStore.load(coverageFile) : new CoverageStore();
+				coverage.record(pool.getAllRoots());
+				coverage.save(coverageFile);
+			}
+			// END AGT#19 2026-10-18
+			if (executor.getExitCode() != null) {
+				exitCode = executor.getExitCode();
+			}
+			else if (!trouble.isEmpty()) {
+				System.err.println("*** " + trouble);
+				exitCode = 1;
+			}
+		}
+		catch (IOException ex) {
+			System.err.println("*** " + ex.getMessage());
+			exitCode = 1;
+		}
+		finally {
+			if (input != null && _inFileName != null) {
+				try { input.close(); } catch (IOException e) {}
+			}
+			if (output != System.out) {
+				output.close();
+			}
+		}
+		return exitCode;
+	}
+	// END AGT#3 2026-10-18
+
+	// START AGT#4 2026-10-18: Concurrent grading
+	/**
+	 * Executes all given submissions (.nsd files, .arrz files, or directories containing them)
+	 * with all test cases found in the test directory (NAME.out with expected output plus
+	 * optional NAME.in with input lines) concurrently and writes a report.
+	 * @param _testDirName - path of the test case directory
+	 * @param _paths - paths of the submission files or directories
+	 * @param _nThreads - number of worker threads (0 = number of available processors)
+	 * @param _budget - resource limits per job (the time limit in milliseconds), null for unlimited
+	 * @param _fastEvaluation - whether results of pure subroutine diagrams are to be memoized
+	 * @param _coverageFileName - path of a coverage file to add the test coverage of all jobs to (or null)
+	 * @param _reportFileName - path of the report file (or null for standard output)
+	 * @param _charSet - name of the character set for the test case files, the report, and the file API
+	 * @return 0 if all tests passed, 1 otherwise
+	 */
+	public static int grade(String _testDirName, Vector<String> _paths, int _nThreads, ExecutionBudget _budget, boolean _fastEvaluation, String _coverageFileName, String _reportFileName, String _charSet)
+	{
+		GradingRunner runner = new GradingRunner(_nThreads, _budget, _charSet);
+		// START AGT#16 2026-10-18
+		runner.setFastEvaluation(_fastEvaluation);
+		// END AGT#16 2026-10-18
+		// START AGT#19 2026-10-18
+		File coverageFile = null;
+		CoverageStore coverage = null;
+		if (_coverageFileName != null) {
+			coverageFile = new File(_coverageFileName);
+			try {
+				coverage = coverageFile.exists() ? CoverageStore.load(coverageFile) : new CoverageStore();
+			}
+			catch (IOException ex) {
+				System.err.println("*** " + ex.getMessage());
+				return 1;
+			}
+			Element.E_COLLECTRUNTIMEDATA = true;
+			runner.setCoverageStore(coverage);
+		}
+		// END AGT#19 2026-10-18
+		Vector<GradingRunner.TestCase> testCases = null;
+		try {
+			testCases = runner.loadTestCases(new File(_testDirName));
+		}
+		catch (IOException ex) {
+			System.err.println("*** " + ex.getMessage());
+			return 1;
+		}
+		Vector<File> submissions = GradingRunner.findSubmissions(_paths);
+		if (testCases.isEmpty() || submissions.isEmpty()) {
+			System.err.println("*** No test cases or no diagrams found.");
+			System.err.println("Usage: " + synopsis[4]);
+			return 1;
+		}
+		long startTime = System.currentTimeMillis();
+		Vector<GradingRunner.Result> results = runner.run(submissions, testCases);
+		long wallTime = System.currentTimeMillis() - startTime;
+		PrintStream report = System.out;
+		try {
+			// START AGT#19 2026-10-18
+			if (coverage != null) {
+				coverage.save(coverageFile);
+			}
+			// END AGT#19 2026-10-18
+			if (_reportFileName != null) {
+				report = new PrintStream(new FileOutputStream(_reportFileName), false, _charSet);
+			}
+			GradingRunner.writeReport(results, wallTime, report);
+		}
+		catch (IOException ex) {
+			System.err.println("*** " + ex.getMessage());
+			return 1;
+		}
+		finally {
+			if (report != System.out) {
+				report.close();
+			}
+		}
+		for (GradingRunner.Result result: results) {
+			if (result.status != GradingRunner.Status.PASSED) {
+				return 1;
+			}
+		}
+		return 0;
+	}
+	// END AGT#4 2026-10-18
+
 	// START KGU#187 2016-05-02: Enh. #179 - help might be sensible
 	private static void printHelp()
 	{
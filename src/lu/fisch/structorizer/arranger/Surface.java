@@ -81,6 +81,7 @@ package lu.fisch.structorizer.arranger;
  *      Kay Gürtzig     2018.06.10      Overriding of paint() replaced by paintComponent()
  *      Kay Gürtzig     2018.06.18      Bugfix #544 (KGU#524): zoom adaptation forgotten in adaptLayout() -> unnecessary revalidations
  *      Kay Gürtzig     2018.06.27      Enh. #552: Serial decisions on saveAll allowed, remoeAllDiagrams() added
+ *      agent           2026.10.18      AGT#9: Signature index for the routine lookup (instead of linear search)
  *
  ******************************************************************************************************
  *
@@ -169,6 +170,7 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -223,6 +225,16 @@ public class Surface extends LangPanel implements MouseListener, MouseMotionList
     // START KGU#305 2016-12-16: Code revision
     private final Vector<IRoutinePoolListener> listeners = new Vector<IRoutinePoolListener>();
     // END KGU#305 2016-12-16
+    // START AGT#9 2026-10-18: Index for the routine lookup by the Executor
+    /**
+     * Maps method names to all held diagrams with this name and signature keys of the form
+     * "name#arity" to the subroutine diagrams with this name and number of parameters.
+     * Will be built on demand and dropped on every change notification (see {@link #notifyChangeListeners()}).
+     */
+    private volatile HashMap<String, Vector<Root>> signatureIndex = null;
+    /** Guards the (re-)building of the {@link #signatureIndex} against concurrent invalidation */
+    private final Object signatureIndexLock = new Object();
+    // END AGT#9 2026-10-18
 	/** Default minimum distance between diagrams when allocated */ 
     private static final int DEFAULT_GAP = 10;
 	/** Default width for a diagram never drawn before */ 
@@ -1858,6 +1870,9 @@ public class Surface extends LangPanel implements MouseListener, MouseMotionList
     public void setDiagrams(Vector<Diagram> diagrams)
     {
         this.diagrams = diagrams;
+        // START AGT#9 2026-10-18
+        invalidateSignatureIndex();
+        // END AGT#9 2026-10-18
     }
     
     // START KGU#49 2015-10-18: When the window is going to be closed we have to give the diagrams a chance to store their stuff
@@ -2312,20 +2327,83 @@ public class Surface extends LangPanel implements MouseListener, MouseMotionList
     @Override
     public Vector<Root> findDiagramsByName(String rootName)
     {
-    	Vector<Root> functions = new Vector<Root>();
-    	if (this.diagrams != null) {
-    		for (int d = 0; d < this.diagrams.size(); d++)
-    		{
-    			Diagram diagram = this.diagrams.get(d);
-    			if (rootName.equals(diagram.root.getMethodName()))
-    			{
-    				functions.add(diagram.root);
+    	// START AGT#9 2026-10-18: Use the signature index instead of a linear search
+    	//Vector<Root> functions = new Vector<Root>();
+    	//if (this.diagrams != null) {
+    	//	for (int d = 0; d < this.diagrams.size(); d++)
+    	//	{
+    	//		Diagram diagram = this.diagrams.get(d);
+    	//		if (rootName.equals(diagram.root.getMethodName()))
+    	//		{
+    	//			functions.add(diagram.root);
+    	//		}
+    	//	}
+    	//}
+    	//return functions;
+    	Vector<Root> functions = this.getSignatureIndex().get(rootName);
+    	if (functions == null) {
+    		return new Vector<Root>();
+    	}
+    	return new Vector<Root>(functions);
+    	// END AGT#9 2026-10-18
+    }
+    // END KGU#2 2015-10-17
+    
+    // START AGT#9 2026-10-18: Index for the routine lookup
+    /**
+     * Returns the signature index, (re-)building it if it had been invalidated.
+     * @return the map from names and "name#arity" keys to the matching diagrams
+     * @see #notifyChangeListeners()
+     */
+    private HashMap<String, Vector<Root>> getSignatureIndex()
+    {
+    	HashMap<String, Vector<Root>> index = this.signatureIndex;
+    	if (index == null) synchronized (this.signatureIndexLock) {
+    		if (this.signatureIndex != null) {
+    			return this.signatureIndex;
+    		}
+    		index = new HashMap<String, Vector<Root>>();
+    		// Diagrams may be added or removed by the event dispatch thread meanwhile
+    		Diagram[] diagrs = new Diagram[0];
+    		if (this.diagrams != null) {
+    			diagrs = this.diagrams.toArray(diagrs);
+    		}
+    		for (Diagram diagram: diagrs) {
+    			Root root = diagram.root;
+    			if (root == null) {
+    				continue;
+    			}
+    			String name = root.getMethodName();
+    			addToSignatureIndex(index, name, root);
+    			if (root.isSubroutine()) {
+    				addToSignatureIndex(index, name + "#" + root.getParameterNames().count(), root);
     			}
     		}
+    		this.signatureIndex = index;
     	}
-    	return functions;
+    	return index;
     }
-    // END KGU#2 2015-10-17
+    
+    /**
+     * Drops the signature index such that it will be rebuilt on the next lookup.
+     */
+    private void invalidateSignatureIndex()
+    {
+    	synchronized (this.signatureIndexLock) {
+    		this.signatureIndex = null;
+    	}
+    }
+    
+    private static void addToSignatureIndex(HashMap<String, Vector<Root>> index, String key, Root root)
+    {
+    	Vector<Root> roots = index.get(key);
+    	if (roots == null) {
+    		roots = new Vector<Root>();
+    		index.put(key, roots);
+    	}
+    	roots.add(root);
+    }
+    // END AGT#9 2026-10-18
     
     // START KGU#376 2017-04-11: Enh. #389 - Support for import calls
     /* (non-Javadoc)
@@ -2351,17 +2429,24 @@ public class Surface extends LangPanel implements MouseListener, MouseMotionList
     @Override
     public Vector<Root> findRoutinesBySignature(String rootName, int argCount)
     {
-    	Vector<Root> functionsAny = findDiagramsByName(rootName);
-    	Vector<Root> functions = new Vector<Root>();
-    	for (int i = 0; i < functionsAny.size(); i++)
-    	{
-    		Root root = functionsAny.get(i);
-   			if (root.isSubroutine() && root.getParameterNames().count() == argCount)
-   			{
-   				functions.add(root);
-    		}
+    	// START AGT#9 2026-10-18: Use the signature index instead of a linear search
+    	//Vector<Root> functionsAny = findDiagramsByName(rootName);
+    	//Vector<Root> functions = new Vector<Root>();
+    	//for (int i = 0; i < functionsAny.size(); i++)
+    	//{
+    	//	Root root = functionsAny.get(i);
+    	//	if (root.isSubroutine() && root.getParameterNames().count() == argCount)
+    	//	{
+    	//		functions.add(root);
+    	//	}
+    	//}
+    	//return functions;
+    	Vector<Root> functions = this.getSignatureIndex().get(rootName + "#" + argCount);
+    	if (functions == null) {
+    		return new Vector<Root>();
     	}
-    	return functions;
+    	return new Vector<Root>(functions);
+    	// END AGT#9 2026-10-18
     }
     // END KGU#2 2015-11-24
     
@@ -2561,6 +2646,9 @@ public class Surface extends LangPanel implements MouseListener, MouseMotionList
 	}
 
 	private void notifyChangeListeners() {
+		// START AGT#9 2026-10-18: Any notified change may affect the signature index
+		invalidateSignatureIndex();
+		// END AGT#9 2026-10-18
 		for (IRoutinePoolListener listener: listeners) {
 			listener.routinePoolChanged(this);
 		}
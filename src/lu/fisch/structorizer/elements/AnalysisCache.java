@@ -0,0 +1,723 @@
+/*
+    Structorizer
+    A little tool which you can use to create Nassi-Schneiderman Diagrams (NSD)
+
+    Copyright (C) 2009  Bob Fisch
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or any
+    later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package lu.fisch.structorizer.elements;
+
+/******************************************************************************************************
+ *
+ *      Author:         agent
+ *
+ *      Description:    Per-element results of the previous analysis of a diagram for incremental re-analysis.
+ *
+ ******************************************************************************************************
+ *
+ *      Revision List
+ *
+ *      Author          Date            Description
+ *      ------          ----            -----------
+ *      agent           2026.10.18      First Issue (AGT#24)
+ *
+ ******************************************************************************************************
+ *
+ *      Comment:
+ *      2026.10.18 / agent
+ *      - Root.analyse(Subqueue, ...) is a sequence of steps: the checks of an element (which append
+ *        errors and modify the analysis context, i.e. the variable lists, constants, result flags, and
+ *        the type map) and the structural transitions (begin of a branch, merge of the branch results).
+ *        The checks of an element may be replayed from the previous analysis if the element itself
+ *        (text, class, position, and - for some checks - the substructure) is unchanged and the context
+ *        it meets equals the context it met the last time.
+ *      - The latter is decided without comparing the contexts: each recorded step refers to the last
+ *        preceding step that changed the context (steps that don't change it are transparent). As long
+ *        as all context-changing steps so far had the same effect as in the previous analysis ("in sync")
+ *        a step meets the same context if it has the same predecessor as last time. Hence editing an
+ *        element without changing its effect (or inserting, deleting, moving elements that don't
+ *        declare or assign anything) leaves everything else cached, whereas a different effect makes all
+ *        subsequent steps dependent on it (they are re-checked). Only at the start of a sequence (the
+ *        diagram body or an included diagram) the initial context is compared literally.
+ *      - Checks of Calls (depend on other diagrams) and Jumps (depend on the enclosing structure and
+ *        report the next element) are never replayed, but take part in the chain.
+ *      - An AnalysisCache must only be used by one thread at a time. Elements are recognised by their id,
+ *        which is preserved on copying, such that the cache can be used with snapshots (copies) of the
+ *        diagram, e.g. for an analysis in the background.
+ *
+ ******************************************************************************************************///
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Vector;
+
+import lu.fisch.utils.StringList;
+
+/**
+ * Holds the results of the element checks of the previous analysis of a diagram, such that
+ * {@link Root#analyse(AnalysisCache)} may replay them for unchanged elements in an unchanged
+ * context instead of re-checking them.
+ * @author agent
+ */
+public class AnalysisCache {
+
+	/** Identifies a step of the analysis: the element checks or a structural transition */
+	private static final class StepKey {
+		/** Kind of step: the checks of the element */
+		static final int CHECKS = -1;
+		/** Kind of step: merge of the branch results after the element */
+		static final int MERGE = -2;
+		/** Kind of step: start of a sequence (the diagram body or an included diagram) */
+		static final int START = -3;
+		// Non-negative kinds: begin of the branch with that index
+
+		final long id;
+		final int kind;
+		/** Number of preceding steps with same id and kind (copied elements share the id) */
+		final int occurrence;
+
+		StepKey(long _id, int _kind, int _occurrence)
+		{
+			id = _id;
+			kind = _kind;
+			occurrence = _occurrence;
+		}
+
+		@Override
+		public boolean equals(Object _other)
+		{
+			if (!(_other instanceof StepKey)) {
+				return false;
+			}
+			StepKey other = (StepKey)_other;
+			return other.id == id && other.kind == kind && other.occurrence == occurrence;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return ((int)(id ^ (id >>> 32)) * 31 + kind) * 31 + occurrence;
+		}
+	}
+
+	/** Recorded analysis step */
+	private static final class Step {
+		/** The last context-changing step before this one */
+		final StepKey prevKey;
+		/** Whether this step changed the context */
+		boolean changesContext = true;
+		// Dependencies of the element checks
+		Class<?> type;
+		Object tokens;
+		boolean isLast;
+		boolean atTop;
+		boolean emptyBranch;
+		Object[] structure;
+		// Results of the element checks
+		/** Messages of the errors (all associated to the element), null if not reproducible */
+		String[] errors;
+		String[] addedVars;
+		String[] constKeys;
+		String[] constValues;
+		String[] removedConsts;
+		int setFlags;
+		boolean updatesTypes;
+		/** Description of the type map modifications or null if not known */
+		String typeEffect;
+		String[] usedVars;
+		// START steps: the initial context
+		String[] context;
+		HashMap<String, String> constants;
+
+		Step(StepKey _prevKey)
+		{
+			prevKey = _prevKey;
+		}
+
+		/** @return true if {@code _other} had the same effect on the context */
+		boolean hasSameEffect(Step _other)
+		{
+			return _other != null
+					&& Arrays.equals(addedVars, _other.addedVars)
+					&& Arrays.equals(constKeys, _other.constKeys)
+					&& Arrays.equals(constValues, _other.constValues)
+					&& Arrays.equals(removedConsts, _other.removedConsts)
+					&& setFlags == _other.setFlags
+					&& updatesTypes == _other.updatesTypes
+					&& (!updatesTypes || typeEffect != null && typeEffect.equals(_other.typeEffect));
+		}
+	}
+
+	/** Marks the begin and the end of a {@link Subqueue} in a structure signature */
+	private static final Object BEGIN_OF_BRANCH = new Object();
+	private static final Object END_OF_BRANCH = new Object();
+
+	/** The steps of the previous analysis */
+	private HashMap<StepKey, Step> previous = new HashMap<StepKey, Step>();
+	/** The steps of the running analysis */
+	private HashMap<StepKey, Step> current = new HashMap<StepKey, Step>();
+	/** Fingerprint of the settings the {@link #previous} steps were obtained with */
+	private String settings = null;
+	/** Key of the last context-changing step of the running analysis */
+	private StepKey lastKey = null;
+	/** Whether the context after {@link #lastKey} equals the one after it in the previous analysis */
+	private boolean inSync = false;
+	/** Number of steps per id and kind in the running analysis (occurrence 0) */
+	private final HashMap<StepKey, Integer> occurrences = new HashMap<StepKey, Integer>();
+	/** Ids of the elements with changed checks dependencies in the running analysis */
+	private final HashSet<Long> modified = new HashSet<Long>();
+
+	// State of the element checks being executed (see #replayChecks() and #recordChecks())
+	private StepKey pendingKey = null;
+	private Step pendingPrevious = null;
+	private boolean pendingInSync = false;
+	private Element pendingElement = null;
+	private boolean pendingIsLast = false;
+	private Vector<DetectedError> pendingErrors = null;
+	private int pendingNErrors = 0;
+	private StringList pendingVars = null;
+	private int pendingNVars = 0;
+	private boolean[] pendingFlags = null;
+	private int pendingFlagBits = 0;
+	private HashMap<String, String> pendingConstants = null;
+	private HashMap<String, String> pendingOldConstants = null;
+	private HashMap<String, TypeMapEntry> pendingTypes = null;
+	private HashMap<String, TypeMapEntry> pendingOldTypes = null;
+	private IdentityHashMap<TypeMapEntry, int[]> pendingTypeSizes = null;
+
+	// Statistics of the last analysis
+	private int nReplayed = 0;
+	private int nChecked = 0;
+
+	/**
+	 * Discards all cached results
+	 */
+	public void clear()
+	{
+		previous.clear();
+		current.clear();
+		settings = null;
+		modified.clear();
+		pendingKey = null;
+	}
+
+	/**
+	 * @return the number of elements the checks of which were replayed in the last analysis
+	 */
+	public int getReplayedCount()
+	{
+		return nReplayed;
+	}
+
+	/**
+	 * @return the number of elements that were actually checked in the last analysis
+	 */
+	public int getCheckedCount()
+	{
+		return nChecked;
+	}
+
+	/**
+	 * Prepares a new analysis. If the settings differ from those of the previous analysis
+	 * then the cached results are discarded.
+	 * @param _settings - fingerprint of everything the element checks depend on beyond the
+	 * elements and the context (enabled checks, parser keywords, messages, diagram header)
+	 */
+	void startAnalysis(String _settings)
+	{
+		if (!_settings.equals(settings)) {
+			previous.clear();
+			settings = _settings;
+		}
+		current.clear();
+		modified.clear();
+		occurrences.clear();
+		lastKey = null;
+		inSync = false;
+		pendingKey = null;
+		nReplayed = 0;
+		nChecked = 0;
+	}
+
+	/**
+	 * Concludes the analysis: its steps become the reference for the next one
+	 */
+	void endAnalysis()
+	{
+		HashMap<StepKey, Step> steps = previous;
+		previous = current;
+		current = steps;
+		current.clear();
+		modified.clear();
+		occurrences.clear();
+		pendingKey = null;
+	}
+
+	/**
+	 * Provides a unique key for the next step of the given kind concerning the element with
+	 * the given id. (Elements copied within the diagram or among diagrams share their id.)
+	 * @param _id - the element id
+	 * @param _kind - the kind of step
+	 * @return the step key
+	 */
+	private StepKey makeKey(long _id, int _kind)
+	{
+		StepKey key = new StepKey(_id, _kind, 0);
+		Integer count = occurrences.get(key);
+		if (count == null) {
+			count = 0;
+		}
+		occurrences.put(key, count + 1);
+		return (count == 0) ? key : new StepKey(_id, _kind, count);
+	}
+
+	/**
+	 * Starts the analysis of an element sequence (the diagram body or the body of an included
+	 * diagram) with the given initial context
+	 * @param _root - the diagram the sequence belongs to
+	 * @param _vars - initialised variables
+	 * @param _uncertainVars - possibly initialised variables
+	 * @param _constants - defined constants
+	 * @param _resultFlags - flags of the return mechanisms
+	 * @param _types - the type map
+	 */
+	void startSequence(Root _root, StringList _vars, StringList _uncertainVars, HashMap<String, String> _constants,
+			boolean[] _resultFlags, HashMap<String, TypeMapEntry> _types)
+	{
+		StepKey key = makeKey(_root.getId(), StepKey.START);
+		Step step = new Step(null);
+		step.context = new String[]{
+				_vars.getText(),
+				_uncertainVars.getText(),
+				Integer.toString(getFlagBits(_resultFlags)),
+				describeTypes(_types)
+		};
+		step.constants = new HashMap<String, String>(_constants);
+		Step prevStep = previous.get(key);
+		inSync = prevStep != null && Arrays.equals(step.context, prevStep.context)
+				&& step.constants.equals(prevStep.constants);
+		current.put(key, step);
+		lastKey = key;
+	}
+
+	/**
+	 * Registers the begin of branch {@code _branch} of element {@code _ele}
+	 * @param _ele - a structured element
+	 * @param _branch - index of the branch (loop body: 0)
+	 */
+	void beginBranch(Element _ele, int _branch)
+	{
+		addTransition(makeKey(_ele.getId(), _branch));
+	}
+
+	/**
+	 * Registers the end of the analysis of structured element {@code _ele} (after the merge of
+	 * the branch results)
+	 * @param _ele - a structured element
+	 */
+	void endBranches(Element _ele)
+	{
+		addTransition(makeKey(_ele.getId(), StepKey.MERGE));
+		// The merge of the Case branches depends on the element text (default branch)
+		if (_ele instanceof Case && modified.contains(_ele.getId())) {
+			inSync = false;
+		}
+	}
+
+	private void addTransition(StepKey _key)
+	{
+		Step prevStep = previous.get(_key);
+		inSync = inSync && prevStep != null && lastKey.equals(prevStep.prevKey);
+		current.put(_key, new Step(lastKey));
+		lastKey = _key;
+	}
+
+	/**
+	 * Tries to replay the checks of element {@code _ele} from the previous analysis. If this
+	 * isn't possible then the caller must perform the checks and call {@link #recordChecks(StringList)}
+	 * afterwards.
+	 * @param _ele - the element to be checked
+	 * @param _isLast - whether {@code _ele} is the last element of its {@link Subqueue}
+	 * @param _errors - the error list
+	 * @param _vars - the initialised variables
+	 * @param _constants - the defined constants
+	 * @param _resultFlags - flags of the return mechanisms
+	 * @param _types - the type map
+	 * @return the variables used by {@code _ele} if the checks were replayed, null otherwise
+	 */
+	StringList replayChecks(Element _ele, boolean _isLast, Vector<DetectedError> _errors, StringList _vars,
+			HashMap<String, String> _constants, boolean[] _resultFlags, HashMap<String, TypeMapEntry> _types)
+	{
+		StepKey key = makeKey(_ele.getId(), StepKey.CHECKS);
+		Step prevStep = previous.get(key);
+		boolean isUnchanged = prevStep != null && isUnchanged(prevStep, _ele, _isLast);
+		if (prevStep != null && !isUnchanged) {
+			modified.add(_ele.getId());
+		}
+		boolean isInSync = inSync && prevStep != null && lastKey.equals(prevStep.prevKey);
+		if (isUnchanged && isInSync && prevStep.errors != null
+				&& !(_ele instanceof Call) && !(_ele instanceof Jump)) {
+			for (int i = 0; i < prevStep.errors.length; i++) {
+				_errors.add(new DetectedError(prevStep.errors[i], _ele));
+			}
+			for (int i = 0; i < prevStep.addedVars.length; i++) {
+				_vars.addIfNew(prevStep.addedVars[i]);
+			}
+			if (prevStep.constKeys != null) {
+				for (int i = 0; i < prevStep.removedConsts.length; i++) {
+					_constants.remove(prevStep.removedConsts[i]);
+				}
+				for (int i = 0; i < prevStep.constKeys.length; i++) {
+					_constants.put(prevStep.constKeys[i], prevStep.constValues[i]);
+				}
+			}
+			for (int i = 0; i < _resultFlags.length; i++) {
+				if ((prevStep.setFlags & (1 << i)) != 0) {
+					_resultFlags[i] = true;
+				}
+			}
+			if (prevStep.updatesTypes) {
+				((Instruction)_ele).updateTypeMap(_types);
+			}
+			// The step has the same predecessor as before, so it may simply be adopted
+			current.put(key, prevStep);
+			if (prevStep.changesContext) {
+				lastKey = key;
+			}
+			nReplayed++;
+			return (prevStep.usedVars != null) ? new StringList(prevStep.usedVars) : new StringList();
+		}
+		// Prepare the recording of the effects of the checks
+		pendingKey = key;
+		pendingPrevious = prevStep;
+		pendingInSync = isInSync;
+		pendingElement = _ele;
+		pendingIsLast = _isLast;
+		pendingErrors = _errors;
+		pendingNErrors = _errors.size();
+		pendingVars = _vars;
+		pendingNVars = _vars.count();
+		pendingFlags = _resultFlags;
+		pendingFlagBits = getFlagBits(_resultFlags);
+		pendingConstants = _constants;
+		pendingTypes = _types;
+		pendingOldConstants = null;
+		pendingOldTypes = null;
+		pendingTypeSizes = null;
+		if (_ele.getClass() == Instruction.class) {
+			// Only Instruction checks may modify constants and types
+			pendingOldConstants = new HashMap<String, String>(_constants);
+			pendingOldTypes = new HashMap<String, TypeMapEntry>(_types);
+			pendingTypeSizes = new IdentityHashMap<TypeMapEntry, int[]>();
+			for (TypeMapEntry entry: _types.values()) {
+				if (entry != null) {
+					pendingTypeSizes.put(entry, new int[]{entry.declarations.size(), entry.modifiers.size()});
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Records the effects of the element checks prepared by the preceding {@link #replayChecks(Element,
+	 * boolean, Vector, StringList, HashMap, boolean[], HashMap)} call, which had returned null.
+	 * @param _usedVars - the used variables as determined by the checks
+	 */
+	void recordChecks(StringList _usedVars)
+	{
+		if (pendingKey == null) {
+			return;
+		}
+		Element ele = pendingElement;
+		Step step = new Step(lastKey);
+		step.type = ele.getClass();
+		step.tokens = ele.getTokenCache();
+		step.isLast = pendingIsLast;
+		step.atTop = isAtTop(ele);
+		step.emptyBranch = hasEmptyBranch(ele);
+		step.structure = getStructure(ele);
+		ArrayList<String> messages = new ArrayList<String>();
+		for (int i = pendingNErrors; messages != null && i < pendingErrors.size(); i++) {
+			DetectedError error = pendingErrors.get(i);
+			if (error.getElement() == ele) {
+				messages.add(error.getError());
+			}
+			else {
+				// Not reproducible by a replay
+				messages = null;
+			}
+		}
+		if (messages != null) {
+			step.errors = messages.toArray(new String[messages.size()]);
+		}
+		step.addedVars = new String[pendingVars.count() - pendingNVars];
+		for (int i = 0; i < step.addedVars.length; i++) {
+			step.addedVars[i] = pendingVars.get(pendingNVars + i);
+		}
+		step.setFlags = getFlagBits(pendingFlags) & ~pendingFlagBits;
+		if (pendingOldConstants != null) {
+			recordConstants(step);
+		}
+		step.updatesTypes = ele.getClass() == Instruction.class;
+		if (pendingTypeSizes != null) {
+			step.typeEffect = describeTypeEffect(ele);
+		}
+		if (ele instanceof Repeat) {
+			step.usedVars = _usedVars.toArray();
+		}
+		step.changesContext = step.addedVars.length > 0 || step.constKeys != null || step.setFlags != 0
+				|| step.updatesTypes && (step.typeEffect == null || !step.typeEffect.isEmpty());
+		current.put(pendingKey, step);
+		// A step without effect on the context doesn't affect the sync state
+		if (step.changesContext) {
+			inSync = pendingInSync && step.hasSameEffect(pendingPrevious);
+			lastKey = pendingKey;
+		}
+		nChecked++;
+		pendingKey = null;
+		pendingElement = null;
+		pendingErrors = null;
+		pendingVars = null;
+		pendingConstants = null;
+		pendingOldConstants = null;
+		pendingTypes = null;
+		pendingOldTypes = null;
+		pendingTypeSizes = null;
+	}
+
+	/**
+	 * Stores the differences between {@link #pendingOldConstants} and {@link #pendingConstants} (sorted
+	 * by key) in {@code _step} (if there are any).
+	 */
+	private void recordConstants(Step _step)
+	{
+		ArrayList<String> keys = new ArrayList<String>();
+		ArrayList<String> removed = new ArrayList<String>();
+		for (Map.Entry<String, String> entry: pendingConstants.entrySet()) {
+			String key = entry.getKey();
+			String value = entry.getValue();
+			if (!pendingOldConstants.containsKey(key)
+					|| (value == null ? pendingOldConstants.get(key) != null : !value.equals(pendingOldConstants.get(key)))) {
+				keys.add(key);
+			}
+		}
+		for (String key: pendingOldConstants.keySet()) {
+			if (!pendingConstants.containsKey(key)) {
+				removed.add(key);
+			}
+		}
+		if (!keys.isEmpty() || !removed.isEmpty()) {
+			Collections.sort(keys);
+			Collections.sort(removed);
+			_step.constKeys = keys.toArray(new String[keys.size()]);
+			_step.constValues = new String[keys.size()];
+			for (int i = 0; i < _step.constKeys.length; i++) {
+				_step.constValues[i] = pendingConstants.get(_step.constKeys[i]);
+			}
+			_step.removedConsts = removed.toArray(new String[removed.size()]);
+		}
+	}
+
+	/**
+	 * Describes the modifications of {@link #pendingTypes} with respect to {@link #pendingOldTypes}
+	 * and the {@link #pendingTypeSizes} in a comparable way.
+	 */
+	private String describeTypeEffect(Element _ele)
+	{
+		ArrayList<String> items = new ArrayList<String>();
+		for (Map.Entry<String, TypeMapEntry> entry: pendingTypes.entrySet()) {
+			TypeMapEntry typeEntry = entry.getValue();
+			TypeMapEntry oldEntry = pendingOldTypes.get(entry.getKey());
+			if (typeEntry != oldEntry || !pendingOldTypes.containsKey(entry.getKey())) {
+				items.add(entry.getKey() + "=" + describeType(typeEntry, 0, _ele));
+			}
+			else if (typeEntry != null) {
+				int[] sizes = pendingTypeSizes.get(typeEntry);
+				if (sizes[0] != typeEntry.declarations.size() || sizes[1] != typeEntry.modifiers.size()) {
+					items.add(entry.getKey() + "+" + describeDeclarations(typeEntry, sizes[0], _ele)
+							+ "/" + (typeEntry.modifiers.size() - sizes[1]));
+				}
+			}
+		}
+		Collections.sort(items);
+		StringBuilder sb = new StringBuilder();
+		for (String item: items) {
+			sb.append(item).append('\n');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Describes the type map in a comparable way (sorted by keys)
+	 * @param _types - the type map
+	 * @return the description
+	 */
+	private static String describeTypes(HashMap<String, TypeMapEntry> _types)
+	{
+		ArrayList<String> keys = new ArrayList<String>(_types.keySet());
+		Collections.sort(keys);
+		StringBuilder sb = new StringBuilder();
+		for (String key: keys) {
+			sb.append(key).append('=').append(describeType(_types.get(key), 0, null)).append('\n');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Describes the type map entry {@code _entry} from declaration {@code _from} on. Elements are
+	 * represented by their ids, element {@code _self} by "*".
+	 */
+	private static String describeType(TypeMapEntry _entry, int _from, Element _self)
+	{
+		if (_entry == null) {
+			return "null";
+		}
+		return _entry.typeName + "|" + _entry.isDeclared + "|" + _entry.modifiers.size() + "|"
+				+ describeDeclarations(_entry, _from, _self);
+	}
+
+	private static String describeDeclarations(TypeMapEntry _entry, int _from, Element _self)
+	{
+		StringBuilder sb = new StringBuilder();
+		for (int i = _from; i < _entry.declarations.size(); i++) {
+			TypeMapEntry.VarDeclaration decl = _entry.declarations.get(i);
+			sb.append('[').append(decl.typeDescriptor).append('@').append(decl.lineNo);
+			if (decl.isCStyle) {
+				sb.append('c');
+			}
+			sb.append('#');
+			if (decl.definingElement == _self) {
+				sb.append('*');
+			}
+			else if (decl.definingElement != null) {
+				sb.append(decl.definingElement.getId());
+			}
+			if (decl.components != null) {
+				for (Map.Entry<String, TypeMapEntry> comp: decl.components.entrySet()) {
+					TypeMapEntry compEntry = comp.getValue();
+					sb.append(',').append(comp.getKey()).append(':');
+					if (compEntry != null) {
+						sb.append(compEntry.typeName);
+						if (!compEntry.declarations.isEmpty()) {
+							sb.append('~').append(compEntry.declarations.getFirst().typeDescriptor);
+						}
+					}
+				}
+			}
+			sb.append(']');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Checks whether element {@code _ele} and everything its checks depend on (except the context)
+	 * is as it was when {@code _step} was recorded
+	 */
+	private static boolean isUnchanged(Step _step, Element _ele, boolean _isLast)
+	{
+		return _step.type == _ele.getClass()
+				&& _step.tokens == _ele.getTokenCache()
+				&& _step.isLast == _isLast
+				&& _step.atTop == isAtTop(_ele)
+				&& _step.emptyBranch == hasEmptyBranch(_ele)
+				&& isSameStructure(_step.structure, _ele);
+	}
+
+	/** @return true if {@code _ele} is located in the diagram body (not nested) */
+	private static boolean isAtTop(Element _ele)
+	{
+		return _ele.parent != null && _ele.parent.parent instanceof Root;
+	}
+
+	/** @return true if {@code _ele} is an Alternative with empty TRUE branch (check #4) */
+	private static boolean hasEmptyBranch(Element _ele)
+	{
+		return _ele instanceof Alternative && ((Alternative)_ele).qTrue.getSize() == 0;
+	}
+
+	/**
+	 * Returns the signature of the substructure of {@code _ele} if the checks of the element itself
+	 * depend on it (loops and Parallel elements), null otherwise.
+	 * @param _ele - the element
+	 * @return the sequence of the substructure elements (their ids, classes, token caches, and disabled
+	 * status) and the branch boundaries
+	 */
+	private static Object[] getStructure(Element _ele)
+	{
+		if (!(_ele instanceof While || _ele instanceof Repeat || _ele instanceof For || _ele instanceof Parallel)) {
+			return null;
+		}
+		final ArrayList<Object> signature = new ArrayList<Object>();
+		final Element owner = _ele;
+		_ele.traverse(new IElementVisitor() {
+			@Override
+			public boolean visitPreOrder(Element _el) {
+				if (_el instanceof Subqueue) {
+					signature.add(BEGIN_OF_BRANCH);
+				}
+				else if (_el != owner) {
+					signature.add(_el.getId());
+					signature.add(_el.getClass());
+					signature.add(_el.getTokenCache());
+					signature.add(_el.disabled);
+				}
+				return true;
+			}
+			@Override
+			public boolean visitPostOrder(Element _el) {
+				if (_el instanceof Subqueue) {
+					signature.add(END_OF_BRANCH);
+				}
+				return true;
+			}
+		});
+		return signature.toArray();
+	}
+
+	private static boolean isSameStructure(Object[] _structure, Element _ele)
+	{
+		Object[] structure = getStructure(_ele);
+		if (_structure == null || structure == null) {
+			return _structure == structure;
+		}
+		if (_structure.length != structure.length) {
+			return false;
+		}
+		for (int i = 0; i < structure.length; i++) {
+			if (structure[i] != _structure[i] && !structure[i].equals(_structure[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int getFlagBits(boolean[] _flags)
+	{
+		int bits = 0;
+		for (int i = 0; i < _flags.length; i++) {
+			if (_flags[i]) {
+				bits |= 1 << i;
+			}
+		}
+		return bits;
+	}
+
+}
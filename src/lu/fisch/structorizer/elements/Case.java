@@ -59,6 +59,7 @@ package lu.fisch.structorizer.elements;
  *      Kay Gürtzig     2017.11.01/02   Issue #447: Line continuation (backslash at line end) is to be supported
  *      Kay Gürtzig     2018.01.21      Enh. #490: Replacement of DiagramController aliases on drawing
  *      Kay Gürtzig     2018.04.04      Issue #529: Critical section in prepareDraw() reduced.
+ *      agent           2026.10.18      AGT#23: setText() and refactorKeywords() reset the cached variable retrieval results
  *
  ******************************************************************************************************
  *
@@ -200,6 +201,9 @@ public class Case extends Element implements IFork
                 qs.removeElementAt(qs.size()-1);
             }
             // END KGU#91 2015-12-01
+            // START AGT#23 2026-10-18: Branches may have been added or removed
+            this.resetVarSummaryUp();
+            // END AGT#23 2026-10-18
 
     }
 
@@ -1101,6 +1105,9 @@ public class Case extends Element implements IFork
     			isContinuation = line.endsWith("\\");
         		// END KGU#453 2017-11-02
     		}
+    		// START AGT#23 2026-10-18: The text was modified in place
+    		this.resetVarSummaryUp();
+    		// END AGT#23 2026-10-18
     	}
 	}
 	// END KGU#258 2016-09-25
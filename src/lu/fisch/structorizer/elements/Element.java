@@ -93,6 +93,15 @@ package lu.fisch.structorizer.elements;
  *      Kay Gürtzig     2018.07.20      Enh. #563: Intelligent conversion of simplified record initializers (see comment)
  *      Kay Gürtzig     2018.07.26      Issue #566: New central fields E_HOME_PAGE, E_HELP_PAGE
  *      Kay Gürtzig     2018.08.17      Bugfix #579: isConditionedBreakpoint() didn't work properly
+ *      agent           2026.10.18      AGT#4: RECORD_MATCHER replaced by a Pattern (thread safety)
+ *      agent           2026.10.18      AGT#7: Execution time profiling (self / cumulative / evaluation time)
+ *      agent           2026.10.18      AGT#21: splitLexically() reimplemented as single-pass scanner
+ *      agent           2026.10.18      AGT#22: Immutable token cache for the unbroken text lines
+ *      agent           2026.10.18      AGT#23: Token cache may hold derived declaration info per line
+ *      agent           2026.10.18      AGT#23: Variable retrieval result cached per subtree, reset upwards on changes
+ *      agent           2026.10.18      AGT#24: Token caches are shared with copies (for analysis snapshots)
+ *      agent           2026.10.18      AGT#4: Allocation, update, and reset of the execution counters synchronized
+ *      agent           2026.10.18      AGT#7: Updates of the execution time profile synchronized
  *
  ******************************************************************************************************
  *
@@ -466,7 +475,10 @@ public abstract class Element {
 	private static final java.util.regex.Pattern HEX_PATTERN = java.util.regex.Pattern.compile("0x[0-9A-Fa-f]+");
 	private static final java.util.regex.Pattern SIGN_PATTERN = java.util.regex.Pattern.compile("[+-]");
 	//private static final java.util.regex.Pattern ARRAY_PATTERN = java.util.regex.Pattern.compile("(\\w.*)(\\[.*\\])$"); // seems to have been wrong
-	private static final Matcher RECORD_MATCHER = java.util.regex.Pattern.compile("([A-Za-z]\\w*)\\s*\\{.*\\}").matcher("");
+	// START AGT#4 2026-10-18: A shared Matcher isn't thread-safe (concurrent Executors)
+	//private static final Matcher RECORD_MATCHER = java.util.regex.Pattern.compile("([A-Za-z]\\w*)\\s*\\{.*\\}").matcher("");
+	private static final java.util.regex.Pattern RECORD_PATTERN = java.util.regex.Pattern.compile("([A-Za-z]\\w*)\\s*\\{.*\\}");
+	// END AGT#4 2026-10-18
 	// END KGU 2017-09-19
 	// START KGU#425 2017-09-29: Lexical core mechanisms revised
 	private static final String[] LEXICAL_DELIMITERS = new String[] {
@@ -504,6 +516,25 @@ public abstract class Element {
 			// END KGU#331 2017-01-13
 	};
 	// END KGU#425 2017-09-29
+	// START AGT#21 2026-10-18: Character class table for the single-pass lexer
+	/** Token strings of the ASCII delimiter characters (null for non-delimiters) */
+	private static final String[] DELIMITER_TOKENS = new String[128];
+	/**
+	 * Delimiter character the former multi-pass splitting (one explodeWithDelimiter() call per
+	 * entry of {@link #LEXICAL_DELIMITERS}, '\u2265' being the last one) left an empty token before
+	 * if it didn't follow a non-delimiter character. This quirk is reproduced intentionally, such
+	 * that the token sequences (and all token index arithmetics based on them) remain the same.
+	 */
+	private static final char DELIMITER_WITH_EMPTY_PREFIX = '\u2265';
+	static {
+		for (int i = 0; i < LEXICAL_DELIMITERS.length; i++) {
+			char ch = LEXICAL_DELIMITERS[i].charAt(0);
+			if (ch < DELIMITER_TOKENS.length) {
+				DELIMITER_TOKENS[ch] = LEXICAL_DELIMITERS[i];
+			}
+		}
+	}
+	// END AGT#21 2026-10-18
 
 	// START KGU#156 2016-03-10; Enh. #124
 	/** Maximum number of executions of any element while runEventTracking has been on */
@@ -520,6 +551,22 @@ public abstract class Element {
 	// START KGU#225 2016-07-28: Bugfix #210
 	protected static Vector<Integer> execCounts = new Vector<Integer>();
 	// END KGU#225 2016-07-28
+	// START AGT#7 2026-10-18: Execution time profiling
+	/** Index of the cumulative execution time (including substructure and called routines) in a profile entry */
+	public static final int PROFILE_TOTAL = 0;
+	/** Index of the self execution time (without substructure and called routines) in a profile entry */
+	public static final int PROFILE_SELF = 1;
+	/** Index of the part of the self time spent in expression evaluation (interpreter) in a profile entry */
+	public static final int PROFILE_EVAL = 2;
+	/** Index of the number of currently active (i.e. recursively nested) executions in a profile entry */
+	private static final int PROFILE_ACTIVE = 3;
+	/** Execution times in ns (see {@link #PROFILE_TOTAL} etc.), indices are those into execCounts */
+	protected static Vector<long[]> execTimes = new Vector<long[]>();
+	/** Maximum cumulative execution time of any element (in ns) */
+	protected static volatile long maxExecTimeTotal = 0;
+	/** Maximum self execution time of any element (in ns) */
+	protected static volatile long maxExecTimeSelf = 0;
+	// END AGT#7 2026-10-18
 	// START KGU#213 2016-08-02: Enh. #215
 	/**
 	 *  Container for temporarily (i.e. during execution) modified breakpoint count triggers
@@ -539,6 +586,16 @@ public abstract class Element {
 //	element attributes
 	protected StringList text = new StringList();
 	public StringList comment = new StringList();
+	// START AGT#22 2026-10-18: Lexical analysis of the unbroken lines is cached
+	/** Token cache for the unbroken text lines, see {@link #getTokenCache()} */
+	private volatile TokenCache tokenCache = null;
+	// END AGT#22 2026-10-18
+	// START AGT#23 2026-10-18: Variable retrieval per subtree
+	/** Variable retrieval result for the lines of this subtree, see {@link Root#getVarSummary(Element, String[], long)} */
+	Root.VarSummary varSummary = null;
+	/** Whether {@link #varSummary} is up to date, reset by {@link #resetVarSummaryUp()} */
+	boolean isVarSummaryUpToDate = false;
+	// END AGT#23 2026-10-18
         
 	public boolean rotated = false;
 
@@ -659,6 +716,9 @@ public abstract class Element {
 		// START KGU#401 2017-05-17: Issue #405
 		this.rotated = false;
 		// END KGU#401 2017-05-17
+		// START AGT#23 2026-10-18: Every modification of text or structure resets the drawing info, so the variable retrieval result is outdated, too
+		this.resetVarSummaryUp();
+		// END AGT#23 2026-10-18
 	}
 	/**
 	 * Resets my drawing info and that of all of my ancestors
@@ -671,6 +731,24 @@ public abstract class Element {
 			ancestor.resetDrawingInfo();
 		} while ((ancestor = ancestor.parent) != null);
 	}
+	// START AGT#23 2026-10-18: Variable retrieval per subtree
+	/**
+	 * Marks the cached variable retrieval results of this element and all its ancestors as
+	 * outdated (see {@link Root#getVarSummary(Element, String[], long)}). This is done with every reset of
+	 * the drawing info, so it must only be called explicitly on modifications that don't
+	 * affect the drawing, e.g. of the {@link #disabled} flag.
+	 */
+	public final void resetVarSummaryUp()
+	{
+		this.isVarSummaryUpToDate = false;
+		// An outdated ancestor implies that all further ancestors are outdated, too
+		Element ancestor = this.parent;
+		while (ancestor != null && ancestor.isVarSummaryUpToDate) {
+			ancestor.isVarSummaryUpToDate = false;
+			ancestor = ancestor.parent;
+		}
+	}
+	// END AGT#23 2026-10-18
 	/**
 	 * Recursively clears all drawing info this subtree down
 	 */
@@ -769,6 +847,13 @@ public abstract class Element {
 		// START KGU#277 2016-10-13: Enh. #270
 		_ele.disabled = this.disabled;
 		// END KGU#277 2016-10-13
+		// START AGT#24 2026-10-18: Share the token cache (it is immutable and validated on use), such
+		// that undo entries and analysis snapshots don't have to re-lex, and the identity of the cache
+		// reveals to the Analyser that the text is unchanged
+		if (_ele.getClass() == this.getClass()) {
+			_ele.tokenCache = this.getTokenCache();
+		}
+		// END AGT#24 2026-10-18
 		// FIXME: Shouldn't we also copy the collapsed status?
 	}
 	// END KGU#213 2016-08-01
@@ -854,11 +939,23 @@ public abstract class Element {
 	public void setText(String _text)
 	{
 		text.setText(_text);
+		// START AGT#22 2026-10-18
+		tokenCache = null;
+		// END AGT#22 2026-10-18
+		// START AGT#23 2026-10-18
+		this.resetVarSummaryUp();
+		// END AGT#23 2026-10-18
 	}
 
 	public void setText(StringList _text)
 	{
 		text = _text;
+		// START AGT#22 2026-10-18
+		tokenCache = null;
+		// END AGT#22 2026-10-18
+		// START AGT#23 2026-10-18
+		this.resetVarSummaryUp();
+		// END AGT#23 2026-10-18
 	}
 
 	// START KGU#91 2015-12-01: We need a way to get the true value
@@ -982,7 +1079,10 @@ public abstract class Element {
 	 */
 	public StringList getUnbrokenText()
 	{
-		return getBrokenText(" ");
+		// START AGT#22 2026-10-18: The unbroken lines are held in the token cache
+		//return getBrokenText(" ");
+		return new StringList(getTokenCache().lines);
+		// END AGT#22 2026-10-18
 	}
 	/**
 	 * Returns the text of this element as a new StringList where each broken line (by means
@@ -1018,6 +1118,166 @@ public abstract class Element {
 	}
 	// END KGU#413 2017-06-09
 	
+	// START AGT#22 2026-10-18: Token cache
+	/**
+	 * Immutable snapshot of the lexical analysis of the unbroken text lines of an
+	 * element. A cache is never modified (except for the lazily filled {@link #flags})
+	 * but replaced as a whole, so concurrent readers (drawing, Analyser, Executor, code
+	 * export) need no locking.
+	 * @see Element#getTokenCache()
+	 */
+	static final class TokenCache {
+		/** The text lines the cache was derived from (compared by identity, then by equality) */
+		private final String[] sourceLines;
+		/** {@link CodeParser#getKeywordRevision()} at creation time */
+		private final long keywordRevision;
+		/** {@link CodeParser#ignoreCase} at creation time */
+		private final boolean ignoreCase;
+		/** The unbroken and trimmed lines (as {@link Element#getBrokenText(String)} with " ") */
+		final String[] lines;
+		/** The tokens of the {@link #lines} with restored strings - must not be handed out */
+		private final String[][] tokens;
+		/**
+		 * Keyword-dependent classification bits per line, to be computed lazily by subclasses
+		 * (0 = not computed yet). Concurrent computation yields the same bits, so races are
+		 * harmless.
+		 */
+		final int[] flags;
+		// START AGT#23 2026-10-18: Incremental type map maintenance
+		/**
+		 * Declaration info derived from the lines, to be computed lazily by subclasses (see
+		 * {@link Instruction#updateTypeMap(HashMap)}), null = not computed yet. The derived
+		 * objects must be immutable, such that races are harmless here, too.
+		 */
+		final Object[] declarations;
+		// END AGT#23 2026-10-18
+
+		private TokenCache(StringList _text)
+		{
+			int nSource = _text.count();
+			sourceLines = new String[nSource];
+			for (int i = 0; i < nSource; i++) {
+				sourceLines[i] = _text.get(i);
+			}
+			keywordRevision = CodeParser.getKeywordRevision();
+			ignoreCase = CodeParser.ignoreCase;
+			Vector<String> unbroken = new Vector<String>(nSource);
+			int i = 0;
+			while (i < nSource) {
+				String line = sourceLines[i].trim();
+				while (line.endsWith("\\") && (i + 1 < nSource)) {
+					line = line.substring(0, line.length()-1) + " " + sourceLines[++i].trim();
+				}
+				unbroken.add(line);
+				i++;
+			}
+			lines = unbroken.toArray(new String[unbroken.size()]);
+			tokens = new String[lines.length][];
+			for (int j = 0; j < lines.length; j++) {
+				tokens[j] = splitLexically(lines[j], true).toArray();
+			}
+			flags = new int[lines.length];
+			// START AGT#23 2026-10-18
+			declarations = new Object[lines.length];
+			// END AGT#23 2026-10-18
+		}
+
+		/**
+		 * @return true if this was derived from the given {@code _text} and the current
+		 * parser preferences
+		 */
+		private boolean isValidFor(StringList _text)
+		{
+			if (_text.count() != sourceLines.length
+					|| keywordRevision != CodeParser.getKeywordRevision()
+					|| ignoreCase != CodeParser.ignoreCase) {
+				return false;
+			}
+			for (int i = 0; i < sourceLines.length; i++) {
+				// START AGT#24 2026-10-18: Copies (StringList.copy()) have equal but not identical lines
+				//if (_text.get(i) != sourceLines[i]) {
+				String line = _text.get(i);
+				if (line != sourceLines[i] && !sourceLines[i].equals(line)) {
+				// END AGT#24 2026-10-18
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * @param _lineNo - index of an unbroken line
+		 * @return a new (modifiable) token list for unbroken line {@code _lineNo}
+		 */
+		StringList getTokens(int _lineNo)
+		{
+			return new StringList(tokens[_lineNo]);
+		}
+
+		/**
+		 * @param _line - an arbitrary line
+		 * @return the index of the unbroken line equal to {@code _line} or -1
+		 */
+		int indexOf(String _line)
+		{
+			for (int i = 0; i < lines.length; i++) {
+				if (lines[i].equals(_line)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+	}
+
+	/**
+	 * Returns the token cache for the current text, creating a new one if the text
+	 * or the parser preferences have changed since. Note that {@link #text} may also
+	 * have been modified in place, therefore the source lines are always compared.
+	 * @return the valid token cache
+	 */
+	final TokenCache getTokenCache()
+	{
+		StringList myText = this.text;
+		TokenCache cache = this.tokenCache;
+		if (cache == null || !cache.isValidFor(myText)) {
+			cache = new TokenCache(myText);
+			this.tokenCache = cache;
+		}
+		return cache;
+	}
+
+	/**
+	 * Returns the lexical tokens of the unbroken text line with index {@code _lineNo}
+	 * (see {@link #getUnbrokenText()}) as {@link #splitLexically(String, boolean)} with
+	 * restored strings would, but from the token cache.
+	 * @param _lineNo - index of the unbroken line
+	 * @return a new token list, which the caller may modify
+	 * @see #getLineTokens(String)
+	 */
+	public StringList getUnbrokenTokens(int _lineNo)
+	{
+		return getTokenCache().getTokens(_lineNo);
+	}
+
+	/**
+	 * Returns the lexical tokens of the given {@code _line} (as {@link #splitLexically(String, boolean)}
+	 * with restored strings). If {@code _line} equals one of the unbroken text lines of this
+	 * element then the tokens are taken from the token cache.
+	 * @param _line - a text line, usually of this element
+	 * @return a new token list, which the caller may modify
+	 * @see #getUnbrokenTokens(int)
+	 */
+	public StringList getLineTokens(String _line)
+	{
+		TokenCache cache = getTokenCache();
+		int lineNo = cache.indexOf(_line);
+		if (lineNo >= 0) {
+			return cache.getTokens(lineNo);
+		}
+		return splitLexically(_line, true);
+	}
+	// END AGT#22 2026-10-18
+	
 	// START KGU#480 2018-01-21: Enh. #490
 	/**
 	 * @return the text of this element, with {@link DiagramController} routine names
@@ -1259,13 +1519,21 @@ public abstract class Element {
 	 */
 	public static void resetMaxExecCount()
 	{
-		Element.maxExecTotalCount = Element.maxExecStepCount = Element.maxExecCount = 0;
-		// START KGU#477 2017-12-10: Enh. #487 - consider maximum steps of eclipsed declarations
-		Element.maxExecStepsEclCount = 0;
-		// END KGU#477 2017-12-10
-		// START KGU#225 2016-07-28: Bugfix #210
-		Element.execCounts.clear();
-		// END KGU#225 2016-07-28
+		// START AGT#4 2026-10-18: Elements of concurrent executions may allocate counters meanwhile
+		synchronized (Element.execCounts) {
+			Element.maxExecTotalCount = Element.maxExecStepCount = Element.maxExecCount = 0;
+			// START KGU#477 2017-12-10: Enh. #487 - consider maximum steps of eclipsed declarations
+			Element.maxExecStepsEclCount = 0;
+			// END KGU#477 2017-12-10
+			// START KGU#225 2016-07-28: Bugfix #210
+			Element.execCounts.clear();
+			// END KGU#225 2016-07-28
+			// START AGT#7 2026-10-18: Execution time profiling
+			Element.execTimes.clear();
+			Element.maxExecTimeTotal = Element.maxExecTimeSelf = 0;
+			// END AGT#7 2026-10-18
+		}
+		// END AGT#4 2026-10-18
 		// START KGU#213 2016-08-02: Enh. #215
 		Element.breakTriggersTemp.clear();
 		// END KGU#213 2016-08-02
@@ -1277,17 +1545,27 @@ public abstract class Element {
 	 */
 	protected void resetExecCount()
 	{
-		if (this.execCountIndex >= 0)
-		{
-			if (this.execCountIndex < Element.execCounts.size())
+		// START AGT#4 2026-10-18
+		synchronized (Element.execCounts) {
+			if (this.execCountIndex >= 0)
 			{
-				Element.execCounts.set(this.execCountIndex, 0);
-			}
-			else
-			{
-				this.execCountIndex = -1;
+				if (this.execCountIndex < Element.execCounts.size())
+				{
+					Element.execCounts.set(this.execCountIndex, 0);
+					// START AGT#7 2026-10-18: Execution time profiling
+					if (this.execCountIndex < Element.execTimes.size())
+					{
+						Element.execTimes.set(this.execCountIndex, null);
+					}
+					// END AGT#7 2026-10-18
+				}
+				else
+				{
+					this.execCountIndex = -1;
+				}
 			}
 		}
+		// END AGT#4 2026-10-18
 	}
 	
 	/*
@@ -1297,18 +1575,25 @@ public abstract class Element {
 	 */
 	protected void makeExecutionCount()
 	{
-		if (this.execCountIndex < 0 || this.execCountIndex >= Element.execCounts.size())
-		{
-			this.execCountIndex = Element.execCounts.size();
-			Element.execCounts.add(0);
+		// START AGT#4 2026-10-18: Elements of concurrent executions must not get the same index
+		synchronized (Element.execCounts) {
+			if (this.execCountIndex < 0 || this.execCountIndex >= Element.execCounts.size())
+			{
+				this.execCountIndex = Element.execCounts.size();
+				Element.execCounts.add(0);
+			}
 		}
+		// END AGT#4 2026-10-18
 	}
 	
 	/**
 	 * Retrieves the associated execution count and returns it.
 	 * @return current execution count for this element (and all its clones)
 	 */
-	protected int getExecCount()
+	// START AGT#7 2026-10-18: Made public for the profile export
+	//protected int getExecCount()
+	public int getExecCount()
+	// END AGT#7 2026-10-18
 	{
 		int execCount = 0;
 		if (this.execCountIndex >= 0)
@@ -1352,13 +1637,17 @@ public abstract class Element {
 		//}
 		if (Element.E_COLLECTRUNTIMEDATA)
 		{
-			this.makeExecutionCount();
-			int execCount = this.getExecCount() + 1;
-			Element.execCounts.set(this.execCountIndex, execCount);
-			if (execCount > Element.maxExecCount)
-			{
-				Element.maxExecCount = execCount;
+			// START AGT#4 2026-10-18: Clones may be executed concurrently
+			synchronized (Element.execCounts) {
+				this.makeExecutionCount();
+				int execCount = this.getExecCount() + 1;
+				Element.execCounts.set(this.execCountIndex, execCount);
+				if (execCount > Element.maxExecCount)
+				{
+					Element.maxExecCount = execCount;
+				}
 			}
+			// END AGT#4 2026-10-18
 		}
 		// END KGU#225 2016-07-28
 	}
@@ -1390,6 +1679,90 @@ public abstract class Element {
 		}
 	}
 	// END KGU#156 2016-03-11
+
+	// START AGT#7 2026-10-18: Execution time profiling
+	/**
+	 * Registers the start of an execution of this element (or one of its clones) for the
+	 * execution time profile, provided that {@link #E_COLLECTRUNTIMEDATA} is enabled.
+	 * Must be followed by a call of {@link #stopExecTime(long, long, long)}.
+	 */
+	public final void startExecTime()
+	{
+		if (Element.E_COLLECTRUNTIMEDATA)
+		{
+			// Clones may be executed concurrently (e.g. in Parallel branches)
+			synchronized (Element.execCounts) {
+				this.makeExecutionCount();
+				while (Element.execTimes.size() <= this.execCountIndex)
+				{
+					Element.execTimes.add(null);
+				}
+				long[] times = Element.execTimes.get(this.execCountIndex);
+				if (times == null)
+				{
+					times = new long[4];
+					Element.execTimes.set(this.execCountIndex, times);
+				}
+				times[PROFILE_ACTIVE]++;
+			}
+		}
+	}
+
+	/**
+	 * Adds the given time amounts (in ns) of a finished execution to the execution time profile
+	 * of this element (and all its clones). On recursion, the cumulative time is only added for
+	 * the outermost execution (since it comprises the nested ones).
+	 * @param _total - time spent including substructure and called routines
+	 * @param _self - time spent without substructure and called routines
+	 * @param _eval - part of {@code _self} spent in expression evaluation
+	 * @see #startExecTime()
+	 */
+	public final void stopExecTime(long _total, long _self, long _eval)
+	{
+		if (Element.E_COLLECTRUNTIMEDATA)
+		{
+			synchronized (Element.execCounts) {
+				if (this.execCountIndex >= 0 && this.execCountIndex < Element.execTimes.size())
+				{
+					long[] times = Element.execTimes.get(this.execCountIndex);
+					if (times != null)
+					{
+						if (--times[PROFILE_ACTIVE] <= 0)
+						{
+							times[PROFILE_ACTIVE] = 0;
+							times[PROFILE_TOTAL] += _total;
+						}
+						times[PROFILE_SELF] += _self;
+						times[PROFILE_EVAL] += _eval;
+						Element.maxExecTimeTotal = Math.max(times[PROFILE_TOTAL], Element.maxExecTimeTotal);
+						Element.maxExecTimeSelf = Math.max(times[PROFILE_SELF], Element.maxExecTimeSelf);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the accumulated execution time of the given kind for this element (and all its clones)
+	 * @param _kind - one of {@link #PROFILE_TOTAL}, {@link #PROFILE_SELF}, {@link #PROFILE_EVAL}
+	 * @return the time in ns
+	 */
+	public long getExecTime(int _kind)
+	{
+		long time = 0;
+		synchronized (Element.execCounts) {
+			if (this.execCountIndex >= 0 && this.execCountIndex < Element.execTimes.size())
+			{
+				long[] times = Element.execTimes.get(this.execCountIndex);
+				if (times != null)
+				{
+					time = times[_kind];
+				}
+			}
+		}
+		return time;
+	}
+	// END AGT#7 2026-10-18
 	
 	// START KGU#117 2016-03-10: Enh. #77
 	/**
@@ -1534,6 +1907,11 @@ public abstract class Element {
 					return Element.E_TESTCOVEREDCOLOR;
 				}
 				break;
+			// START AGT#7 2026-10-18: Execution time profiling
+			case SELFTIME_LOG:
+			case TOTALTIME_LOG:
+				return getScaleColorForExecTime();
+			// END AGT#7 2026-10-18
 			default:
 				return getScaleColorForRTDPM();
 			}
@@ -1593,6 +1971,28 @@ public abstract class Element {
 		return getScaleColor(value, maxValue);
 	}
 	
+	// START AGT#7 2026-10-18: Execution time profiling
+	/**
+	 * Derives the heat map colour from the self or cumulative execution time
+	 * (logarithmically scaled) according to {@link #E_RUNTIMEDATAPRESENTMODE}.
+	 * @return the corresponding spectral colour
+	 */
+	protected final Color getScaleColorForExecTime()
+	{
+		long maxTime = Element.maxExecTimeTotal;
+		long time = this.getExecTime(PROFILE_TOTAL);
+		if (Element.E_RUNTIMEDATAPRESENTMODE == RuntimeDataPresentMode.SELFTIME_LOG) {
+			maxTime = Element.maxExecTimeSelf;
+			time = this.getExecTime(PROFILE_SELF);
+		}
+		// Times are given in ns, so we start the scale at 1 µs
+		int maxValue = 0, value = 0;
+		if (maxTime > 1000) maxValue = (int) Math.round(25 * Math.log(maxTime / 1000.0));
+		if (time > 1000) value = (int) Math.round(25 * Math.log(time / 1000.0));
+		return getScaleColor(value, maxValue);
+	}
+	// END AGT#7 2026-10-18
+	
 	/**
 	 * Converts the value in the range 0 ... maxValue in the a colour
 	 * from deep blue to hot red.
@@ -2245,314 +2645,238 @@ public abstract class Element {
 	 * @return StringList consisting of the separated lexemes including isolated spaces etc.
 	 */
 	public static StringList splitLexically(String _text, boolean _restoreStrings)
+	// START AGT#21 2026-10-18: Single pass over the characters instead of one pass per delimiter
+	// (the former implementation is kept for reference in bench/.../elements/LexerCheck.java)
 	{
-		StringList parts = new StringList();
-		parts.add(_text);
-		
-		// split
-		// START KGU#425 2017-09-29: Code revision
-		//parts=StringList.explodeWithDelimiter(parts," ");
-		//parts=StringList.explodeWithDelimiter(parts,"\t");
-		//parts=StringList.explodeWithDelimiter(parts,"\n");
-		//parts=StringList.explodeWithDelimiter(parts,".");
-		//parts=StringList.explodeWithDelimiter(parts,",");
-		//parts=StringList.explodeWithDelimiter(parts,";");
-		//parts=StringList.explodeWithDelimiter(parts,"(");
-		//parts=StringList.explodeWithDelimiter(parts,")");
-		//parts=StringList.explodeWithDelimiter(parts,"[");
-		//parts=StringList.explodeWithDelimiter(parts,"]");
-		//parts=StringList.explodeWithDelimiter(parts,"{");
-		//parts=StringList.explodeWithDelimiter(parts,"}");
-		//parts=StringList.explodeWithDelimiter(parts,"-");
-		//parts=StringList.explodeWithDelimiter(parts,"+");
-		//parts=StringList.explodeWithDelimiter(parts,"/");
-		//parts=StringList.explodeWithDelimiter(parts,"*");
-		//parts=StringList.explodeWithDelimiter(parts,">");
-		//parts=StringList.explodeWithDelimiter(parts,"<");
-		//parts=StringList.explodeWithDelimiter(parts,"=");
-		//parts=StringList.explodeWithDelimiter(parts,":");
-		//parts=StringList.explodeWithDelimiter(parts,"!");
-		//parts=StringList.explodeWithDelimiter(parts,"'");
-		//parts=StringList.explodeWithDelimiter(parts,"\"");
-		//parts=StringList.explodeWithDelimiter(parts,"\\");
-		//parts=StringList.explodeWithDelimiter(parts,"%");
-		//parts=StringList.explodeWithDelimiter(parts,"\u2260");
-		//parts=StringList.explodeWithDelimiter(parts,"\u2264");
-		//parts=StringList.explodeWithDelimiter(parts,"\u2265");
-		for (int i = 0; i < LEXICAL_DELIMITERS.length; i++) {
-			parts = StringList.explodeWithDelimiter(parts, LEXICAL_DELIMITERS[i]);
+		// Scan: contiguous non-delimiter characters form a token, every delimiter is a token of its own
+		int len = _text.length();
+		String[] tokens = new String[len + 4];
+		int nTokens = 0;
+		int start = 0;
+		for (int pos = 0; pos < len; pos++) {
+			char ch = _text.charAt(pos);
+			String delim = ch < DELIMITER_TOKENS.length ? DELIMITER_TOKENS[ch] : getUnicodeDelimiter(ch);
+			if (delim != null) {
+				if (nTokens + 2 > tokens.length) {
+					tokens = java.util.Arrays.copyOf(tokens, 2 * tokens.length);
+				}
+				if (pos > start) {
+					tokens[nTokens++] = _text.substring(start, pos);
+				}
+				else if (ch == DELIMITER_WITH_EMPTY_PREFIX) {
+					// Intended compatibility with the former splitting (see DELIMITER_WITH_EMPTY_PREFIX)
+					tokens[nTokens++] = "";
+				}
+				tokens[nTokens++] = delim;
+				start = pos + 1;
+			}
+		}
+		if (start < len) {
+			if (nTokens == tokens.length) {
+				tokens = java.util.Arrays.copyOf(tokens, nTokens + 1);
+			}
+			tokens[nTokens++] = _text.substring(start);
 		}
-		// END KGU#425 2017-09-29
 
-		// reassemble symbols
+		// Reassemble operator symbols and numeric literals (tokens are consumed from left to right,
+		// so instead of deleting list elements the composed symbol is just appended to the result)
+		StringList parts = new StringList();
 		int i = 0;
-		while (i < parts.count())
+		while (i < nTokens)
 		{
-			String thisPart = parts.get(i);
-			if (i < parts.count()-1)
+			String thisPart = tokens[i];
+			int nMerged = 0;	// Number of following tokens melted into thisPart
+			if (i < nTokens-1)
 			{
-				String nextPart = parts.get(i+1);
+				String nextPart = tokens[i+1];
 				boolean isInt = false;
 				boolean isSign = false;
 				boolean isEllipse = false;
 				if (thisPart.equals("<") && nextPart.equals("-"))
 				{
-					parts.set(i,"<-");
-					parts.delete(i+1);
-					// START KGU 2014-10-18 potential three-character assignment symbol?
-					if (i < parts.count()-1 && parts.get(i+1).equals("-"))
+					thisPart = "<-";
+					nMerged = 1;
+					// potential three-character assignment symbol?
+					if (i+2 < nTokens && tokens[i+2].equals("-"))
 					{
-						parts.delete(i+1);
+						nMerged = 2;
 					}
-					// END KGU 2014-10-18
 				}
 				else if (thisPart.equals(":") && nextPart.equals("="))
 				{
-					parts.set(i,":=");
-					parts.delete(i+1);
+					thisPart = ":=";
+					nMerged = 1;
 				}
 				else if (thisPart.equals("!") && nextPart.equals("="))
 				{
-					parts.set(i,"!=");
-					parts.delete(i+1);
+					thisPart = "!=";
+					nMerged = 1;
 				}
-				// START KGU 2015-11-04
 				else if (thisPart.equals("=") && nextPart.equals("="))
 				{
-					parts.set(i,"==");
-					parts.delete(i+1);
+					thisPart = "==";
+					nMerged = 1;
 				}
-				// END KGU 2015-11-04
 				else if (thisPart.equals("<"))
 				{
-					if (nextPart.equals(">"))
+					if (nextPart.equals(">") || nextPart.equals("=") || nextPart.equals("<"))
 					{
-						parts.set(i,"<>");
-						parts.delete(i+1);
-					}
-					else if (nextPart.equals("="))
-					{
-						parts.set(i,"<=");
-						parts.delete(i+1);
+						thisPart += nextPart;
+						nMerged = 1;
 					}
-					// START KGU#92 2015-12-01: Bugfix #41
-					else if (nextPart.equals("<"))
-					{
-						parts.set(i,"<<");
-						parts.delete(i+1);
-					}					
-					// END KGU#92 2015-12-01
 				}
 				else if (thisPart.equals(">"))
 				{
-					if (nextPart.equals("="))
+					if (nextPart.equals("=") || nextPart.equals(">"))
 					{
-						parts.set(i,">=");
-						parts.delete(i+1);
+						thisPart += nextPart;
+						nMerged = 1;
 					}
-					// START KGU#92 2015-12-01: Bugfix #41
-					else if (nextPart.equals(">"))
-					{
-						parts.set(i,">>");
-						parts.delete(i+1);
-					}					
-					// END KGU#92 2015-12-01
 				}
-				// START KGU#24 2014-10-18: Logical two-character operators should be detected, too ...
 				else if (thisPart.equals("&") && nextPart.equals("&"))
 				{
-					parts.set(i,"&&");
-					parts.delete(i+1);
+					thisPart = "&&";
+					nMerged = 1;
 				}
 				else if (thisPart.equals("|") && nextPart.equals("|"))
 				{
-					parts.set(i,"||");
-					parts.delete(i+1);
+					thisPart = "||";
+					nMerged = 1;
 				}
-				// END KGU#24 2014-10-18
-				// START KGU#26 2015-11-04: Find escaped quotes
 				else if (thisPart.equals("\\"))
 				{
-					if (nextPart.equals("\""))
+					if (nextPart.equals("\"") || nextPart.equals("'") || nextPart.equals("\\"))
 					{
-						parts.set(i, "\\\"");
-						parts.delete(i+1);
-					}
-					// START KGU#344 201702-08: Issue #341 - Precaution against string/character delimiter replacement
-					else if (nextPart.equals("'"))
-					{
-						parts.set(i, "\\'");
-						parts.delete(i+1);
-					}
-					// END KGU#344 2017-02-08
-					else if (nextPart.equals("\\"))
-					{
-						parts.set(i, "\\\\");
-						parts.delete(i+1);
+						thisPart += nextPart;
+						nMerged = 1;
 					}
 				}
-				// END KGU#26 2015-11-04
-				// START KGU#331 2017-01-13: Enh. #333 Precaution against unicode comparison operators
 				else if (thisPart.equals("\u2260")) {
-					parts.set(i, "<>");
+					thisPart = "<>";
 				}
 				else if (thisPart.equals("\u2264")) {
-					parts.set(i, "<=");
+					thisPart = "<=";
 				}
 				else if (thisPart.equals("\u2265")) {
-					parts.set(i, ">=");
+					thisPart = ">=";
 				}
-				// END KGU#331 2017-01-13
-				// START KGU#335/KGU#425 2017-09-29: Re-compose floating-point literals (including those starting or ending with ".")
-				// These are legal cases ($ = line end, ? = don't care):
-				// i             i+1             i+2           i+3        comment
-				// .              .               ?             ?         two-dot-ellipse (Pascal range)
-				// .              .               .             ?         three-dot-ellipse (rarely used)
-				// .            FLOAT1            ?             ?         float literal
-				// .            FLOAT2           [+-]        [0-9]+       float literal
-				// [+-]           .            FLOAT1           ?         float literal - reduce this case the the one -2
-				// [+-]           .            FLOAT2         [+-] [0-9]+ float literal - reduce this case the the one -2
-				// [0-9]+         .            FLOAT1           ?         float literal - reduce this case the the one -4
-				// [0-9]+         .            FLOAT2         [+-] [0-9]+ float literal - reduce this case the the one -4
-				// These are the illegal cases:
-				// [+-]           .               $
-				// [+-]           .               ?
-				// [0-9]+         .               .
-				// So we will first do the necessary lookahead before we manipulate parts
+				// Re-compose floating-point literals (see LexerCheck.splitLexicallyMultiPass() for the cases)
 				else if ( (isEllipse = thisPart.equals("."))	// a single dot might merge with another one or a float pattern
 						|| (	// Otherwise a digit sequence might melt with a dot
 								(isInt = INT_PATTERN.matcher(thisPart).matches())
 								|| (isSign = (thisPart.equals("+") || thisPart.equals("-"))	// a sign with a dot requires more...
-										&& i+2 < parts.count())
+										&& i+2 < nTokens)
 								&& nextPart.equals(".")) 
 						) {
+					String composed = thisPart;
 					int nDelete = 0;
-					// Glue the two together - the only pathologic case would be 
 					if (nextPart.equals(".")) {
-						thisPart += nextPart;
+						composed += nextPart;
 						nDelete = 1;
 						// Is there anything left at all?
-						if (i+2 < parts.count()) {
-							nextPart = parts.get(i+2);
+						if (i+2 < nTokens) {
+							nextPart = tokens[i+2];
 						}
 						if (isEllipse && nextPart.equals(".")) {
 							// Okay, then be it a three-point ellipse "..."
-							thisPart += nextPart;
+							composed += nextPart;
 							nDelete++;
 						}
-						// In case of an ellipse we are done here
 					}
 					else {
 						isEllipse = false;
 					}
-					// nextPart.matches("[0-9]+([eE][0-9]+)?")
 					if (!isEllipse && FLOAT_PATTERN1.matcher(nextPart).matches()) {
-						thisPart += nextPart;
+						composed += nextPart;
 						nDelete++;
 					}
-					// nextPart.matches("[0-9]+[eE]")
 					else if (!isEllipse && FLOAT_PATTERN2.matcher(nextPart).matches()
-							&& i+nDelete+3 < parts.count()
-							&& SIGN_PATTERN.matcher(parts.get(i+nDelete+2)).matches()
-							&& INT_PATTERN.matcher(parts.get(i+nDelete+3)).matches()) {
+							&& i+nDelete+3 < nTokens
+							&& SIGN_PATTERN.matcher(tokens[i+nDelete+2]).matches()
+							&& INT_PATTERN.matcher(tokens[i+nDelete+3]).matches()) {
 						for (int j = 1; j <= 3; j++) {
 							nDelete++;
-							thisPart += parts.get(i+nDelete);
+							composed += tokens[i+nDelete];
 						}
 					}
-					else if (isSign || isInt && i+2 < parts.count() && parts.get(i+2).equals(".")) {
+					else if (isSign || isInt && i+2 < nTokens && tokens[i+2].equals(".")) {
 						// In this case the amalgamation may not take place
 						nDelete = 0;
 					}
-					// Now carry out the amalgamation if sensible
 					if (nDelete > 0) {
-						parts.set(i, thisPart);
-						parts.remove(i+1, i+nDelete+1);
+						thisPart = composed;
+						// (The former implementation silently ignored deletions beyond the end)
+						nMerged = Math.min(nDelete, nTokens - i - 1);
 					}
 				}
-				// END KGU#335/KGU#425 2017-09-29
 			}
-			i++;
+			parts.add(thisPart);
+			i += 1 + nMerged;
 		}
 		
 		if (_restoreStrings)
 		{
-			// START KGU#344 2017-02-07: Bugfix #341 Wrong loop inclusion
-			//String[] delimiters = {"\"", "'"};
+			StringList restored = new StringList();
 			final String delimiters = "\"'";
-			// END KGU#344 2017-02-07
-			// START KGU#139 2016-01-12: Bugfix #105 - apparently incomplete strings got lost
 			// We mustn't eat seemingly incomplete strings, instead we re-feed them
 			StringList parkedTokens = new StringList();
-			// END KGU#139 2016-01-12
-			// START #344 2017-02-07: Bugfix #341: Wrong strategy - the token must select the start delimiter
-			//for (int d = 0; d < delimiters.length; d++)
-			//{
 			int ixDelim = -1;	// delimiter index in delimiters
 			String delim = "";	// starting delimiter for matching the closing delimiter
-			// END KGU#344 2017-02-07
-				boolean withinString = false;
-				String composed = "";
-				i = 0;
-				while (i < parts.count())
+			boolean withinString = false;
+			StringBuilder composed = new StringBuilder();
+			for (i = 0; i < parts.count(); i++)
+			{
+				String lexeme = parts.get(i);
+				if (withinString)
 				{
-					String lexeme = parts.get(i);
-					if (withinString)
-					{
-						composed = composed + lexeme;
-						// START KGU#344 2017-02-07: Bugfix #341
-						//if (lexeme.equals(delimiters[d]))
-						if (lexeme.equals(delim))
-						// END KGU#344 2017-02-07
-						{
-							// START KGU#139 2016-01-12: Bugfix #105
-							parkedTokens.clear();
-							// END KGU#139 2016-01-12
-							parts.set(i, composed+"");
-							composed = "";
-							withinString = false;
-							i++;
-						}
-						else
-						{
-							// START KGU#139 2016-01-12: Bugfix #105
-							parkedTokens.add(lexeme);
-							// END KGU#139 2016-01-12
-							parts.delete(i);
-						}
-					}
-					// START KGU#344 2017-02-07: Bugfix #341
-					//else if (lexeme.equals(delimiters[d]))
-					else if (lexeme.length() == 1 && (ixDelim = delimiters.indexOf(lexeme)) >= 0)
-					// END KGU#344 2017-02-27
+					composed.append(lexeme);
+					if (lexeme.equals(delim))
 					{
-						// START KGU#139 2016-01-12: Bugfix #105
-						parkedTokens.add(lexeme);
-						// END KGU#139 2016-01-12
-						withinString = true;
-						// START KGU#344 2017-02-07: Bugfix #341
-						delim = delimiters.substring(ixDelim, ixDelim+1);
-						// END KGU#344 2017-02-07
-						composed = lexeme+"";
-						parts.delete(i);
+						parkedTokens.clear();
+						restored.add(composed.toString());
+						composed.setLength(0);
+						withinString = false;
 					}
 					else
 					{
-						i++;
+						parkedTokens.add(lexeme);
 					}
 				}
-			// START KGU#344 2017-02-07: Bugfix #341 No outer loop anymore
-			//}
-			// END KGU#344 2017-02-07
-			// START KGU#139 2916-01-12: Bugfix #105
+				else if (lexeme.length() == 1 && (ixDelim = delimiters.indexOf(lexeme)) >= 0)
+				{
+					parkedTokens.add(lexeme);
+					withinString = true;
+					delim = delimiters.substring(ixDelim, ixDelim+1);
+					composed.append(lexeme);
+				}
+				else
+				{
+					restored.add(lexeme);
+				}
+			}
 			if (parkedTokens.count() > 0)
 			{
-				parts.add(parkedTokens);
+				restored.add(parkedTokens);
 			}
-			// END KGU#139 2016-01-12
+			parts = restored;
 		}
 		return parts;
 	}
+	
+	/**
+	 * Returns the token string for one of the non-ASCII delimiter characters (unicode
+	 * comparison operators) or null
+	 */
+	private static String getUnicodeDelimiter(char _ch)
+	{
+		switch (_ch) {
+		case '\u2260': return "\u2260";
+		case '\u2264': return "\u2264";
+		case '\u2265': return "\u2265";
+		}
+		return null;
+	}
+	// END AGT#21 2026-10-18
 	// END KGU#18/KGU#23
 	
 	// START KGU#101 2015-12-11: Enhancement #54: We need to split expression lists (might go to a helper class)
@@ -2877,6 +3201,9 @@ public abstract class Element {
 	public static String identifyExprType(HashMap<String, TypeMapEntry> typeMap, String expr, boolean canonicalizeTypeNames)
 	{
 		String typeSpec = "";	// This means no info
+		// START AGT#4 2026-10-18: Thread safety
+		Matcher recordMatcher = null;
+		// END AGT#4 2026-10-18
 		// 1. Check whether it's a known typed variable
 		TypeMapEntry typeEntry = null;
 		if (typeMap != null) {
@@ -2899,8 +3226,12 @@ public abstract class Element {
 			typeSpec = "String";
 		}
 		// START KGU#388 2017-09-12: Enh. #423: Record initializer support (name-prefixed!)
-		else if ((RECORD_MATCHER.reset(expr)).matches() && typeMap != null){
-			typeSpec = RECORD_MATCHER.group(1);
+		// START AGT#4 2026-10-18: Thread safety
+		//else if ((RECORD_MATCHER.reset(expr)).matches() && typeMap != null){
+		//	typeSpec = RECORD_MATCHER.group(1);
+		else if ((recordMatcher = RECORD_PATTERN.matcher(expr)).matches() && typeMap != null){
+			typeSpec = recordMatcher.group(1);
+		// END AGT#4 2026-10-18
 			if (!typeMap.containsKey(":" + typeSpec)) {
 				// It's hardly a valid prefixed record initializer...
 				typeSpec = "";
@@ -2958,7 +3289,10 @@ public abstract class Element {
 			if (Element.E_VARHIGHLIGHT && !root.isSwitchTextCommentMode())
 			// END KGU#226 2016-07-29
 			{
-				StringList parts = Element.splitLexically(_text, true);
+				// START AGT#22 2026-10-18: Avoid lexing the same lines on every repaint
+				//StringList parts = Element.splitLexically(_text, true);
+				StringList parts = _this.getLineTokens(_text);
+				// END AGT#22 2026-10-18
 
 				// bold font
 				Font boldFont = new Font(Element.font.getName(), Font.BOLD, Element.font.getSize());
@@ -3261,7 +3595,20 @@ public abstract class Element {
 			FontMetrics fm = _canvas.getFontMetrics(smallFont);
 			// backup the original font
 			Font backupFont = _canvas.getFont();
-			String info = this.getRuntimeInfoString();
+			// START AGT#7 2026-10-18: In the time profile modes we show count and time
+			//String info = this.getRuntimeInfoString();
+			String info = null;
+			switch (Element.E_RUNTIMEDATAPRESENTMODE) {
+			case SELFTIME_LOG:
+				info = this.getExecCount() + " / " + formatExecTime(this.getExecTime(PROFILE_SELF));
+				break;
+			case TOTALTIME_LOG:
+				info = this.getExecCount() + " / " + formatExecTime(this.getExecTime(PROFILE_TOTAL));
+				break;
+			default:
+				info = this.getRuntimeInfoString();
+			}
+			// END AGT#7 2026-10-18
 			int yOffs = fm.getHeight() + (this.isBreakpoint() ? 4 : 0); 
 			_canvas.setFont(smallFont);
 			int width = _canvas.stringWidth(info);
@@ -3292,6 +3639,24 @@ public abstract class Element {
 		return this.getExecCount() + " / " + this.getExecStepCount(this.isCollapsed(true));
 	}
 	// END KGU#156 2016-03-11
+
+	// START AGT#7 2026-10-18: Execution time profiling
+	/**
+	 * Formats the given time for the runtime info display
+	 * @param _nanos - time in ns
+	 * @return a short string with suited unit (µs, ms, or s)
+	 */
+	private static String formatExecTime(long _nanos)
+	{
+		if (_nanos < 1000000L) {
+			return (_nanos / 1000) + " µs";
+		}
+		else if (_nanos < 10000000000L) {
+			return (_nanos / 1000000) + " ms";
+		}
+		return (_nanos / 1000000000L) + " s";
+	}
+	// END AGT#7 2026-10-18
 	
     /**
      * Detect whether the element is currently collapsed (or to be shown as collapsed by other reasons)
@@ -3477,6 +3842,21 @@ public abstract class Element {
     //public static String transformIntermediate(String _text)
     public static StringList transformIntermediate(String _text)
     {
+    	// START AGT#22 2026-10-18
+    	return transformIntermediate(_text, null);
+    }
+
+    /**
+     * Like {@link #transformIntermediate(String)}, but if {@code _tokenSource} is given and
+     * {@code _text} is one of its unbroken text lines then the tokens are taken from the
+     * token cache of {@code _tokenSource} (see {@link #getLineTokens(String)}).
+     * @param _text - a line of the Structorizer element
+     * @param _tokenSource - the element {@code _text} (presumably) stems from, or null
+     * @return a StringList consisting of tokens translated into a unified intermediate language
+     */
+    public static StringList transformIntermediate(String _text, Element _tokenSource)
+    {
+    	// END AGT#22 2026-10-18
     	//final String regexMatchers = ".?*+[](){}\\^$";
     	
         String interm = " " + _text + " ";
@@ -3505,7 +3885,10 @@ public abstract class Element {
         //interm = interm.replace("  ", " ");	// By repetition we eliminate the remnants of odd-number space sequences
         //return interm/*.trim()*/;
 
-        StringList tokens = Element.splitLexically(interm, true);
+        // START AGT#22 2026-10-18
+        //StringList tokens = Element.splitLexically(interm, true);
+        StringList tokens = (_tokenSource != null) ? _tokenSource.getLineTokens(interm) : Element.splitLexically(interm, true);
+        // END AGT#22 2026-10-18
         
         // START KGU#165 2016-03-26: Now keyword search with/without case
         cutOutRedundantMarkers(tokens);
@@ -3594,6 +3977,9 @@ public abstract class Element {
     			result.add(refactorLine(text.get(i), _splitOldKeywords, relevantKeys, _ignoreCase));
     		}
     		this.text = result;
+    		// START AGT#23 2026-10-18
+    		this.resetVarSummaryUp();
+    		// END AGT#23 2026-10-18
     	}
 	}
 	
@@ -63,6 +63,10 @@ package lu.fisch.structorizer.elements;
  *      Kay Gürtzig     2018.01.21      Enh. #490: Replacement of DiagramController aliases on drawing
  *      Kay Gürtzig     2018.02.15      Issue #508: Workaround for large-scaled collapse symbols eclipsing the text
  *      Kay Gürtzig     2018.07.12      Bugfix #557: potential endless loop in isDeclaration(String)
+ *      agent           2026.10.18      AGT#22: Line classification via the token cache of Element
+ *      agent           2026.10.18      AGT#23: Type map contributions of the lines cached as immutable descriptors
+ *      agent           2026.10.18      AGT#1: isMereDeclaratory() based on the cached line classification
+ *      agent           2026.10.18      AGT#23: addFullTextLines() extracted for the variable retrieval per subtree
  *
  ******************************************************************************************************
  *
@@ -467,17 +471,39 @@ public class Instruction extends Element {
 			//_lines.add(this.getText());
 			// START KGU#388 2017-09-13: Enh. #423: We must not add type definition lines
 			//_lines.add(this.getUnbrokenText());
-			StringList myLines = this.getUnbrokenText();
-			for (int i = 0; i < myLines.count(); i++) {
-				String line = myLines.get(i);
-				if (!isTypeDefinition(line, null)) {
-					_lines.add(line);
-				}
-			}
+			// START AGT#23 2026-10-18: Avoid re-lexing all lines on every variable retrieval
+			//StringList myLines = this.getUnbrokenText();
+			//for (int i = 0; i < myLines.count(); i++) {
+			//	String line = myLines.get(i);
+			//	if (!isTypeDefinition(line, null)) {
+			//		_lines.add(line);
+			//	}
+			//}
+			this.addFullTextLines(_lines);
+			// END AGT#23 2026-10-18
 			// END KGU#388 2017-09-13
 			// END KGU#413 2017-06-09
 		}
     }
+
+	// START AGT#23 2026-10-18: Also used for the variable retrieval per subtree
+	/**
+	 * Adds the unbroken text lines except type definitions to {@code _lines} (regardless
+	 * of the disabled state).
+	 * @param _lines - the StringList to append the lines to
+	 * @see #addFullText(StringList, boolean)
+	 * @see Root#getVarSummary(Element)
+	 */
+	void addFullTextLines(StringList _lines)
+	{
+		TokenCache cache = this.getTokenCache();
+		for (int i = 0; i < cache.lines.length; i++) {
+			if ((getLineClasses(cache, i) & LINE_TYPEDEF) == 0) {
+				_lines.add(cache.lines[i]);
+			}
+		}
+	}
+	// END AGT#23 2026-10-18
     // END KGU 2015-10-16
 
 	// START KGU#117 2016-03-10: Enh. #77
@@ -509,33 +535,47 @@ public class Instruction extends Element {
 	// a single line, the latter for the element as a whole.
 	public static boolean isAssignment(String line)
 	{
-    	StringList tokens = Element.splitLexically(line, true);
-    	unifyOperators(tokens, true);
-		return tokens.contains("<-");
+		// START AGT#22 2026-10-18: Token-based check extracted
+    	//StringList tokens = Element.splitLexically(line, true);
+    	//unifyOperators(tokens, true);
+		//return tokens.contains("<-");
+		return isAssignment(Element.splitLexically(line, true));
+		// END AGT#22 2026-10-18
 	}
 	public boolean isAssignment()
 	{
 		// START KGU#413 2017-06-09: Enh. #416 cope with user-defined line breaks
 		//return this.text.count() == 1 && Instruction.isAssignment(this.text.get(0));
-		StringList lines = this.getUnbrokenText();
-		return lines.count() == 1 && Instruction.isAssignment(lines.get(0));
+		// START AGT#22 2026-10-18: Use the cached classification
+		//StringList lines = this.getUnbrokenText();
+		//return lines.count() == 1 && Instruction.isAssignment(lines.get(0));
+		TokenCache cache = this.getTokenCache();
+		return cache.lines.length == 1 && (getLineClasses(cache, 0) & LINE_ASSIGNMENT) != 0;
+		// END AGT#22 2026-10-18
 		// END KGU#413 2017-06-09
 	}
 	
 	public static boolean isJump(String line)
 	{
-    	StringList tokens = Element.splitLexically(line, true);
-		return (tokens.indexOf(CodeParser.getKeyword("preReturn"), !CodeParser.ignoreCase) == 0 ||
-				tokens.indexOf(CodeParser.getKeyword("preLeave"), !CodeParser.ignoreCase) == 0 ||
-				tokens.indexOf(CodeParser.getKeyword("preExit"), !CodeParser.ignoreCase) == 0
-				);
+		// START AGT#22 2026-10-18: Token-based check extracted
+    	//StringList tokens = Element.splitLexically(line, true);
+		//return (tokens.indexOf(CodeParser.getKeyword("preReturn"), !CodeParser.ignoreCase) == 0 ||
+		//		tokens.indexOf(CodeParser.getKeyword("preLeave"), !CodeParser.ignoreCase) == 0 ||
+		//		tokens.indexOf(CodeParser.getKeyword("preExit"), !CodeParser.ignoreCase) == 0
+		//		);
+		return isJump(Element.splitLexically(line, true));
+		// END AGT#22 2026-10-18
 	}
 	public boolean isJump()
 	{
 		// START KGU#413 2017-06-09: Enh. #416 cope with user-defined line breaks
 		//return this.text.count() == 0 || this.text.count() == 1 && Instruction.isJump(this.text.get(0));
-		StringList lines = this.getUnbrokenText();
-		return lines.count() == 0 || lines.count() == 1 && Instruction.isJump(lines.get(0));
+		// START AGT#22 2026-10-18: Use the cached classification
+		//StringList lines = this.getUnbrokenText();
+		//return lines.count() == 0 || lines.count() == 1 && Instruction.isJump(lines.get(0));
+		TokenCache cache = this.getTokenCache();
+		return cache.lines.length == 0 || cache.lines.length == 1 && (getLineClasses(cache, 0) & LINE_JUMP) != 0;
+		// END AGT#22 2026-10-18
 		// END KGU#413 2017-06-09
 	}
 	
@@ -551,10 +591,108 @@ public class Instruction extends Element {
 	{
 		// START KGU#413 2017-06-09: Enh. #416 cope with user-defined line breaks
 		//return this.text.count() == 1 && Instruction.isProcedureCall(this.text.get(0));
-		StringList lines = this.getUnbrokenText();
-		return lines.count() == 1 && Instruction.isProcedureCall(lines.get(0));
+		// START AGT#22 2026-10-18: Use the cached classification
+		//StringList lines = this.getUnbrokenText();
+		//return lines.count() == 1 && Instruction.isProcedureCall(lines.get(0));
+		TokenCache cache = this.getTokenCache();
+		return cache.lines.length == 1 && (getLineClasses(cache, 0) & LINE_PROCEDURE_CALL) != 0;
+		// END AGT#22 2026-10-18
 		// END KGU#413 2017-06-09
 	}
+	
+	// START AGT#22 2026-10-18: Line classification on token lists, cached in the TokenCache
+	/** Classification bit in {@link Element.TokenCache#flags}: line has been classified */
+	private static final int LINE_CLASSIFIED = 0x01;
+	/** Classification bit in {@link Element.TokenCache#flags}: line is an assignment */
+	private static final int LINE_ASSIGNMENT = 0x02;
+	/** Classification bit in {@link Element.TokenCache#flags}: line is a jump */
+	private static final int LINE_JUMP = 0x04;
+	/** Classification bit in {@link Element.TokenCache#flags}: line is an output instruction */
+	private static final int LINE_OUTPUT = 0x08;
+	/** Classification bit in {@link Element.TokenCache#flags}: line is an input instruction */
+	private static final int LINE_INPUT = 0x10;
+	/** Classification bit in {@link Element.TokenCache#flags}: line is a procedure call */
+	private static final int LINE_PROCEDURE_CALL = 0x20;
+	// START AGT#23 2026-10-18
+	/** Classification bit in {@link Element.TokenCache#flags}: line is a type definition (without type map) */
+	private static final int LINE_TYPEDEF = 0x40;
+	// END AGT#23 2026-10-18
+	// START AGT#1 2026-10-18
+	/** Classification bit in {@link Element.TokenCache#flags}: line is a variable declaration */
+	private static final int LINE_DECLARATION = 0x80;
+	// END AGT#1 2026-10-18
+
+	/**
+	 * Returns the classification bits of the unbroken line {@code _lineNo} held in the
+	 * given token cache, computes and stores them if not done before.
+	 * @param _cache - the token cache of this element
+	 * @param _lineNo - index of the unbroken line
+	 * @return the combination of the LINE_... bits
+	 */
+	private static int getLineClasses(TokenCache _cache, int _lineNo)
+	{
+		int classes = _cache.flags[_lineNo];
+		if (classes == 0) {
+			classes = LINE_CLASSIFIED;
+			if (isAssignment(_cache.getTokens(_lineNo))) {
+				classes |= LINE_ASSIGNMENT;
+			}
+			StringList tokens = _cache.getTokens(_lineNo);
+			// START AGT#23 2026-10-18
+			if (tokens.count() > 0 && tokens.get(0).equalsIgnoreCase("type") && isTypeDefinition(_cache.lines[_lineNo], null)) {
+				classes |= LINE_TYPEDEF;
+			}
+			// END AGT#23 2026-10-18
+			// START AGT#1 2026-10-18
+			if (isDeclaration(_cache.getTokens(_lineNo))) {
+				classes |= LINE_DECLARATION;
+			}
+			// END AGT#1 2026-10-18
+			if (isJump(tokens)) {
+				classes |= LINE_JUMP;
+			}
+			if (isOutput(tokens)) {
+				classes |= LINE_OUTPUT;
+			}
+			if (isInput(tokens)) {
+				classes |= LINE_INPUT;
+			}
+			if ((classes & (LINE_JUMP | LINE_OUTPUT)) == 0 && Function.isFunction(_cache.lines[_lineNo])) {
+				classes |= LINE_PROCEDURE_CALL;
+			}
+			_cache.flags[_lineNo] = classes;
+		}
+		return classes;
+	}
+
+	/** @param tokens - the token list of a line (will be modified by operator unification) */
+	private static boolean isAssignment(StringList tokens)
+	{
+		unifyOperators(tokens, true);
+		return tokens.contains("<-");
+	}
+
+	/** @param tokens - the token list of a line */
+	private static boolean isJump(StringList tokens)
+	{
+		return (tokens.indexOf(CodeParser.getKeyword("preReturn"), !CodeParser.ignoreCase) == 0 ||
+				tokens.indexOf(CodeParser.getKeyword("preLeave"), !CodeParser.ignoreCase) == 0 ||
+				tokens.indexOf(CodeParser.getKeyword("preExit"), !CodeParser.ignoreCase) == 0
+				);
+	}
+
+	/** @param tokens - the token list of a line */
+	private static boolean isOutput(StringList tokens)
+	{
+		return (tokens.indexOf(CodeParser.getKeyword("output"), !CodeParser.ignoreCase) == 0);
+	}
+
+	/** @param tokens - the token list of a line */
+	private static boolean isInput(StringList tokens)
+	{
+		return (tokens.indexOf(CodeParser.getKeyword("input"), !CodeParser.ignoreCase) == 0);
+	}
+	// END AGT#22 2026-10-18
 
 	// START #274 2016-10-16 (KGU): Improved support for Code export
 	public static boolean isTurtleizerMove(String line)
@@ -606,8 +744,11 @@ public class Instruction extends Element {
 	// START KGU#236 2016-08-10: Issue #227: New classification for input and output
 	public static boolean isOutput(String line)
 	{
-		StringList tokens = Element.splitLexically(line, true);
-		return (tokens.indexOf(CodeParser.getKeyword("output"), !CodeParser.ignoreCase) == 0);
+		// START AGT#22 2026-10-18: Token-based check extracted
+		//StringList tokens = Element.splitLexically(line, true);
+		//return (tokens.indexOf(CodeParser.getKeyword("output"), !CodeParser.ignoreCase) == 0);
+		return isOutput(Element.splitLexically(line, true));
+		// END AGT#22 2026-10-18
 	}
 	public boolean isOutput()
 	{
@@ -619,22 +760,35 @@ public class Instruction extends Element {
 		//		return true;
 		//	}
 		//}
-		StringList lines = this.getUnbrokenText();
-		for (int i = 0; i < lines.count(); i++)
+		// START AGT#22 2026-10-18: Use the cached classification
+		//StringList lines = this.getUnbrokenText();
+		//for (int i = 0; i < lines.count(); i++)
+		//{
+		//	if (isOutput(lines.get(i)))
+		//	{
+		//		return true;
+		//	}
+		//}
+		TokenCache cache = this.getTokenCache();
+		for (int i = 0; i < cache.lines.length; i++)
 		{
-			if (isOutput(lines.get(i)))
+			if ((getLineClasses(cache, i) & LINE_OUTPUT) != 0)
 			{
 				return true;
 			}
 		}
+		// END AGT#22 2026-10-18
 		// END KGU#413 2017-06-09
 		return false;
 	}
 	
 	public static boolean isInput(String line)
 	{
-		StringList tokens = Element.splitLexically(line, true);
-		return (tokens.indexOf(CodeParser.getKeyword("input"), !CodeParser.ignoreCase) == 0);
+		// START AGT#22 2026-10-18: Token-based check extracted
+		//StringList tokens = Element.splitLexically(line, true);
+		//return (tokens.indexOf(CodeParser.getKeyword("input"), !CodeParser.ignoreCase) == 0);
+		return isInput(Element.splitLexically(line, true));
+		// END AGT#22 2026-10-18
 	}
 	public boolean isInput()
 	{
@@ -646,14 +800,24 @@ public class Instruction extends Element {
 		//		return true;
 		//	}
 		//}
-		StringList lines = this.getUnbrokenText();
-		for (int i = 0; i < lines.count(); i++)
+		// START AGT#22 2026-10-18: Use the cached classification
+		//StringList lines = this.getUnbrokenText();
+		//for (int i = 0; i < lines.count(); i++)
+		//{
+		//	if (isInput(lines.get(i)))
+		//	{
+		//		return true;
+		//	}
+		//}
+		TokenCache cache = this.getTokenCache();
+		for (int i = 0; i < cache.lines.length; i++)
 		{
-			if (isInput(lines.get(i)))
+			if ((getLineClasses(cache, i) & LINE_INPUT) != 0)
 			{
 				return true;
 			}
 		}
+		// END AGT#22 2026-10-18
 		// END KGU#413 2017-06-09
 		return false;
 	}
@@ -708,7 +872,13 @@ public class Instruction extends Element {
 	 */
 	public static boolean isDeclaration(String line)
 	{
-    	StringList tokens = Element.splitLexically(line, true);
+		// START AGT#1 2026-10-18: Token-based check extracted
+		return isDeclaration(Element.splitLexically(line, true));
+	}
+	/** @param tokens - the token list of a line (will be modified by operator unification) */
+	private static boolean isDeclaration(StringList tokens)
+	{
+		// END AGT#1 2026-10-18
     	unifyOperators(tokens, true);
     	boolean typeA = tokens.indexOf("var") == 0 && tokens.indexOf(":") > 1;
     	boolean typeB = tokens.indexOf("dim") == 0 && tokens.indexOf("as") > 1;
@@ -879,11 +1049,19 @@ public class Instruction extends Element {
 	public boolean isMereDeclaratory()
 	{
 		boolean isHideable = true;
-		StringList lines = this.getUnbrokenText();
-		for (int i = 0; isHideable && i < lines.count(); i++) {
-			String line = lines.get(i);
-			isHideable = line.isEmpty() || isTypeDefinition(line) || (isDeclaration(line) && !isAssignment(line));
+		// START AGT#1 2026-10-18: Use the cached classification (called on every execution step)
+		//StringList lines = this.getUnbrokenText();
+		//for (int i = 0; isHideable && i < lines.count(); i++) {
+		//	String line = lines.get(i);
+		//	isHideable = line.isEmpty() || isTypeDefinition(line) || (isDeclaration(line) && !isAssignment(line));
+		//}
+		TokenCache cache = this.getTokenCache();
+		for (int i = 0; isHideable && i < cache.lines.length; i++) {
+			int classes = getLineClasses(cache, i);
+			isHideable = cache.lines[i].isEmpty() || (classes & LINE_TYPEDEF) != 0
+					|| (classes & (LINE_DECLARATION | LINE_ASSIGNMENT)) == LINE_DECLARATION;
 		}
+		// END AGT#1 2026-10-18
 		return isHideable;
 	}
 	// END KGU#477 2017-12-06
@@ -970,104 +1148,221 @@ public class Instruction extends Element {
 		//for (int i = 0; i < this.getText().count(); i++) {
 		//	updateTypeMapFromLine(typeMap, this.getText().get(i), i);
 		//}
-		StringList lines = this.getUnbrokenText();
-		for (int i = 0; i < lines.count(); i++) {
-			updateTypeMapFromLine(typeMap, lines.get(i), i);
+		// START AGT#23 2026-10-18: Use the declaration descriptors cached with the tokens
+		//StringList lines = this.getUnbrokenText();
+		//for (int i = 0; i < lines.count(); i++) {
+		//	updateTypeMapFromLine(typeMap, lines.get(i), i);
+		//}
+		TokenCache cache = this.getTokenCache();
+		for (int i = 0; i < cache.lines.length; i++) {
+			LineDeclaration decl = (LineDeclaration)cache.declarations[i];
+			if (decl == null) {
+				decl = analyseDeclaration(cache.lines[i], cache.getTokens(i));
+				cache.declarations[i] = decl;
+			}
+			applyDeclaration(typeMap, decl, cache.lines[i], i);
 		}
+		// END AGT#23 2026-10-18
 		// END KGU#413 2017-06-09
 	}
 	
-	public void updateTypeMapFromLine(HashMap<String, TypeMapEntry> typeMap, String line, int lineNo)
+	// START AGT#23 2026-10-18: Separation of the context-free and the type map-dependent analysis
+	/**
+	 * Immutable result of the context-free part of the declaration analysis of a single
+	 * line (see {@link Instruction#updateTypeMapFromLine(HashMap, String, int)}), such that
+	 * the type map contributions of an unchanged line may be re-applied to a new type map
+	 * without lexing and parsing the line again.
+	 */
+	private static final class LineDeclaration {
+		/** Kind: nothing to be registered */
+		static final int KIND_NONE = 0;
+		/** Kind: Pascal or BASIC-style variable declaration (var, dim, const) of {@link #varNames} */
+		static final int KIND_VARS = 1;
+		/** Kind: assignment (possibly with C-style declaration) to {@link #varName} */
+		static final int KIND_ASSIGNMENT = 2;
+		/** Kind: line starts with "type", may be a type definition (depends on the type map) */
+		static final int KIND_TYPEDEF = 3;
+		static final LineDeclaration NONE = new LineDeclaration(KIND_NONE, null, null, null, "", false, false, false, 0);
+
+		final int kind;
+		/** KIND_VARS: the declared variable names */
+		final String[] varNames;
+		/** KIND_ASSIGNMENT: the target variable name (may be null) */
+		final String varName;
+		/**
+		 * KIND_ASSIGNMENT: tokens of the assigned expression if the type is to be derived from it (new variable),
+		 * KIND_TYPEDEF: the blank-free unified tokens of the line
+		 */
+		final String[] tokens;
+		/** The explicit type specification (may be empty) */
+		final String typeSpec;
+		final boolean isAssigned;
+		/** KIND_ASSIGNMENT: whether there is a type specification left of the variable name (C style) */
+		final boolean isCStyleDecl;
+		/** KIND_ASSIGNMENT: whether the type has to be derived from the assigned value */
+		final boolean isDerived;
+		/** KIND_ASSIGNMENT: number of index brackets after the variable name of a derived type */
+		final int arrayDims;
+		
+		private LineDeclaration(int _kind, String[] _varNames, String _varName, String[] _tokens, String _typeSpec,
+				boolean _isAssigned, boolean _isCStyleDecl, boolean _isDerived, int _arrayDims)
+		{
+			kind = _kind;
+			varNames = _varNames;
+			varName = _varName;
+			tokens = _tokens;
+			typeSpec = _typeSpec;
+			isAssigned = _isAssigned;
+			isCStyleDecl = _isCStyleDecl;
+			isDerived = _isDerived;
+			arrayDims = _arrayDims;
+		}
+	}
+
+	/**
+	 * Performs the context-free part of the declaration analysis of the given line, the
+	 * result of which may be cached with the tokens.
+	 * @param line - the (unbroken) line
+	 * @param tokens - the lexical tokens of {@code line} with restored strings (will be modified)
+	 * @return the declaration descriptor
+	 */
+	private LineDeclaration analyseDeclaration(String line, StringList tokens)
 	{
-		StringList tokens = Element.splitLexically(line, true);
-		String varName = null;
-		String typeSpec = "";
-		boolean isAssigned = false;
-		boolean isDeclared = true;
 		unifyOperators(tokens, true);
 		tokens.removeAll(" ");
 		if (tokens.count() == 0) {
-			return;
+			return LineDeclaration.NONE;
 		}
 		String token0 = tokens.get(0).toLowerCase();
 		int posColon = tokens.indexOf(token0.equals("dim") ? "as" : ":", false);
 		int posAsgnmt = tokens.indexOf("<-");
 		// First we try to extract a type description from a Pascal-style variable declaration
 		if (tokens.count() > 3 && (token0.equals("var") || token0.equals("dim") || token0.equals("const")) && posColon >= 2) {
-			isAssigned = posAsgnmt > posColon;
-			typeSpec = tokens.concatenate(" ", posColon+1, (isAssigned ? posAsgnmt : tokens.count()));
+			boolean isAssigned = posAsgnmt > posColon;
+			String typeSpec = tokens.concatenate(" ", posColon+1, (isAssigned ? posAsgnmt : tokens.count()));
 			// There may be one or more variable names between "var" and ':' if there is no assignment
 			StringList varTokens = tokens.subSequence(1, posColon);
 			varTokens.removeAll(" ");
+			StringList varNames = new StringList();
 			for (int i = 0; i < varTokens.count(); i++)
 			{
 				if (Function.testIdentifier(varTokens.get(i), null) && (i + 1 >= varTokens.count() || varTokens.get(i+1).equals(","))) {
-					addToTypeMap(typeMap, varTokens.get(i), typeSpec, lineNo, isAssigned, true, false);
+					varNames.add(varTokens.get(i));
 				}
 			}
+			return new LineDeclaration(LineDeclaration.KIND_VARS, varNames.toArray(), null, null, typeSpec, isAssigned, false, false, 0);
 		}
 		// Next we try to extract type information from an initial assignment (without "var" keyword)
 		else if (posAsgnmt > 0 && !token0.equals("var") && !token0.equals("dim")) {
-			// Type information might be found left of the variable name or be derivable from the initial value
-			// START KGU#375 2017-09-20: Enh. #388 - a "const" keyword might be here, drop it
+			// A "const" keyword might be here, drop it
 			if (token0.equals("const")) {
 				tokens.remove(0);
 				posAsgnmt--;
 			}
-			// EMD KGU#375 2017-09-20
 			StringList leftSide = tokens.subSequence(0, posAsgnmt);
 			StringList rightSide = tokens.subSequence(posAsgnmt+1, tokens.count());
-			isAssigned = rightSide.count() > 0;
+			boolean isAssigned = rightSide.count() > 0;
 			// Isolate the variable name from the left-hand side of the assignment
-			varName = getAssignedVarname(leftSide);
+			String varName = getAssignedVarname(leftSide);
 			// Without const, var, or dim a declaration must be a C-style declaration
 			boolean isCStyleDecl = Instruction.isDeclaration(line);
+			String typeSpec = "";
+			boolean isDerived = false;
+			int arrayDims = 0;
 			// If the target is a record component we won't add a type specification.
 			if (varName != null && !varName.contains(".")) {
 				int pos = leftSide.indexOf(varName);
 				// C-style type declaration left of the variable name?
 				typeSpec = leftSide.concatenate(null, 0, pos);
 				// Check for array declaration (or array element access)
-				while (!typeSpec.isEmpty() && (pos = leftSide.indexOf("[")) > 1) {
-					typeSpec += leftSide.concatenate(null, pos, leftSide.indexOf("]")+1);
-					leftSide.remove(pos, leftSide.indexOf("]")+1);
+				// (Unlike before, a missing closing bracket no longer causes an endless loop)
+				int posEnd;
+				while (!typeSpec.isEmpty() && (pos = leftSide.indexOf("[")) > 1 && (posEnd = leftSide.indexOf("]")) > pos) {
+					typeSpec += leftSide.concatenate(null, pos, posEnd+1);
+					leftSide.remove(pos, posEnd+1);
 				}
-				// No explicit type specification but new variable?
-				if (typeSpec.isEmpty() && !typeMap.containsKey(varName)) {
-					//String expr = rightSide.concatenate(" ");
-					typeSpec = getTypeFromAssignedValue(rightSide, typeMap);
-					isDeclared = false;
-					if (typeSpec.isEmpty()) {
-						typeSpec = "???";
-					}
+				// No explicit type specification: derive it if it is a new variable
+				if (typeSpec.isEmpty()) {
+					isDerived = true;
 					// Maybe it's a multidimensional array, then reformulate it as "array of [array of ...]"
-					while (!typeSpec.isEmpty() && (pos = leftSide.indexOf("[")) == 1) {
-						typeSpec = "array of " + typeSpec;
-						leftSide.remove(pos, leftSide.indexOf("]")+1);
+					while (leftSide.indexOf("[") == 1 && (posEnd = leftSide.indexOf("]")) > 1) {
+						arrayDims++;
+						leftSide.remove(1, posEnd+1);
 					}
 				}
 			}
-			addToTypeMap(typeMap, varName, typeSpec, lineNo, isAssigned, isDeclared || isCStyleDecl, isCStyleDecl);
+			return new LineDeclaration(LineDeclaration.KIND_ASSIGNMENT, null, varName, (isDerived ? rightSide.toArray() : null),
+					typeSpec, isAssigned, isCStyleDecl, isDerived, arrayDims);
+		}
+		else if (token0.equals("type")) {
+			return new LineDeclaration(LineDeclaration.KIND_TYPEDEF, null, null, tokens.toArray(), "", false, false, false, 0);
 		}
-		// START KU#388 2017-08-07: Enh. #423
-		else if (isTypeDefinition(line, typeMap)) {
-			// FIXME: In future, array type definitions are also to be handled...
-			String typename = tokens.get(1);
-			// Because of possible C-style declarations we must not glue the tokens together with "".
-			typeSpec = tokens.concatenate(null, 3, tokens.count()).trim();
-			int posBrace = typeSpec.indexOf("{");
-			if (posBrace > 0 && tokens.get(tokens.count()-1).equals("}")) {
-				StringList compNames = new StringList();
-				StringList compTypes = new StringList();
-				this.extractDeclarationsFromList(typeSpec.substring(posBrace+1,  typeSpec.length()-1), compNames, compTypes);
-				addRecordTypeToTypeMap(typeMap, typename, typeSpec, compNames, compTypes, lineNo);
+		return LineDeclaration.NONE;
+	}
+
+	/**
+	 * Performs the type map-dependent part of the declaration analysis, i.e. registers the
+	 * declarations described by {@code decl} in {@code typeMap}.
+	 * @param typeMap - the type map to be updated
+	 * @param decl - the result of {@link #analyseDeclaration(String, StringList)} for {@code line}
+	 * @param line - the analysed line
+	 * @param lineNo - the index of the line
+	 */
+	private void applyDeclaration(HashMap<String, TypeMapEntry> typeMap, LineDeclaration decl, String line, int lineNo)
+	{
+		switch (decl.kind) {
+		case LineDeclaration.KIND_VARS:
+			for (int i = 0; i < decl.varNames.length; i++) {
+				addToTypeMap(typeMap, decl.varNames[i], decl.typeSpec, lineNo, decl.isAssigned, true, false);
 			}
-			else {
-				// According to isTypeefinition() this must now be an alias for an existing type
-				typeMap.put(":" + typename, typeMap.get(":" + tokens.get(3)));
+			break;
+		case LineDeclaration.KIND_ASSIGNMENT:
+		{
+			String typeSpec = decl.typeSpec;
+			boolean isDeclared = true;
+			// No explicit type specification but new variable?
+			if (decl.isDerived && !typeMap.containsKey(decl.varName)) {
+				typeSpec = getTypeFromAssignedValue(new StringList(decl.tokens), typeMap);
+				isDeclared = false;
+				if (typeSpec.isEmpty()) {
+					typeSpec = "???";
+				}
+				for (int i = 0; i < decl.arrayDims; i++) {
+					typeSpec = "array of " + typeSpec;
+				}
 			}
+			addToTypeMap(typeMap, decl.varName, typeSpec, lineNo, decl.isAssigned, isDeclared || decl.isCStyleDecl, decl.isCStyleDecl);
 		}
-		// END KGU#388 2017-08-07
+			break;
+		case LineDeclaration.KIND_TYPEDEF:
+			if (isTypeDefinition(line, typeMap)) {
+				StringList tokens = new StringList(decl.tokens);
+				// FIXME: In future, array type definitions are also to be handled...
+				String typename = tokens.get(1);
+				// Because of possible C-style declarations we must not glue the tokens together with "".
+				String typeSpec = tokens.concatenate(null, 3, tokens.count()).trim();
+				int posBrace = typeSpec.indexOf("{");
+				if (posBrace > 0 && tokens.get(tokens.count()-1).equals("}")) {
+					StringList compNames = new StringList();
+					StringList compTypes = new StringList();
+					this.extractDeclarationsFromList(typeSpec.substring(posBrace+1,  typeSpec.length()-1), compNames, compTypes);
+					addRecordTypeToTypeMap(typeMap, typename, typeSpec, compNames, compTypes, lineNo);
+				}
+				else {
+					// According to isTypeefinition() this must now be an alias for an existing type
+					typeMap.put(":" + typename, typeMap.get(":" + tokens.get(3)));
+				}
+			}
+			break;
+		}
+	}
+	// END AGT#23 2026-10-18
+	
+	public void updateTypeMapFromLine(HashMap<String, TypeMapEntry> typeMap, String line, int lineNo)
+	{
+		// START AGT#23 2026-10-18: Decomposed into the context-free and the type map-dependent part
+		applyDeclaration(typeMap, analyseDeclaration(line, Element.splitLexically(line, true)), line, lineNo);
+		// END AGT#23 2026-10-18
 	}
 	
 	/**
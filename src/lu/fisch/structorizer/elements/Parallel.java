@@ -53,6 +53,7 @@ package lu.fisch.structorizer.elements;
  *      Kay Gürtzig     2016.07.21      KGU#207: Slight performance improvement in getElementByCoord()
  *      Kay Gürtzig     2016.07.31      Enh. #128: New mode "comments plus text" supported, drawing code delegated
  *      Kay Gürtzig     2018.04.04      Issue #529: Critical section in prepareDraw() reduced.
+ *      agent           2026.10.18      AGT#23: setText() resets the cached variable retrieval results
  *
  ******************************************************************************************************
  *
@@ -220,6 +221,9 @@ public class Parallel extends Element
     			qs.removeElementAt(qs.size()-1);
     		}
     	}
+    	// START AGT#23 2026-10-18: Branches may have been added or removed
+    	this.resetVarSummaryUp();
+    	// END AGT#23 2026-10-18
 
     }
 
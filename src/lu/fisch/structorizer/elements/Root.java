@@ -128,11 +128,28 @@ package lu.fisch.structorizer.elements;
  *      Kay Gürtzig     2018.07.17      Issue #561: getElementCounts() modified for AttributeInspector update
  *      Kay Gürtzig     2018.07.20      Enh. #563: Analyser accepts simplified record initializers#
  *      Kay Gürtzig     2018.07.25      Dropped field highlightVars (Element.E_VARHIGHLIGHT works directly)
+ *      agent           2026.10.18      AGT#22: getUsedVarNames() and some analyse methods use the token cache
+ *      agent           2026.10.18      AGT#23: Variable names cached per line, type map only rebuilt on relevant changes
+ *      agent           2026.10.18      AGT#23: Variable retrieval results cached per subtree (VarSummary)
+ *      agent           2026.10.18      AGT#24: Incremental analysis (AnalysisCache), analysis of snapshots (copyForAnalysis())
+ *      agent           2026.10.18      AGT#25: Undo entries share unchanged elements, size of the undo stack limited
  *      
  ******************************************************************************************************
  *
  *      Comment:		/
  *      
+ *      2026.10.18 (AGT#23)
+ *      - Every element caches the variable retrieval result of its subtree (VarSummary: sorted names,
+ *        constant definitions in text order), combined from its own lines (via the line cache) and the
+ *        results of its branches. A modification marks the element and its ancestors as outdated (with
+ *        every drawing reset, explicitly on changes of the disabled flag), so getVarNames() only
+ *        recomputes the elements on the path from the changed elements to the root (combining the
+ *        cached results of their branches); the live diagram never shares elements with the undo
+ *        entries (they are copied on undo), so the parent chains are reliable.
+ *      - An element result is retained (identical) as long as its token cache, disabled flag, For loop
+ *        specifics, and branch results are, so getTypeInfo() reuses the type map if the result of the
+ *        body is still the same object. The type map itself is rebuilt as a whole, since contributions
+ *        depend on the entries registered before (e.g. the types of assigned expressions).
  *      2016.03.25 (KGU#163)
  *      - Detection of un-initialised variables (analyser check #3) only worked for variables with
  *        initialisation after use. Variables nowhere initialised weren't found at all! This was now
@@ -194,6 +211,7 @@ import com.stevesoft.pat.*;
 import java.awt.Point;
 import java.awt.Polygon;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Date;
 
@@ -266,6 +284,14 @@ public class Root extends Element {
 
 	private Stack<Subqueue> undoList = new Stack<Subqueue>();
 	private Stack<Subqueue> redoList = new Stack<Subqueue>();
+	// START AGT#25 2026-10-18: Undo entries share unchanged elements, the undo stack is limited
+	/** Maximum number of undo entries (0 = unlimited) */
+	private static int undoMaxEntries = 250;
+	/** Maximum estimated memory of the undo and redo entries in MiB (0 = unlimited) */
+	private static int undoMaxMemory = 64;
+	/** Estimated memory of the undo and redo entries in bytes (may exceed the actual value) */
+	private long undoMemory = 0;
+	// END AGT#25 2026-10-18
 
 	public String filename = "";
 	// START KGU#316 2016-12-28: Enh. #318 Consider unzipped arrz-files
@@ -458,10 +484,43 @@ public class Root extends Element {
 	//private HashMap<String, TypeMapEntry> typeMap = new HashMap<String, TypeMapEntry>();
 	private HashMap<String, TypeMapEntry> typeMap = null;
 	// END KGU#502 2018-03-12
+	// START AGT#23 2026-10-18: Avoid complete rebuild of the type map after irrelevant changes
+	/** Set by {@link #clearTypeInfo()}: {@link #typeMap} must be checked against {@link #typeMapSignature} */
+	private boolean typeMapSuspect = false;
+	/** Result of {@link #getTypeMapSignature()} when the {@link #typeMap} was built (null = not reusable) */
+	private Object[] typeMapSignature = null;
+	// END AGT#23 2026-10-18
 	// END KGU#261 2017-01-19
 	// START KGU#163 2016-03-25: Added to solve the complete detection of unknown/uninitialised identifiers
 	// Pre-processed parser preference keywords to match them against tokenized strings
 	private static Vector<StringList> splitKeywords = new Vector<StringList>();
+	// START AGT#23 2026-10-18: Incremental variable and type retrieval
+	/** {@link CodeParser#getKeywordRevision()} {@link #splitKeywords} were derived with */
+	private static long splitKeywordsRevision = -1;
+	/** Variable name retrieval results per text line, see {@link #getVarNames(StringList, HashMap)} */
+	// START AGT#24 2026-10-18: No longer final - analysis snapshots share the cache of their original
+	//private final HashMap<String, LineVarInfo> lineVarCache = new HashMap<String, LineVarInfo>();
+	private HashMap<String, LineVarInfo> lineVarCache = new HashMap<String, LineVarInfo>();
+	// END AGT#24 2026-10-18
+	/** {@link CodeParser#getKeywordRevision()} the {@link #lineVarCache} entries were derived with */
+	private long lineVarCacheRevision = -1;
+	/** {@link CodeParser#ignoreCase} the {@link #lineVarCache} entries were derived with */
+	private boolean lineVarCacheIgnoreCase = false;
+	/** Minimum number of lines the {@link #lineVarCache} may grow to before it gets cleared */ 
+	private static final int LINE_VAR_CACHE_LIMIT = 4096;
+	/** Guards the variable retrieval results cached in the elements, see {@link #getBodyVarSummary()} */
+	private final Object varSummaryLock = new Object();
+	/** {@link CodeParser#getKeywordRevision()} the variable retrieval results cached in the elements were derived with */
+	private long varSummaryRevision = -1;
+	/** {@link CodeParser#ignoreCase} the variable retrieval results cached in the elements were derived with */
+	private boolean varSummaryIgnoreCase = false;
+	// END AGT#23 2026-10-18
+	// START AGT#24 2026-10-18: Incremental analysis of snapshots
+	/** Results of the previous analysis, only set during {@link #analyse(AnalysisCache)} */
+	private AnalysisCache analysisCache = null;
+	/** Includable diagrams to be used instead of those of the Arranger (for analysis snapshots), see {@link #copyForAnalysis(HashMap)} */
+	private HashMap<String, Vector<Root>> includeSnapshots = null;
+	// END AGT#24 2026-10-18
 	private String[] operatorsAndLiterals = {"false", "true", "div"};
 	// END KGU#163 2016-03-25
 
@@ -619,11 +678,18 @@ public class Root extends Element {
 	}
 	// END KGU#456 2017-11-05
 	// Mapping keyword -> generator titles
-	private static Hashtable<String, StringList> caseAwareKeywords = null;
-	private static Hashtable<String, StringList> caseUnawareKeywords = null;
+	// START AGT#24 2026-10-18: Analysis may run concurrently
+	//private static Hashtable<String, StringList> caseAwareKeywords = null;
+	//private static Hashtable<String, StringList> caseUnawareKeywords = null;
+	private static volatile Hashtable<String, StringList> caseAwareKeywords = null;
+	private static volatile Hashtable<String, StringList> caseUnawareKeywords = null;
+	// END AGT#24 2026-10-18
 	// END KGU#239 2016-08-12
 	// START KGU#239 2017-04-11: Some structorizer-internal keywords are also to be checked against
-	private static Set<String> structorizerKeywords = new HashSet<String>();
+	// START AGT#24 2026-10-18: Analysis may run concurrently, so the set is replaced rather than refilled
+	//private static Set<String> structorizerKeywords = new HashSet<String>();
+	private static volatile Set<String> structorizerKeywords = new HashSet<String>();
+	// END AGT#24 2026-10-18
 	// END KGU#239 2017-04-11
 
 	private Vector<Updater> updaters = new Vector<Updater>();
@@ -1612,6 +1678,9 @@ public class Root extends Element {
 			oldChildren.diagramRefs = this.includeList.concatenate(",");
 		}
 		// END KGU#376 2017-07-01
+		// START AGT#25 2026-10-18: Share the unchanged elements with the previous entry
+		this.undoMemory += new UndoSharing(undoList.isEmpty() ? null : undoList.peek()).share(oldChildren);
+		// END AGT#25 2026-10-18
 		undoList.add(oldChildren);
 		clearRedo();
 		// START KGU#137 2016-01-11: Bugfix #103
@@ -1621,6 +1690,9 @@ public class Root extends Element {
 			this.undoLevelOfLastSave = -1;
 		}
 		// END KGU#137 2016-01-11
+		// START AGT#25 2026-10-18
+		this.limitUndo();
+		// END AGT#25 2026-10-18
 		// START KGU#117 2016-03-07: Enh. #77: On a substantial change, invalidate test coverage
 		this.clearRuntimeData();
 		// END KGU#117 2016-03-07
@@ -1739,10 +1811,16 @@ public class Root extends Element {
                     redoList.peek().diagramRefs = this.includeList.concatenate(",");
                 }
                 // END KGU#507 2018-03-15
+                // START AGT#25 2026-10-18: Share the unchanged elements with the entry to be restored
+                this.undoMemory += new UndoSharing(undoList.peek()).share(redoList.peek());
+                // END AGT#25 2026-10-18
             // START KGU#365 2017-03-19: Enh. #380
             }
             // END KGU#365 2017-03-19
-            children = undoList.pop();
+            // START AGT#25 2026-10-18: The entry may share elements with other entries, so it must not be modified
+            //children = undoList.pop();
+            children = restoreUndoEntry(undoList.pop());
+            // END AGT#25 2026-10-18
             children.parent = this;
             // START KGU#120 2016-01-02: Bugfix #85 - restore my StringList attributes from stack
             this.setText(children.getText().copy());
@@ -1780,6 +1858,9 @@ public class Root extends Element {
             // FIXME: Certain explicit declarations should remain
             this.clearTypeInfo();
             // END KGU#261 2017-01-26
+            // START AGT#25 2026-10-18
+            this.limitUndo();
+            // END AGT#25 2026-10-18
         }
     }
 
@@ -1817,7 +1898,11 @@ public class Root extends Element {
                         undoList.peek().diagramRefs = this.includeList.concatenate(",");
                     }
                     // END KGU#507 2018-03-15
-                    children = redoList.pop();
+                    // START AGT#25 2026-10-18: Share the unchanged elements with the entry to be restored
+                    //children = redoList.pop();
+                    this.undoMemory += new UndoSharing(redoList.peek()).share(undoList.peek());
+                    children = restoreUndoEntry(redoList.pop());
+                    // END AGT#25 2026-10-18
                     children.parent=this;
                     // START KGU#120 2016-01-02: Bugfix #85 - restore my StringList attributes from the stack
                     this.setText(children.getText().copy());
@@ -1845,9 +1930,103 @@ public class Root extends Element {
                     // FIXME: Certain explicit declarations should remain
                     this.clearTypeInfo();
                     // END KGU#261 2017-01-26
+                    // START AGT#25 2026-10-18
+                    this.limitUndo();
+                    // END AGT#25 2026-10-18
             }
     }
 
+    // START AGT#25 2026-10-18: Undo entries share unchanged elements, the undo stack is limited
+    /**
+     * Creates a new diagram body from the given undo or redo entry. The entry itself must
+     * not be used since it may share elements with other entries.
+     * @param _entry - an entry taken from the undo or redo stack
+     * @return a copy of {@code _entry} including the parked attributes
+     */
+    private Subqueue restoreUndoEntry(Subqueue _entry)
+    {
+    	Subqueue body = (Subqueue)_entry.copy();
+    	body.setText(_entry.getText());
+    	body.setComment(_entry.getComment());
+    	body.rootAttributes = _entry.rootAttributes;
+    	body.diagramRefs = _entry.diagramRefs;
+    	return body;
+    }
+
+    /**
+     * Discards the oldest undo entries as far as the undo stack exceeds the configured maximum
+     * number of entries or the undo and redo entries exceed the configured memory. The most recent
+     * undo entry is always retained.
+     * @see #setUndoLimits(int, int)
+     */
+    private void limitUndo()
+    {
+    	int nEvict = 0;
+    	if (undoMaxEntries > 0 && undoList.size() > undoMaxEntries) {
+    		nEvict = undoList.size() - undoMaxEntries;
+    	}
+    	long maxMemory = (long)undoMaxMemory << 20;
+    	if (maxMemory > 0 && this.undoMemory > maxMemory) {
+    		// The estimate still includes discarded entries, so estimate the retained entries anew
+    		// (redo entries first, then undo entries from the top)
+    		Vector<Subqueue> entries = new Vector<Subqueue>(redoList);
+    		for (int i = undoList.size() - 1; i >= 0; i--) {
+    			entries.add(undoList.get(i));
+    		}
+    		long[] sizes = UndoSharing.estimate(entries);
+    		// Number of undo entries to be retained
+    		int nKeep = Math.min(undoList.size(), 1);
+    		while (nKeep < undoList.size() && sizes[redoList.size() + nKeep] <= maxMemory) {
+    			nKeep++;
+    		}
+    		nEvict = Math.max(nEvict, undoList.size() - nKeep);
+    		int nRetained = redoList.size() + undoList.size() - nEvict;
+    		this.undoMemory = (nRetained > 0) ? sizes[nRetained - 1] : 0;
+    	}
+    	if (nEvict > 0) {
+    		undoList.subList(0, nEvict).clear();
+    		// The saved state is the state at undo level undoLevelOfLastSave - it may have gone lost
+    		if (this.undoLevelOfLastSave >= nEvict) {
+    			this.undoLevelOfLastSave -= nEvict;
+    		}
+    		else {
+    			this.undoLevelOfLastSave = -1;
+    		}
+    	}
+    }
+
+    /**
+     * Configures the limits of the undo stacks of all diagrams. On exceeding a limit, the oldest
+     * undo entries will be discarded.
+     * @param _maxEntries - maximum number of undo entries per diagram (0 = unlimited)
+     * @param _maxMemory - maximum estimated memory of the undo and redo entries per diagram in MiB
+     * (0 = unlimited)
+     */
+    public static void setUndoLimits(int _maxEntries, int _maxMemory)
+    {
+    	undoMaxEntries = Math.max(_maxEntries, 0);
+    	undoMaxMemory = Math.max(_maxMemory, 0);
+    }
+
+    /**
+     * @return the maximum number of undo entries per diagram (0 = unlimited)
+     * @see #setUndoLimits(int, int)
+     */
+    public static int getUndoMaxEntries()
+    {
+    	return undoMaxEntries;
+    }
+
+    /**
+     * @return the maximum estimated memory of the undo and redo entries per diagram in MiB (0 = unlimited)
+     * @see #setUndoLimits(int, int)
+     */
+    public static int getUndoMaxMemory()
+    {
+    	return undoMaxMemory;
+    }
+    // END AGT#25 2026-10-18
+
     // START KGU#137 2016-01-11: Bugfix #103 - Synchronize saving with undo / redo stacks
     /**
      * To be called after successful saving the diagram as NSD in order to record
@@ -2025,15 +2204,78 @@ public class Root extends Element {
     }
     // END KGU 2015-10-16
     
+    // START AGT#24 2026-10-18: Analysis snapshots bring their includes along
+    /**
+     * @return true if includable diagrams may be retrieved via {@link #findIncludes(String)}
+     */
+    private boolean canFindIncludes()
+    {
+    	return this.includeSnapshots != null || Arranger.hasInstance();
+    }
+
+    /**
+     * Retrieves the includable diagrams with name {@code _name} among the include snapshots
+     * (if this is an analysis snapshot, see {@link #copyForAnalysis(HashMap)}) or in the Arranger
+     * @param _name - the name of the includable diagram
+     * @return the matching diagrams
+     * @see #canFindIncludes()
+     */
+    private Vector<Root> findIncludes(String _name)
+    {
+    	if (this.includeSnapshots != null) {
+    		Vector<Root> roots = this.includeSnapshots.get(_name);
+    		return (roots != null) ? roots : new Vector<Root>();
+    	}
+    	return Arranger.getInstance().findIncludesByName(_name);
+    }
+
+    /**
+     * Creates a copy of this diagram that may be analysed on a background thread (see
+     * {@link #analyse(AnalysisCache)}) without interfering with this diagram. Unlike
+     * {@link #copy()} it has no side effects, doesn't copy the undo information but the
+     * include list, and retains the element ids. The includable diagrams will be looked
+     * up in {@code _includeSnapshots} instead of the Arranger.
+     * Must be called on the thread that may modify this diagram (i.e. the event dispatch thread).
+     * @param _includeSnapshots - maps the names of includable diagrams to (snapshots of) the
+     * respective diagrams; these should refer to the same map
+     * @return the snapshot
+     */
+    public Root copyForAnalysis(HashMap<String, Vector<Root>> _includeSnapshots)
+    {
+    	Root snapshot = new Root(this.getText().copy());
+    	copyDetails(snapshot, false);
+    	snapshot.diagrType = this.diagrType;
+    	snapshot.children = (Subqueue)this.children.copy();
+    	snapshot.children.parent = snapshot;
+    	if (this.includeList != null) {
+    		snapshot.includeList = this.includeList.copy();
+    	}
+    	snapshot.includeSnapshots = _includeSnapshots;
+    	// The derived variable information only depends on the text lines
+    	synchronized (this.lineVarCache) {
+    		snapshot.lineVarCache = this.lineVarCache;
+    		snapshot.lineVarCacheRevision = this.lineVarCacheRevision;
+    		snapshot.lineVarCacheIgnoreCase = this.lineVarCacheIgnoreCase;
+    	}
+    	return snapshot;
+    }
+    // END AGT#24 2026-10-18
+
     // START KGU#376 2017-07-02: Enh. #389
     protected void addFullText(StringList _lines, boolean _instructionsOnly, HashSet<Root> _implicatedRoots)
     {
     	if (!_implicatedRoots.contains(this)) {
-        	if (this.includeList != null && Arranger.hasInstance()) {
+        	// START AGT#24 2026-10-18: Analysis snapshots bring their includes along
+        	//if (this.includeList != null && Arranger.hasInstance()) {
+        	if (this.includeList != null && this.canFindIncludes()) {
+        	// END AGT#24 2026-10-18
         		_implicatedRoots.add(this);
         		for (int i = 0; i < this.includeList.count(); i++) {
         			String name = this.includeList.get(i);
-    				Vector<Root> roots = Arranger.getInstance().findIncludesByName(name);
+        			// START AGT#24 2026-10-18
+    				//Vector<Root> roots = Arranger.getInstance().findIncludesByName(name);
+    				Vector<Root> roots = this.findIncludes(name);
+    				// END AGT#24 2026-10-18
     				if (roots.size() == 1) {
     					roots.get(0).addFullText(_lines, _instructionsOnly, _implicatedRoots);
     				}
@@ -2167,7 +2409,10 @@ public class Root extends Element {
     		for(int i=0; i<lines.count(); i++)
     		{
     			// START KGU#375 2017-04-04: Enh. #388 method decomposed
-    			parts.addIfNew(getUsedVarNames(lines.get(i).trim(), keywords));
+    			// START AGT#22 2026-10-18: Own lines of _ele may be found in the token cache
+    			//parts.addIfNew(getUsedVarNames(lines.get(i).trim(), keywords));
+    			parts.addIfNew(getUsedVarNames(lines.get(i).trim(), keywords, _onlyEle ? _ele : null));
+    			// END AGT#22 2026-10-18
     			// END KGU#375 2017-04-04
     		}
     		
@@ -2194,6 +2439,20 @@ public class Root extends Element {
      */
     private StringList getUsedVarNames(String _line, String[] _keywords)
     {
+    	// START AGT#22 2026-10-18
+    	return getUsedVarNames(_line, _keywords, null);
+    }
+    /**
+     * Like {@link #getUsedVarNames(String, String[])} but retrieves the tokens of {@code _line}
+     * from the token cache of {@code _tokenSource} if possible (see {@link Element#getLineTokens(String)}).
+     * @param _line - the element text line to be analysed
+     * @param _keywords the set of parser keywords (if available)
+     * @param _tokenSource - the element {@code _line} (presumably) stems from, or null
+     * @return StringList of used variable names
+     */
+    private StringList getUsedVarNames(String _line, String[] _keywords, Element _tokenSource)
+    {
+    	// END AGT#22 2026-10-18
     	if (_keywords == null) {
     		_keywords = CodeParser.getAllProperties();
     	}
@@ -2209,7 +2468,10 @@ public class Root extends Element {
 		_line = DEC_PATTERN2.matcher(_line).replaceAll("$1 <- $1 - $2");
 		_line = DEC_PATTERN1.matcher(_line).replaceAll("$1 <- $1 - 1");
 
-		StringList tokens = Element.splitLexically(_line.trim(), true);
+		// START AGT#22 2026-10-18
+		//StringList tokens = Element.splitLexically(_line.trim(), true);
+		StringList tokens = (_tokenSource != null) ? _tokenSource.getLineTokens(_line.trim()) : Element.splitLexically(_line.trim(), true);
+		// END AGT#22 2026-10-18
 
 		Element.unifyOperators(tokens, false);
 
@@ -2389,104 +2651,451 @@ public class Root extends Element {
     	StringList varNames = new StringList();
 
     	// START KGU#163 2016-03-25: Pre-processed match patterns for identifier search
-    	splitKeywords.clear();
+    	// START AGT#23 2026-10-18: Only split them again if the keywords have changed
+    	//splitKeywords.clear();
     	String[] keywords = CodeParser.getAllProperties();
-    	for (int k = 0; k < keywords.length; k++)
-    	{
-    		splitKeywords.add(Element.splitLexically(keywords[k], false));
-    	}
+    	//for (int k = 0; k < keywords.length; k++)
+    	//{
+    	//	splitKeywords.add(Element.splitLexically(keywords[k], false));
+    	//}
+    	long revision = CodeParser.getKeywordRevision();
+    	updateSplitKeywords(keywords, revision);
+    	// END AGT#23 2026-10-18
     	// END KGU#163 2016-03-25
 
-    	for(int i=0; i<lines.count(); i++)
-    	{
-    		String allText = lines.get(i);
-    		Regex r;
+    	// START AGT#23 2026-10-18: The contributions of the lines are cached, only the merge is done each time
+    	VarSummary summary = getVarSummary(lines, keywords, revision);
+    	summary.registerConstants(constantDefs);
+    	varNames.add(new StringList(summary.names));
 
-    		// modify "inc" and "dec" function (Pascal)
-    		r = new Regex(BString.breakup("inc")+"[(](.*?)[,](.*?)[)](.*?)","$1 <- $1 + $2"); allText=r.replaceAll(allText);
-    		r = new Regex(BString.breakup("inc")+"[(](.*?)[)](.*?)","$1 <- $1 + 1"); allText=r.replaceAll(allText);
-    		r = new Regex(BString.breakup("dec")+"[(](.*?)[,](.*?)[)](.*?)","$1 <- $1 - $2"); allText=r.replaceAll(allText);
-    		r = new Regex(BString.breakup("dec")+"[(](.*?)[)](.*?)","$1 <- $1 - 1"); allText=r.replaceAll(allText);
+    	return varNames;
+    }
 
+    /**
+     * Retrieves the variable names and constant definitions from the given {@code _lines} as
+     * described for {@link #getVarNames(StringList, HashMap)}, using the results cached per line.
+     * @param _lines - the text lines
+     * @param _keywords - the current parser keywords (must correspond to {@link #splitKeywords})
+     * @param _revision - the current {@link CodeParser#getKeywordRevision()}
+     * @return the combined result of the lines
+     */
+    private VarSummary getVarSummary(StringList _lines, String[] _keywords, long _revision)
+    {
+    	if (_lines.count() == 0) {
+    		return VarSummary.EMPTY;
+    	}
+    	synchronized (lineVarCache) {
+    		if (lineVarCacheRevision != _revision || lineVarCacheIgnoreCase != CodeParser.ignoreCase
+    				|| lineVarCache.size() > Math.max(LINE_VAR_CACHE_LIMIT, 4 * _lines.count())) {
+    			lineVarCache.clear();
+    			lineVarCacheRevision = _revision;
+    			lineVarCacheIgnoreCase = CodeParser.ignoreCase;
+    		}
+    	}
+    	StringList varNames = new StringList();
+    	StringList constNames = new StringList();
+    	StringList constValues = new StringList();
+    	for (int i = 0; i < _lines.count(); i++)
+    	{
+    		String line = _lines.get(i);
+    		LineVarInfo info;
+    		synchronized (lineVarCache) {
+    			info = lineVarCache.get(line);
+    		}
+    		if (info == null) {
+    			info = getLineVarInfo(line, _keywords);
+    			synchronized (lineVarCache) {
+    				lineVarCache.put(line, info);
+    			}
+    		}
+    		if (info.isAssignment) {
+    			boolean wasNew = varNames.addOrderedIfNew(info.assignedVar);
+    			// It's a constant if marked as such and not having occurred before
+    			if (info.constValue != null && wasNew) {
+    				constNames.add(info.assignedVar);
+    				constValues.add(info.constValue);
+    			}
+    		}
+    		for (int j = 0; j < info.inputVars.length; j++) {
+    			varNames.addOrderedIfNew(info.inputVars[j]);
+    		}
+    	}
+    	return new VarSummary(varNames.toArray(), constNames.toArray(), constValues.toArray(), false, null);
+    }
 
-    		StringList tokens = Element.splitLexically(allText, true);
+    /**
+     * Retrieves the variable names and constant definitions from the lines the subtree of {@code _ele}
+     * contributes to {@link #getFullText(boolean)}, and the type map dependencies of the subtree.
+     * The result is cached in {@code _ele} and only recomputed after a change of the subtree (see
+     * {@link Element#resetVarSummaryUp()}), where unchanged branches provide their cached results.
+     * Must be called via {@link #getBodyVarSummary()}.
+     * @param _ele - an element of this diagram except the Root
+     * @param _keywords - the current parser keywords (must correspond to {@link #splitKeywords})
+     * @param _revision - the current {@link CodeParser#getKeywordRevision()}
+     * @return the result for the subtree
+     */
+    private VarSummary getVarSummary(Element _ele, String[] _keywords, long _revision)
+    {
+    	VarSummary summary = _ele.varSummary;
+    	if (summary != null && _ele.isVarSummaryUpToDate) {
+    		return summary;
+    	}
+    	// Own sources: the text (as token cache), the disabled flag, and the type map specifics
+    	ArrayList<Object> sources = new ArrayList<Object>();
+    	StringList ownLines = new StringList();
+    	boolean isTypeVolatile = false;
+    	sources.add(_ele.getTokenCache());
+    	sources.add(Boolean.toString(_ele.disabled));
+    	if (!_ele.disabled) {
+    		// The own lines as added by addFullText(_lines, false)
+    		if (_ele instanceof Jump || _ele instanceof Case || _ele instanceof For) {
+    			ownLines.add(_ele.getUnbrokenText());
+    		}
+    		else if (_ele instanceof Instruction) {
+    			((Instruction)_ele).addFullTextLines(ownLines);
+    		}
+    		else if (_ele instanceof Alternative || _ele instanceof While || _ele instanceof Repeat) {
+    			ownLines.add(_ele.getUnbrokenText().getLongString());
+    		}
+    		if (_ele instanceof For) {
+    			For loop = (For)_ele;
+    			sources.add(loop.isForInLoop() + " " + loop.getCounterVar() + " " + loop.getValueList());
+    		}
+    		else if (_ele instanceof Call && ((Call)_ele).isAssignment()) {
+    			// The result type of the called routine might have changed
+    			isTypeVolatile = true;
+    		}
+    	}
+    	// The branches (or children of a Subqueue): those of a disabled element contribute no lines
+    	// but to the type map, the last branch of a Case without default branch contributes no lines 
+    	Element[] branches = UndoSharing.getBranches(_ele);
+    	if (_ele instanceof Subqueue) {
+    		branches = new Element[((Subqueue)_ele).getSize()];
+    		for (int i = 0; i < branches.length; i++) {
+    			branches[i] = ((Subqueue)_ele).getElement(i);
+    		}
+    	}
+    	int nTextBranches = branches.length;
+    	if (_ele.disabled) {
+    		nTextBranches = 0;
+    	}
+    	else if (_ele instanceof Case && !((Case)_ele).hasDefaultBranch()) {
+    		nTextBranches--;
+    	}
+    	ArrayList<VarSummary> parts = new ArrayList<VarSummary>();
+    	parts.add(getVarSummary(ownLines, _keywords, _revision));
+    	for (int i = 0; i < branches.length; i++) {
+    		VarSummary branchSummary = getVarSummary(branches[i], _keywords, _revision);
+    		sources.add(branchSummary);
+    		isTypeVolatile = isTypeVolatile || branchSummary.isTypeVolatile;
+    		if (i < nTextBranches) {
+    			parts.add(branchSummary);
+    		}
+    	}
+    	// If nothing has changed then the identity of the result is retained (see getTypeMapSignature())
+    	Object[] sourceArray = sources.toArray();
+    	if (summary == null || !isSameSignature(sourceArray, summary.sources)) {
+    		summary = VarSummary.combine(parts, isTypeVolatile, sourceArray);
+    	}
+    	_ele.varSummary = summary;
+    	_ele.isVarSummaryUpToDate = true;
+    	return summary;
+    }
 
-    		Element.unifyOperators(tokens, false);
+    /**
+     * Provides the variable retrieval result of the diagram body (see {@link #getVarSummary(Element, String[], long)}),
+     * i.e. as far as nothing has changed since the last call, without visiting the elements
+     * @return the result for {@link #children}
+     */
+    private VarSummary getBodyVarSummary()
+    {
+    	String[] keywords = CodeParser.getAllProperties();
+    	long revision = CodeParser.getKeywordRevision();
+    	updateSplitKeywords(keywords, revision);
+    	synchronized (varSummaryLock) {
+    		if (varSummaryRevision != revision || varSummaryIgnoreCase != CodeParser.ignoreCase) {
+    			// All cached results are outdated
+    			this.children.traverse(new IElementVisitor() {
+    				@Override
+    				public boolean visitPreOrder(Element _ele) {
+    					_ele.isVarSummaryUpToDate = false;
+    					return true;
+    				}
+    				@Override
+    				public boolean visitPostOrder(Element _ele) {
+    					return true;
+    				}
+    			});
+    			varSummaryRevision = revision;
+    			varSummaryIgnoreCase = CodeParser.ignoreCase;
+    		}
+    		return getVarSummary(this.children, keywords, revision);
+    	}
+    }
 
-    		// Replace all split keywords by the respective configured strings
-    		// This replacement will be aware of the case sensitivity preference
-    		for (int kw = 0; kw < keywords.length; kw++)
-    		{    				
-    			if (keywords[kw].trim().length() > 0)
-    			{
-    				StringList keyTokens = splitKeywords.elementAt(kw);
-    				int keyLength = keyTokens.count();
-    				int pos = -1;
-    				while ((pos = tokens.indexOf(keyTokens, pos + 1, !CodeParser.ignoreCase)) >= 0)
-    				{
-    					tokens.set(pos, keywords[kw]);
-    					for (int j=1; j < keyLength; j++)
-    					{
-    						tokens.delete(pos+1);
-    					}
+    /**
+     * Provides the variable retrieval result of the lines {@link #addFullText(StringList, boolean, HashSet)}
+     * would add (with {@code _instructionsOnly = false}), i.e. of the included diagrams, the header of a
+     * subroutine, and the body, where only the header is analysed anew.
+     * @param _implicatedRoots - the diagrams already considered (to avoid cyclic recursion)
+     * @return the combined result
+     */
+    private VarSummary getVarSummary(HashSet<Root> _implicatedRoots)
+    {
+    	ArrayList<VarSummary> parts = new ArrayList<VarSummary>();
+    	if (!_implicatedRoots.contains(this)) {
+    		if (this.includeList != null && this.canFindIncludes()) {
+    			_implicatedRoots.add(this);
+    			for (int i = 0; i < this.includeList.count(); i++) {
+    				Vector<Root> roots = this.findIncludes(this.includeList.get(i));
+    				if (roots.size() == 1) {
+    					parts.add(roots.get(0).getVarSummary(_implicatedRoots));
     				}
     			}
     		}
-
-    		// Unify FOR-IN loops and FOR loops for the purpose of variable analysis
-    		if (!CodeParser.getKeyword("postForIn").trim().isEmpty())
+    		if (this.isSubroutine())
     		{
-    			tokens.replaceAll(CodeParser.getKeyword("postForIn"), "<-");
+    			String[] keywords = CodeParser.getAllProperties();
+    			long revision = CodeParser.getKeywordRevision();
+    			updateSplitKeywords(keywords, revision);
+    			parts.add(getVarSummary(this.getText(), keywords, revision));
     		}
+    		parts.add(this.getBodyVarSummary());
+    	}
+    	return VarSummary.combine(parts, false, null);
+    }
 
-    		// Here all the unification, alignment, reduction is done, now the actual analysis begins
+    /**
+     * Immutable result of the variable retrieval on a sequence of text lines (as with
+     * {@link Root#getVarNames(StringList, HashMap)}), for an element also the dependencies of its
+     * type map contribution, see {@link Root#getVarSummary(Element, String[], long)}
+     */
+    static final class VarSummary {
+    	/** The result for no lines at all */
+    	static final VarSummary EMPTY = new VarSummary(new String[0], new String[0], new String[0], false, null);
+    	/** The variable names, ordered as by {@link StringList#addOrderedIfNew(String)} */
+    	final String[] names;
+    	/** The names first occurring in a constant definition (in order of the lines) */
+    	final String[] constNames;
+    	/** The value expressions of the {@link #constNames} */
+    	final String[] constValues;
+    	/** Whether the type map contribution depends on other diagrams (via the result types of called routines) */
+    	final boolean isTypeVolatile;
+    	/** The objects an element result was derived from (see {@link Root#isSameSignature(Object[], Object[])}), otherwise null */
+    	final Object[] sources;
+
+    	VarSummary(String[] _names, String[] _constNames, String[] _constValues, boolean _isTypeVolatile, Object[] _sources)
+    	{
+    		names = _names;
+    		constNames = _constNames;
+    		constValues = _constValues;
+    		isTypeVolatile = _isTypeVolatile;
+    		sources = _sources;
+    	}
 
-    		int asgnPos = tokens.indexOf("<-");
-    		if (asgnPos > 0)
-    		{
-    			String s = tokens.subSequence(0, asgnPos).concatenate();
-    			// (KGU#141 2016-01-16: type elimination moved to extractVarName())
-    			//System.out.println("Adding to initialised var names: " + extractVarName(allText.trim()));
-    			String varName = extractVarName(s.trim());
-    			boolean wasNew = varNames.addOrderedIfNew(varName);
-    			// START KGU#375 2017-03-31: Enh. #388 collect constant definitions
-    			// Register it as constant if marked as such and not having been declared before
-    			if (tokens.get(0).equals("const") && wasNew && !constantDefs.containsKey(varName)) {
-    				constantDefs.put(varName, tokens.subSequence(asgnPos+1, tokens.count()).concatenate().trim());
+    	/**
+    	 * Combines the results of consecutive portions of text as if their lines had been analysed en bloc
+    	 * @param _parts - the results in order of the text portions
+    	 * @param _isTypeVolatile - see {@link #isTypeVolatile}
+    	 * @param _sources - see {@link #sources}
+    	 * @return the combined result
+    	 */
+    	static VarSummary combine(List<VarSummary> _parts, boolean _isTypeVolatile, Object[] _sources)
+    	{
+    		ArrayList<String> names = new ArrayList<String>();
+    		StringList constNames = new StringList();
+    		StringList constValues = new StringList();
+    		HashSet<String> namesBefore = new HashSet<String>();
+    		int nNameParts = 0;
+    		for (VarSummary part: _parts) {
+    			for (int i = 0; i < part.constNames.length; i++) {
+    				if (!namesBefore.contains(part.constNames[i])) {
+    					constNames.add(part.constNames[i]);
+    					constValues.add(part.constValues[i]);
+    				}
+    			}
+    			if (part.names.length > 0) {
+    				nNameParts++;
     			}
+    			for (String name: part.names) {
+    				if (namesBefore.add(name)) {
+    					names.add(name);
+    				}
+    			}
+    		}
+    		String[] nameArray = names.toArray(new String[names.size()]);
+    		if (nNameParts > 1) {
+    			Arrays.sort(nameArray);
     		}
+    		return new VarSummary(nameArray, constNames.toArray(), constValues.toArray(), _isTypeVolatile, _sources);
+    	}
 
+    	/**
+    	 * Registers the constants in {@code _constantDefs} unless their names are already contained
+    	 * @param _constantDefs - a map of constant definitions
+    	 */
+    	void registerConstants(HashMap<String, String> _constantDefs)
+    	{
+    		for (int i = 0; i < constNames.length; i++) {
+    			if (!_constantDefs.containsKey(constNames[i])) {
+    				_constantDefs.put(constNames[i], constValues[i]);
+    			}
+    		}
+    	}
+    }
 
-    		// get names from read statements
-    		int inpPos = tokens.indexOf(CodeParser.getKeyword("input"));
-    		if (inpPos >= 0)
-    		{
-    			// START KGU#281 2016-10-12: Issue #271 - there may be a prompt string literal to be skipped
-    			//String s = tokens.subSequence(inpPos + 1, tokens.count()).concatenate().trim();
-    			inpPos++;
-    			// START KGU#281 2016-12-23: Enh. #271 - allow comma between prompt and variable name
-    			//while (inpPos < tokens.count() && (tokens.get(inpPos).trim().isEmpty() || tokens.get(inpPos).matches("^[\"\'].*[\"\']$")))
-    			while (inpPos < tokens.count() && (tokens.get(inpPos).trim().isEmpty() || tokens.get(inpPos).trim().equals(",") || tokens.get(inpPos).matches("^[\"\'].*[\"\']$")))
-    			// END KGU#281 2016-12-23
+    /**
+     * Immutable result of the variable retrieval on a single line, see {@link Root#getLineVarInfo(String, String[])}
+     */
+    private static final class LineVarInfo {
+    	/** Whether the line is an assignment (or a loop header) */
+    	final boolean isAssignment;
+    	/** The target variable of the assignment (if {@link #isAssignment}) */
+    	final String assignedVar;
+    	/** The value expression if the line is a constant definition, otherwise null */
+    	final String constValue;
+    	/** The names of the variables being input */
+    	final String[] inputVars;
+
+    	LineVarInfo(boolean _isAssignment, String _assignedVar, String _constValue, StringList _inputVars)
+    	{
+    		isAssignment = _isAssignment;
+    		assignedVar = _assignedVar;
+    		constValue = _constValue;
+    		inputVars = _inputVars.toArray();
+    	}
+    }
+
+    /**
+     * Refreshes the static {@link #splitKeywords} if the parser keywords have changed
+     * @param _keywords - the current parser keywords (as {@link CodeParser#getAllProperties()})
+     * @param _revision - the current {@link CodeParser#getKeywordRevision()}
+     */
+    private static void updateSplitKeywords(String[] _keywords, long _revision)
+    {
+    	synchronized (splitKeywords) {
+    		if (splitKeywordsRevision != _revision || splitKeywords.size() != _keywords.length) {
+    			splitKeywords.clear();
+    			for (int k = 0; k < _keywords.length; k++)
     			{
-    				inpPos++;
+    				splitKeywords.add(Element.splitLexically(_keywords[k], false));
     			}
-    			//String s = tokens.subSequence(inpPos, tokens.count()).concatenate().trim();
-    			// END KGU#281 2016-10-12
-    			// FIXME: Why do we expect a list of variables here (executor doesn't cope with it, anyway)?
-    			// A mere splitting by comma would spoil function calls as indices etc.
-    			StringList parts = Element.splitExpressionList(tokens.subSequence(inpPos, tokens.count()), ",", false);
-    			for (int p = 0; p < parts.count(); p++)
+    			splitKeywordsRevision = _revision;
+    		}
+    	}
+    }
+
+    /**
+     * Analyses a single line for variable names (as described for {@link #getVarNames(StringList, HashMap)})
+     * @param allText - the text line
+     * @param keywords - the current parser keywords (must correspond to {@link #splitKeywords})
+     * @return the line-specific results
+     */
+    private LineVarInfo getLineVarInfo(String allText, String[] keywords)
+    {
+    	boolean isAssignment = false;
+    	String assignedVar = null;
+    	String constValue = null;
+    	StringList inputVars = new StringList();
+    	// END AGT#23 2026-10-18
+    	Regex r;
+
+    	// modify "inc" and "dec" function (Pascal)
+    	r = new Regex(BString.breakup("inc")+"[(](.*?)[,](.*?)[)](.*?)","$1 <- $1 + $2"); allText=r.replaceAll(allText);
+    	r = new Regex(BString.breakup("inc")+"[(](.*?)[)](.*?)","$1 <- $1 + 1"); allText=r.replaceAll(allText);
+    	r = new Regex(BString.breakup("dec")+"[(](.*?)[,](.*?)[)](.*?)","$1 <- $1 - $2"); allText=r.replaceAll(allText);
+    	r = new Regex(BString.breakup("dec")+"[(](.*?)[)](.*?)","$1 <- $1 - 1"); allText=r.replaceAll(allText);
+
+
+    	StringList tokens = Element.splitLexically(allText, true);
+
+    	Element.unifyOperators(tokens, false);
+
+    	// Replace all split keywords by the respective configured strings
+    	// This replacement will be aware of the case sensitivity preference
+    	for (int kw = 0; kw < keywords.length; kw++)
+    	{    				
+    		if (keywords[kw].trim().length() > 0)
+    		{
+    			StringList keyTokens = splitKeywords.elementAt(kw);
+    			int keyLength = keyTokens.count();
+    			int pos = -1;
+    			while ((pos = tokens.indexOf(keyTokens, pos + 1, !CodeParser.ignoreCase)) >= 0)
     			{
-    				varNames.addOrderedIfNew(extractVarName(parts.get(p).trim()));
+    				tokens.set(pos, keywords[kw]);
+    				for (int j=1; j < keyLength; j++)
+    				{
+    					tokens.delete(pos+1);
+    				}
     			}
     		}
+    	}
+
+    	// Unify FOR-IN loops and FOR loops for the purpose of variable analysis
+    	if (!CodeParser.getKeyword("postForIn").trim().isEmpty())
+    	{
+    		tokens.replaceAll(CodeParser.getKeyword("postForIn"), "<-");
+    	}
+
+    	// Here all the unification, alignment, reduction is done, now the actual analysis begins
+
+    	int asgnPos = tokens.indexOf("<-");
+    	if (asgnPos > 0)
+    	{
+    		String s = tokens.subSequence(0, asgnPos).concatenate();
+    		// (KGU#141 2016-01-16: type elimination moved to extractVarName())
+    		//System.out.println("Adding to initialised var names: " + extractVarName(allText.trim()));
+    		String varName = extractVarName(s.trim());
+    		// START AGT#23 2026-10-18: Registration is done on merging the cached line results
+    		//boolean wasNew = varNames.addOrderedIfNew(varName);
+    		isAssignment = true;
+    		assignedVar = varName;
+    		// END AGT#23 2026-10-18
+    		// START KGU#375 2017-03-31: Enh. #388 collect constant definitions
+    		// Register it as constant if marked as such and not having been declared before
+    		// START AGT#23 2026-10-18
+    		//if (tokens.get(0).equals("const") && wasNew && !constantDefs.containsKey(varName)) {
+    		//	constantDefs.put(varName, tokens.subSequence(asgnPos+1, tokens.count()).concatenate().trim());
+    		//}
+    		if (tokens.get(0).equals("const")) {
+    			constValue = tokens.subSequence(asgnPos+1, tokens.count()).concatenate().trim();
+    		}
+    		// END AGT#23 2026-10-18
+    	}
 
 
-    		//lines.set(i, allText);
+    	// get names from read statements
+    	int inpPos = tokens.indexOf(CodeParser.getKeyword("input"));
+    	if (inpPos >= 0)
+    	{
+    		// START KGU#281 2016-10-12: Issue #271 - there may be a prompt string literal to be skipped
+    		//String s = tokens.subSequence(inpPos + 1, tokens.count()).concatenate().trim();
+    		inpPos++;
+    		// START KGU#281 2016-12-23: Enh. #271 - allow comma between prompt and variable name
+    		//while (inpPos < tokens.count() && (tokens.get(inpPos).trim().isEmpty() || tokens.get(inpPos).matches("^[\"\'].*[\"\']$")))
+    		while (inpPos < tokens.count() && (tokens.get(inpPos).trim().isEmpty() || tokens.get(inpPos).trim().equals(",") || tokens.get(inpPos).matches("^[\"\'].*[\"\']$")))
+    		// END KGU#281 2016-12-23
+    		{
+    			inpPos++;
+    		}
+    		//String s = tokens.subSequence(inpPos, tokens.count()).concatenate().trim();
+    		// END KGU#281 2016-10-12
+    		// FIXME: Why do we expect a list of variables here (executor doesn't cope with it, anyway)?
+    		// A mere splitting by comma would spoil function calls as indices etc.
+    		StringList parts = Element.splitExpressionList(tokens.subSequence(inpPos, tokens.count()), ",", false);
+    		for (int p = 0; p < parts.count(); p++)
+    		{
+    			// START AGT#23 2026-10-18
+    			//varNames.addOrderedIfNew(extractVarName(parts.get(p).trim()));
+    			inputVars.add(extractVarName(parts.get(p).trim()));
+    			// END AGT#23 2026-10-18
+    		}
     	}
 
-    	return varNames;
+    	// START AGT#23 2026-10-18
+    	//return varNames;
+    	return new LineVarInfo(isAssignment, assignedVar, constValue, inputVars);
+    	// END AGT#23 2026-10-18
     }
 
     /**
@@ -2545,7 +3154,10 @@ public class Root extends Element {
             }
 
             // get body text
-            StringList lines;
+            // START AGT#23 2026-10-18: For the entire program the cached results per subtree are used
+            //StringList lines;
+            StringList lines = null;
+            // END AGT#23 2026-10-18
 //            // START KGU#376 2017-04-11: Enh. #389 - withdrawn 2017-04-20
             if(_onlyEle && !_onlyBody)
 //            if(_onlyEle && !_onlyBody && !(_ele instanceof Call && ((Call)_ele).isImportCall()))
@@ -2567,6 +3179,12 @@ public class Root extends Element {
                     }
                     // END KGU#388/KGU#413 2017-09-13: Enh. #416, #423
             }
+            // START AGT#23 2026-10-18: For the entire program the cached results per subtree are used
+            else if (_entireProg && !_onlyBody)
+            {
+                    // lines remain null, see below
+            }
+            // END AGT#23 2026-10-18
             else if (_entireProg)
             {
                     // START KGU#39 2015-10-16: Use object methods now
@@ -2584,7 +3202,17 @@ public class Root extends Element {
             
             // FIXME (KGU 2016-01-16): On a merge for 3.22-22, the following change got lost
             // if (!(this instanceof Root))
-            varNames.add(getVarNames(lines, this.constants));
+            // START AGT#23 2026-10-18: Only the changed paths of the diagram are analysed anew
+            //varNames.add(getVarNames(lines, this.constants));
+            if (lines == null) {
+            	VarSummary summary = this.getVarSummary(new HashSet<Root>());
+            	summary.registerConstants(this.constants);
+            	varNames.add(new StringList(summary.names));
+            }
+            else {
+            	varNames.add(getVarNames(lines, this.constants));
+            }
+            // END AGT#23 2026-10-18
 
             varNames=varNames.reverse();	// FIXME (KGU): What is intended by reversing?
             if (_entireProg) {
@@ -2599,12 +3227,24 @@ public class Root extends Element {
      * Creates (if not already cached), caches, and returns the static overall type map
      * for this diagram and its included definition providers (if having been available
      * on the first creation).<br/>
-     * Every change to this diagram clears the cache and hence leads to an info refresh.  
+     * Every change to this diagram clears the cache and hence leads to an info refresh.<br/>
+     * (Since AGT#23: a refresh only takes place if an element of the diagram contributing
+     * to the type map was modified, replaced, enabled or disabled, which is detected via the
+     * variable retrieval results cached per subtree, and element contributions are re-applied
+     * from the element token caches then.)  
      * @return the type table mapping prefixed type names and variable names to their
      * respective defined or declared TypeMapEntries with structural information.
      */
     public HashMap<String, TypeMapEntry> getTypeInfo()
     {
+    	// START AGT#23 2026-10-18: Check whether the cached type map is still valid
+    	if (this.typeMap != null && this.typeMapSuspect) {
+    		this.typeMapSuspect = false;
+    		if (!isSameSignature(this.getTypeMapSignature(), this.typeMapSignature)) {
+    			this.typeMap = null;
+    		}
+    	}
+    	// END AGT#23 2026-10-18
     	// START KGU#502 2018-03-12: Bugfix #518 - Avoid repeated traversal in case of lacking type and var info
     	//if (this.typeMap.isEmpty()) {
     	if (this.typeMap == null) {
@@ -2615,8 +3255,12 @@ public class Root extends Element {
     		if (this.includeList != null) {
     			for (int i = 0; i < this.includeList.count(); i++) {
     				String inclName = this.includeList.get(i);
-    				if (Arranger.hasInstance()) {
-    					for (Root incl: Arranger.getInstance().findIncludesByName(inclName)) {
+    				// START AGT#24 2026-10-18: Analysis snapshots bring their includes along
+    				//if (Arranger.hasInstance()) {
+    				//	for (Root incl: Arranger.getInstance().findIncludesByName(inclName)) {
+    				if (this.canFindIncludes()) {
+    					for (Root incl: this.findIncludes(inclName)) {
+    				// END AGT#24 2026-10-18
     						typeMap.putAll(incl.getTypeInfo());
     					}
     				}
@@ -2640,6 +3284,10 @@ public class Root extends Element {
     			
     		};
     		this.traverse(collector);
+    		// START AGT#23 2026-10-18
+    		this.typeMapSignature = this.getTypeMapSignature();
+    		this.typeMapSuspect = false;
+    		// END AGT#23 2026-10-18
     	}
     	return this.typeMap;
     }
@@ -2648,9 +3296,79 @@ public class Root extends Element {
     {
     	// START KGU#502 2018-03-12: Bugfix #518
     	//this.typeMap.clear();
-    	this.typeMap = null;
+    	// START AGT#23 2026-10-18: Defer the decision to getTypeInfo()
+    	//this.typeMap = null;
+    	this.typeMapSuspect = true;
+    	// END AGT#23 2026-10-18
     	// END KGU#502 2018-03-12
     }
+    
+    // START AGT#23 2026-10-18: Signature of all sources of the type map
+    /**
+     * Composes the sequence of all objects the type map depends on: the type maps of the
+     * included diagrams, the diagram itself with its token cache (or a marker if disabled)
+     * and type, and the variable retrieval result of the body, which is retained as long as
+     * no element contributing to the type map (via token cache, disabled flag, and for
+     * For loops the loop variable and value list) has changed, see {@link #getVarSummary(Element, String[], long)}.
+     * @return the signature or null if the type map depends on other diagrams in an
+     * untraceable way (i.e. via the result types of called routines)
+     * @see #isSameSignature(Object[], Object[])
+     */
+    private Object[] getTypeMapSignature()
+    {
+    	final ArrayList<Object> signature = new ArrayList<Object>();
+    	if (this.includeList != null) {
+    		for (int i = 0; i < this.includeList.count(); i++) {
+    			String inclName = this.includeList.get(i);
+    			signature.add(inclName);
+    			// START AGT#24 2026-10-18: Analysis snapshots bring their includes along
+    			//if (Arranger.hasInstance()) {
+    			//	for (Root incl: Arranger.getInstance().findIncludesByName(inclName)) {
+    			if (this.canFindIncludes()) {
+    				for (Root incl: this.findIncludes(inclName)) {
+    			// END AGT#24 2026-10-18
+    					signature.add(incl.getTypeInfo());
+    				}
+    			}
+    		}
+    	}
+    	signature.add(this);
+    	if (this.disabled) {
+    		signature.add(Boolean.TRUE);
+    	}
+    	else {
+    		signature.add(this.getTokenCache());
+    		// Parameters and result type are only registered for subroutines
+    		signature.add(Boolean.toString(this.isSubroutine()));
+    	}
+    	VarSummary bodySummary = this.getBodyVarSummary();
+    	if (bodySummary.isTypeVolatile) {
+    		return null;
+    	}
+    	signature.add(bodySummary);
+    	return signature.toArray();
+    }
+
+    /**
+     * Compares two results of {@link #getTypeMapSignature()} or two source lists of variable
+     * retrieval results: elements, token caches, type maps, and variable retrieval results by
+     * identity, strings by equality.
+     * @return true if both signatures are non-null and equivalent
+     */
+    private static boolean isSameSignature(Object[] _signature1, Object[] _signature2)
+    {
+    	if (_signature1 == null || _signature2 == null || _signature1.length != _signature2.length) {
+    		return false;
+    	}
+    	for (int i = 0; i < _signature1.length; i++) {
+    		Object obj1 = _signature1[i];
+    		if (obj1 != _signature2[i] && !(obj1 instanceof String && obj1.equals(_signature2[i]))) {
+    			return false;
+    		}
+    	}
+    	return true;
+    }
+    // END AGT#23 2026-10-18
     // END KGU#261 2017-01-20
     
     // START KGU#261/KGU#332 2017-02-01: Enh. #259/#335
@@ -2813,198 +3531,81 @@ public class Root extends Element {
     		if (ele.disabled) continue;
     		// END KGU#277 2016-10-13
     		String eleClassName = ele.getClass().getSimpleName();
-    		
-    		// get all set variables from actual instruction (just this level, no substructre)
-    		StringList myVars = getVarNames(ele);
-
-    		// CHECK: assignment in condition (#8)
-    		if (eleClassName.equals("While")
-    				|| eleClassName.equals("Repeat")
-    				|| eleClassName.equals("Alternative"))
-    		{
-    			analyse_8(ele, _errors);
+    		// START AGT#24 2026-10-18: Element checks outsourced, results may be replayed from the cache
+    		StringList myUsed = null;
+    		if (analysisCache != null) {
+    			myUsed = analysisCache.replayChecks(ele, i == _node.getSize()-1, _errors, _vars, _constants, _resultFlags, _types);
     		}
-
-    		// CHECK  #5: non-uppercase var
-    		// CHECK  #7: correct identifiers
-    		// CHECK #13: Competitive return mechanisms
-    		analyse_5_7_13(ele, _errors, myVars, _resultFlags);
-    		
-    		// START KGU#239/KGU#327 2016-08-12: Enh. #231 / # 329
-    		// CHECK #18: Variable names only differing in case
-    		// CHECK #19: Possible name collisions with reserved words
-    		// CHECK #21: Mistakable variable names I, l, O
-    		analyse_18_19_21(ele, _errors, _vars, _uncertainVars, myVars);
-    		// END KGU#239/KGU#327 2016-08-12
-
-    		// CHECK #10: wrong multi-line instruction
-    		// CHECK #11: wrong assignment (comparison operator in assignment)
-    		// CHECK #22: constant depending on non-constants or constant redefinition
-      		// CHECK #24: type definitions
-    		if (eleClassName.equals("Instruction"))
-    		{
-    			analyse_10_11(ele, _errors);
-				// START KGU#375 2017-04-04: Enh. #388
-    			// START KGU#388 2017-09-16: Enh. #423 record analysis
-				//analyse_22((Instruction)ele, _errors, _vars, _uncertainVars, _constants);
-				analyse_22_24((Instruction)ele, _errors, _vars, _uncertainVars, _constants, _types);
-				// END KGU#388 2017-09-16
-				// END KGU#375 2017-04-04
-    		}
-
-    		// CHECK: non-initialised var (except REPEAT)  (#3)
-    		// START KGU#375 2017-04-05: Enh. #388 linewise analysis for Instruction elements
-//    		StringList myUsed = getUsedVarNames(ele, true, true);
-//    		if (!eleClassName.equals("Repeat"))
-//    		{
-//    			// FIXME: linewise test for Instruction elements needed
-//    			analyse_3(ele, _errors, _vars, _uncertainVars, myUsed);
-//    		}
-    		StringList myUsed = new StringList();
-    		if (eleClassName.equals("Instruction"))
-    		{
-    			@SuppressWarnings("unchecked")
-				HashMap<String, String> constantDefs = (HashMap<String, String>)_constants.clone();
-    			String[] keywords = CodeParser.getAllProperties();
-    			StringList initVars = _vars.copy();
-    			// START KGU#423 2017-09-13: Enh. #416 - cope with user-defined line breaks
-    			//for (int j = 0; j < ele.getText().count(); j++) {
-    			StringList unbrokenText = ele.getUnbrokenText();
-    			for (int j = 0; j < unbrokenText.count(); j++) {
-    			// END KGU#423 2017-09-13
-    				String line = unbrokenText.get(j);
-    				// START KGU#388 2017-09-13: Enh. #423
-    				if (!Instruction.isTypeDefinition(line, _types)) {
-    				// END KGU#388 2017-09-13
-    					myUsed = getUsedVarNames(line, keywords);
-    					analyse_3(ele, _errors, initVars, _uncertainVars, myUsed, -1);
-    					initVars.add(this.getVarNames(StringList.getNew(line), constantDefs));
-       				// START KGU#388 2017-09-13: Enh. #423
-    				}
-    				// END KGU#388 2017-09-13
+    		if (myUsed == null) {
+    			myUsed = analyseElement(ele, i == _node.getSize()-1, _errors, _vars, _uncertainVars, _constants, _resultFlags, _types);
+    			if (analysisCache != null) {
+    				analysisCache.recordChecks(myUsed);
     			}
     		}
-    		else {
-    			myUsed = getUsedVarNames(ele, true, true);
-        		if (!eleClassName.equals("Repeat"))
-        		{
-        			analyse_3(ele, _errors, _vars, _uncertainVars, myUsed, -1);
-        		}
-    		}
-    		// END KGU#375 2017-04-05
-
-    		/*////// AHHHHHHHH ////////
-                            getUsedVarNames should also parse for new variable names,
-                            because any element that uses a variable that has never been
-                            assigned, this variable will not be known and thus not
-                            detected at all!
-                            KGU#163 2016-03-25: Solved
-    		 */
-    		/*
-    		if(_node.getElement(i).getClass().getSimpleName().equals("Instruction"))
-    		{
-    			System.out.println("----------------------------");
-    			System.out.println(((Element) _node.getElement(i)).getText());
-    			System.out.println("----------------------------");
-    			System.out.println("Vars : "+myVars);
-    			System.out.println("Init : "+_vars);
-    			System.out.println("Used : "+myUsed);
-    			//System.out.println("----------------------------");
-    		}
-    		/**/
-
-    		// START KGU#2/KGU#78 2015-11-25: New checks for Call and Jump elements
-    		// CHECK: Correct syntax of Call elements (#15) New!
-    		if (ele instanceof Call)
-    		{
-    			analyse_15((Call)ele, _errors);
-    		}
-    		// CHECK: Correct usage of Jump, including return (#16) New!
-    		// + CHECK #13: Competetive return mechanisms
-			else if (ele instanceof Jump)
-			{
-				analyse_13_16_jump((Jump)ele, _errors, myVars, _resultFlags);
-			}
-			else if (ele instanceof Instruction)	// May also be a subclass (except Call and Jump)!
-    		{
-    		// END KGU#78 2015-11-25
-				analyse_13_16_instr((Instruction)ele, _errors, i == _node.getSize()-1, myVars, _resultFlags);
-    		// START KGU#78 2015-11-25
-    		}
-    		// END KGU#78 2015-11-25
-
-    		// add detected vars to initialised vars
-//    		// START KGU#376 2017-04-11: Enh. #389 - withdrawn 2017-04-20
-			_vars.addIfNew(myVars);
-//    		if (!(ele instanceof Call && ((Call)ele).isImportCall())) {
-//    			_vars.addIfNew(myVars);
-//    		}
-//    		// END KGU#376 2017-04-20
-
-    		// CHECK: endless loop (#2)
-    		if (eleClassName.equals("While")
-    				|| eleClassName.equals("Repeat"))
-    		{
-    			analyse_2(ele, _errors);
-    		}
-
-    		// CHECK: loop var modified (#1) and loop parameter consistency (#14 new!)
-    		if (eleClassName.equals("For"))
-    		{
-    			analyse_1_2_14((For)ele, _errors);
-    		}
-
-    		// CHECK: if with empty T-block (#4)
-    		if (eleClassName.equals("Alternative"))
-    		{
-    			if(((Alternative)ele).qTrue.getSize()==0)
-    			{
-    				//error  = new DetectedError("You are not allowed to use an IF-statement with an empty TRUE-block!",(Element) _node.getElement(i));
-    				addError(_errors, new DetectedError(errorMsg(Menu.error04,""), ele), 4);
-    			}
-    		}
-    		
-    		// CHECK: Inconsistency risk due to concurrent variable access by parallel threads (#17) New!
-    		if (eleClassName.equals("Parallel"))
-    		{
-    			analyse_17((Parallel) ele, _errors);
-    		}
-			// START KGU#514 2018-04-03: Bugfix #528 (for Instructions, it has already been done above)
-    		else if (check(24) && !eleClassName.equals("Instruction")) {
-    			analyse_24(ele, _errors, _types);
-    		}
-			// END KGU#514 2018-04-03
-
+    		// END AGT#24 2026-10-18
 
     		// continue analysis for subelements
     		if (ele instanceof ILoop)
     		{
+    			// START AGT#24 2026-10-18
+    			if (analysisCache != null) {
+    				analysisCache.beginBranch(ele, 0);
+    			}
+    			// END AGT#24 2026-10-18
     			analyse(((ILoop) ele).getBody(), _errors, _vars, _uncertainVars, _constants, _resultFlags, _types);
     		
     			if (ele instanceof Repeat)
     			{
         			analyse_3(ele, _errors, _vars, _uncertainVars, myUsed, -1);
     			}
+    			// START AGT#24 2026-10-18
+    			if (analysisCache != null) {
+    				analysisCache.endBranches(ele);
+    			}
+    			// END AGT#24 2026-10-18
     		}
     		else if (eleClassName.equals("Parallel"))
     		{
     			StringList initialVars = _vars.copy();
     			Iterator<Subqueue> iter = ((Parallel)ele).qs.iterator();
+    			// START AGT#24 2026-10-18
+    			int j = 0;
+    			// END AGT#24 2026-10-18
     			while (iter.hasNext())
     			{
     				// For the thread, propagate only variables known before the parallel section
     				StringList threadVars = initialVars.copy();
+    				// START AGT#24 2026-10-18
+    				if (analysisCache != null) {
+    					analysisCache.beginBranch(ele, j++);
+    				}
+    				// END AGT#24 2026-10-18
     				analyse(iter.next(), _errors, threadVars, _uncertainVars, _constants, _resultFlags, _types);
     				// Any variable introduced by one of the threads will be known after all threads have terminated
     				_vars.addIfNew(threadVars);
     			}
+    			// START AGT#24 2026-10-18
+    			if (analysisCache != null) {
+    				analysisCache.endBranches(ele);
+    			}
+    			// END AGT#24 2026-10-18
     		}
     		else if(eleClassName.equals("Alternative"))
     		{
     			StringList tVars = _vars.copy();
     			StringList fVars = _vars.copy();
 
+    			// START AGT#24 2026-10-18
+    			if (analysisCache != null) {
+    				analysisCache.beginBranch(ele, 0);
+    			}
+    			// END AGT#24 2026-10-18
     			analyse(((Alternative)ele).qTrue, _errors, tVars, _uncertainVars, _constants, _resultFlags, _types);
+    			// START AGT#24 2026-10-18
+    			if (analysisCache != null) {
+    				analysisCache.beginBranch(ele, 1);
+    			}
+    			// END AGT#24 2026-10-18
     			analyse(((Alternative)ele).qFalse, _errors, fVars, _uncertainVars, _constants, _resultFlags, _types);
 
     			for(int v = 0; v < tVars.count(); v++)
@@ -3023,6 +3624,11 @@ public class Root extends Element {
     			// it could be considered as not always being initialised
     			//
     			// => use a second list with variable that "may not have been initialised"
+    			// START AGT#24 2026-10-18
+    			if (analysisCache != null) {
+    				analysisCache.endBranches(ele);
+    			}
+    			// END AGT#24 2026-10-18
     		}
     		else if(eleClassName.equals("Case"))
     		{
@@ -3036,6 +3642,11 @@ public class Root extends Element {
     			for (int j=0; j < si; j++)
     			{
     				StringList caseVars = initialVars.copy();
+    				// START AGT#24 2026-10-18
+    				if (analysisCache != null) {
+    					analysisCache.beginBranch(ele, j);
+    				}
+    				// END AGT#24 2026-10-18
     				analyse((Subqueue) caseEle.qs.get(j),_errors, caseVars, _uncertainVars, _constants, _resultFlags, _types);
     				for(int v = 0; v < caseVars.count(); v++)
     				{
@@ -3078,6 +3689,11 @@ public class Root extends Element {
     				}
     			}
     			// look at the comment for the IF-structure
+    			// START AGT#24 2026-10-18
+    			if (analysisCache != null) {
+    				analysisCache.endBranches(ele);
+    			}
+    			// END AGT#24 2026-10-18
     		}
     		// START KGU#376 2017-04-11: Enh. #389 - revised 2017-04-20 - disabled 2017-07-01
     		//else if ((ele instanceof Call && ((Call)ele).isImportCall())) {
@@ -3087,6 +3703,192 @@ public class Root extends Element {
     		
     	} // for(int i=0; i < _node.size(); i++)...
     }
+
+    // START AGT#24 2026-10-18: Outsourced from analyse(Subqueue, ...) for the AnalysisCache
+    /**
+     * Performs all checks of the element {@code ele} itself (not of its substructure) and
+     * updates the analysis context accordingly
+     * @param ele - the element to be checked
+     * @param _isLast - whether {@code ele} is the last element of its {@link Subqueue}
+     * @param _errors - the collected errors (may be enhanced by the call)
+     * @param _vars - names of variables being set hitherto
+     * @param _uncertainVars - names of variables being set in some branch hitherto
+     * @param _constants - constants defined hitherto
+     * @param _resultFlags - a boolean array: {usesReturn?, usesResult?, usesProcName?}
+     * @param _types - the type definitions and declarations encountered so far
+     * @return the names of the variables used by {@code ele}
+     */
+    private StringList analyseElement(Element ele, boolean _isLast, Vector<DetectedError> _errors, StringList _vars, StringList _uncertainVars, HashMap<String, String> _constants, boolean[] _resultFlags, HashMap<String, TypeMapEntry> _types)
+    {
+    	String eleClassName = ele.getClass().getSimpleName();
+    	
+    	// get all set variables from actual instruction (just this level, no substructre)
+    	StringList myVars = getVarNames(ele);
+
+    	// CHECK: assignment in condition (#8)
+    	if (eleClassName.equals("While")
+    			|| eleClassName.equals("Repeat")
+    			|| eleClassName.equals("Alternative"))
+    	{
+    		analyse_8(ele, _errors);
+    	}
+
+    	// CHECK  #5: non-uppercase var
+    	// CHECK  #7: correct identifiers
+    	// CHECK #13: Competitive return mechanisms
+    	analyse_5_7_13(ele, _errors, myVars, _resultFlags);
+    	
+    	// START KGU#239/KGU#327 2016-08-12: Enh. #231 / # 329
+    	// CHECK #18: Variable names only differing in case
+    	// CHECK #19: Possible name collisions with reserved words
+    	// CHECK #21: Mistakable variable names I, l, O
+    	analyse_18_19_21(ele, _errors, _vars, _uncertainVars, myVars);
+    	// END KGU#239/KGU#327 2016-08-12
+
+    	// CHECK #10: wrong multi-line instruction
+    	// CHECK #11: wrong assignment (comparison operator in assignment)
+    	// CHECK #22: constant depending on non-constants or constant redefinition
+      	// CHECK #24: type definitions
+    	if (eleClassName.equals("Instruction"))
+    	{
+    		analyse_10_11(ele, _errors);
+			// START KGU#375 2017-04-04: Enh. #388
+    		// START KGU#388 2017-09-16: Enh. #423 record analysis
+			//analyse_22((Instruction)ele, _errors, _vars, _uncertainVars, _constants);
+			analyse_22_24((Instruction)ele, _errors, _vars, _uncertainVars, _constants, _types);
+			// END KGU#388 2017-09-16
+			// END KGU#375 2017-04-04
+    	}
+
+    	// CHECK: non-initialised var (except REPEAT)  (#3)
+    	// START KGU#375 2017-04-05: Enh. #388 linewise analysis for Instruction elements
+//    		StringList myUsed = getUsedVarNames(ele, true, true);
+//    		if (!eleClassName.equals("Repeat"))
+//    		{
+//    			// FIXME: linewise test for Instruction elements needed
+//    			analyse_3(ele, _errors, _vars, _uncertainVars, myUsed);
+//    		}
+    	StringList myUsed = new StringList();
+    	if (eleClassName.equals("Instruction"))
+    	{
+    		@SuppressWarnings("unchecked")
+			HashMap<String, String> constantDefs = (HashMap<String, String>)_constants.clone();
+    		String[] keywords = CodeParser.getAllProperties();
+    		StringList initVars = _vars.copy();
+    		// START KGU#423 2017-09-13: Enh. #416 - cope with user-defined line breaks
+    		//for (int j = 0; j < ele.getText().count(); j++) {
+    		StringList unbrokenText = ele.getUnbrokenText();
+    		for (int j = 0; j < unbrokenText.count(); j++) {
+    		// END KGU#423 2017-09-13
+    			String line = unbrokenText.get(j);
+    			// START KGU#388 2017-09-13: Enh. #423
+    			if (!Instruction.isTypeDefinition(line, _types)) {
+    			// END KGU#388 2017-09-13
+    				// START AGT#22 2026-10-18
+    				//myUsed = getUsedVarNames(line, keywords);
+    				myUsed = getUsedVarNames(line, keywords, ele);
+    				// END AGT#22 2026-10-18
+    				analyse_3(ele, _errors, initVars, _uncertainVars, myUsed, -1);
+    				initVars.add(this.getVarNames(StringList.getNew(line), constantDefs));
+       			// START KGU#388 2017-09-13: Enh. #423
+    			}
+    			// END KGU#388 2017-09-13
+    		}
+    	}
+    	else {
+    		myUsed = getUsedVarNames(ele, true, true);
+        	if (!eleClassName.equals("Repeat"))
+        	{
+        		analyse_3(ele, _errors, _vars, _uncertainVars, myUsed, -1);
+        	}
+    	}
+    	// END KGU#375 2017-04-05
+
+    	/*////// AHHHHHHHH ////////
+                            getUsedVarNames should also parse for new variable names,
+                            because any element that uses a variable that has never been
+                            assigned, this variable will not be known and thus not
+                            detected at all!
+                            KGU#163 2016-03-25: Solved
+    	 */
+    	/*
+    	if(_node.getElement(i).getClass().getSimpleName().equals("Instruction"))
+    	{
+    		System.out.println("----------------------------");
+    		System.out.println(((Element) _node.getElement(i)).getText());
+    		System.out.println("----------------------------");
+    		System.out.println("Vars : "+myVars);
+    		System.out.println("Init : "+_vars);
+    		System.out.println("Used : "+myUsed);
+    		//System.out.println("----------------------------");
+    	}
+    	/**/
+
+    	// START KGU#2/KGU#78 2015-11-25: New checks for Call and Jump elements
+    	// CHECK: Correct syntax of Call elements (#15) New!
+    	if (ele instanceof Call)
+    	{
+    		analyse_15((Call)ele, _errors);
+    	}
+    	// CHECK: Correct usage of Jump, including return (#16) New!
+    	// + CHECK #13: Competetive return mechanisms
+		else if (ele instanceof Jump)
+		{
+			analyse_13_16_jump((Jump)ele, _errors, myVars, _resultFlags);
+		}
+		else if (ele instanceof Instruction)	// May also be a subclass (except Call and Jump)!
+    	{
+    	// END KGU#78 2015-11-25
+			analyse_13_16_instr((Instruction)ele, _errors, _isLast, myVars, _resultFlags);
+    	// START KGU#78 2015-11-25
+    	}
+    	// END KGU#78 2015-11-25
+
+    	// add detected vars to initialised vars
+//    		// START KGU#376 2017-04-11: Enh. #389 - withdrawn 2017-04-20
+		_vars.addIfNew(myVars);
+//    		if (!(ele instanceof Call && ((Call)ele).isImportCall())) {
+//    			_vars.addIfNew(myVars);
+//    		}
+//    		// END KGU#376 2017-04-20
+
+    	// CHECK: endless loop (#2)
+    	if (eleClassName.equals("While")
+    			|| eleClassName.equals("Repeat"))
+    	{
+    		analyse_2(ele, _errors);
+    	}
+
+    	// CHECK: loop var modified (#1) and loop parameter consistency (#14 new!)
+    	if (eleClassName.equals("For"))
+    	{
+    		analyse_1_2_14((For)ele, _errors);
+    	}
+
+    	// CHECK: if with empty T-block (#4)
+    	if (eleClassName.equals("Alternative"))
+    	{
+    		if(((Alternative)ele).qTrue.getSize()==0)
+    		{
+    			//error  = new DetectedError("You are not allowed to use an IF-statement with an empty TRUE-block!",(Element) _node.getElement(i));
+    			addError(_errors, new DetectedError(errorMsg(Menu.error04,""), ele), 4);
+    		}
+    	}
+    	
+    	// CHECK: Inconsistency risk due to concurrent variable access by parallel threads (#17) New!
+    	if (eleClassName.equals("Parallel"))
+    	{
+    		analyse_17((Parallel) ele, _errors);
+    	}
+		// START KGU#514 2018-04-03: Bugfix #528 (for Instructions, it has already been done above)
+    	else if (check(24) && !eleClassName.equals("Instruction")) {
+    		analyse_24(ele, _errors, _types);
+    	}
+		// END KGU#514 2018-04-03
+
+    	return myUsed;
+    }
+    // END AGT#24 2026-10-18
     
     // START KGU 2016-03-24: Decomposed analyser methods
     
@@ -3364,7 +4166,10 @@ public class Root extends Element {
 			//String myTest = test.get(l);
 
 			// START KGU#65/KGU#126 2016-01-06: More precise analysis, though expensive
-			StringList tokens = splitLexically(test.get(lnr).trim(), true);
+			// START AGT#22 2026-10-18: Tokens are cached now
+			//StringList tokens = splitLexically(test.get(lnr).trim(), true);
+			StringList tokens = ele.getUnbrokenTokens(lnr);
+			// END AGT#22 2026-10-18
 			unifyOperators(tokens, false);
 			// START KGU#297 2016-11-22: Issue #295 - Instructions starting with the return keyword must be handled separately
 			//if (tokens.contains("<-"))
@@ -3951,7 +4756,10 @@ public class Root extends Element {
 					addError(_errors, new DetectedError(errorMsg(Menu.error24_1, String.valueOf(i)), _instr), 24);					
 				}
 				else {
-					StringList tokens = splitLexically(line, true);
+					// START AGT#22 2026-10-18
+					//StringList tokens = splitLexically(line, true);
+					StringList tokens = _instr.getUnbrokenTokens(i);
+					// END AGT#22 2026-10-18
 					int posAsgnmt = tokens.indexOf("=");
 					String typename = tokens.concatenate("", 1, posAsgnmt).trim();
 					String typeSpec = tokens.concatenate("", posAsgnmt + 1, tokens.count()).trim();
@@ -4015,7 +4823,10 @@ public class Root extends Element {
 				// END KGU#375 2017-04-20
 				// START KGU#388 2017-09-17: Enh. #423 Check the definition of type names and components
 				if (check(24)) {
-					StringList tokens = Element.splitLexically(line, true);
+					// START AGT#22 2026-10-18
+					//StringList tokens = Element.splitLexically(line, true);
+					StringList tokens = _instr.getUnbrokenTokens(i);
+					// END AGT#22 2026-10-18
 					int nTokens = tokens.count();
 					int posBrace = 0;
 					String typeName = "";
@@ -4166,9 +4977,14 @@ public class Root extends Element {
 		for (int i = 0; i < includeList.count(); i++) {
 			String name = includeList.get(i);
 			int count = 0;	// Number of matching routines
-			if (Arranger.hasInstance()) {
-				count = Arranger.getInstance().findIncludesByName(name).size();
+			// START AGT#24 2026-10-18: Analysis snapshots bring their includes along
+			//if (Arranger.hasInstance()) {
+			//	count = Arranger.getInstance().findIncludesByName(name).size();
+			//}
+			if (this.canFindIncludes()) {
+				count = this.findIncludes(name).size();
 			}
+			// END AGT#24 2026-10-18
 			if (count == 0) {
 				//error  = new DetectedError("An includable diagram «<diagram_name>» is currently not available.", this);
 				addError(_errors, new DetectedError(errorMsg(Menu.error23_5, name), this), 23);
@@ -4190,8 +5006,12 @@ public class Root extends Element {
 				StringList path = _analysedImports.get(name);
 				addError(_errors, new DetectedError(errorMsg(Menu.error23_3, new String[]{name, path.concatenate("<-")}), this), 23);    									
 			}
-			else if (Arranger.hasInstance()) {
-				Vector<Root> roots = Arranger.getInstance().findIncludesByName(name);
+			// START AGT#24 2026-10-18: Analysis snapshots bring their includes along
+			//else if (Arranger.hasInstance()) {
+			//	Vector<Root> roots = Arranger.getInstance().findIncludesByName(name);
+			else if (this.canFindIncludes()) {
+				Vector<Root> roots = this.findIncludes(name);
+			// END AGT#24 2026-10-18
 				if (roots.size() == 1) {
 					Root importedRoot = roots.get(0);
 					Vector<DetectedError> impErrors = new Vector<DetectedError>();
@@ -4208,6 +5028,11 @@ public class Root extends Element {
 						_importStack.add(this.getMethodName());
 					}
 					importedRoot.analyse_23(impErrors, importedVars, importedUncVars, _constants, _importStack, _analysedImports, importedTypes);
+					// START AGT#24 2026-10-18
+					if (analysisCache != null) {
+						analysisCache.startSequence(importedRoot, importedVars, importedUncVars, _constants, subResultFlags, importedTypes);
+					}
+					// END AGT#24 2026-10-18
 					analyse(importedRoot.children, impErrors, importedVars, importedUncVars, _constants, subResultFlags, importedTypes);
 					_analysedImports.put(name, _importStack.copy());
 					if (this.isInclude()) {
@@ -4278,7 +5103,10 @@ public class Root extends Element {
 	{
 		StringList unbrText = _ele.getUnbrokenText();
 		for (int i = 0; i < unbrText.count(); i++) {
-			StringList tokens = Element.splitLexically(unbrText.get(i), true);
+			// START AGT#22 2026-10-18
+			//StringList tokens = Element.splitLexically(unbrText.get(i), true);
+			StringList tokens = _ele.getUnbrokenTokens(i);
+			// END AGT#22 2026-10-18
 			Element.cutOutRedundantMarkers(tokens);
 			analyse_24_tokens(_ele, _errors, _types, tokens);
 		}
@@ -4797,13 +5625,78 @@ public class Root extends Element {
     }
     // END KGU#205 2016-07-19
     
+    // START AGT#24 2026-10-18: Incremental analysis
+    /**
+     * Analyses this diagram and sets the {@link #errors}
+     * @return the detected problems
+     * @see #analyse(AnalysisCache)
+     */
     public Vector<DetectedError> analyse()
     {
-    	structorizerKeywords.clear();
-    	structorizerKeywords.add("global");
+    	return analyse(null);
+    }
+
+    /**
+     * Analyses this diagram and sets the {@link #errors}. The results of the element checks are
+     * taken from {@code _cache} where the elements and their context haven't changed since the
+     * previous analysis with the same cache, and are stored there for the next analysis.
+     * @param _cache - the results of the previous analysis of this diagram (or of another copy
+     * of it, see {@link #copyForAnalysis(HashMap)}), may be null
+     * @return the detected problems
+     */
+    public Vector<DetectedError> analyse(AnalysisCache _cache)
+    {
+    	this.analysisCache = _cache;
+    	boolean complete = false;
+    	try {
+    		Vector<DetectedError> errors = analyseDiagram();
+    		complete = true;
+    		return errors;
+    	}
+    	finally {
+    		if (_cache != null) {
+    			if (complete) {
+    				_cache.endAnalysis();
+    			}
+    			else {
+    				_cache.clear();
+    			}
+    		}
+    		this.analysisCache = null;
+    	}
+    }
+
+    /**
+     * Returns a fingerprint of everything that the element checks may depend on beyond the
+     * elements themselves and the analysis context.
+     */
+    private String getAnalysisSettings()
+    {
+    	StringBuilder sb = new StringBuilder();
+    	for (int i = 0; i < analyserChecks.length; i++) {
+    		sb.append(analyserChecks[i] ? '1' : '0');
+    	}
+    	sb.append('|').append(CodeParser.getKeywordRevision());
+    	sb.append('|').append(CodeParser.ignoreCase);
+    	sb.append('|').append(LangTextHolder.getRevision());
+    	sb.append('|').append(this.diagrType);
+    	sb.append('|').append(this.getMethodName());
+    	sb.append('|').append(this.rootVars.concatenate(","));
+    	return sb.toString();
+    }
+
+    private Vector<DetectedError> analyseDiagram()
+    {
+    	//structorizerKeywords.clear();
+    	//structorizerKeywords.add("global");
+    	Set<String> keywordSet = new HashSet<String>();
+    	keywordSet.add("global");
     	for (String keyword: CodeParser.getAllProperties()) {
-    		structorizerKeywords.add(keyword);
+    		//structorizerKeywords.add(keyword);
+    		keywordSet.add(keyword);
     	}
+    	structorizerKeywords = keywordSet;
+    // END AGT#24 2026-10-18
     	
         this.getVarNames();	// also fills this.constants if not already done
         //System.out.println(this.variables);
@@ -4813,6 +5706,11 @@ public class Root extends Element {
 //        StringList vars = getVarNames(this,true,false);
 //        rootVars = vars.copy();
         rootVars = getVarNames(this, true, false);
+        // START AGT#24 2026-10-18
+        if (analysisCache != null) {
+        	analysisCache.startAnalysis(getAnalysisSettings());
+        }
+        // END AGT#24 2026-10-18
         StringList vars = new StringList();
         StringList uncertainVars = new StringList();
 //        HashMap<String, String> definedConsts = new LinkedHashMap<String, String>();
@@ -4967,6 +5865,11 @@ public class Root extends Element {
 
         // CHECK: the content of the diagram
         boolean[] resultFlags = {false, false, false};
+        // START AGT#24 2026-10-18
+        if (analysisCache != null) {
+        	analysisCache.startSequence(this, vars, uncertainVars, definedConsts, resultFlags, typeDefinitions);
+        }
+        // END AGT#24 2026-10-18
         analyse(this.children, errors, vars, uncertainVars, definedConsts, resultFlags, typeDefinitions);
 
         // Test if we have a function (return value) or not
@@ -5063,8 +5966,12 @@ public class Root extends Element {
 	private static final void initialiseKeyTables()
 	{
 		// Establish the primary lookup tables
-    	caseAwareKeywords = new Hashtable<String, StringList>();
-    	caseUnawareKeywords = new Hashtable<String, StringList>();
+    	// START AGT#24 2026-10-18: Tables are only published when complete (concurrent analysis)
+    	//caseAwareKeywords = new Hashtable<String, StringList>();
+    	//caseUnawareKeywords = new Hashtable<String, StringList>();
+    	Hashtable<String, StringList> caseAwareKeywords = new Hashtable<String, StringList>();
+    	Hashtable<String, StringList> caseUnawareKeywords = new Hashtable<String, StringList>();
+    	// END AGT#24 2026-10-18
     	// Now add the table entries for every generator
     	for (GENPlugin plugin: Menu.generatorPlugins)
     	{
@@ -5102,6 +6009,10 @@ public class Root extends Element {
     			}
     		}
     	}
+    	// START AGT#24 2026-10-18
+    	Root.caseUnawareKeywords = caseUnawareKeywords;
+    	Root.caseAwareKeywords = caseAwareKeywords;
+    	// END AGT#24 2026-10-18
     	// Now buy the GUI some time to accomplish its initialisation
 //    	try {
 //    	    Thread.sleep(500);
@@ -5125,6 +6036,10 @@ public class Root extends Element {
                 ini.setProperty("check" + (i+1), (check(i+1) ? "1" : "0"));
             }
             // END KGU#239 2016-08-12
+            // START AGT#25 2026-10-18: Limits of the undo stacks (not editable in the GUI)
+            ini.setProperty("undoMaxEntries", Integer.toString(undoMaxEntries));
+            ini.setProperty("undoMaxMemory", Integer.toString(undoMaxMemory));
+            // END AGT#25 2026-10-18
             ini.save();
         }
         catch (Exception e)
@@ -33,6 +33,7 @@ package lu.fisch.structorizer.elements;
  *      Author          Date			Description
  *      ------			----			-----------
  *      Kay Gürtzig     2016.03.12      First Issue
+ *      agent           2026.10.18      AGT#7: New modes SELFTIME_LOG and TOTALTIME_LOG (execution time profile)
  *
  ******************************************************************************************************
  *
@@ -50,7 +51,11 @@ public enum RuntimeDataPresentMode {
 	EXECSTEPS_LIN("done operations, lin."),
 	EXECSTEPS_LOG("done operations, log."),
 	TOTALSTEPS_LIN("total operations, lin."),
-	TOTALSTEPS_LOG("total operations, log.");
+	TOTALSTEPS_LOG("total operations, log."),
+	// START AGT#7 2026-10-18: Execution time profiling
+	SELFTIME_LOG("self time, log."),
+	TOTALTIME_LOG("cumulative time, log.");
+	// END AGT#7 2026-10-18
 	
 	private String text;
 	private RuntimeDataPresentMode(String _caption)
@@ -56,6 +56,8 @@ package lu.fisch.structorizer.elements;
  *      Kay Gürtzig     2017.05.21      Enh. #372: Additional field for RootAttributes to be cached on undoing/redoing
  *      Kay Gürtzig     2017.07.01      Enh. #389: Additional field for caching the includeList on undoing/redoing 
  *      Kay Gürtzig     2018.04.04      Issue #529: Critical section in prepareDraw() reduced.
+ *      agent           2026.10.18      AGT#25: New method shareElementAt() for undo entries
+ *      agent           2026.10.18      AGT#23: setDisabled() resets the cached variable retrieval results
  *
  ******************************************************************************************************
  *
@@ -319,6 +321,20 @@ public class Subqueue extends Element implements IElementSequence {
 	}
 	// END KGU#136 2016-03-02
 	
+	// START AGT#25 2026-10-18: Undo entries share unchanged elements
+	/**
+	 * Replaces the child at position {@code _index} by {@code _element} without adopting it (i.e.
+	 * the parent of {@code _element} is not changed). Only for undo entries, which may share
+	 * elements with other undo entries.
+	 * @param _index - position of the child to be replaced
+	 * @param _element - an element equal to the child
+	 */
+	void shareElementAt(int _index, Element _element)
+	{
+		children.set(_index, _element);
+	}
+	// END AGT#25 2026-10-18
+	
 	/* (non-Javadoc)
 	 * @see lu.fisch.structorizer.elements.IElementContainer#removeElements()
 	 */
@@ -637,6 +653,9 @@ public class Subqueue extends Element implements IElementSequence {
 		for (int i = 0; i < this.getSize(); i++)
 		{
 			this.getElement(i).disabled = disable;
+			// START AGT#23 2026-10-18
+			this.getElement(i).resetVarSummaryUp();
+			// END AGT#23 2026-10-18
 		}
 	}
 
@@ -0,0 +1,277 @@
+/*
+    Structorizer
+    A little tool which you can use to create Nassi-Schneiderman Diagrams (NSD)
+
+    Copyright (C) 2009  Bob Fisch
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or any
+    later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package lu.fisch.structorizer.elements;
+
+/******************************************************************************************************
+ *
+ *      Author:         agent
+ *
+ *      Description:    Structural sharing among the entries of the undo and redo stacks of a Root.
+ *
+ ******************************************************************************************************
+ *
+ *      Revision List
+ *
+ *      Author          Date            Description
+ *      ------          ----            -----------
+ *      agent           2026.10.18      First Issue (AGT#25)
+ *      agent           2026.10.18      AGT#23: getBranches() also used for the variable retrieval per subtree
+ *
+ ******************************************************************************************************
+ *
+ *      Comment:
+ *      2026.10.18 / agent
+ *      - An undo entry is a copy of the diagram body. Consecutive entries differ by a single editing
+ *        step, so most of their elements are equal. Every subtree of a new entry that equals the
+ *        subtree with the same element id in a reference entry (the adjacent entry on the stack) is
+ *        replaced by the latter. Hence an entry only holds new elements on the paths from the body to
+ *        the modified elements, everything else is shared.
+ *      - This requires entries to be immutable: Root never makes an entry the diagram body but
+ *        restores a copy of it. The parent references of shared elements point to one of the sharing
+ *        entries and must not be used.
+ *      - The memory consumption of the entries is estimated (per element a fixed amount plus the
+ *        characters of text and comment), shared elements are counted once.
+ *
+ ******************************************************************************************************///
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Replaces the unchanged subtrees of an undo entry by the equal subtrees of another entry and
+ * estimates the memory of undo entries.
+ * @author agent
+ */
+final class UndoSharing {
+
+	/** Estimated bytes of an element object without text and comment */
+	private static final int ELEMENT_BYTES = 320;
+	/** Estimated bytes of a Subqueue object without its children */
+	private static final int SUBQUEUE_BYTES = 160;
+	/** Estimated bytes per child reference of a Subqueue */
+	private static final int REFERENCE_BYTES = 8;
+	/** Bytes per character of text and comment */
+	private static final int CHAR_BYTES = 2;
+
+	/** The elements of the reference entry by id */
+	private final HashMap<Long, Element> elements = new HashMap<Long, Element>();
+	/** Estimated size of the elements of the new entry not shared so far */
+	private long size = 0;
+
+	/**
+	 * Prepares the sharing of elements of the given reference entry
+	 * @param _reference - an entry of the undo or redo stack (may be null)
+	 */
+	UndoSharing(Subqueue _reference)
+	{
+		if (_reference != null) {
+			_reference.traverse(new IElementVisitor() {
+				@Override
+				public boolean visitPreOrder(Element _ele) {
+					// With duplicate ids (copy and paste), the first one is taken
+					if (!(_ele instanceof Subqueue) && !elements.containsKey(_ele.getId())) {
+						elements.put(_ele.getId(), _ele);
+					}
+					return true;
+				}
+				@Override
+				public boolean visitPostOrder(Element _ele) {
+					return true;
+				}
+			});
+		}
+	}
+
+	/**
+	 * Replaces all subtrees of {@code _entry} that are equal to the subtrees with the same id in the
+	 * reference entry by the latter.
+	 * @param _entry - a new copy of the diagram body, to be pushed to the undo or redo stack
+	 * @return the estimated memory of the elements of {@code _entry} that aren't shared.
+	 */
+	long share(Subqueue _entry)
+	{
+		shareChildren(_entry);
+		size += estimate(_entry);
+		return size;
+	}
+
+	/**
+	 * Replaces the children of {@code _sequence} by equal elements of the reference entry where possible
+	 * and adds the estimated memory of the remaining elements (not of {@code _sequence} itself) to {@link #size}.
+	 */
+	private void shareChildren(Subqueue _sequence)
+	{
+		for (int i = 0; i < _sequence.getSize(); i++) {
+			Element child = _sequence.getElement(i);
+			Element shared = share(child);
+			if (shared != child) {
+				_sequence.shareElementAt(i, shared);
+			}
+		}
+	}
+
+	/**
+	 * Shares the substructure of {@code _element} and checks whether {@code _element} itself
+	 * may be replaced by its counterpart in the reference entry.
+	 * @return either the counterpart or {@code _element}
+	 */
+	private Element share(Element _element)
+	{
+		long sizeBefore = size;
+		Subqueue[] branches = getBranches(_element);
+		for (Subqueue branch: branches) {
+			shareChildren(branch);
+		}
+		Element counterpart = elements.get(_element.getId());
+		if (counterpart != null && isEqual(_element, counterpart)) {
+			Subqueue[] otherBranches = getBranches(counterpart);
+			boolean isShareable = branches.length == otherBranches.length;
+			for (int i = 0; isShareable && i < branches.length; i++) {
+				isShareable = branches[i].getSize() == otherBranches[i].getSize() && isEqual(branches[i], otherBranches[i]);
+				for (int j = 0; isShareable && j < branches[i].getSize(); j++) {
+					isShareable = branches[i].getElement(j) == otherBranches[i].getElement(j);
+				}
+			}
+			if (isShareable) {
+				size = sizeBefore;
+				return counterpart;
+			}
+		}
+		size += estimate(_element);
+		for (Subqueue branch: branches) {
+			size += estimate(branch);
+		}
+		return _element;
+	}
+
+	/**
+	 * Estimates the memory of the given undo entries. Elements shared among the entries are
+	 * only counted with the first entry containing them.
+	 * @param _entries - the undo and redo entries in the order of relevance
+	 * @return the accumulated memory, i.e. element i is the estimated memory of entries 0 through i
+	 */
+	static long[] estimate(List<Subqueue> _entries)
+	{
+		IdentityHashMap<Element, Element> counted = new IdentityHashMap<Element, Element>();
+		long[] sizes = new long[_entries.size()];
+		long size = 0;
+		for (int i = 0; i < sizes.length; i++) {
+			size += estimate(_entries.get(i), counted);
+			sizes[i] = size;
+		}
+		return sizes;
+	}
+
+	/**
+	 * @return the estimated memory of {@code _element} and its substructure as far as not contained
+	 * in {@code _counted}, which is completed
+	 */
+	private static long estimate(Element _element, IdentityHashMap<Element, Element> _counted)
+	{
+		long size = 0;
+		// An element shared with a previously counted entry is shared with its entire substructure
+		if (_counted.put(_element, _element) == null) {
+			size = estimate(_element);
+			if (_element instanceof Subqueue) {
+				for (int i = 0; i < ((Subqueue)_element).getSize(); i++) {
+					size += estimate(((Subqueue)_element).getElement(i), _counted);
+				}
+			}
+			else {
+				for (Subqueue branch: getBranches(_element)) {
+					size += estimate(branch, _counted);
+				}
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @return the estimated memory of {@code _element} itself, i.e. without substructure
+	 */
+	private static long estimate(Element _element)
+	{
+		long bytes = ELEMENT_BYTES;
+		if (_element instanceof Subqueue) {
+			bytes = SUBQUEUE_BYTES + REFERENCE_BYTES * ((Subqueue)_element).getSize();
+		}
+		return bytes + CHAR_BYTES * (_element.getText().getText().length() + _element.getComment().getText().length());
+	}
+
+	/**
+	 * @return the Subqueues directly contained in {@code _element}
+	 */
+	static Subqueue[] getBranches(Element _element)
+	{
+		Subqueue[] branches = new Subqueue[0];
+		if (_element instanceof Alternative) {
+			branches = new Subqueue[]{((Alternative)_element).qTrue, ((Alternative)_element).qFalse};
+		}
+		else if (_element instanceof ILoop) {
+			branches = new Subqueue[]{((ILoop)_element).getBody()};
+		}
+		else if (_element instanceof Case) {
+			branches = ((Case)_element).qs.toArray(branches);
+		}
+		else if (_element instanceof Parallel) {
+			branches = ((Parallel)_element).qs.toArray(branches);
+		}
+		return branches;
+	}
+
+	/**
+	 * Compares all attributes of the given elements retained by {@link Element#copy()} except the
+	 * substructure (and except the id for Subqueues, which get a new id on copying).
+	 */
+	private static boolean isEqual(Element _element1, Element _element2)
+	{
+		boolean isEqual = _element1.getClass() == _element2.getClass()
+				&& (_element1 instanceof Subqueue || _element1.getId() == _element2.getId())
+				&& _element1.getText().getText().equals(_element2.getText().getText())
+				&& _element1.getComment().getText().equals(_element2.getComment().getText())
+				&& (_element1.getColor() == null ? _element2.getColor() == null : _element1.getColor().equals(_element2.getColor()))
+				&& _element1.breakpoint == _element2.breakpoint
+				&& _element1.breakTriggerCount == _element2.breakTriggerCount
+				&& _element1.selected == _element2.selected
+				&& _element1.disabled == _element2.disabled
+				&& _element1.simplyCovered == _element2.simplyCovered
+				&& _element1.deeplyCovered == _element2.deeplyCovered
+				&& _element1.execCountIndex == _element2.execCountIndex;
+		if (isEqual && _element1 instanceof For) {
+			For for1 = (For)_element1;
+			For for2 = (For)_element2;
+			isEqual = for1.style == for2.style
+					&& equalStrings(for1.getCounterVar(), for2.getCounterVar())
+					&& equalStrings(for1.getStartValue(), for2.getStartValue())
+					&& equalStrings(for1.getEndValue(), for2.getEndValue())
+					&& equalStrings(for1.getStepString(), for2.getStepString())
+					&& equalStrings(for1.getValueList(), for2.getValueList());
+		}
+		return isEqual;
+	}
+
+	private static boolean equalStrings(String _string1, String _string2)
+	{
+		return _string1 == null ? _string2 == null : _string1.equals(_string2);
+	}
+
+}
@@ -64,6 +64,12 @@ package lu.fisch.structorizer.executor;
  *      Kay Gürtzig     2017.10.14      Enh. #438: Execution can no longer be resumed with pending variable editing
  *      Kay Gürtzig     2017.10.16      Enh. #439: Opportunity to inspect/edit structured values via tabular editor.
  *      Kay Gürtzig     2017.10.31      Enh. #439: Internal class ValueEditor outsourced as ValuePresenter
+ *      agent           2026.10.18      AGT#3: Message LangTextHolders made static (for headless Executor use)
+ *      agent           2026.10.18      AGT#8: New checkbox for concurrent execution of Parallel branches
+ *      agent           2026.10.18      AGT#10: Checkbox for trace recording and button for trace replay
+ *      agent           2026.10.18      AGT#15: Messages for exceeded execution budget limits
+ *      agent           2026.10.18      AGT#16: Checkbox for fast evaluation (memoization of pure functions)
+ *      agent           2026.10.18      AGT#19: Button to load and display an accumulated coverage file
  *
  ******************************************************************************************************
  *
@@ -84,6 +90,8 @@ import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Vector;
@@ -94,12 +102,14 @@ import javax.swing.AbstractCellEditor;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JComboBox;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.JTable;
 import javax.swing.SwingUtilities;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 
@@ -192,6 +202,20 @@ public class Control extends LangFrame implements PropertyChangeListener, ItemLi
         // START KGU#160 2016-04-12: Enh. #137 - Checkbox for text window output
         chkOutputToTextWindow = new javax.swing.JCheckBox("Text Window Output");
         // END KGU#160 2016-04-12
+        // START AGT#8 2026-10-18: Opt-in concurrent execution of Parallel branches
+        chkConcurrentParallel = new javax.swing.JCheckBox("Real concurrency");
+        // END AGT#8 2026-10-18
+        // START AGT#10 2026-10-18: Execution trace recording and replay
+        chkRecordTrace = new javax.swing.JCheckBox("Record trace");
+        btnReplay = new javax.swing.JButton("Replay trace");
+        btnReplay.setEnabled(false);
+        // END AGT#10 2026-10-18
+        // START AGT#16 2026-10-18: Memoization of pure functions
+        chkFastEvaluation = new javax.swing.JCheckBox("Fast evaluation (memoize pure functions)");
+        // END AGT#16 2026-10-18
+        // START AGT#19 2026-10-18: Display of accumulated test coverage
+        btnLoadCoverage = new javax.swing.JButton("Load coverage");
+        // END AGT#19 2026-10-18
         // START KGU#117 2016-03-06: Enh. #77 - Checkbox for Run data collection
         chkCollectRuntimeData = new javax.swing.JCheckBox("Collect Run Data");
         cbRunDataDisplay = new JComboBox<RuntimeDataPresentMode>(RuntimeDataPresentMode.values());
@@ -214,19 +238,19 @@ public class Control extends LangFrame implements PropertyChangeListener, ItemLi
 
         // START KGU#89/KGU#157 2016-03-18: Bugfix #131 - Prevent interference or take-over
         // These fields are just a translation support for Executor
-        lbStopRunningProc = new LangTextHolder("This action is not allowed while a diagram is being executed.\nDo you want to stop the current execution?");
-        lbInputValue = new LangTextHolder("Please enter a value for <%>");
-        lbInputPaused = new LangTextHolder("Execution paused - you may enter the value in the variable display.");
+        // START AGT#3 2026-10-18: Now static (initialized on declaration) such that a headless Executor may use them
+        //lbStopRunningProc = new LangTextHolder("This action is not allowed while a diagram is being executed.\nDo you want to stop the current execution?");
+        //lbInputValue = new LangTextHolder("Please enter a value for <%>");
+        //lbInputPaused = new LangTextHolder("Execution paused - you may enter the value in the variable display.");
+        //lbInputCancelled = new LangTextHolder("Input cancelled");
+        //lbManuallySet = new LangTextHolder("*** Manually set: %1 <- %2 ***");
+        //lbEmptyLine = new LangTextHolder("empty line");
+        //lbReturnedResult = new LangTextHolder("Returned result");
+        //lbOutput = new LangTextHolder("Output");
+        //lbInput = new LangTextHolder("Input");
+        //lbAcknowledge = new LangTextHolder("Please acknowledge.");
+        // END AGT#3 2026-10-18
         // END KGU#89/KGU#157 2016-03-18
-        // START KGU#197 2016-05-05: Forgotten translations added
-        lbInputCancelled = new LangTextHolder("Input cancelled");
-        lbManuallySet = new LangTextHolder("*** Manually set: %1 <- %2 ***");
-        lbEmptyLine = new LangTextHolder("empty line");
-        lbReturnedResult = new LangTextHolder("Returned result");
-        lbOutput = new LangTextHolder("Output");
-        lbInput = new LangTextHolder("Input");
-        lbAcknowledge = new LangTextHolder("Please acknowledge.");
-        // END KGU#197 2016-05-05
 
         setDefaultCloseOperation(javax.swing.WindowConstants.EXIT_ON_CLOSE);
 
@@ -328,6 +352,20 @@ public class Control extends LangFrame implements PropertyChangeListener, ItemLi
             }
         });
         // END KGU#159 2016-03-17
+        // START AGT#10 2026-10-18
+        btnReplay.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                btnReplayActionPerformed(evt);
+            }
+        });
+        // END AGT#10 2026-10-18
+        // START AGT#19 2026-10-18
+        btnLoadCoverage.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                btnLoadCoverageActionPerformed(evt);
+            }
+        });
+        // END AGT#19 2026-10-18
 
         tblVar.setModel(new javax.swing.table.DefaultTableModel(
             new Object [][] {
@@ -411,7 +449,10 @@ public class Control extends LangFrame implements PropertyChangeListener, ItemLi
         gbc.gridx = 3;
         gbc.gridy = 1;
         gbc.gridwidth = GridBagConstraints.REMAINDER;
-        gbc.gridheight = 2;
+        // START AGT#8 2026-10-18: Place needed for chkConcurrentParallel
+        //gbc.gridheight = 2;
+        gbc.gridheight = 1;
+        // END AGT#8 2026-10-18
         gbc.fill = GridBagConstraints.HORIZONTAL;
         gbc.weightx = 0;
         gbc.weighty = 0;
@@ -429,6 +470,18 @@ public class Control extends LangFrame implements PropertyChangeListener, ItemLi
         gbl.setConstraints(chkOutputToTextWindow, gbc);
         ctnr.add(chkOutputToTextWindow);
         
+        // START AGT#8 2026-10-18: Opt-in concurrent execution of Parallel branches
+        gbc.gridx = 3;
+        gbc.gridy = 2;
+        gbc.gridwidth = GridBagConstraints.REMAINDER;
+        gbc.gridheight = 1;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.weightx = 0;
+        gbc.weighty = 0;
+        gbl.setConstraints(chkConcurrentParallel, gbc);
+        ctnr.add(chkConcurrentParallel);
+        // END AGT#8 2026-10-18
+        
         gbc.gridx = 1;
         gbc.gridy = 3;
         gbc.gridwidth = 2;
@@ -527,6 +580,52 @@ public class Control extends LangFrame implements PropertyChangeListener, ItemLi
         gbc.weighty = 1;
         gbl.setConstraints(jScrollPane1, gbc);
         ctnr.add(jScrollPane1);
+        
+        // START AGT#10 2026-10-18: Execution trace recording and replay
+        gbc.gridx = 1;
+        gbc.gridy = 7;
+        gbc.gridwidth = 2;
+        gbc.gridheight = 1;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.weightx = 0;
+        gbc.weighty = 0;
+        gbl.setConstraints(chkRecordTrace, gbc);
+        ctnr.add(chkRecordTrace);
+        
+        gbc.gridx = 3;
+        gbc.gridy = 7;
+        gbc.gridwidth = GridBagConstraints.REMAINDER;
+        gbc.gridheight = 1;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.weightx = 0;
+        gbc.weighty = 0;
+        gbl.setConstraints(btnReplay, gbc);
+        ctnr.add(btnReplay);
+        // END AGT#10 2026-10-18
+        
+        // START AGT#16 2026-10-18: Memoization of pure functions
+        gbc.gridx = 1;
+        gbc.gridy = 8;
+        gbc.gridwidth = GridBagConstraints.REMAINDER;
+        gbc.gridheight = 1;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.weightx = 0;
+        gbc.weighty = 0;
+        gbl.setConstraints(chkFastEvaluation, gbc);
+        ctnr.add(chkFastEvaluation);
+        // END AGT#16 2026-10-18
+        
+        // START AGT#19 2026-10-18: Display of accumulated test coverage
+        gbc.gridx = 1;
+        gbc.gridy = 9;
+        gbc.gridwidth = GridBagConstraints.REMAINDER;
+        gbc.gridheight = 1;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.weightx = 0;
+        gbc.weighty = 0;
+        gbl.setConstraints(btnLoadCoverage, gbc);
+        ctnr.add(btnLoadCoverage);
+        // END AGT#19 2026-10-18
         // END KGU#210 2016-07-25
         
         // START KGU#287 2017-01-09: Issue #81 / bugfix #330 - flexible GUI scaling
@@ -538,6 +637,15 @@ public class Control extends LangFrame implements PropertyChangeListener, ItemLi
         // START KGU#160 2016-04-12: Enh. #137 - Checkbox for text window output
         chkOutputToTextWindow.addItemListener(this);
         // END KGU#160 2016-04-12
+        // START AGT#8 2026-10-18
+        chkConcurrentParallel.addItemListener(this);
+        // END AGT#8 2026-10-18
+        // START AGT#10 2026-10-18
+        chkRecordTrace.addItemListener(this);
+        // END AGT#10 2026-10-18
+        // START AGT#16 2026-10-18
+        chkFastEvaluation.addItemListener(this);
+        // END AGT#16 2026-10-18
 
         // START KGU#117 2016-03-06: Enh. #77 Track test coverage mode change
         chkCollectRuntimeData.addItemListener(this);
@@ -575,6 +683,10 @@ public class Control extends LangFrame implements PropertyChangeListener, ItemLi
         chkCollectRuntimeData.setEnabled(true);
         this.cbRunDataDisplay.setEnabled(chkCollectRuntimeData.isSelected());
         // END KGU#117 2016-03-06
+        // START AGT#10 2026-10-18
+        chkRecordTrace.setEnabled(true);
+        btnReplay.setEnabled(traceFile != null && traceFile.length() > 0);
+        // END AGT#10 2026-10-18
         // empty table
         DefaultTableModel tm = (DefaultTableModel) tblVar.getModel();
         while(tm.getRowCount()>0) tm.removeRow(0);
@@ -620,6 +732,9 @@ public class Control extends LangFrame implements PropertyChangeListener, ItemLi
         chkCollectRuntimeData.setEnabled(false);
         cbRunDataDisplay.setEnabled(chkCollectRuntimeData.isSelected());
         // END KGU#117 2016-03-06
+        // START AGT#10 2026-10-18
+        this.disableTraceControls();
+        // END AGT#10 2026-10-18
         // START KGU#68 205-11-06: Enhancement - update edited values
         if (!varUpdates.isEmpty())
         {
@@ -717,6 +832,9 @@ public class Control extends LangFrame implements PropertyChangeListener, ItemLi
         chkCollectRuntimeData.setEnabled(false);
         cbRunDataDisplay.setEnabled(chkCollectRuntimeData.isSelected());
         // END KGU#117 2016-03-06
+        // START AGT#10 2026-10-18
+        this.disableTraceControls();
+        // END AGT#10 2026-10-18
         if(Executor.getInstance().isRunning()==false)
         {
             Executor.getInstance().start(true);
@@ -768,6 +886,70 @@ public class Control extends LangFrame implements PropertyChangeListener, ItemLi
     // END KGU#210 2016-07-25
     // END KGU#159 2016-03-17
     
+    // START AGT#10 2026-10-18: Execution trace replay
+    private void btnReplayActionPerformed(java.awt.event.ActionEvent evt)
+    {
+    	if (Executor.getInstance().isRunning() || traceFile == null) {
+    		return;
+    	}
+    	if (replayDialog != null) {
+    		replayDialog.dispose();
+    	}
+    	try {
+    		replayDialog = new TraceReplayDialog(this, ExecutionTrace.load(traceFile));
+    	}
+    	catch (IOException ex) {
+    		JOptionPane.showMessageDialog(this, ex.getLocalizedMessage(),
+    				msgTitleError.getText(), JOptionPane.ERROR_MESSAGE);
+    	}
+    }
+    
+    /**
+     * Disables the trace recording checkbox and the replay button and closes a
+     * replay dialog (to be called on execution start)
+     */
+    private void disableTraceControls()
+    {
+    	chkRecordTrace.setEnabled(false);
+    	btnReplay.setEnabled(false);
+    	if (replayDialog != null) {
+    		replayDialog.dispose();
+    		replayDialog = null;
+    	}
+    }
+    // END AGT#10 2026-10-18
+    
+    // START AGT#19 2026-10-18: Display of accumulated test coverage
+    private void btnLoadCoverageActionPerformed(java.awt.event.ActionEvent evt)
+    {
+    	Executor executor = Executor.getInstance();
+    	if (executor.isRunning()) {
+    		return;
+    	}
+    	JFileChooser dlgOpen = new JFileChooser();
+    	dlgOpen.setDialogTitle(btnLoadCoverage.getText());
+    	dlgOpen.setFileFilter(new FileNameExtensionFilter("*." + CoverageStore.FILE_EXTENSION, CoverageStore.FILE_EXTENSION));
+    	if (dlgOpen.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+    		return;
+    	}
+    	CoverageStore coverage = null;
+    	try {
+    		coverage = CoverageStore.load(dlgOpen.getSelectedFile());
+    	}
+    	catch (IOException ex) {
+    		JOptionPane.showMessageDialog(this, ex.getLocalizedMessage(),
+    				msgTitleError.getText(), JOptionPane.ERROR_MESSAGE);
+    		return;
+    	}
+    	// Activates the test coverage mode (via itemStateChanged)
+    	chkCollectRuntimeData.setSelected(true);
+    	if (executor.applyCoverage(coverage) == 0) {
+    		JOptionPane.showMessageDialog(this, msgNoCoverageData.getText(),
+    				msgTitleError.getText(), JOptionPane.WARNING_MESSAGE);
+    	}
+    }
+    // END AGT#19 2026-10-18
+    
 	// START KGU#443 2017-10-16: Enh. #439 - new pulldown buttons near compound values
 	private void btnPullDownActionPerformed(java.awt.event.ActionEvent evt)
 	{
@@ -909,6 +1091,22 @@ public class Control extends LangFrame implements PropertyChangeListener, ItemLi
     private javax.swing.JSlider slSpeed;
     // START KGU#160 2016-04-12: Enh. #137 - Checkbox for text window output
     public javax.swing.JCheckBox chkOutputToTextWindow;
+    // START AGT#8 2026-10-18
+    public javax.swing.JCheckBox chkConcurrentParallel;
+    // END AGT#8 2026-10-18
+    // START AGT#10 2026-10-18
+    public javax.swing.JCheckBox chkRecordTrace;
+    // START AGT#16 2026-10-18
+    public javax.swing.JCheckBox chkFastEvaluation;
+    // END AGT#16 2026-10-18
+    public javax.swing.JButton btnReplay;
+    // START AGT#19 2026-10-18
+    public javax.swing.JButton btnLoadCoverage;
+    // END AGT#19 2026-10-18
+    /** Temporary file the execution traces are recorded to */
+    private File traceFile = null;
+    private TraceReplayDialog replayDialog = null;
+    // END AGT#10 2026-10-18
     // END KGU#160 2016-04-12
     // START KGU#117/KGU#156 2016-03-13: Enh. #77/#124 - Checkbox fpr Test coverage mode
     public javax.swing.JCheckBox chkCollectRuntimeData;
@@ -936,94 +1134,94 @@ public class Control extends LangFrame implements PropertyChangeListener, ItemLi
     	}};
     // END KGU#443 2017-10-16
     // START KGU#89/KGU#157 2016-03-18: Bugfix #131 - Language support for Executor
-    public LangTextHolder lbStopRunningProc;
-    public LangTextHolder lbInputValue;
-    public LangTextHolder lbInputPaused;
+    public static final LangTextHolder lbStopRunningProc = new LangTextHolder("This action is not allowed while a diagram is being executed.\nDo you want to stop the current execution?");
+    public static final LangTextHolder lbInputValue = new LangTextHolder("Please enter a value for <%>");
+    public static final LangTextHolder lbInputPaused = new LangTextHolder("Execution paused - you may enter the value in the variable display.");
     // END KGU#89/KGU#157 2016-03-18
     // START KGU#197 2016-05-05: More language support
-    public LangTextHolder lbInputCancelled;
-    public LangTextHolder lbManuallySet;
-    public LangTextHolder lbEmptyLine;
-    public LangTextHolder lbReturnedResult;
-    public LangTextHolder lbOutput;
-    public LangTextHolder lbInput;
-    public LangTextHolder lbAcknowledge;
+    public static final LangTextHolder lbInputCancelled = new LangTextHolder("Input cancelled");
+    public static final LangTextHolder lbManuallySet = new LangTextHolder("*** Manually set: %1 <- %2 ***");
+    public static final LangTextHolder lbEmptyLine = new LangTextHolder("empty line");
+    public static final LangTextHolder lbReturnedResult = new LangTextHolder("Returned result");
+    public static final LangTextHolder lbOutput = new LangTextHolder("Output");
+    public static final LangTextHolder lbInput = new LangTextHolder("Input");
+    public static final LangTextHolder lbAcknowledge = new LangTextHolder("Please acknowledge.");
     // START KGU 2017-04-21
     public static final LangTextHolder lbOk = new LangTextHolder("OK");
     public static final LangTextHolder lbPause = new LangTextHolder("Pause");
     // END KGU 2017-04-21
     // START KGU#197 2016-07-27
-    public final LangTextHolder msgNoSubroutine = 
+    public static final LangTextHolder msgNoSubroutine = 
     		new LangTextHolder("A subroutine diagram \"%1\" (%2 parameters) could not be found!\nConsider starting the Arranger and place needed subroutine diagrams there first.");
  // START KGU#376 2017-04-11: Enh. #389
     // END KGU#376 2017-04-11
-    public final LangTextHolder msgNoInclDiagram = 
+    public static final LangTextHolder msgNoInclDiagram = 
     		new LangTextHolder("An includable diagram \"%\" could not be found!\nConsider starting the Arranger and place the needed diagram there first.");
  // // START KGU#317 2016-12-29
-    public final LangTextHolder msgAmbiguousCall =
+    public static final LangTextHolder msgAmbiguousCall =
     		new LangTextHolder("Ambiguous CALL: Different callable diagrams \"%1\" (%2 parameters) found!");
     // END KGU#317 2016-12-29
-    public final LangTextHolder msgInvalidExpr =
+    public static final LangTextHolder msgInvalidExpr =
     		new LangTextHolder("<%1> is not a correct or existing expression.");
     // START KGU#249 2016-09-17: Bugfix #246 + Issue #243
-    public final LangTextHolder msgInvalidBool =
+    public static final LangTextHolder msgInvalidBool =
     		new LangTextHolder("<%1> is not a valid Boolean expression.");
     // END KGU#249 2016-09-17
-    public final LangTextHolder msgIllFunction =
+    public static final LangTextHolder msgIllFunction =
     		new LangTextHolder("<%1> is not a correct function!");
-    public final LangTextHolder msgManualBreak =
+    public static final LangTextHolder msgManualBreak =
     		new LangTextHolder("Manual Break!");
-    public final LangTextHolder msgIllegalLeave =
+    public static final LangTextHolder msgIllegalLeave =
     		new LangTextHolder("Illegal leave argument: %1");
-    public final LangTextHolder msgWrongExit =
+    public static final LangTextHolder msgWrongExit =
     		new LangTextHolder("Wrong exit value: %1");
-    public final LangTextHolder msgExitCode =
+    public static final LangTextHolder msgExitCode =
     		new LangTextHolder("Program exited with code %1!");
-    public final LangTextHolder msgIllegalJump =
+    public static final LangTextHolder msgIllegalJump =
     		new LangTextHolder("Illegal content of a Jump (i.e. exit) instruction: <%1>!");
-    public final LangTextHolder msgTooManyLevels =
+    public static final LangTextHolder msgTooManyLevels =
     		new LangTextHolder("Too many levels to leave (actual depth: %1 / specified: %2)!");
     // END KGU#197 2016-07-27
     // START KGU#247 2016-09-17: Issue #243
-    public final LangTextHolder msgJumpOutParallel =
+    public static final LangTextHolder msgJumpOutParallel =
     		new LangTextHolder("Illegal attempt to jump out of a parallel thread:%Thread killed!");
-    public final LangTextHolder msgTitleError =
+    public static final LangTextHolder msgTitleError =
     		new LangTextHolder("Error");
-    public final LangTextHolder msgTitleParallel =
+    public static final LangTextHolder msgTitleParallel =
     		new LangTextHolder("Parallel Execution Problem");
-    public final LangTextHolder msgTitleQuestion =
+    public static final LangTextHolder msgTitleQuestion =
     		new LangTextHolder("Question");
     // END KGU#247 2016-09-17
     // START KGU#307 2016-12-12: Enh. #307
-    public final LangTextHolder msgForLoopManipulation =
+    public static final LangTextHolder msgForLoopManipulation =
     		new LangTextHolder("Illegal attempt to manipulate the FOR loop variable «%»!");
     // END KGU#307 2016-12-12
     // START KGU#375 2017-03-30: Enh. #388
-    public final LangTextHolder msgConstantRedefinition =
+    public static final LangTextHolder msgConstantRedefinition =
     		new LangTextHolder("Illegal attempt to redefine constant «%»!");
-    public final LangTextHolder msgConstantArrayElement =
+    public static final LangTextHolder msgConstantArrayElement =
     		new LangTextHolder("An array element «%» may not be made a constant by assignment!");
     // END KGU#375 2017-03-30
     // START KGU#568 2018-08-01
-    public final LangTextHolder msgInvalidRecord =
+    public static final LangTextHolder msgInvalidRecord =
     		new LangTextHolder("«%1» is not a valid record (%2)!");
     // END KGU#568 2018-08-01
     // START KGU#388 2017-09-14: Enh. #423 - support for record types
-    public final LangTextHolder msgInvalidComponent =
+    public static final LangTextHolder msgInvalidComponent =
     		new LangTextHolder("There is no component «%1» in record type or variable «%2»!");
-    public final LangTextHolder msgConstantRecordComponent =
+    public static final LangTextHolder msgConstantRecordComponent =
     		new LangTextHolder("A record component «%» may not be made a constant by assignment!");
-    public final LangTextHolder msgTypeMismatch =
+    public static final LangTextHolder msgTypeMismatch =
     		new LangTextHolder("Value type «%1» is incompatible with type «%2» of variable/component «%3»!");
     // END KGU#388 2017-09-14
     // START KGU 2017-10-08
-    public final LangTextHolder msgBadValueList =
+    public static final LangTextHolder msgBadValueList =
     		new LangTextHolder("<%> cannot be interpreted as value list.");
-    public final LangTextHolder msgBadValueListDetails =
+    public static final LangTextHolder msgBadValueListDetails =
     		new LangTextHolder("Details: %");
     // END KGU 2017-10-08
     // START KGU#510 2018-03-20: Issue #527
-    public final LangTextHolder msgIndexOutOfBounds =
+    public static final LangTextHolder msgIndexOutOfBounds =
     		new LangTextHolder("Index «%1» (%2) is out of bounds for array «%3»!");
     // END KGU#510 2018-03-10
     // START KGU#311 2016-12-18/24: Enh. #314 Error messages for File API
@@ -1068,6 +1266,20 @@ public class Control extends LangFrame implements PropertyChangeListener, ItemLi
     public static final LangTextHolder msgGUISyncFault = new LangTextHolder("Possible GUI synchronisation fault on executing «%».\nTry to resume execution?");
     
     // END KGU#5689 2018-08-09
+    // START AGT#15 2026-10-18: Execution budget
+    public static final LangTextHolder msgStepLimitExceeded =
+    		new LangTextHolder("Execution aborted: step limit of % exceeded!");
+    public static final LangTextHolder msgTimeLimitExceeded =
+    		new LangTextHolder("Execution aborted: time limit of % ms exceeded!");
+    public static final LangTextHolder msgCallDepthExceeded =
+    		new LangTextHolder("Execution aborted: call depth limit of % exceeded!");
+    public static final LangTextHolder msgOutputLimitExceeded =
+    		new LangTextHolder("Execution aborted: output limit of % bytes exceeded!");
+    // END AGT#15 2026-10-18
+    // START AGT#19 2026-10-18: Accumulated test coverage
+    public static final LangTextHolder msgNoCoverageData =
+    		new LangTextHolder("The coverage file contains no data for the open diagrams (in their current form).");
+    // END AGT#19 2026-10-18
     // START KGU#68 2015-11-06: Register variable value editing events
     private final ConcurrentMap<String, Object> varUpdates = new ConcurrentHashMap<String, Object>();
 
@@ -1168,6 +1380,34 @@ public class Control extends LangFrame implements PropertyChangeListener, ItemLi
     		Executor.getInstance().setOutputWindowEnabled(this.chkOutputToTextWindow.isSelected());
     	}
     	// END KGU#160 2016-04-12
+    	// START AGT#8 2026-10-18: Opt-in concurrent execution of Parallel branches
+    	else if (itEv.getSource() == this.chkConcurrentParallel)
+    	{
+    		Executor.getInstance().setConcurrentParallel(this.chkConcurrentParallel.isSelected());
+    	}
+    	// END AGT#8 2026-10-18
+    	// START AGT#10 2026-10-18: Execution trace recording
+    	else if (itEv.getSource() == this.chkRecordTrace)
+    	{
+    		if (this.chkRecordTrace.isSelected() && this.traceFile == null) {
+    			try {
+    				this.traceFile = File.createTempFile("structorizer", "." + TraceRecorder.FILE_EXTENSION);
+    				this.traceFile.deleteOnExit();
+    			} catch (IOException ex) {
+    				JOptionPane.showMessageDialog(this, ex.getLocalizedMessage(),
+    						msgTitleError.getText(), JOptionPane.ERROR_MESSAGE);
+    				this.chkRecordTrace.setSelected(false);
+    			}
+    		}
+    		Executor.getInstance().setTraceFile(this.chkRecordTrace.isSelected() ? this.traceFile : null);
+    	}
+    	// END AGT#10 2026-10-18
+    	// START AGT#16 2026-10-18: Memoization of pure functions
+    	else if (itEv.getSource() == this.chkFastEvaluation)
+    	{
+    		Executor.getInstance().setFastEvaluation(this.chkFastEvaluation.isSelected());
+    	}
+    	// END AGT#16 2026-10-18
     }
     // END KGU#117 2016-03-08
 	
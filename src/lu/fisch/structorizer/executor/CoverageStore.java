@@ -0,0 +1,462 @@
+/*
+    Structorizer
+    A little tool which you can use to create Nassi-Schneiderman Diagrams (NSD)
+
+    Copyright (C) 2009  Bob Fisch
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or any
+    later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package lu.fisch.structorizer.executor;
+
+/******************************************************************************************************
+ *
+ *      Author:         agent
+ *
+ *      Description:    Accumulates the test coverage of many executions as bit sets per diagram.
+ *
+ ******************************************************************************************************
+ *
+ *      Revision List
+ *
+ *      Author          Date            Description
+ *      ------          ----            -----------
+ *      agent           2026.10.18      First Issue (AGT#19)
+ *
+ ******************************************************************************************************
+ *
+ *      Comment:
+ *      2026.10.18 / agent
+ *      - The coverage flags of the elements (simplyCovered, deeplyCovered) only live as long as the
+ *        Root objects and get lost with clearRuntimeData(). A CoverageStore keeps them as two bit sets
+ *        per diagram, the bit index being the element number in preorder (as in trace files, since
+ *        element ids aren't persistent). A diagram is identified by signature, path, and a checksum
+ *        of its element structure, such that coverage of a modified diagram isn't mapped to the wrong
+ *        elements (it just remains in the store under the former checksum).
+ *      - Recording and merging only OR words into AtomicLongArrays and insert entries via putIfAbsent,
+ *        so many headless executions (e.g. the jobs of a GradingRunner) may feed the same store
+ *        concurrently without locking.
+ *      - The coverage of structured elements is derived from their substructure on apply(Root), since
+ *        the union of several runs may cover e.g. both branches of an Alternative though none of the
+ *        single runs did.
+ *      - File layout: magic number and version (ints), the run count (long), the number of diagrams,
+ *        and per diagram signature and path (UTF-8 with byte count), checksum (int), element count,
+ *        and the words of both bit sets (longs). Counts are variable-length integers as with traces.
+ *
+ ******************************************************************************************************///
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import lu.fisch.structorizer.elements.Element;
+import lu.fisch.structorizer.elements.IElementVisitor;
+import lu.fisch.structorizer.elements.Root;
+
+/**
+ * Thread-safe accumulator of the test coverage of many executions: holds the coverage flags of
+ * the elements as bit sets per diagram, may merge other stores, be saved to and loaded from a
+ * compact file, and be applied to diagrams again (for the coverage display).
+ * @author agent
+ * @see Element#checkTestCoverage(boolean)
+ */
+public class CoverageStore {
+
+	/** File signature ("NSDC") */
+	static final int MAGIC = 0x4E534443;
+	static final int VERSION = 1;
+	/** Proposed file name extension for coverage files */
+	public static final String FILE_EXTENSION = "nsdc";
+
+	/**
+	 * Coverage bit sets of a single diagram version
+	 */
+	private static final class Entry {
+		final String signature;
+		final String path;
+		final int checksum;
+		final int size;
+		final AtomicLongArray simple;
+		final AtomicLongArray deep;
+
+		Entry(String _signature, String _path, int _checksum, int _size)
+		{
+			this.signature = _signature;
+			this.path = _path;
+			this.checksum = _checksum;
+			this.size = _size;
+			this.simple = new AtomicLongArray((_size + 63) >>> 6);
+			this.deep = new AtomicLongArray((_size + 63) >>> 6);
+		}
+
+		String getKey()
+		{
+			return makeKey(signature, path, checksum);
+		}
+	}
+
+	/**
+	 * Gathers the elements of a diagram in preorder and computes a checksum of its structure
+	 */
+	private static final class Scan implements IElementVisitor {
+		final Vector<Element> elements = new Vector<Element>();
+		int checksum = 1;
+
+		Scan(Root _root)
+		{
+			_root.traverse(this);
+		}
+
+		@Override
+		public boolean visitPreOrder(Element _ele) {
+			elements.add(_ele);
+			checksum = 31 * checksum + _ele.getClass().getName().hashCode();
+			return true;
+		}
+
+		@Override
+		public boolean visitPostOrder(Element _ele) {
+			// Marks the end of a substructure
+			checksum = 31 * checksum + 1;
+			return true;
+		}
+	}
+
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+	private final AtomicLong runCount = new AtomicLong(0);
+
+	private static String makeKey(String _signature, String _path, int _checksum)
+	{
+		return _signature + "\n" + _path + "\n" + Integer.toHexString(_checksum);
+	}
+
+	private Entry getEntry(Root _root, Scan _scan)
+	{
+		String signature = _root.getSignatureString(false);
+		String path = _root.getPath();
+		String key = makeKey(signature, path, _scan.checksum);
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			Entry newEntry = new Entry(signature, path, _scan.checksum, _scan.elements.size());
+			entry = entries.putIfAbsent(key, newEntry);
+			if (entry == null) {
+				entry = newEntry;
+			}
+		}
+		return entry;
+	}
+
+	private static void orWord(AtomicLongArray _bits, int _word, long _value)
+	{
+		long old;
+		do {
+			old = _bits.get(_word);
+			if ((old | _value) == old) {
+				return;
+			}
+		} while (!_bits.compareAndSet(_word, old, old | _value));
+	}
+
+	private static boolean getBit(AtomicLongArray _bits, int _index)
+	{
+		return (_bits.get(_index >>> 6) & (1L << _index)) != 0;
+	}
+
+	private static int countBits(AtomicLongArray _bits)
+	{
+		int count = 0;
+		for (int i = 0; i < _bits.length(); i++) {
+			count += Long.bitCount(_bits.get(i));
+		}
+		return count;
+	}
+
+	/**
+	 * Adds the current coverage flags of the elements of the given diagram to the store.
+	 * May be called concurrently.
+	 * @param _root - an executed diagram (with runtime data collected)
+	 */
+	public void record(Root _root)
+	{
+		Scan scan = new Scan(_root);
+		Entry entry = getEntry(_root, scan);
+		// Gather the flags word by word to keep the number of atomic operations low
+		long simpleWord = 0, deepWord = 0;
+		int nElements = scan.elements.size();
+		for (int i = 0; i < nElements; i++) {
+			Element ele = scan.elements.get(i);
+			// Structured elements (in particular the Root) may not have been marked explicitly
+			if (ele.simplyCovered || ele.isTestCovered(false)) {
+				simpleWord |= 1L << i;
+			}
+			if (ele.deeplyCovered || ele.isTestCovered(true)) {
+				deepWord |= 1L << i;
+			}
+			if ((i & 63) == 63 || i == nElements - 1) {
+				orWord(entry.simple, i >>> 6, simpleWord);
+				orWord(entry.deep, i >>> 6, deepWord);
+				simpleWord = deepWord = 0;
+			}
+		}
+	}
+
+	/**
+	 * Adds the coverage of the diagrams involved in one execution to the store and counts
+	 * the run. May be called concurrently.
+	 * @param _roots - the main diagram and the subroutine / includable diagrams of an execution
+	 */
+	public void record(Collection<Root> _roots)
+	{
+		for (Root root: _roots) {
+			record(root);
+		}
+		runCount.incrementAndGet();
+	}
+
+	/**
+	 * Merges the coverage (and run count) of the given store into this one. May be called
+	 * concurrently.
+	 * @param _other - another coverage store
+	 */
+	public void merge(CoverageStore _other)
+	{
+		for (Entry other: _other.entries.values()) {
+			Entry entry = entries.get(other.getKey());
+			if (entry == null) {
+				Entry newEntry = new Entry(other.signature, other.path, other.checksum, other.size);
+				entry = entries.putIfAbsent(other.getKey(), newEntry);
+				if (entry == null) {
+					entry = newEntry;
+				}
+			}
+			for (int i = 0; i < entry.simple.length(); i++) {
+				orWord(entry.simple, i, other.simple.get(i));
+				orWord(entry.deep, i, other.deep.get(i));
+			}
+		}
+		runCount.addAndGet(_other.runCount.get());
+	}
+
+	/**
+	 * Sets the coverage flags of the elements of the given diagram according to the store
+	 * (such that the diagram may be drawn in a coverage presentation mode) and derives the
+	 * coverage of the structured elements from their substructure.
+	 * @param _root - the diagram to be marked
+	 * @return true if the store contains coverage data for the diagram in its current form
+	 */
+	public boolean apply(Root _root)
+	{
+		Scan scan = new Scan(_root);
+		Entry entry = entries.get(makeKey(_root.getSignatureString(false), _root.getPath(), scan.checksum));
+		if (entry == null) {
+			return false;
+		}
+		for (int i = 0; i < scan.elements.size(); i++) {
+			Element ele = scan.elements.get(i);
+			ele.simplyCovered = getBit(entry.simple, i);
+			ele.deeplyCovered = getBit(entry.deep, i);
+		}
+		_root.traverse(new IElementVisitor() {
+			@Override
+			public boolean visitPreOrder(Element _ele) {
+				return true;
+			}
+			@Override
+			public boolean visitPostOrder(Element _ele) {
+				// The substructure has been completed before
+				_ele.simplyCovered = _ele.simplyCovered || _ele.isTestCovered(false);
+				_ele.deeplyCovered = _ele.deeplyCovered || _ele.isTestCovered(true);
+				return true;
+			}
+		});
+		return true;
+	}
+
+	/**
+	 * @return the number of executions recorded via {@link #record(Collection)} (merged stores included)
+	 */
+	public long getRunCount()
+	{
+		return runCount.get();
+	}
+
+	/**
+	 * @return the number of diagram versions the store holds coverage data for
+	 */
+	public int getDiagramCount()
+	{
+		return entries.size();
+	}
+
+	/**
+	 * @return the total number of elements of all diagrams in the store
+	 */
+	public long getElementCount()
+	{
+		long count = 0;
+		for (Entry entry: entries.values()) {
+			count += entry.size;
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the covered elements of all diagrams in the store (structured elements are only
+	 * counted if some single run had covered them, see {@link #apply(Root)}).
+	 * @param _deeply - whether deep coverage (subroutines included) is to be counted
+	 * @return the number of covered elements
+	 */
+	public long getCoveredCount(boolean _deeply)
+	{
+		long count = 0;
+		for (Entry entry: entries.values()) {
+			count += countBits(_deeply ? entry.deep : entry.simple);
+		}
+		return count;
+	}
+
+	/**
+	 * Writes a summary of the coverage per diagram (sorted by signature) to the given stream.
+	 * @param _out - the target stream
+	 */
+	public void writeReport(PrintStream _out)
+	{
+		Vector<String> keys = new Vector<String>(entries.keySet());
+		Collections.sort(keys);
+		_out.println("Runs: " + getRunCount());
+		for (String key: keys) {
+			Entry entry = entries.get(key);
+			_out.println(entry.signature + " (" + entry.path + "): "
+					+ countBits(entry.simple) + " / " + countBits(entry.deep) + " of " + entry.size);
+		}
+		_out.println("Total: " + getCoveredCount(false) + " / " + getCoveredCount(true) + " of " + getElementCount());
+	}
+
+	/**
+	 * Saves the store to the given file
+	 * @param _file - the target file (will be overwritten)
+	 * @throws IOException
+	 */
+	public void save(File _file) throws IOException
+	{
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(_file)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(runCount.get());
+			Vector<Entry> entryList = new Vector<Entry>(entries.values());
+			writeVarInt(out, entryList.size());
+			for (Entry entry: entryList) {
+				writeString(out, entry.signature);
+				writeString(out, entry.path);
+				out.writeInt(entry.checksum);
+				writeVarInt(out, entry.size);
+				for (int i = 0; i < entry.simple.length(); i++) {
+					out.writeLong(entry.simple.get(i));
+				}
+				for (int i = 0; i < entry.deep.length(); i++) {
+					out.writeLong(entry.deep.get(i));
+				}
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Loads a store from the given file
+	 * @param _file - a file written by {@link #save(File)}
+	 * @return the loaded store
+	 * @throws IOException if the file isn't readable or isn't a valid coverage file
+	 */
+	public static CoverageStore load(File _file) throws IOException
+	{
+		CoverageStore store = new CoverageStore();
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(_file)));
+		try {
+			if (in.readInt() != MAGIC || in.readInt() > VERSION) {
+				throw new IOException(_file + ": no (compatible) coverage file");
+			}
+			store.runCount.set(in.readLong());
+			int nEntries = readVarInt(in);
+			for (int i = 0; i < nEntries; i++) {
+				String signature = readString(in);
+				String path = readString(in);
+				int checksum = in.readInt();
+				Entry entry = new Entry(signature, path, checksum, readVarInt(in));
+				for (int j = 0; j < entry.simple.length(); j++) {
+					entry.simple.set(j, in.readLong());
+				}
+				for (int j = 0; j < entry.deep.length(); j++) {
+					entry.deep.set(j, in.readLong());
+				}
+				store.entries.put(entry.getKey(), entry);
+			}
+		}
+		finally {
+			in.close();
+		}
+		return store;
+	}
+
+	private static void writeString(DataOutputStream _out, String _str) throws IOException
+	{
+		byte[] bytes = _str.getBytes("UTF-8");
+		writeVarInt(_out, bytes.length);
+		_out.write(bytes);
+	}
+
+	private static void writeVarInt(DataOutputStream _out, int _value) throws IOException
+	{
+		while ((_value & ~0x7F) != 0) {
+			_out.writeByte((_value & 0x7F) | 0x80);
+			_value >>>= 7;
+		}
+		_out.writeByte(_value);
+	}
+
+	private static String readString(DataInputStream _in) throws IOException
+	{
+		byte[] bytes = new byte[readVarInt(_in)];
+		_in.readFully(bytes);
+		return new String(bytes, "UTF-8");
+	}
+
+	private static int readVarInt(DataInputStream _in) throws IOException
+	{
+		int value = 0;
+		int shift = 0;
+		int b;
+		do {
+			b = _in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+
+}
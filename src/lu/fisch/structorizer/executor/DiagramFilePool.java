@@ -0,0 +1,227 @@
+/*
+    Structorizer
+    A little tool which you can use to create Nassi-Schneiderman Diagrams (NSD)
+
+    Copyright (C) 2009  Bob Fisch
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or any
+    later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package lu.fisch.structorizer.executor;
+
+/******************************************************************************************************
+ *
+ *      Author:         agent
+ *
+ *      Description:    Simple routine pool holding diagrams loaded from files (without any GUI).
+ *
+ ******************************************************************************************************
+ *
+ *      Revision List
+ *
+ *      Author          Date            Description
+ *      ------          ----            -----------
+ *      agent           2026.10.18      First Issue (AGT#3)
+ *
+ ******************************************************************************************************
+ *
+ *      Comment:
+ *      2026.10.18 / agent
+ *      - Serves as subroutine and includable source for a headless Executor (batch mode), where
+ *        there is no Arranger. Accepts .nsd files and arrangement archives (.arrz), of which just
+ *        the contained .nsd files are parsed (directly from the archive, i.e. without unzipping).
+ *
+ ******************************************************************************************************///
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Vector;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.xml.sax.SAXException;
+
+import lu.fisch.structorizer.elements.Root;
+import lu.fisch.structorizer.io.ArrZipFilter;
+import lu.fisch.structorizer.io.StructogramFilter;
+import lu.fisch.structorizer.parsers.NSDParser;
+
+/**
+ * A plain {@link IRoutinePool} for diagrams loaded from .nsd files or .arrz archives,
+ * e.g. for the headless execution mode of the {@link Executor}.
+ * @author agent
+ */
+public class DiagramFilePool implements IRoutinePool {
+
+	private final Vector<Root> roots = new Vector<Root>();
+	private final Set<IRoutinePoolListener> listeners = new HashSet<IRoutinePoolListener>();
+
+	/**
+	 * Loads the diagram(s) from the given file into this pool. The file may either be
+	 * an NSD file (.nsd) or an arrangement archive (.arrz), in which case all contained
+	 * diagrams are loaded.
+	 * @param _file - the .nsd or .arrz file
+	 * @return the loaded diagrams (the first of them being the one of an .nsd file)
+	 * @throws IOException if the file isn't readable or has an unsuitable type
+	 * @throws SAXException if a diagram file isn't well-formed
+	 */
+	public Vector<Root> loadFile(File _file) throws IOException, SAXException
+	{
+		Vector<Root> loaded = new Vector<Root>();
+		String path = _file.getAbsolutePath();
+		if (StructogramFilter.isNSD(path)) {
+			Root root = new NSDParser().parse(_file);
+			root.filename = path;
+			loaded.add(root);
+		}
+		else if (ArrZipFilter.isArr(path)) {
+			ZipFile zipFile = new ZipFile(_file);
+			try {
+				Enumeration<? extends ZipEntry> entries = zipFile.entries();
+				while (entries.hasMoreElements()) {
+					ZipEntry entry = entries.nextElement();
+					if (!entry.isDirectory() && StructogramFilter.isNSD(entry.getName())) {
+						InputStream istr = new BufferedInputStream(zipFile.getInputStream(entry));
+						try {
+							Root root = new NSDParser().parse(istr);
+							// Associate the diagram with the directory of the archive
+							root.filename = new File(_file.getAbsoluteFile().getParentFile(), entry.getName()).getPath();
+							loaded.add(root);
+						}
+						finally {
+							istr.close();
+						}
+					}
+				}
+			}
+			finally {
+				zipFile.close();
+			}
+		}
+		else {
+			throw new IOException(_file + ": neither .nsd nor .arrz");
+		}
+		this.roots.addAll(loaded);
+		notifyListeners();
+		return loaded;
+	}
+
+	/**
+	 * Adds the given diagram to this pool (if it isn't already held)
+	 * @param _root - the diagram to be added
+	 */
+	public void addRoot(Root _root)
+	{
+		if (!this.roots.contains(_root)) {
+			this.roots.add(_root);
+			notifyListeners();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see lu.fisch.structorizer.executor.IRoutinePool#findDiagramsByName(java.lang.String)
+	 */
+	@Override
+	public Vector<Root> findDiagramsByName(String rootName)
+	{
+		Vector<Root> found = new Vector<Root>();
+		for (Root root: this.roots) {
+			if (rootName.equals(root.getMethodName())) {
+				found.add(root);
+			}
+		}
+		return found;
+	}
+
+	/* (non-Javadoc)
+	 * @see lu.fisch.structorizer.executor.IRoutinePool#findIncludesByName(java.lang.String)
+	 */
+	@Override
+	public Vector<Root> findIncludesByName(String rootName)
+	{
+		Vector<Root> incls = new Vector<Root>();
+		for (Root root: this.findDiagramsByName(rootName)) {
+			if (root.isInclude()) {
+				incls.add(root);
+			}
+		}
+		return incls;
+	}
+
+	/* (non-Javadoc)
+	 * @see lu.fisch.structorizer.executor.IRoutinePool#findRoutinesBySignature(java.lang.String, int)
+	 */
+	@Override
+	public Vector<Root> findRoutinesBySignature(String rootName, int argCount)
+	{
+		Vector<Root> functions = new Vector<Root>();
+		for (Root root: this.findDiagramsByName(rootName)) {
+			if (root.isSubroutine() && root.getParameterNames().count() == argCount) {
+				functions.add(root);
+			}
+		}
+		return functions;
+	}
+
+	/* (non-Javadoc)
+	 * @see lu.fisch.structorizer.executor.IRoutinePool#getAllRoots()
+	 */
+	@Override
+	public Set<Root> getAllRoots()
+	{
+		return new HashSet<Root>(this.roots);
+	}
+
+	/* (non-Javadoc)
+	 * @see lu.fisch.structorizer.executor.IRoutinePool#clearExecutionStatus()
+	 */
+	@Override
+	public void clearExecutionStatus()
+	{
+		for (Root root: this.roots) {
+			root.clearExecutionStatus();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see lu.fisch.structorizer.executor.IRoutinePool#addChangeListener(lu.fisch.structorizer.executor.IRoutinePoolListener)
+	 */
+	@Override
+	public void addChangeListener(IRoutinePoolListener _listener)
+	{
+		this.listeners.add(_listener);
+	}
+
+	/* (non-Javadoc)
+	 * @see lu.fisch.structorizer.executor.IRoutinePool#removeChangeListener(lu.fisch.structorizer.executor.IRoutinePoolListener)
+	 */
+	@Override
+	public void removeChangeListener(IRoutinePoolListener _listener)
+	{
+		this.listeners.remove(_listener);
+	}
+
+	private void notifyListeners()
+	{
+		for (IRoutinePoolListener listener: this.listeners) {
+			listener.routinePoolChanged(this);
+		}
+	}
+
+}
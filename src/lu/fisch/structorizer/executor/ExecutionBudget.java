@@ -0,0 +1,110 @@
+/*
+    Structorizer
+    A little tool which you can use to create Nassi-Schneiderman Diagrams (NSD)
+
+    Copyright (C) 2009  Bob Fisch
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or any
+    later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package lu.fisch.structorizer.executor;
+
+/******************************************************************************************************
+ *
+ *      Author:         agent
+ *
+ *      Description:    Resource limits for a single execution (watchdog configuration).
+ *
+ ******************************************************************************************************
+ *
+ *      Revision List
+ *
+ *      Author          Date            Description
+ *      ------          ----            -----------
+ *      agent           2026.10.18      First Issue (AGT#15)
+ *
+ ******************************************************************************************************
+ *
+ *      Comment:
+ *      2026.10.18 / agent
+ *      - The limits are checked by the Executor itself (on every element step and loop iteration,
+ *        on every subroutine call, and on every output instruction), so a runaway diagram is aborted
+ *        with a specific error message rather than having to be stopped from outside.
+ *
+ ******************************************************************************************************///
+
+/**
+ * Immutable set of resource limits for an execution by the {@link Executor}. A limit value of 0
+ * (or less) means that the respective resource isn't limited.
+ * @author agent
+ * @see Executor#setBudget(ExecutionBudget)
+ */
+public final class ExecutionBudget {
+
+	/** The kinds of limits */
+	public static enum Limit {STEPS, TIME, CALL_DEPTH, OUTPUT};
+
+	/** A budget without any limits */
+	public static final ExecutionBudget UNLIMITED = new ExecutionBudget(0, 0, 0, 0);
+
+	/** Maximum number of executed element steps (loop iterations included) */
+	public final long maxSteps;
+	/** Maximum wall time in milliseconds */
+	public final long maxTime;
+	/** Maximum number of nested subroutine calls */
+	public final int maxCallDepth;
+	/** Maximum number of output bytes (lines encoded as UTF-8, including line separators) */
+	public final long maxOutputBytes;
+
+	/**
+	 * Creates a budget with the given limits (0 = unlimited)
+	 * @param _maxSteps - maximum number of executed element steps
+	 * @param _maxTime - maximum wall time in milliseconds
+	 * @param _maxCallDepth - maximum subroutine call depth
+	 * @param _maxOutputBytes - maximum number of output bytes
+	 */
+	public ExecutionBudget(long _maxSteps, long _maxTime, int _maxCallDepth, long _maxOutputBytes)
+	{
+		this.maxSteps = Math.max(_maxSteps, 0);
+		this.maxTime = Math.max(_maxTime, 0);
+		this.maxCallDepth = Math.max(_maxCallDepth, 0);
+		this.maxOutputBytes = Math.max(_maxOutputBytes, 0);
+	}
+
+	/**
+	 * @return true if none of the resources is limited
+	 */
+	public boolean isUnlimited()
+	{
+		return maxSteps == 0 && maxTime == 0 && maxCallDepth == 0 && maxOutputBytes == 0;
+	}
+
+	/**
+	 * Returns a copy of this budget with the given wall time limit
+	 * @param _maxTime - maximum wall time in milliseconds (0 = unlimited)
+	 * @return the modified budget
+	 */
+	public ExecutionBudget withMaxTime(long _maxTime)
+	{
+		return new ExecutionBudget(maxSteps, _maxTime, maxCallDepth, maxOutputBytes);
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "(steps: " + maxSteps + ", time: " + maxTime
+				+ " ms, call depth: " + maxCallDepth + ", output: " + maxOutputBytes + " bytes)";
+	}
+
+}
@@ -37,6 +37,9 @@ package lu.fisch.structorizer.executor;
  *      Kay Gürtzig     2016.12.12      Issue #307: Extended by forLoopVars
  *      Kay Gürtzig     2017.04.21      Enh. #389: Extensions for import calls, conversion into a context cartridge
  *      Kay Gürtzig     2018.03.19      Enh. #389: Renamed in ExecutionContext
+ *      agent           2026.10.18      AGT#5: Interpreter may be passed in (sharing a prototype namespace)
+ *      agent           2026.10.18      AGT#12: Optional VariableFrame with primitive numeric slots
+ *      agent           2026.10.18      AGT#13: Fields importsSyncedAt, importVersions for the incremental import update
  *
  ******************************************************************************************************
  *
@@ -85,7 +88,18 @@ public class ExecutionContext {
 	 * The BeanShell interpreter used to execute instructions and thereby holding the
 	 * accumulated context (built-in routines, variable values etc.)
 	 */
-	public final Interpreter interpreter = new Interpreter();
+	// START AGT#5 2026-10-18: May now be passed in (e.g. based on a prototype namespace)
+	//public final Interpreter interpreter = new Interpreter();
+	public final Interpreter interpreter;
+	// END AGT#5 2026-10-18
+	// START AGT#12 2026-10-18: Primitive storage of numeric variables
+	/**
+	 * The frame-local store of numeric variable values (written into the namespace of
+	 * {@link #interpreter} before the latter uses it), or null
+	 * @see VariableFrame.FrameInterpreter
+	 */
+	public final VariableFrame frame;
+	// END AGT#12 2026-10-18
 	// START KGU#78 2015-11-25
 	/** The current nesting level of loops */
 	public int loopDepth = 0;
@@ -101,6 +115,19 @@ public class ExecutionContext {
 	 */
 	public StringList importList = new StringList();
 	// END KGU#376 2017-04-21
+	// START AGT#13 2026-10-18: Incremental update of the imported variables
+	/**
+	 * Modification count of {@link #frame} at which the imported variables were known to
+	 * coincide with those held for the imported diagrams, or -1 (unknown).
+	 * @see VariableFrame#getModifiedSince(long)
+	 */
+	public long importsSyncedAt = -1;
+	/**
+	 * Maps the imported diagrams to the version of their held variable values this context
+	 * was synchronized with (see {@link #importsSyncedAt})
+	 */
+	public final HashMap<Root, Long> importVersions = new HashMap<Root, Long>();
+	// END AGT#13 2026-10-18
 	// START KGU#384 2017-04-22: Redesign of execution context
 	/**
 	 * Signals whether a return instruction has been carried out 
@@ -118,6 +145,12 @@ public class ExecutionContext {
 	public ExecutionContext(Root _root)
 	{
 		root = _root;
+		// START AGT#5 2026-10-18
+		interpreter = new Interpreter();
+		// END AGT#5 2026-10-18
+		// START AGT#12 2026-10-18
+		frame = null;
+		// END AGT#12 2026-10-18
 	}
 	/**
 	 * Sets up a new execution context for the given {@link Root} {@code _root} using
@@ -127,13 +160,59 @@ public class ExecutionContext {
 	 * @param _importList
 	 */
 	public ExecutionContext(Root _root, StringList _importList)
+	{
+		// START AGT#5 2026-10-18
+		//root = _root;
+		//if (_importList != null) {
+		//	importList = _importList;
+		//}
+		this(_root, _importList, new Interpreter());
+		// END AGT#5 2026-10-18
+	}
+	// END KGU 2017-04-22
+	// START AGT#5 2026-10-18: Avoid the costly set-up of a completely new interpreter
+	/**
+	 * Sets up a new execution context for the given {@link Root} {@code _root} using
+	 * the diagram names given in {@code _importList} as list of includables to be 
+	 * considered and the given {@link Interpreter} {@code _interpreter}.
+	 * @param _root
+	 * @param _importList - may be null
+	 * @param _interpreter - a fresh interpreter for this context
+	 */
+	public ExecutionContext(Root _root, StringList _importList, Interpreter _interpreter)
+	{
+		// START AGT#12 2026-10-18
+		//root = _root;
+		//if (_importList != null) {
+		//	importList = _importList;
+		//}
+		//interpreter = _interpreter;
+		this(_root, _importList, _interpreter, null);
+		// END AGT#12 2026-10-18
+	}
+	// END AGT#5 2026-10-18
+	// START AGT#12 2026-10-18: Primitive storage of numeric variables
+	/**
+	 * Sets up a new execution context for the given {@link Root} {@code _root} using
+	 * the diagram names given in {@code _importList} as list of includables to be 
+	 * considered, the given {@link Interpreter} {@code _interpreter}, and the variable
+	 * frame {@code _frame}, which must be associated to {@code _interpreter}.
+	 * @param _root
+	 * @param _importList - may be null
+	 * @param _interpreter - a fresh interpreter for this context
+	 * @param _frame - the {@link VariableFrame} of {@code _interpreter} or null
+	 * @see VariableFrame.FrameInterpreter
+	 */
+	public ExecutionContext(Root _root, StringList _importList, Interpreter _interpreter, VariableFrame _frame)
 	{
 		root = _root;
 		if (_importList != null) {
 			importList = _importList;
 		}
+		interpreter = _interpreter;
+		frame = _frame;
 	}
-	// END KGU 2017-04-22
+	// END AGT#12 2026-10-18
 	
 	// START KGU#78 2015-11-25
 	//public ExecutionStackEntry(Root _root, StringList _variables, Interpreter _interpreter)
@@ -0,0 +1,109 @@
+/*
+    Structorizer
+    A little tool which you can use to create Nassi-Schneiderman Diagrams (NSD)
+
+    Copyright (C) 2009  Bob Fisch
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or any
+    later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package lu.fisch.structorizer.executor;
+
+/******************************************************************************************************
+ *
+ *      Author:         agent
+ *
+ *      Description:    Immutable notification about an execution step, call, assignment, output etc.
+ *
+ ******************************************************************************************************
+ *
+ *      Revision List
+ *
+ *      Author          Date            Description
+ *      ------          ----            -----------
+ *      agent           2026.10.18      First Issue (AGT#18)
+ *
+ ******************************************************************************************************
+ *
+ *      Comment:
+ *      2026.10.18 / agent
+ *      - Values (assigned contents, call results) are passed by reference. Since arrays and records
+ *        may be modified by the execution afterwards, listeners should not rely on their contents
+ *        at delivery time and must never modify them.
+ *
+ ******************************************************************************************************///
+
+import lu.fisch.structorizer.elements.Element;
+
+/**
+ * Describes a single event of an execution (see {@link Kind}), to be delivered to
+ * {@link IExecutionListener}s.
+ * @author agent
+ */
+public final class ExecutionEvent {
+
+	/**
+	 * The kinds of execution events:<br/>
+	 * {@link #EXECUTION_STARTED} - {@code element}: the top-level diagram<br/>
+	 * {@link #EXECUTION_TERMINATED} - {@code element}: the top-level diagram, {@code value}: Boolean success<br/>
+	 * {@link #STEP_STARTED} - {@code element}: the element about to be executed<br/>
+	 * {@link #STEP_FINISHED} - {@code element}: the executed element, {@code value}: error message or null<br/>
+	 * {@link #CALL_ENTERED} - {@code element}: the called diagram, {@code name}: its signature<br/>
+	 * {@link #CALL_LEFT} - {@code element}: the called diagram, {@code name}: its signature, {@code value}: the result<br/>
+	 * {@link #VARIABLE_ASSIGNED} - {@code name}: the variable name, {@code value}: the assigned value
+	 * (for array elements or record components only the element or component value)<br/>
+	 * {@link #OUTPUT_PRODUCED} - {@code value}: the output line<br/>
+	 * {@link #ERROR} - {@code element}: the diagram in which the error occurred, {@code value}: the error message
+	 */
+	public static enum Kind {EXECUTION_STARTED, EXECUTION_TERMINATED, STEP_STARTED, STEP_FINISHED,
+		CALL_ENTERED, CALL_LEFT, VARIABLE_ASSIGNED, OUTPUT_PRODUCED, ERROR};
+
+	/** The kind of the event */
+	public final Kind kind;
+	/** Sequence number of the event in the order of posting (dropped events are not counted) */
+	public final long sequence;
+	/** Value of {@link System#nanoTime()} at the moment the event was posted */
+	public final long timestamp;
+	/** The element or diagram concerned, may be null */
+	public final Element element;
+	/** Id of {@link #element} (see {@link Element#getId()}) or 0 */
+	public final long elementId;
+	/** Name of the variable or signature of the called diagram, otherwise null */
+	public final String name;
+	/** Associated value (see {@link Kind}), may be null */
+	public final Object value;
+	/** Call depth at the moment the event was posted (0 = top-level diagram) */
+	public final int callDepth;
+
+	ExecutionEvent(Kind _kind, long _sequence, Element _element, String _name, Object _value, int _callDepth)
+	{
+		this.kind = _kind;
+		this.sequence = _sequence;
+		this.timestamp = System.nanoTime();
+		this.element = _element;
+		this.elementId = (_element != null) ? _element.getId() : 0;
+		this.name = _name;
+		this.value = _value;
+		this.callDepth = _callDepth;
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "(" + sequence + ": " + kind + ", element: " + elementId
+				+ (name != null ? ", name: " + name : "") + (value != null ? ", value: " + value : "")
+				+ ", depth: " + callDepth + ")";
+	}
+
+}
@@ -0,0 +1,223 @@
+/*
+    Structorizer
+    A little tool which you can use to create Nassi-Schneiderman Diagrams (NSD)
+
+    Copyright (C) 2009  Bob Fisch
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or any
+    later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package lu.fisch.structorizer.executor;
+
+/******************************************************************************************************
+ *
+ *      Author:         agent
+ *
+ *      Description:    Asynchronous delivery of execution events to the registered listeners.
+ *
+ ******************************************************************************************************
+ *
+ *      Revision List
+ *
+ *      Author          Date            Description
+ *      ------          ----            -----------
+ *      agent           2026.10.18      First Issue (AGT#18)
+ *
+ ******************************************************************************************************
+ *
+ *      Comment:
+ *      2026.10.18 / agent
+ *      - The interpreter thread(s) must never wait for a listener. Hence events are put into a bounded
+ *        ring buffer without locking: a producer claims a sequence number by compare-and-set (there
+ *        may be several producers with concurrent Parallel branches) and then publishes the event in
+ *        the respective slot. The single dispatcher thread takes the events in sequence order and
+ *        delivers them. If the ring buffer is full then the event is dropped and counted instead.
+ *      - The dispatcher thread doesn't get woken by the producers (that would cost them a system
+ *        call); it polls with a short, growing back-off while the buffer is empty.
+ *
+ ******************************************************************************************************///
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import lu.fisch.structorizer.elements.Element;
+
+/**
+ * Lock-free multi-producer / single-consumer ring buffer delivering {@link ExecutionEvent}s
+ * to the registered {@link IExecutionListener}s on a daemon thread of its own.
+ * @author agent
+ * @see Executor#addExecutionListener(IExecutionListener)
+ */
+public class ExecutionEventDispatcher implements Runnable {
+
+	/** Default capacity of the ring buffer (number of events) */
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+	/** Maximum idle waiting time of the dispatcher thread between two polls */
+	private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+	private static final Logger logger = Logger.getLogger(ExecutionEventDispatcher.class.getName());
+
+	private final AtomicReferenceArray<ExecutionEvent> ring;
+	private final int mask;
+	/** Next sequence number to be claimed by a producer */
+	private final AtomicLong claimed = new AtomicLong(0);
+	/** Next sequence number to be delivered by the dispatcher thread */
+	private final AtomicLong delivered = new AtomicLong(0);
+	private final AtomicLong dropped = new AtomicLong(0);
+	private final CopyOnWriteArrayList<IExecutionListener> listeners = new CopyOnWriteArrayList<IExecutionListener>();
+	private volatile Thread thread = null;
+	private volatile boolean running = false;
+
+	/**
+	 * Creates a dispatcher with a ring buffer of {@link #DEFAULT_CAPACITY}
+	 */
+	public ExecutionEventDispatcher()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a dispatcher with a ring buffer of (at least) the given capacity
+	 * @param _capacity - number of events the buffer may hold (will be rounded up to a power of 2)
+	 */
+	public ExecutionEventDispatcher(int _capacity)
+	{
+		int capacity = Integer.highestOneBit(Math.max(_capacity, 2) - 1) << 1;
+		this.ring = new AtomicReferenceArray<ExecutionEvent>(capacity);
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * Registers the given listener and starts the dispatcher thread if necessary
+	 * @param _listener - the listener to be added
+	 */
+	public synchronized void addListener(IExecutionListener _listener)
+	{
+		if (_listener != null && listeners.addIfAbsent(_listener) && thread == null) {
+			running = true;
+			thread = new Thread(this, "Structorizer execution events");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * Unregisters the given listener. The dispatcher thread ends with the last listener.
+	 * @param _listener - the listener to be removed
+	 */
+	public synchronized void removeListener(IExecutionListener _listener)
+	{
+		if (listeners.remove(_listener) && listeners.isEmpty() && thread != null) {
+			running = false;
+			LockSupport.unpark(thread);
+			thread = null;
+		}
+	}
+
+	/**
+	 * @return true if there is at least one registered listener
+	 */
+	public boolean hasListeners()
+	{
+		return !listeners.isEmpty();
+	}
+
+	/**
+	 * @return the number of events that had to be dropped because the ring buffer was full
+	 */
+	public long getDroppedCount()
+	{
+		return dropped.get();
+	}
+
+	/**
+	 * Enqueues an event without ever blocking. If the ring buffer is full then the event is
+	 * dropped (see {@link #getDroppedCount()}).
+	 * @param _kind - the kind of event
+	 * @param _element - the element or diagram concerned (may be null)
+	 * @param _name - a variable name or diagram signature (may be null)
+	 * @param _value - an associated value (may be null)
+	 * @param _callDepth - the current subroutine call depth
+	 * @return true if the event was enqueued
+	 */
+	public boolean post(ExecutionEvent.Kind _kind, Element _element, String _name, Object _value, int _callDepth)
+	{
+		if (!running) {
+			return false;
+		}
+		long seq;
+		do {
+			seq = claimed.get();
+			if (seq - delivered.get() > mask) {
+				dropped.incrementAndGet();
+				return false;
+			}
+		} while (!claimed.compareAndSet(seq, seq + 1));
+		ring.set((int)(seq & mask), new ExecutionEvent(_kind, seq, _element, _name, _value, _callDepth));
+		return true;
+	}
+
+	/**
+	 * Waits until all events posted so far have been delivered or the timeout has elapsed.
+	 * (May be used e.g. before a headless run exits.)
+	 * @param _timeout - maximum waiting time in milliseconds
+	 * @return true if all events have been delivered
+	 */
+	public boolean awaitDelivery(long _timeout)
+	{
+		long target = claimed.get();
+		long deadline = System.currentTimeMillis() + _timeout;
+		while (delivered.get() < target) {
+			if (!running || System.currentTimeMillis() >= deadline) {
+				return false;
+			}
+			LockSupport.parkNanos(MAX_PARK_NANOS);
+		}
+		return true;
+	}
+
+	@Override
+	public void run()
+	{
+		long parkNanos = 1000;
+		// A thread replaced on a re-registration after the last listener had been removed must quit
+		while (running && thread == Thread.currentThread()) {
+			long seq = delivered.get();
+			int index = (int)(seq & mask);
+			ExecutionEvent event = ring.get(index);
+			if (event == null || event.sequence != seq) {
+				// Nothing published yet for this sequence number
+				LockSupport.parkNanos(parkNanos);
+				parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+				continue;
+			}
+			parkNanos = 1000;
+			ring.lazySet(index, null);
+			delivered.lazySet(seq + 1);
+			for (IExecutionListener listener: listeners) {
+				try {
+					listener.executionEvent(event);
+				}
+				catch (RuntimeException ex) {
+					logger.log(Level.WARNING, "Execution listener " + listener + " failed on " + event, ex);
+				}
+			}
+		}
+	}
+
+}
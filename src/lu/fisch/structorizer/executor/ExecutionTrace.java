@@ -0,0 +1,366 @@
+/*
+    Structorizer
+    A little tool which you can use to create Nassi-Schneiderman Diagrams (NSD)
+
+    Copyright (C) 2009  Bob Fisch
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or any
+    later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package lu.fisch.structorizer.executor;
+
+/******************************************************************************************************
+ *
+ *      Author:         agent
+ *
+ *      Description:    An execution trace loaded from a file written by a TraceRecorder.
+ *
+ ******************************************************************************************************
+ *
+ *      Revision List
+ *
+ *      Author          Date            Description
+ *      ------          ----            -----------
+ *      agent           2026.10.18      First Issue (AGT#10)
+ *
+ ******************************************************************************************************
+ *
+ *      Comment:
+ *      2026.10.18 / agent
+ *      - The trace is held in memory as a sequence of frames, i.e. the recorded steps plus a final
+ *        frame for the terminal state. The variable changes are kept as deltas; to allow a random
+ *        access in (almost) constant time, a complete copy of the variable display is retained for
+ *        every KEYFRAME_INTERVAL-th frame.
+ *
+ ******************************************************************************************************///
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.Vector;
+
+import lu.fisch.structorizer.elements.Element;
+import lu.fisch.structorizer.elements.IElementVisitor;
+import lu.fisch.structorizer.elements.Root;
+import lu.fisch.utils.StringList;
+
+/**
+ * Execution trace as written by a {@link TraceRecorder}, providing random access to the
+ * executed elements and the variable display of every recorded step.
+ * @author agent
+ */
+public class ExecutionTrace {
+
+	/** Distance of frames with complete variable display copies */
+	private static final int KEYFRAME_INTERVAL = 256;
+
+	private final StringList rootSignatures = new StringList();
+	private final StringList rootPaths = new StringList();
+	private final StringList varNames = new StringList();
+	private final StringList inputs = new StringList();
+	private final Vector<Long> seeds = new Vector<Long>();
+
+	/** Number of frames (recorded steps + final frame) */
+	private int nFrames = 0;
+	private int[] frameRoots = new int[1024];
+	private int[] frameElements = new int[1024];
+	private int[] frameDepths = new int[1024];
+	/** Index of the first variable change belonging to the frame (changes leading to its display) */
+	private int[] frameChanges = new int[1025];
+
+	private int nChanges = 0;
+	private int[] changeNames = new int[1024];
+	/** New variable value or null if the variable was dropped */
+	private String[] changeValues = new String[1024];
+
+	private final Vector<LinkedHashMap<String, String>> keyframes = new Vector<LinkedHashMap<String, String>>();
+
+	/** Preorder element arrays of the diagrams already resolved */
+	private final HashMap<Root, Element[]> elementArrays = new HashMap<Root, Element[]>();
+
+	private ExecutionTrace()
+	{
+	}
+
+	/**
+	 * Loads the trace from the given file
+	 * @param _file - a trace file written by a {@link TraceRecorder}
+	 * @return the loaded trace
+	 * @throws IOException if the file isn't readable or isn't a valid trace file
+	 */
+	public static ExecutionTrace load(File _file) throws IOException
+	{
+		ExecutionTrace trace = new ExecutionTrace();
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(_file)));
+		try {
+			if (in.readInt() != TraceRecorder.MAGIC || in.readInt() > TraceRecorder.VERSION) {
+				throw new IOException(_file + ": no (compatible) execution trace");
+			}
+			trace.read(in);
+		}
+		finally {
+			in.close();
+		}
+		return trace;
+	}
+
+	private void read(DataInputStream _in) throws IOException
+	{
+		LinkedHashMap<String, String> vars = new LinkedHashMap<String, String>();
+		int tag;
+		do {
+			try {
+				tag = _in.readUnsignedByte();
+			}
+			catch (EOFException ex) {
+				// Incomplete trace (e.g. an aborted recording) - keep what we got
+				tag = TraceRecorder.TAG_END;
+			}
+			switch (tag) {
+			case TraceRecorder.TAG_END:
+				// The final frame (terminal state, no element)
+				addFrame(-1, 0, 0, vars);
+				break;
+			case TraceRecorder.TAG_ROOT:
+				rootSignatures.add(readString(_in));
+				rootPaths.add(readString(_in));
+				break;
+			case TraceRecorder.TAG_NAME:
+				varNames.add(readString(_in));
+				break;
+			case TraceRecorder.TAG_STEP:
+			{
+				int root = readVarInt(_in);
+				int element = readVarInt(_in) - 1;
+				int depth = readVarInt(_in);
+				addFrame(root, element, depth, vars);
+			}
+				break;
+			case TraceRecorder.TAG_SET:
+			case TraceRecorder.TAG_DROP:
+			{
+				int name = readVarInt(_in);
+				String value = null;
+				if (tag == TraceRecorder.TAG_SET) {
+					value = readString(_in);
+					vars.put(varNames.get(name), value);
+				}
+				else {
+					vars.remove(varNames.get(name));
+				}
+				addChange(name, value);
+			}
+				break;
+			case TraceRecorder.TAG_INPUT:
+				inputs.add(readString(_in));
+				break;
+			case TraceRecorder.TAG_SEED:
+				seeds.add(_in.readLong());
+				break;
+			default:
+				throw new IOException("Corrupt execution trace (tag " + tag + ")");
+			}
+		} while (tag != TraceRecorder.TAG_END);
+	}
+
+	private void addFrame(int _root, int _element, int _depth, LinkedHashMap<String, String> _vars)
+	{
+		if (nFrames == frameRoots.length) {
+			int newSize = 2 * nFrames;
+			frameRoots = Arrays.copyOf(frameRoots, newSize);
+			frameElements = Arrays.copyOf(frameElements, newSize);
+			frameDepths = Arrays.copyOf(frameDepths, newSize);
+			frameChanges = Arrays.copyOf(frameChanges, newSize + 1);
+		}
+		if (nFrames % KEYFRAME_INTERVAL == 0) {
+			keyframes.add(new LinkedHashMap<String, String>(_vars));
+		}
+		frameRoots[nFrames] = _root;
+		frameElements[nFrames] = _element;
+		frameDepths[nFrames] = _depth;
+		// The changes up to now belong to this frame, the following ones to the next
+		frameChanges[++nFrames] = nChanges;
+	}
+
+	private void addChange(int _name, String _value)
+	{
+		if (nChanges == changeNames.length) {
+			changeNames = Arrays.copyOf(changeNames, 2 * nChanges);
+			changeValues = Arrays.copyOf(changeValues, 2 * nChanges);
+		}
+		changeNames[nChanges] = _name;
+		changeValues[nChanges++] = _value;
+	}
+
+	private static String readString(DataInputStream _in) throws IOException
+	{
+		byte[] bytes = new byte[readVarInt(_in)];
+		_in.readFully(bytes);
+		return new String(bytes, "UTF-8");
+	}
+
+	private static int readVarInt(DataInputStream _in) throws IOException
+	{
+		int value = 0;
+		int shift = 0;
+		int b;
+		do {
+			b = _in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+
+	/**
+	 * @return the number of frames, i.e. the number of recorded steps plus one (for the final state)
+	 */
+	public int getFrameCount()
+	{
+		return nFrames;
+	}
+
+	/**
+	 * @param _frame - the frame index (0 ... {@link #getFrameCount()}-1)
+	 * @return the subroutine call level of the given frame
+	 */
+	public int getCallDepth(int _frame)
+	{
+		return frameDepths[_frame];
+	}
+
+	/**
+	 * @param _frame - the frame index (0 ... {@link #getFrameCount()}-1)
+	 * @return the signature string of the diagram executed in the given frame or null (final frame)
+	 * @see Root#getSignatureString(boolean)
+	 */
+	public String getRootSignature(int _frame)
+	{
+		int root = frameRoots[_frame];
+		return root < 0 ? null : rootSignatures.get(root);
+	}
+
+	/**
+	 * Identifies the diagram executed in the given frame among the given candidates, preferring a
+	 * diagram with the recorded file path among those with matching signature.
+	 * @param _frame - the frame index (0 ... {@link #getFrameCount()}-1)
+	 * @param _candidates - the available diagrams
+	 * @return the best matching diagram or null
+	 */
+	public Root findRoot(int _frame, Collection<Root> _candidates)
+	{
+		int rootIx = frameRoots[_frame];
+		if (rootIx < 0) {
+			return null;
+		}
+		String signature = rootSignatures.get(rootIx);
+		String path = rootPaths.get(rootIx);
+		Root found = null;
+		for (Root root: _candidates) {
+			if (root != null && signature.equals(root.getSignatureString(false))) {
+				if (path.equals(root.getPath())) {
+					return root;
+				}
+				else if (found == null) {
+					found = root;
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Retrieves the element executed in the given frame from {@code _root}, which is supposed
+	 * to be the diagram identified by {@link #findRoot(int, Collection)} for this frame.
+	 * @param _frame - the frame index (0 ... {@link #getFrameCount()}-1)
+	 * @param _root - the diagram of the frame
+	 * @return the element or null (e.g. if the diagram has been modified since the recording)
+	 */
+	public Element getElement(int _frame, Root _root)
+	{
+		int elementNo = frameElements[_frame];
+		if (_root == null || elementNo < 0) {
+			return null;
+		}
+		Element[] elements = elementArrays.get(_root);
+		if (elements == null) {
+			final Vector<Element> elementList = new Vector<Element>();
+			_root.traverse(new IElementVisitor() {
+				@Override
+				public boolean visitPreOrder(Element _ele) {
+					elementList.add(_ele);
+					return true;
+				}
+				@Override
+				public boolean visitPostOrder(Element _ele) {
+					return true;
+				}
+			});
+			elements = elementList.toArray(new Element[elementList.size()]);
+			elementArrays.put(_root, elements);
+		}
+		return elementNo < elements.length ? elements[elementNo] : null;
+	}
+
+	/**
+	 * Reconstructs the variable display for the given frame (i.e. the state before the
+	 * recorded step is executed) from the nearest preceding keyframe.
+	 * @param _frame - the frame index (0 ... {@link #getFrameCount()}-1)
+	 * @return a vector of pairs of variable name and value string
+	 */
+	public Vector<String[]> getVariables(int _frame)
+	{
+		int keyIx = _frame / KEYFRAME_INTERVAL;
+		LinkedHashMap<String, String> vars = new LinkedHashMap<String, String>(keyframes.get(keyIx));
+		for (int i = frameChanges[keyIx * KEYFRAME_INTERVAL + 1]; i < frameChanges[_frame + 1]; i++) {
+			String name = varNames.get(changeNames[i]);
+			if (changeValues[i] == null) {
+				vars.remove(name);
+			}
+			else {
+				vars.put(name, changeValues[i]);
+			}
+		}
+		Vector<String[]> pairs = new Vector<String[]>();
+		for (Entry<String, String> entry: vars.entrySet()) {
+			pairs.add(new String[]{entry.getKey(), entry.getValue()});
+		}
+		return pairs;
+	}
+
+	/**
+	 * @return the input lines consumed during the recorded execution (in order)
+	 */
+	public StringList getInputs()
+	{
+		return inputs.copy();
+	}
+
+	/**
+	 * @return the seeds of the random generators used to interleave Parallel branches (in order)
+	 */
+	public Vector<Long> getSeeds()
+	{
+		return new Vector<Long>(seeds);
+	}
+
+}
@@ -159,6 +159,34 @@ package lu.fisch.structorizer.executor;
  *      Kay Gürtzig     2018.08.01      Enh. #423/#563: Effort to preserve component order for record display
  *      Kay Gürtzig     2018.08.03      Enh. #577: Meta information to output console now conditioned
  *      Kay Gürtzig     2018.08.06      Some prevention against running status lock on occasion of Issue #577
+ *      agent           2026.10.18      AGT#1: Cache for the text-dependent preprocessing of element lines
+ *      agent           2026.10.18      AGT#2: Native evaluation of simple expressions (NativeExpression)
+ *      agent           2026.10.18      AGT#3: Headless mode for batch execution (no Control, console, or Diagram)
+ *      agent           2026.10.18      AGT#4: Thread safety for concurrent headless instances, step counter
+ *      agent           2026.10.18      AGT#5: Built-in functions defined once per execution in a prototype namespace
+ *      agent           2026.10.18      AGT#6: Turbo mode (delay 0): GUI refreshes coalesced to a fixed rate
+ *      agent           2026.10.18      AGT#7: Execution time profiling per element, CSV export (writeProfile())
+ *      agent           2026.10.18      AGT#8: Opt-in concurrent execution of Parallel branches on worker threads
+ *      agent           2026.10.18      AGT#9: Resolved subroutines cached per Call element until the pools change
+ *      agent           2026.10.18      AGT#10: Optional recording of an execution trace (for replay)
+ *      agent           2026.10.18      AGT#11: FOR loop parameters are prepared once (cached loop plans),
+ *                                      integer counters are updated without interpreter parsing
+ *      agent           2026.10.18      AGT#12: Numeric variables held in primitive slots of a VariableFrame
+ *      agent           2026.10.18      AGT#13: Imported variables are propagated incrementally on calls,
+ *                                      imported diagrams retrieved via a name index
+ *      agent           2026.10.18      AGT#14: Arrays created as NumericArrayList (unboxed int/double contents),
+ *                                      fileRead() now returns arrays as ArrayList, linear array display
+ *      agent           2026.10.18      AGT#15: Configurable execution budget (steps, wall time, call depth,
+ *                                      output bytes) aborting runaway executions with specific messages
+ *      agent           2026.10.18      AGT#16: Optional memoization of pure subroutine results ("fast evaluation")
+ *      agent           2026.10.18      AGT#17: File API compiled (class FileAPI) on NIO channels, charset configurable
+ *      agent           2026.10.18      AGT#18: Execution listener API (steps, calls, assignments, output, errors)
+ *      agent           2026.10.18      AGT#19: Method applyCoverage(CoverageStore) to display accumulated coverage
+ *      agent           2026.10.18      AGT#4: Collection of the (static) element counters can be switched off
+ *      agent           2026.10.18      AGT#1: Prepared line records (line kind, assignment target, compiled
+ *                                      expression) instead of the mere cache of converted lines
+ *      agent           2026.10.18      AGT#12: int results of prepared assignments stored into the frame slot directly
+ *      agent           2026.10.18      AGT#14: int results assigned to elements of int arrays without boxing
  *
  ******************************************************************************************************
  *
@@ -286,11 +314,20 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.WindowEvent;
 import java.awt.event.WindowListener;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
 import java.lang.reflect.Method;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -301,6 +338,16 @@ import java.util.Random;
 import java.util.Set;
 import java.util.Stack;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -318,11 +365,13 @@ import lu.fisch.structorizer.arranger.Arranger;
 import lu.fisch.structorizer.elements.*;
 import lu.fisch.structorizer.gui.Diagram;
 import lu.fisch.structorizer.gui.IconLoader;
+import lu.fisch.structorizer.gui.LangTextHolder;
 import lu.fisch.structorizer.parsers.CodeParser;
 import lu.fisch.utils.BString;
 import lu.fisch.utils.StringList;
 import bsh.EvalError;
 import bsh.Interpreter;
+import bsh.NameSpace;
 
 import com.stevesoft.pat.Regex;
 
@@ -331,7 +380,10 @@ import com.stevesoft.pat.Regex;
  * Method sed as runnable thread.
  * @author robertfisch
  */
-public class Executor implements Runnable
+// START AGT#9 2026-10-18: Must learn about changes of the routine pools
+//public class Executor implements Runnable
+public class Executor implements Runnable, IRoutinePoolListener
+// END AGT#9 2026-10-18
 {
 	// START KGU 2018-03-21
 	public static final Logger logger = Logger.getLogger(Executor.class.getName());
@@ -353,6 +405,10 @@ public class Executor implements Runnable
 		// START KGU#388 2017-09-18: Enh. 423
 		public final HashMap<String, TypeMapEntry> typeDefinitions;
 		// END KGU#388 2017-09-18
+		// START AGT#13 2026-10-18: Allows to detect whether the values have changed
+		/** Incremented whenever values are copied into {@link #interpreter} */
+		public long version = 0;
+		// END AGT#13 2026-10-18
 		// START KGU#388 2017-09-18: Enh. 423
 		//public ImportInfo(Interpreter _interpr, StringList _varNames) {
 		public ImportInfo(Interpreter _interpr, StringList _varNames, HashMap<String, TypeMapEntry> _typeMap) {
@@ -377,6 +433,24 @@ public class Executor implements Runnable
 	};
 	// END KGU#311 2016-12-22
 
+	// START AGT#17 2026-10-18: Interpreted adapters to the compiled file API (see FileAPI)
+	/** Result type, name, parameter declarations, arguments, and handle check method of the file API routines */
+	private static final String[][] fileAPIAdapters = {
+		{"int", "fileOpen", "String filePath", "filePath", null},
+		{"int", "fileCreate", "String filePath", "filePath", null},
+		{"int", "fileAppend", "String filePath", "filePath", null},
+		{"void", "fileClose", "int fileNo", "fileNo", null},
+		{"boolean", "fileEOF", "int fileNo", "fileNo", "isValidFileNumber"},
+		{"Object", "fileRead", "int fileNo", "fileNo", "isReadable"},
+		{"Character", "fileReadChar", "int fileNo", "fileNo", "isReadable"},
+		{"Integer", "fileReadInt", "int fileNo", "fileNo", "isReadable"},
+		{"Double", "fileReadDouble", "int fileNo", "fileNo", "isReadable"},
+		{"String", "fileReadLine", "int fileNo", "fileNo", "isReadable"},
+		{"void", "fileWrite", "int fileNo, java.lang.Object data", "fileNo, data", "isWritable"},
+		{"void", "fileWriteLine", "int fileNo, java.lang.Object data", "fileNo, data", "isWritable"}
+	};
+	// END AGT#17 2026-10-18
+
 	private static final String[] builtInFunctions = new String[] {
 			"public int random(int max) { return (int) (Math.random()*max); }",
 			"public void randomize() {  }",
@@ -445,222 +519,230 @@ public class Executor implements Runnable
 			// END KGU#439 2017-10-13
 			// END KGU#322 2017-01-06
 			// START KGU 2016-12-18: #314: Support for simple text file API
-			"public int fileOpen(String filePath) { "
-					+ "int fileNo = 0; "
-					+ "java.io.File file = new java.io.File(filePath); "
-					+ "if (!file.isAbsolute()) { "
-					+ "file = new java.io.File(executorCurrentDirectory + java.io.File.separator + filePath); "
-					+ "} "
-					+ "try { java.io.FileInputStream fis = new java.io.FileInputStream(file); "
-					+ "java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.InputStreamReader(fis, \"UTF-8\")); "
-					+ "fileNo = executorFileMap.size() + 1; "
-					+ "executorFileMap.add(new java.util.Scanner(reader)); "
-					+ "} "
-					+ "catch (SecurityException e) { fileNo = -3; } "
-					+ "catch (java.io.FileNotFoundException e) { fileNo = -2; } "
-					+ "catch (java.io.IOException e) { fileNo = -1; } "
-					+ "return fileNo; }",
-
-			"public int fileCreate(String filePath) { "
-					+ "int fileNo = 0; "
-					+ "java.io.File file = new java.io.File(filePath); "
-					+ "if (!file.isAbsolute()) { "
-					+ "file = new java.io.File(executorCurrentDirectory + java.io.File.separator + filePath); "
-					+ "} "
-					+ "try { java.io.FileOutputStream fos = new java.io.FileOutputStream(file); "
-					+ "java.io.BufferedWriter writer = new java.io.BufferedWriter(new java.io.OutputStreamWriter(fos, \"UTF-8\")); "
-					+ "fileNo = executorFileMap.size() + 1; "
-					+ "executorFileMap.add(writer); "
-					+ "} "
-					+ "catch (SecurityException e) { fileNo = -3; } "
-					+ "catch (java.io.FileNotFoundException e) { fileNo = -2; } "
-					+ "catch (java.io.IOException e) { fileNo = -1; } "
-					+ "return fileNo; }",
-
-			"public int fileAppend(String filePath) { "
-					+ "int fileNo = 0; "
-					+ "java.io.File file = new java.io.File(filePath); "
-					+ "if (!file.isAbsolute()) { "
-					+ "file = new java.io.File(executorCurrentDirectory + java.io.File.separator + filePath); "
-					+ "} "
-					+ "try { java.io.FileOutputStream fos = new java.io.FileOutputStream(file, true); "
-					+ "java.io.BufferedWriter writer = new java.io.BufferedWriter(new java.io.OutputStreamWriter(fos, \"UTF-8\")); "
-					+ "fileNo = executorFileMap.size() + 1; "
-					+ "executorFileMap.add(writer); "
-					+ "} "
-					+ "catch (SecurityException e) { fileNo = -3; } "
-					+ "catch (java.io.FileNotFoundException e) { fileNo = -2; } "
-					+ "catch (java.io.IOException e) { fileNo = -1; } "
-					+ "return fileNo; "
-					+ "}",
+			// START AGT#17 2026-10-18: File API now implemented in class FileAPI (imported object)
+			//"public int fileOpen(String filePath) { "
+			//		+ "int fileNo = 0; "
+			//		+ "java.io.File file = new java.io.File(filePath); "
+			//		+ "if (!file.isAbsolute()) { "
+			//		+ "file = new java.io.File(executorCurrentDirectory + java.io.File.separator + filePath); "
+			//		+ "} "
+			//		+ "try { java.io.FileInputStream fis = new java.io.FileInputStream(file); "
+			//		+ "java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.InputStreamReader(fis, \"UTF-8\")); "
+			//		+ "fileNo = executorFileMap.size() + 1; "
+			//		+ "executorFileMap.add(new java.util.Scanner(reader)); "
+			//		+ "} "
+			//		+ "catch (SecurityException e) { fileNo = -3; } "
+			//		+ "catch (java.io.FileNotFoundException e) { fileNo = -2; } "
+			//		+ "catch (java.io.IOException e) { fileNo = -1; } "
+			//		+ "return fileNo; }",
+
+			//"public int fileCreate(String filePath) { "
+			//		+ "int fileNo = 0; "
+			//		+ "java.io.File file = new java.io.File(filePath); "
+			//		+ "if (!file.isAbsolute()) { "
+			//		+ "file = new java.io.File(executorCurrentDirectory + java.io.File.separator + filePath); "
+			//		+ "} "
+			//		+ "try { java.io.FileOutputStream fos = new java.io.FileOutputStream(file); "
+			//		+ "java.io.BufferedWriter writer = new java.io.BufferedWriter(new java.io.OutputStreamWriter(fos, \"UTF-8\")); "
+			//		+ "fileNo = executorFileMap.size() + 1; "
+			//		+ "executorFileMap.add(writer); "
+			//		+ "} "
+			//		+ "catch (SecurityException e) { fileNo = -3; } "
+			//		+ "catch (java.io.FileNotFoundException e) { fileNo = -2; } "
+			//		+ "catch (java.io.IOException e) { fileNo = -1; } "
+			//		+ "return fileNo; }",
+
+			//"public int fileAppend(String filePath) { "
+			//		+ "int fileNo = 0; "
+			//		+ "java.io.File file = new java.io.File(filePath); "
+			//		+ "if (!file.isAbsolute()) { "
+			//		+ "file = new java.io.File(executorCurrentDirectory + java.io.File.separator + filePath); "
+			//		+ "} "
+			//		+ "try { java.io.FileOutputStream fos = new java.io.FileOutputStream(file, true); "
+			//		+ "java.io.BufferedWriter writer = new java.io.BufferedWriter(new java.io.OutputStreamWriter(fos, \"UTF-8\")); "
+			//		+ "fileNo = executorFileMap.size() + 1; "
+			//		+ "executorFileMap.add(writer); "
+			//		+ "} "
+			//		+ "catch (SecurityException e) { fileNo = -3; } "
+			//		+ "catch (java.io.FileNotFoundException e) { fileNo = -2; } "
+			//		+ "catch (java.io.IOException e) { fileNo = -1; } "
+			//		+ "return fileNo; "
+			//		+ "}",
 
-			"public void fileClose(int fileNo) { "
-					+ "if (fileNo > 0 && fileNo <= executorFileMap.size()) { "
-					+ "java.io.Closeable file = executorFileMap.get(fileNo - 1); "
-					+ "if (file != null) { "
-					+ "try { file.close(); } "
-					+ "catch (java.io.IOException e) {} "
-					+ "executorFileMap.set(fileNo - 1, null); } "
-					+ "}"
-					+ "}",
+			//"public void fileClose(int fileNo) { "
+			//		+ "if (fileNo > 0 && fileNo <= executorFileMap.size()) { "
+			//		+ "java.io.Closeable file = executorFileMap.get(fileNo - 1); "
+			//		+ "if (file != null) { "
+			//		+ "try { file.close(); } "
+			//		+ "catch (java.io.IOException e) {} "
+			//		+ "executorFileMap.set(fileNo - 1, null); } "
+			//		+ "}"
+			//		+ "}",
 
-			"public boolean fileEOF(int fileNo) {"
-					+ "	boolean isEOF = true; "
-					+ "	if (fileNo > 0 && fileNo <= executorFileMap.size()) { "
-					+ "		java.io.Closeable reader = executorFileMap.get(fileNo - 1); "
-					+ "		if (reader instanceof java.util.Scanner) { "
-					+ "			try { "
-					+ "				isEOF = !((java.util.Scanner)reader).hasNext();"
-					+ "			} catch (IOException e) {}"
-					+ "		}"
-					+ "	}"
-					+ "	else { throw new java.io.IOException(\"" + Control.msgInvalidFileNumberRead.getText() + "\"); } "
-					+ "	return isEOF;"
-					+"}",
-			// The following is just a helper method...
-			"public Object structorizerGetScannedObject(java.util.Scanner sc) {"
-					+ "Object result = null; "
-					+ "sc.useLocale(java.util.Locale.UK); "
-					+ "if (sc.hasNextInt()) { result = sc.nextInt(); } "
-					+ "else if (sc.hasNextDouble()) { result = sc.nextDouble(); } "
-					+ "else if (sc.hasNext(\"\\\\\\\".*?\\\\\\\"\")) { "
-					+ "String str = sc.next(\"\\\\\\\".*?\\\\\\\"\"); "
-					+ "result = str.substring(1, str.length() - 1); "
-					+ "} "
-					+ "else if (sc.hasNext(\"'.*?'\")) { "
-					+ "String str = sc.next(\"'.*?'\"); "
-					+ "result = str.substring(1, str.length() - 1); "
-					+ "} "
-					+ "else if (sc.hasNext(\"\\\\{.*?\\\\}\")) { "
-					+ "String token = sc.next(); "
-					+ "result = new Object[]{token.substring(1, token.length()-1)}; "
-					+ "} " 
-					+ "else if (sc.hasNext(\"\\\\\\\".*\")) { "
-					+ "String str = sc.next(); "
-					+ "while (sc.hasNext() && !sc.hasNext(\".*\\\\\\\"\")) { "
-					+ "str += \" \" + sc.next(); "
-					+ "} "
-					+ "if (sc.hasNext()) { str += \" \" + sc.next(); } "
-					+ "result = str.substring(1, str.length() - 1); "
-					+ "} "
-					+ "else if (sc.hasNext(\"'.*\")) { "
-					+ "String str = sc.next(); "
-					+ "while (sc.hasNext() && !sc.hasNext(\".*'\")) { "
-					+ "str += \" \" + sc.next(); "
-					+ "} "
-					+ "if (sc.hasNext()) { str += \" \" + sc.next(); } "
-					+ "result = str.substring(1, str.length() - 1); "
-					+ "} "
-					+ "else if (sc.hasNext(\"\\\\{.*\")) { "
-					+ "java.util.regex.Pattern oldDelim = sc.delimiter(); "
-					+ "sc.useDelimiter(\"\\\\}\"); "
-					+ "String content = sc.next().trim().substring(1); "
-					+ "sc.useDelimiter(oldDelim); "
-					+ "if (sc.hasNext(\"\\\\}\")) { sc.next(); } "
-					+ "String[] elements = {}; "
-					+ "if (!content.isEmpty()) { "
-					+ "elements = content.split(\"\\\\p{javaWhitespace}*,\\\\p{javaWhitespace}*\"); "
-					+ "} "
-					+ "Object[] objects = new Object[elements.length]; "
-					+ "for (int i = 0; i < elements.length; i++) { "
-					+ "java.util.Scanner sc0 = new java.util.Scanner(elements[i]); "
-					+ "objects[i] = structorizerGetScannedObject(sc0); "
-					+ "sc0.close(); "
-					+ "} "
-					+ "result = objects;"
-					+ "}"
-					+ "else { result = sc.next(); } "
-					+ "return result; }",
-			"public Object fileRead(int fileNo) { "
-					+ "Object result = null; "
-					+ "boolean ok = false; "
-					+ "if (fileNo > 0 && fileNo <= executorFileMap.size()) { "
-					+ "java.io.Closeable reader = executorFileMap.get(fileNo - 1); "
-					+ "if (reader instanceof java.util.Scanner) { "
-					+ "result = structorizerGetScannedObject((java.util.Scanner)reader); "
-					+ "ok = true;"
-					+ "}"
-					+ "}"
-					+ "if (!ok) { throw new java.io.IOException(\"" + Control.msgInvalidFileNumberRead.getText() + "\"); } "
-					+ "return result; }",
-			"public Character fileReadChar(int fileNo) { "
-					+ "Character result = '\0'; "
-					+ "boolean ok = false; "
-					+ "if (fileNo > 0 && fileNo <= executorFileMap.size()) { "
-					+ "java.io.Closeable reader = executorFileMap.get(fileNo - 1); "
-					+ "if (reader instanceof java.util.Scanner) { "
-					+ "java.util.Scanner sc = (java.util.Scanner)reader; "
-					+ "java.util.regex.Pattern oldDelim = sc.delimiter(); "
-					+ "sc.useDelimiter(\"\"); "
-					+ "try { "
-					+ "if (!sc.hasNext(\".\") && sc.hasNextLine()) { sc.nextLine(); result = '\\n'; }"
-					+ "else { result = sc.next(\".\").charAt(0); } "
-					+ "}"
-					+ "finally { sc.useDelimiter(oldDelim); } "
-					+ "ok = true; "
-					+ "}"
-					+ "}"
-					+ "if (!ok) { throw new java.io.IOException(\"" + Control.msgInvalidFileNumberRead.getText() + "\"); } "
-					+ "return result; }",
-			"public Integer fileReadInt(int fileNo) { "
-					+ "Integer result = null; "
-					+ "boolean ok = false; "
-					+ "if (fileNo > 0 && fileNo <= executorFileMap.size()) { "
-					+ "java.io.Closeable reader = executorFileMap.get(fileNo - 1); "
-					+ "if (reader instanceof java.util.Scanner) { "
-					+ "result = ((java.util.Scanner)reader).nextInt(); "
-					+ "ok = true; "
-					+ "}"
-					+ "}"
-					+ "if (!ok) { throw new java.io.IOException(\"" + Control.msgInvalidFileNumberRead.getText() + "\"); } "
-					+ "return result; }",
-			"public Double fileReadDouble(int fileNo) { "
-					+ "Double result = null; "
-					+ "boolean ok = false; "
-					+ "if (fileNo > 0 && fileNo <= executorFileMap.size()) { "
-					+ "java.io.Closeable reader = executorFileMap.get(fileNo - 1); "
-					+ "if (reader instanceof java.util.Scanner) { "
-					+ "result = ((java.util.Scanner)reader).nextDouble(); "
-					+ "ok = true; "
-					+ "}"
-					+ "}"
-					+ "if (!ok) { throw new java.io.IOException(\"" + Control.msgInvalidFileNumberRead.getText() + "\"); } "
-					+ "return result; }",
-			"public String fileReadLine(int fileNo) { "
-					+ "String line = null; "
-					+ "boolean ok = false; "
-					+ "if (fileNo > 0 && fileNo <= executorFileMap.size()) { "
-					+ "java.io.Closeable reader = executorFileMap.get(fileNo - 1); "
-					+ "if (reader instanceof java.util.Scanner) { "
-					+ "line = ((java.util.Scanner)reader).nextLine(); "
-					+ "ok = true; "
-					+ "}"
-					+ "}"
-					+ "if (!ok) { throw new java.io.IOException(\"" + Control.msgInvalidFileNumberRead.getText() + "\"); } "
-					+ "return line;	}",
-			"public void fileWrite(int fileNo, java.lang.Object data) { "
-					+ "	boolean ok = false; "
-					+ "	if (fileNo > 0 && fileNo <= executorFileMap.size()) { "
-					+ "		java.io.Closeable writer = executorFileMap.get(fileNo - 1); "
-					+ "		if (writer instanceof java.io.BufferedWriter) { "
-					+ "			((java.io.BufferedWriter)writer).write(data.toString()); "
-					+ "		ok = true;"
-					+ "	}"
-					+ "}"
-					+ "if (!ok) { throw new java.io.IOException(\"" + Control.msgInvalidFileNumberWrite.getText() + "\"); } "
-					+ "}",
-			"public void fileWriteLine(int fileNo, java.lang.Object data) { "
-					+ "boolean ok = false; "
-					+ "if (fileNo > 0 && fileNo <= executorFileMap.size()) { "
-					+ "java.io.Closeable file = executorFileMap.get(fileNo - 1); "
-					+ "if (file instanceof java.io.BufferedWriter) { "
-					+ "((java.io.BufferedWriter)file).write(data.toString()); "
-					+ "((java.io.BufferedWriter)file).newLine(); "
-					+ "ok = true; "
-					+ "}"
-					+ "}"
-					+ "if (!ok) { throw new java.io.IOException(\"" + Control.msgInvalidFileNumberWrite.getText() + "\"); } "
-					+ "}",
+			//"public boolean fileEOF(int fileNo) {"
+			//		+ "	boolean isEOF = true; "
+			//		+ "	if (fileNo > 0 && fileNo <= executorFileMap.size()) { "
+			//		+ "		java.io.Closeable reader = executorFileMap.get(fileNo - 1); "
+			//		+ "		if (reader instanceof java.util.Scanner) { "
+			//		+ "			try { "
+			//		+ "				isEOF = !((java.util.Scanner)reader).hasNext();"
+			//		+ "			} catch (IOException e) {}"
+			//		+ "		}"
+			//		+ "	}"
+			//		+ "	else { throw new java.io.IOException(\"" + Control.msgInvalidFileNumberRead.getText() + "\"); } "
+			//		+ "	return isEOF;"
+			//		+"}",
+			//// The following is just a helper method...
+			//"public Object structorizerGetScannedObject(java.util.Scanner sc) {"
+			//		+ "Object result = null; "
+			//		+ "sc.useLocale(java.util.Locale.UK); "
+			//		+ "if (sc.hasNextInt()) { result = sc.nextInt(); } "
+			//		+ "else if (sc.hasNextDouble()) { result = sc.nextDouble(); } "
+			//		+ "else if (sc.hasNext(\"\\\\\\\".*?\\\\\\\"\")) { "
+			//		+ "String str = sc.next(\"\\\\\\\".*?\\\\\\\"\"); "
+			//		+ "result = str.substring(1, str.length() - 1); "
+			//		+ "} "
+			//		+ "else if (sc.hasNext(\"'.*?'\")) { "
+			//		+ "String str = sc.next(\"'.*?'\"); "
+			//		+ "result = str.substring(1, str.length() - 1); "
+			//		+ "} "
+			//		+ "else if (sc.hasNext(\"\\\\{.*?\\\\}\")) { "
+			//		+ "String token = sc.next(); "
+			//		// START AGT#14 2026-10-18: Arrays must be ArrayLists since #436 (numeric ones held unboxed)
+			//		//+ "result = new Object[]{token.substring(1, token.length()-1)}; "
+			//		+ "result = new lu.fisch.structorizer.executor.NumericArrayList(new Object[]{token.substring(1, token.length()-1)}); "
+			//		// END AGT#14 2026-10-18
+			//		+ "} " 
+			//		+ "else if (sc.hasNext(\"\\\\\\\".*\")) { "
+			//		+ "String str = sc.next(); "
+			//		+ "while (sc.hasNext() && !sc.hasNext(\".*\\\\\\\"\")) { "
+			//		+ "str += \" \" + sc.next(); "
+			//		+ "} "
+			//		+ "if (sc.hasNext()) { str += \" \" + sc.next(); } "
+			//		+ "result = str.substring(1, str.length() - 1); "
+			//		+ "} "
+			//		+ "else if (sc.hasNext(\"'.*\")) { "
+			//		+ "String str = sc.next(); "
+			//		+ "while (sc.hasNext() && !sc.hasNext(\".*'\")) { "
+			//		+ "str += \" \" + sc.next(); "
+			//		+ "} "
+			//		+ "if (sc.hasNext()) { str += \" \" + sc.next(); } "
+			//		+ "result = str.substring(1, str.length() - 1); "
+			//		+ "} "
+			//		+ "else if (sc.hasNext(\"\\\\{.*\")) { "
+			//		+ "java.util.regex.Pattern oldDelim = sc.delimiter(); "
+			//		+ "sc.useDelimiter(\"\\\\}\"); "
+			//		+ "String content = sc.next().trim().substring(1); "
+			//		+ "sc.useDelimiter(oldDelim); "
+			//		+ "if (sc.hasNext(\"\\\\}\")) { sc.next(); } "
+			//		+ "String[] elements = {}; "
+			//		+ "if (!content.isEmpty()) { "
+			//		+ "elements = content.split(\"\\\\p{javaWhitespace}*,\\\\p{javaWhitespace}*\"); "
+			//		+ "} "
+			//		+ "Object[] objects = new Object[elements.length]; "
+			//		+ "for (int i = 0; i < elements.length; i++) { "
+			//		+ "java.util.Scanner sc0 = new java.util.Scanner(elements[i]); "
+			//		+ "objects[i] = structorizerGetScannedObject(sc0); "
+			//		+ "sc0.close(); "
+			//		+ "} "
+			//		// START AGT#14 2026-10-18: Arrays must be ArrayLists since #436 (numeric ones held unboxed)
+			//		//+ "result = objects;"
+			//		+ "result = new lu.fisch.structorizer.executor.NumericArrayList(objects);"
+			//		// END AGT#14 2026-10-18
+			//		+ "}"
+			//		+ "else { result = sc.next(); } "
+			//		+ "return result; }",
+			//"public Object fileRead(int fileNo) { "
+			//		+ "Object result = null; "
+			//		+ "boolean ok = false; "
+			//		+ "if (fileNo > 0 && fileNo <= executorFileMap.size()) { "
+			//		+ "java.io.Closeable reader = executorFileMap.get(fileNo - 1); "
+			//		+ "if (reader instanceof java.util.Scanner) { "
+			//		+ "result = structorizerGetScannedObject((java.util.Scanner)reader); "
+			//		+ "ok = true;"
+			//		+ "}"
+			//		+ "}"
+			//		+ "if (!ok) { throw new java.io.IOException(\"" + Control.msgInvalidFileNumberRead.getText() + "\"); } "
+			//		+ "return result; }",
+			//"public Character fileReadChar(int fileNo) { "
+			//		+ "Character result = '\0'; "
+			//		+ "boolean ok = false; "
+			//		+ "if (fileNo > 0 && fileNo <= executorFileMap.size()) { "
+			//		+ "java.io.Closeable reader = executorFileMap.get(fileNo - 1); "
+			//		+ "if (reader instanceof java.util.Scanner) { "
+			//		+ "java.util.Scanner sc = (java.util.Scanner)reader; "
+			//		+ "java.util.regex.Pattern oldDelim = sc.delimiter(); "
+			//		+ "sc.useDelimiter(\"\"); "
+			//		+ "try { "
+			//		+ "if (!sc.hasNext(\".\") && sc.hasNextLine()) { sc.nextLine(); result = '\\n'; }"
+			//		+ "else { result = sc.next(\".\").charAt(0); } "
+			//		+ "}"
+			//		+ "finally { sc.useDelimiter(oldDelim); } "
+			//		+ "ok = true; "
+			//		+ "}"
+			//		+ "}"
+			//		+ "if (!ok) { throw new java.io.IOException(\"" + Control.msgInvalidFileNumberRead.getText() + "\"); } "
+			//		+ "return result; }",
+			//"public Integer fileReadInt(int fileNo) { "
+			//		+ "Integer result = null; "
+			//		+ "boolean ok = false; "
+			//		+ "if (fileNo > 0 && fileNo <= executorFileMap.size()) { "
+			//		+ "java.io.Closeable reader = executorFileMap.get(fileNo - 1); "
+			//		+ "if (reader instanceof java.util.Scanner) { "
+			//		+ "result = ((java.util.Scanner)reader).nextInt(); "
+			//		+ "ok = true; "
+			//		+ "}"
+			//		+ "}"
+			//		+ "if (!ok) { throw new java.io.IOException(\"" + Control.msgInvalidFileNumberRead.getText() + "\"); } "
+			//		+ "return result; }",
+			//"public Double fileReadDouble(int fileNo) { "
+			//		+ "Double result = null; "
+			//		+ "boolean ok = false; "
+			//		+ "if (fileNo > 0 && fileNo <= executorFileMap.size()) { "
+			//		+ "java.io.Closeable reader = executorFileMap.get(fileNo - 1); "
+			//		+ "if (reader instanceof java.util.Scanner) { "
+			//		+ "result = ((java.util.Scanner)reader).nextDouble(); "
+			//		+ "ok = true; "
+			//		+ "}"
+			//		+ "}"
+			//		+ "if (!ok) { throw new java.io.IOException(\"" + Control.msgInvalidFileNumberRead.getText() + "\"); } "
+			//		+ "return result; }",
+			//"public String fileReadLine(int fileNo) { "
+			//		+ "String line = null; "
+			//		+ "boolean ok = false; "
+			//		+ "if (fileNo > 0 && fileNo <= executorFileMap.size()) { "
+			//		+ "java.io.Closeable reader = executorFileMap.get(fileNo - 1); "
+			//		+ "if (reader instanceof java.util.Scanner) { "
+			//		+ "line = ((java.util.Scanner)reader).nextLine(); "
+			//		+ "ok = true; "
+			//		+ "}"
+			//		+ "}"
+			//		+ "if (!ok) { throw new java.io.IOException(\"" + Control.msgInvalidFileNumberRead.getText() + "\"); } "
+			//		+ "return line;	}",
+			//"public void fileWrite(int fileNo, java.lang.Object data) { "
+			//		+ "	boolean ok = false; "
+			//		+ "	if (fileNo > 0 && fileNo <= executorFileMap.size()) { "
+			//		+ "		java.io.Closeable writer = executorFileMap.get(fileNo - 1); "
+			//		+ "		if (writer instanceof java.io.BufferedWriter) { "
+			//		+ "			((java.io.BufferedWriter)writer).write(data.toString()); "
+			//		+ "		ok = true;"
+			//		+ "	}"
+			//		+ "}"
+			//		+ "if (!ok) { throw new java.io.IOException(\"" + Control.msgInvalidFileNumberWrite.getText() + "\"); } "
+			//		+ "}",
+			//"public void fileWriteLine(int fileNo, java.lang.Object data) { "
+			//		+ "boolean ok = false; "
+			//		+ "if (fileNo > 0 && fileNo <= executorFileMap.size()) { "
+			//		+ "java.io.Closeable file = executorFileMap.get(fileNo - 1); "
+			//		+ "if (file instanceof java.io.BufferedWriter) { "
+			//		+ "((java.io.BufferedWriter)file).write(data.toString()); "
+			//		+ "((java.io.BufferedWriter)file).newLine(); "
+			//		+ "ok = true; "
+			//		+ "}"
+			//		+ "}"
+			//		+ "if (!ok) { throw new java.io.IOException(\"" + Control.msgInvalidFileNumberWrite.getText() + "\"); } "
+			//		+ "}",
+			// END AGT#17 2026-10-18
 			// END KGU 2016-12-18
 			// START KGU#439 2017-10-13: Issue #436 Array representation changed from Object[] to ArrayList<Object>
 			//"public ArrayList copyArray(Object[] sourceArray) {"
@@ -673,7 +755,10 @@ public class Executor implements Runnable
 			"public ArrayList copyArray(ArrayList sourceArray) {"
 					// START KGU#492 2018-02-11: Bugfix #509 - wrong use of arguments
 					//+ "return new ArrayList(targetArray);"
-					+ "return new ArrayList(sourceArray);"
+					// START AGT#14 2026-10-18: Arrays with numeric contents are held unboxed
+					//+ "return new ArrayList(sourceArray);"
+					+ "return new lu.fisch.structorizer.executor.NumericArrayList(sourceArray);"
+					// END AGT#14 2026-10-18
 					// END KGU#492 2018-02-11
 					+ "}",
 			// END KGU#439 2017-10-13
@@ -743,7 +828,7 @@ public class Executor implements Runnable
 		{
 			doInitialise = false;
 			Root root = mySelf.diagram.getRoot();
-			String errText = mySelf.control.lbStopRunningProc.getText();
+			String errText = Control.lbStopRunningProc.getText();
 			errText = errText.replace("\\n", "\n");
 			if (root != null)
 			{
@@ -751,7 +836,7 @@ public class Executor implements Runnable
 			}
 			int res = JOptionPane.showOptionDialog(diagram,
 					   errText,
-					   mySelf.control.msgTitleQuestion.getText(),
+					   Control.msgTitleQuestion.getText(),
 					   JOptionPane.YES_NO_OPTION,
 					   JOptionPane.QUESTION_MESSAGE,
 					   null,null,null);
@@ -805,6 +890,9 @@ public class Executor implements Runnable
 		this.controllerFunctions.clear();
 		this.controllerProcedures.clear();
 		this.controllerFunctionNames.clear();
+		// START AGT#1 2026-10-18: The prepared lines know which diagram controller functions they call
+		this.preparedLinesCache.clear();
+		// END AGT#1 2026-10-18
 		StringBuilder sb = new StringBuilder();
 		for (int i = 0; i < controllers.length; i++) {
 			DiagramController controller = controllers[i];
@@ -840,17 +928,161 @@ public class Executor implements Runnable
 	}
 	// END KGU#448 2017-10-28
 
-	private Control control = new Control();
+	// START AGT#3 2026-10-18: Headless mode - no GUI components then
+	//private Control control = new Control();
+	private final Control control;
+	// END AGT#3 2026-10-18
 
 	// START KGU#160 2016-04-12: Enh. #137 - Option for text window output
-	private OutputConsole console = new OutputConsole();
+	// START AGT#3 2026-10-18: Headless mode - no GUI components then
+	//private OutputConsole console = new OutputConsole();
+	private OutputConsole console;
+	// END AGT#3 2026-10-18
 	private boolean isConsoleEnabled = false; 
 	// END KGU#160 2016-04-12
 
 	private int delay = 50;
+	// START AGT#6 2026-10-18: Turbo mode - coalesced GUI refreshes with delay 0
+	/** Minimum interval (in ms) between two GUI refreshes in turbo mode, i.e. 10 Hz */
+	private static final long TURBO_REFRESH_INTERVAL = 100;
+	/** Time (in ms) from which on the next GUI refresh is due in turbo mode */
+	private long turboRefreshTime = 0;
+	/** Set while a scheduled GUI refresh hasn't been processed by the event dispatch thread */
+	private final AtomicBoolean turboRefreshPending = new AtomicBoolean(false);
+	// END AGT#6 2026-10-18
+	// START AGT#7 2026-10-18: Execution time profiling (with E_COLLECTRUNTIMEDATA)
+	/** Time (in ns) spent by substructures and calls of the element currently being profiled */
+	private long profileSubTime = 0;
+	/** Time (in ns) spent in expression evaluation by the element currently being profiled */
+	private long profileEvalTime = 0;
+	/** Total time (in ns) spent in delays and waiting for user interaction (not to be profiled) */
+	private long profileIdleTime = 0;
+	// END AGT#7 2026-10-18
+	// START AGT#8 2026-10-18: Opt-in concurrent execution of Parallel branches
+	/** Maximum number of worker threads for the branches of a single Parallel element */
+	private static final int MAX_BRANCH_THREADS = 64;
+	/** Lock object serializing input dialogs of concurrent branches */
+	private static final Object BRANCH_INPUT_LOCK = new Object();
+	/** Whether the branches of Parallel elements are to be executed by concurrent threads */
+	private boolean concurrentParallel = false;
+	/** The executor having started this one for a concurrent Parallel branch (null otherwise) */
+	private final Executor parentExecutor;
+	/** The executors of the currently running concurrent branches (to be stopped along with this) */
+	private final Vector<Executor> activeBranches = new Vector<Executor>();
+	// END AGT#8 2026-10-18
+	// START AGT#9 2026-10-18: Avoid repeated pool searches for the same Call
+	/**
+	 * Caches the subroutine diagram found in the routine pools for a {@link Call} element,
+	 * cleared on every execution start and whenever a routine pool reports a change
+	 * (see {@link #routinePoolChanged(IRoutinePool)}). Direct recursion isn't cached.
+	 */
+	private final ConcurrentHashMap<Call, Root> callTargetCache = new ConcurrentHashMap<Call, Root>();
+	// END AGT#9 2026-10-18
+	// START AGT#16 2026-10-18: Memoization of pure functions ("fast evaluation")
+	/** Maximum number of memoized results (least recently used ones are dropped) */
+	private static final int MEMO_CAPACITY = 50000;
+	/** Whether results of pure subroutine diagrams are to be memoized */
+	private boolean fastEvaluation = false;
+	/**
+	 * Results of pure subroutine diagrams by the list of diagram id and arguments (LRU-bounded,
+	 * shared with concurrent branch executors, hence to be synchronized). The diagram id is used
+	 * because recursive calls work with copies of the diagram.
+	 */
+	private MemoTable memoTable = new MemoTable(MEMO_CAPACITY);
+	/**
+	 * Purity analysis results by diagram id (cleared on every execution start and with the call
+	 * target cache)
+	 */
+	private ConcurrentHashMap<Long, Boolean> pureFunctions = new ConcurrentHashMap<Long, Boolean>();
+	
+	/**
+	 * Access-ordered map dropping the least recently used entry if the capacity is exceeded
+	 */
+	@SuppressWarnings("serial")
+	private static final class MemoTable extends LinkedHashMap<ArrayList<Object>, Object> {
+		private final int capacity;
+		
+		public MemoTable(int _capacity)
+		{
+			super(256, 0.75f, true);
+			this.capacity = _capacity;
+		}
+		
+		@Override
+		protected boolean removeEldestEntry(Entry<ArrayList<Object>, Object> _eldest)
+		{
+			return this.size() > this.capacity;
+		}
+	}
+	// END AGT#16 2026-10-18
+	// START AGT#18 2026-10-18: Listener API for external tools
+	/** Asynchronous event delivery to the execution listeners (null as long as no listener was ever added) */
+	private ExecutionEventDispatcher eventDispatcher = null;
+	// END AGT#18 2026-10-18
+	// START AGT#10 2026-10-18: Execution trace for a later replay
+	/** The file to record the execution traces of the next runs into (or null) */
+	private File traceFile = null;
+	/** The recorder of the current run (if a trace file is specified) */
+	private TraceRecorder traceRecorder = null;
+	/** Elements highlighted for the trace frame currently displayed (see {@link #displayTraceFrame(ExecutionTrace, int)}) */
+	private final Vector<Element> replayHighlighted = new Vector<Element>();
+	/** The diagram shown before a trace replay started (to be restored on its end) */
+	private Root replayOrigRoot = null;
+	/** Names of the variables assigned since the last recorded step (only these are formatted for the trace) */
+	private final HashSet<String> traceChangedVars = new HashSet<String>();
+	/** Whether an array element or record component was assigned since the last recorded step */
+	private boolean traceComponentChanged = false;
+	/** The context of the last recorded step (null enforces the recording of all variables) */
+	private ExecutionContext traceContext = null;
+	/** The number of variables in {@link #traceContext} at the last recorded step */
+	private int traceVarCount = 0;
+	// END AGT#10 2026-10-18
 
 	private Diagram diagram = null;
 	
+	// START AGT#3 2026-10-18: Headless mode for batch execution
+	/** True if this instance runs without any GUI (no Diagram, Control, or OutputConsole) */
+	private final boolean isHeadless;
+	/** Source of the INPUT values and of the top-level arguments in headless mode */
+	private final BufferedReader headlessInput;
+	/** Target of the OUTPUT instructions and of the top-level result in headless mode */
+	private final PrintStream headlessOutput;
+	/** The diagram to be executed in headless mode (replaces the Root of {@link #diagram}) */
+	private Root headlessRoot = null;
+	/** Additional routine pools for a headless execution (as there is neither Arranger nor Diagram) */
+	private final Vector<IRoutinePool> headlessPools = new Vector<IRoutinePool>();
+	/** First error message reported during the last headless execution (empty if none) */
+	private String headlessTrouble = "";
+	/** Value of the last executed exit instruction or null */
+	private Integer exitCode = null;
+	// END AGT#3 2026-10-18
+	// START AGT#4 2026-10-18: Execution statistics (e.g. for the GradingRunner)
+	/** Number of element steps performed since the start of the last execution */
+	private long stepCount = 0;
+	// END AGT#4 2026-10-18
+	// START AGT#4 2026-10-18: Concurrent executors must not share the static element counters
+	/** Whether the element execution counters and times are to be updated (with E_COLLECTRUNTIMEDATA) */
+	private boolean collectingCounts = true;
+	// END AGT#4 2026-10-18
+	// START AGT#15 2026-10-18: Resource limits (watchdog)
+	/** The resource limits for the executions */
+	private ExecutionBudget budget = ExecutionBudget.UNLIMITED;
+	/** System.nanoTime() at the start of the last execution */
+	private long budgetStartTime = 0;
+	/** Element steps and loop iterations performed since the start of the last execution */
+	private long budgetSteps = 0;
+	/** Steps performed by the parent before this branch Executor was started (for concurrent branches) */
+	private long budgetStepBase = 0;
+	/** Call depth of the parent when this branch Executor was started (for concurrent branches) */
+	private int budgetCallDepthBase = 0;
+	/** Output bytes produced during the last execution (shared with branch Executors) */
+	private AtomicLong budgetOutputBytes = new AtomicLong();
+	/** The limit that caused the abortion of the last execution or null */
+	private volatile ExecutionBudget.Limit exceededLimit = null;
+	/** The error message associated to {@link #exceededLimit} */
+	private volatile String budgetTrouble = null;
+	// END AGT#15 2026-10-18
+
 	// START KGU#376 2017-04-20: Enh. #389 - we need info about all imported Roots
 	/**
 	 * Maps all Roots ever called as import during current execution to their
@@ -862,6 +1094,13 @@ public class Executor implements Runnable
 	private final HashMap<Root, ImportInfo> importMap = new HashMap<Root, ImportInfo>();
 	//private StringList importList = new StringList();	// KGU#384 2017-04-22: -> context
 	// END KGU#376 2017-04-20
+	// START AGT#13 2026-10-18: Avoid to scan the importMap for every name in an import list
+	/**
+	 * Index of the keys of {@link #importMap} by diagram name (the names held in the import lists)
+	 * @see ExecutionContext#importList
+	 */
+	private final HashMap<String, Vector<Root>> importsByName = new HashMap<String, Vector<Root>>();
+	// END AGT#13 2026-10-18
 	// START KGU#384 2017-04-22: Redesign of the execution context
 	/**
 	 * Execution context cartridge containing all context to be pushed to callers stack on calls
@@ -892,7 +1131,10 @@ public class Executor implements Runnable
 	private boolean paus = false;
 	private boolean running = false;
 	private boolean step = false;
-	private boolean stop = false;
+	// START AGT#4 2026-10-18: May be set from a different thread (e.g. a watching GradingRunner)
+	//private boolean stop = false;
+	private volatile boolean stop = false;
+	// END AGT#4 2026-10-18
 	// START KGU#78 2015-11-25: JUMP enhancement (#35)
 	//private int loopDepth = 0;	// Level of nested loops KGU#384 207-04-22 -> context
 	private int leave = 0;		// Number of loop levels to unwind
@@ -911,13 +1153,176 @@ public class Executor implements Runnable
 	// START KGU 2016-12-18: Enh. #314: Stream table for Simple file API
 	private final Vector<Closeable> openFiles = new Vector<Closeable>();
 	// END KGU 2016-12-18
+	// START AGT#17 2026-10-18: Character set for the file API
+	private Charset fileCharset = Charset.forName("UTF-8");
+	// END AGT#17 2026-10-18
 	// START KGU#477 2017-12-10: Enh. #487
 	/** The first element of a currently executed mere declaration sequence */
 	private Instruction lastDeclarationSurrogate = null;
 	// END KGU#477 2017-12-10
+	// START AGT#1 2026-10-18: Avoid repeated conversion and analysis of the same element lines in loops
+	/**
+	 * Holds the results of the value-independent preparation of an element line: keyword removal,
+	 * {@link Executor#convert(String, boolean)} without string comparison conversion, the kind of
+	 * instruction, the decomposition of an assignment, and the compiled expression, along with the
+	 * source text they were derived from.
+	 * @see Executor#getPreparedLine(Element, int, String, String[])
+	 */
+	private static final class PreparedLine {
+		/** Line kind: some other instruction (procedure call etc.) or a condition */
+		public static final byte KIND_OTHER = 0;
+		/** Line kind: input instruction */
+		public static final byte KIND_INPUT = 1;
+		/** Line kind: output instruction */
+		public static final byte KIND_OUTPUT = 2;
+		/** Line kind: return instruction */
+		public static final byte KIND_RETURN = 3;
+		/** Line kind: assignment (possibly with declaration) */
+		public static final byte KIND_ASSIGNMENT = 4;
+		/** Line kind: Pascal-style variable declaration without assignment */
+		public static final byte KIND_VAR = 5;
+		/** Line kind: BASIC-style variable declaration without assignment */
+		public static final byte KIND_DIM = 6;
+
+		/** The original (unbroken and trimmed) line text */
+		public final String source;
+		/** The kind of the line (one of the KIND_... constants) */
+		public byte kind = KIND_OTHER;
+		/** Whether the line is syntactically a type definition candidate (the type map will decide) */
+		public boolean mayBeTypeDef = false;
+		/** The converted (and trimmed) line */
+		public String converted = null;
+		/** Whether the converted line contains names of diagram controller functions */
+		public boolean hasControllerCalls = false;
+		/** The left-hand side of an assignment (otherwise null) */
+		public String target = null;
+		/** The name of the assigned plain variable for the type map (null for qualified or indexed targets) */
+		public String assignedVar = null;
+		/** The right-hand side of an assignment, otherwise the entire converted line (an expression for conditions) */
+		public String expression = null;
+		/** The identifiers occurring in {@link #expression} (for the check of constant arrays and records) */
+		public String[] identifiers = null;
+		/** Whether {@link #nativeExpr} has been derived already (see {@link Executor#getNativeExpression(PreparedLine)}) */
+		public boolean compiled = false;
+		/** The compiled {@link #expression} (with string comparison semantics) or null if not natively evaluable */
+		public NativeExpression nativeExpr = null;
+		/** The type map the assignment was last registered in (see {@link Executor#tryAssignment(PreparedLine, Instruction, int)}) */
+		public HashMap<String, TypeMapEntry> registeredMap = null;
+		/** The type map entry the assigned variable was associated with by the last registration */
+		public TypeMapEntry registeredEntry = null;
+		/** The size of the type map after the last registration */
+		public int registeredMapSize = -1;
+		// START AGT#12 2026-10-18
+		/** Whether {@link #target} is a mere identifier (which might be held in a frame slot) */
+		public boolean plainTarget = false;
+		/** The frame layout {@link #targetSlot} was resolved for */
+		public VariableFrame.Layout targetLayout = null;
+		/** The slot of {@link #target} in {@link #targetLayout} (or -1) */
+		public int targetSlot = -1;
+		// END AGT#12 2026-10-18
+		// START AGT#14 2026-10-18
+		/** The array variable if {@link #target} is an indexed variable like {@code a[i]} (otherwise null) */
+		public String indexedArray = null;
+		/** Whether {@link #targetExpr} has been derived already (see {@link Executor#getNativeTarget(PreparedLine)}) */
+		public boolean targetCompiled = false;
+		/** The compiled indexed {@link #target} (for element assignments without boxing) or null */
+		public NativeExpression targetExpr = null;
+		// END AGT#14 2026-10-18
+
+		public PreparedLine(String _source)
+		{
+			source = _source;
+		}
+	}
+	/**
+	 * Holds the {@link PreparedLine}s of an element, along with the keyword revision they were
+	 * derived with.
+	 */
+	private static final class PreparedLines {
+		/** Keyword revision of {@link CodeParser} the results are based on */
+		public final long keywordRevision;
+		/** Case sensitivity mode of keyword removal the results are based on */
+		public final boolean ignoreCase;
+		/** The prepared lines (possibly null), indexed by line number */
+		public PreparedLine[] lines = new PreparedLine[1];
+		
+		public PreparedLines(long keywordRevision, boolean ignoreCase)
+		{
+			this.keywordRevision = keywordRevision;
+			this.ignoreCase = ignoreCase;
+		}
+	}
+	/** Cache of prepared element lines, keyed by element id (shared by clones of recursive calls) */
+	private final HashMap<Long, PreparedLines> preparedLinesCache = new HashMap<Long, PreparedLines>();
+	// END AGT#1 2026-10-18
+	// START AGT#2 2026-10-18: Avoid the interpreter's parsing effort for simple expressions
+	/** Maximum number of cached compiled expressions (the cache is cleared on overflow) */
+	private static final int MAX_NATIVE_EXPRESSIONS = 10000;
+	/**
+	 * Maps prepared expression strings to their compiled representation, or to null if the
+	 * expression is not suited for native evaluation
+	 * @see NativeExpression#compile(String)
+	 */
+	private final HashMap<String, NativeExpression> nativeExpressions = new HashMap<String, NativeExpression>();
+	// END AGT#2 2026-10-18
+	// START AGT#11 2026-10-18: Avoid the re-analysis of FOR loop headers on every loop entry
+	/**
+	 * Prepared parameters of a FOR or FOR-IN loop, derived from the element text once and
+	 * reused as long as neither the text nor the parser keywords change.
+	 * @see Executor#getForLoopPlan(For)
+	 */
+	private static final class ForLoopPlan {
+		/** Keyword revision of {@link CodeParser} the plan is based on */
+		public final long keywordRevision;
+		/** Case sensitivity mode of keyword removal the plan is based on */
+		public final boolean ignoreCase;
+		/** The (unbroken) element text the plan was derived from */
+		public final String source;
+		/** The loop style the plan was derived with */
+		public final For.ForLoopStyle style;
+		/** Whether this is a FOR-IN loop (then only {@link #counter} and {@link #valueList} are set) */
+		public boolean isForIn = false;
+		/** Name of the counting or iteration variable */
+		public String counter = null;
+		/** Whether {@link #counter} is a plain identifier (allowing to set it directly) */
+		public boolean isPlainCounter = false;
+		/** The (constant) increment of a counting loop */
+		public int stepConst = 1;
+		/** Start and end value expressions, converted without string comparison analysis */
+		public String startExpr = null, endExpr = null;
+		/** Start and end value if given as integer literals, otherwise null */
+		public Integer startConst = null, endConst = null;
+		/** The value list of a FOR-IN loop */
+		public String valueList = null;
+		
+		public ForLoopPlan(long keywordRevision, boolean ignoreCase, String source, For.ForLoopStyle style)
+		{
+			this.keywordRevision = keywordRevision;
+			this.ignoreCase = ignoreCase;
+			this.source = source;
+			this.style = style;
+		}
+	}
+	/** Cache of prepared FOR loop parameters, keyed by element id (shared by clones of recursive calls) */
+	private final HashMap<Long, ForLoopPlan> forLoopPlans = new HashMap<Long, ForLoopPlan>();
+	// END AGT#11 2026-10-18
+	// START AGT#12 2026-10-18: Slot layouts for the primitive storage of numeric variables
+	/** Variable slot layouts of the executed diagrams, keyed by root id (shared by clones of recursive calls) */
+	private final HashMap<Long, VariableFrame.Layout> frameLayouts = new HashMap<Long, VariableFrame.Layout>();
+	// END AGT#12 2026-10-18
+	// START AGT#5 2026-10-18: Avoid re-evaluation of the built-in functions on every call
+	/**
+	 * Interpreter namespace holding the built-in functions and the file API variables, set up
+	 * once per execution and serving as parent namespace of the interpreters of all contexts
+	 * @see #createInterpreter(VariableFrame)
+	 */
+	private NameSpace builtInNameSpace = null;
+	// END AGT#5 2026-10-18
 	
+	// START AGT#4 2026-10-18: Matcher and Regex objects have a state, so they must not be
+	// shared among concurrently working (headless) Executor instances - hence no longer static
 	// Constant set of matchers for unicode literals that cause harm in interpreter
-	private static final Matcher[] MTCHs_BAD_UNICODE = new Matcher[]{
+	private final Matcher[] MTCHs_BAD_UNICODE = new Matcher[]{
 			Pattern.compile("(.*)\\\\u000[aA](.*)").matcher(""),
 			Pattern.compile("(.*?)\\\\u000[dD](.*?)").matcher(""),
 			Pattern.compile("(.*?)\\\\u0022(.*?)").matcher(""),
@@ -931,29 +1336,30 @@ public class Executor implements Runnable
 			"$1\\\\134$2"
 	};
 	/** Matcher for binary integer literals, which the interpreter doesn't cope with */
-	private static final Matcher MTCH_BIN_LITERAL = Pattern.compile("0b[01]+").matcher("");
+	private final Matcher MTCH_BIN_LITERAL = Pattern.compile("0b[01]+").matcher("");
 	/** Matcher for certain interpreter error messages related to array assignment */
 	// FIXME: Might have to be adapted with a newer version of the bean shell interpreter some day ...
-	private static final Matcher MTCH_EVAL_ERROR_ARRAY = Pattern.compile(".*Can't assign.*to java\\.lang\\.Object \\[\\].*").matcher("");
+	private final Matcher MTCH_EVAL_ERROR_ARRAY = Pattern.compile(".*Can't assign.*to java\\.lang\\.Object \\[\\].*").matcher("");
 	/** Matcher for split function */
 	//private static final Matcher MTCH_SPLIT = Pattern.compile("^split\\(.*?[,].*?\\)$").matcher("");
 	// Replacer Regex objects for syntax conversion - if Regex re-use shouldn't work then we may replace it by java.util.regex stuff
-	private static final Regex RPLC_DELETE_PROC = new Regex("delete\\((.*),(.*),(.*)\\)", "$1 <- delete($1,$2,$3)");
-	private static final Regex RPLC_INSERT_PROC = new Regex("insert\\((.*),(.*),(.*)\\)", "$2 <- insert($1,$2,$3)");
-	private static final Regex RPLC_INC2_PROC = new Regex(BString.breakup("inc")+"[(](.*?)[,](.*?)[)](.*?)", "$1 <- $1 + $2");
-	private static final Regex RPLC_INC1_PROC = new Regex(BString.breakup("inc")+"[(](.*?)[)](.*?)", "$1 <- $1 + 1");
-	private static final Regex RPLC_DEC2_PROC = new Regex(BString.breakup("dec")+"[(](.*?)[,](.*?)[)](.*?)", "$1 <- $1 - $2");
-	private static final Regex RPLC_DEC1_PROC = new Regex(BString.breakup("dec")+"[(](.*?)[)](.*?)", "$1 <- $1 - 1");
+	private final Regex RPLC_DELETE_PROC = new Regex("delete\\((.*),(.*),(.*)\\)", "$1 <- delete($1,$2,$3)");
+	private final Regex RPLC_INSERT_PROC = new Regex("insert\\((.*),(.*),(.*)\\)", "$2 <- insert($1,$2,$3)");
+	private final Regex RPLC_INC2_PROC = new Regex(BString.breakup("inc")+"[(](.*?)[,](.*?)[)](.*?)", "$1 <- $1 + $2");
+	private final Regex RPLC_INC1_PROC = new Regex(BString.breakup("inc")+"[(](.*?)[)](.*?)", "$1 <- $1 + 1");
+	private final Regex RPLC_DEC2_PROC = new Regex(BString.breakup("dec")+"[(](.*?)[,](.*?)[)](.*?)", "$1 <- $1 - $2");
+	private final Regex RPLC_DEC1_PROC = new Regex(BString.breakup("dec")+"[(](.*?)[)](.*?)", "$1 <- $1 - 1");
 	
 	private static final StringList OBJECT_ARRAY = StringList.explode("Object,[,]", ",");
 	
 	// START KGU#388 2017-10-29: Enh. #423 This EvalError message indicates that the record qualifier conversion may have overdone  
 	private static final String ERROR423MESSAGE = "Error in method invocation: Method get( java.lang.String ) not found in class";
-	private static final Matcher ERROR423MATCHER = Pattern.compile(".*inline evaluation of: ``(.*?\\.)get\\(\\\"(\\w+)\\\"\\)(.*?)'' : Error in method.*").matcher("");
+	private final Matcher ERROR423MATCHER = Pattern.compile(".*inline evaluation of: ``(.*?\\.)get\\(\\\"(\\w+)\\\"\\)(.*?)'' : Error in method.*").matcher("");
 	// END KGU#388 2017-10-29
 	// START KGU#510 2018-03-20: Issue ??? Possible pattern for index problem
-	private static final Matcher ERROR527MATCHER = Pattern.compile(".*inline evaluation of: ``(.*?\\.)get\\((.*?)\\)(.*?)'' : Method Invocation (\\w+)\\.get").matcher("");
+	private final Matcher ERROR527MATCHER = Pattern.compile(".*inline evaluation of: ``(.*?\\.)get\\((.*?)\\)(.*?)'' : Method Invocation (\\w+)\\.get").matcher("");
 	// END KGU#510 2018-03-20
+	// END AGT#4 2026-10-18
 	private static final int MAX_STACK_INDENT = 40;
 
 	// START KGU#448 2017-10-28: Enh. #443 - second argument will be initialized in getInstance() anyway
@@ -962,6 +1368,16 @@ public class Executor implements Runnable
 	// END KGU#448 2017-10-28
 	{
 		this.diagram = diagram;
+		// START AGT#8 2026-10-18
+		this.parentExecutor = null;
+		// END AGT#8 2026-10-18
+		// START AGT#3 2026-10-18: Headless mode - control and console no longer initialized on declaration
+		this.isHeadless = false;
+		this.headlessInput = null;
+		this.headlessOutput = null;
+		this.control = new Control();
+		this.console = new OutputConsole();
+		// END AGT#3 2026-10-18
 		
 		// START KGU#448 2017-10-28: Enh. #443
 		//this.diagramController = diagramController;
@@ -1005,6 +1421,366 @@ public class Executor implements Runnable
 		// END KGU#372 2017-03-27
 	}
 
+	// START AGT#3 2026-10-18: Headless mode for batch execution
+	/**
+	 * Creates an independent Executor instance without any GUI components (i.e. without
+	 * Control, output console, and Diagram), which is not the singleton instance. Diagrams
+	 * are to be executed via {@link #executeHeadless(Root, Vector)}, which runs them
+	 * synchronously without delay, animation, or breakpoints. INPUT instructions (and
+	 * parameters of a top-level subroutine) read lines from {@code _input}, OUTPUT
+	 * instructions and a returned top-level result are written to {@code _output}.
+	 * @param _input - the reader to obtain input values from
+	 * @param _output - the print stream for the output
+	 */
+	public Executor(BufferedReader _input, PrintStream _output)
+	{
+		// START AGT#8 2026-10-18
+		this.parentExecutor = null;
+		// END AGT#8 2026-10-18
+		this.isHeadless = true;
+		this.headlessInput = _input;
+		this.headlessOutput = _output;
+		this.control = null;
+		this.console = null;
+		this.delay = 0;
+	}
+
+	// START AGT#8 2026-10-18: Opt-in concurrent execution of Parallel branches
+	/**
+	 * Creates an Executor for a single branch of a {@link Parallel} element, which is to run
+	 * concurrently with its siblings on a worker thread (see {@link #stepParallelConcurrently(Parallel)}).
+	 * Like a headless Executor it neither animates nor stops at breakpoints. It shares routine pools,
+	 * diagram controllers, and input/output facilities with {@code _parent} but works with the given
+	 * execution context of its own.
+	 * @param _parent - the Executor executing the Parallel element
+	 * @param _context - the branch context (see {@link #createBranchContext()})
+	 */
+	private Executor(Executor _parent, ExecutionContext _context)
+	{
+		this.parentExecutor = _parent;
+		this.isHeadless = true;
+		// In interactive mode, these will be null and the console / an input dialog is used instead
+		this.headlessInput = _parent.headlessInput;
+		this.headlessOutput = _parent.headlessOutput;
+		this.control = null;
+		this.console = _parent.console;
+		this.diagram = _parent.diagram;
+		this.delay = 0;
+		this.concurrentParallel = true;
+		this.stop = _parent.stop;
+		this.context = _context;
+		this.routinePools.addAll(_parent.routinePools);
+		this.importMap.putAll(_parent.importMap);
+		// START AGT#13 2026-10-18
+		for (Entry<String, Vector<Root>> entry: _parent.importsByName.entrySet()) {
+			this.importsByName.put(entry.getKey(), new Vector<Root>(entry.getValue()));
+		}
+		// END AGT#13 2026-10-18
+		this.diagramControllers = _parent.diagramControllers;
+		this.controllerFunctions = _parent.controllerFunctions;
+		this.controllerProcedures = _parent.controllerProcedures;
+		this.controllerFunctionNames = _parent.controllerFunctionNames;
+		this.builtInNameSpace = _parent.builtInNameSpace;
+		// START AGT#17 2026-10-18
+		this.fileCharset = _parent.fileCharset;
+		// END AGT#17 2026-10-18
+		// START AGT#4 2026-10-18
+		this.collectingCounts = _parent.collectingCounts;
+		// END AGT#4 2026-10-18
+		// START AGT#18 2026-10-18
+		this.eventDispatcher = _parent.eventDispatcher;
+		// END AGT#18 2026-10-18
+		// START AGT#9 2026-10-18
+		this.callTargetCache.putAll(_parent.callTargetCache);
+		// END AGT#9 2026-10-18
+		// START AGT#16 2026-10-18
+		this.fastEvaluation = _parent.fastEvaluation;
+		this.memoTable = _parent.memoTable;
+		this.pureFunctions = _parent.pureFunctions;
+		// END AGT#16 2026-10-18
+		// START AGT#15 2026-10-18: The branches share the budget of the parent
+		this.budget = _parent.budget;
+		this.budgetStartTime = _parent.budgetStartTime;
+		this.budgetStepBase = _parent.budgetStepBase + _parent.budgetSteps;
+		this.budgetCallDepthBase = _parent.budgetCallDepthBase + _parent.callers.size();
+		this.budgetOutputBytes = _parent.budgetOutputBytes;
+		// END AGT#15 2026-10-18
+	}
+
+	/**
+	 * Enables or disables the concurrent execution of the branches of {@link Parallel} elements
+	 * on worker threads (with a common variable store, such that real races may occur). If disabled
+	 * (default) then parallel execution is simulated by randomly interleaving the branches.
+	 * @param _concurrent - true for real concurrency
+	 */
+	public void setConcurrentParallel(boolean _concurrent)
+	{
+		this.concurrentParallel = _concurrent;
+	}
+	// END AGT#8 2026-10-18
+	
+	/**
+	 * Executes the given diagram synchronously in headless mode (only applicable to an
+	 * instance created via {@link #Executor(BufferedReader, PrintStream)}).
+	 * @param _root - the program or subroutine diagram to be executed
+	 * @param _pools - routine pools to retrieve called subroutines and includables from
+	 *        (may be null)
+	 * @return the first error message raised by the execution, an empty string if successful
+	 * @see #getExitCode()
+	 */
+	public String executeHeadless(Root _root, Vector<IRoutinePool> _pools)
+	{
+		if (!this.isHeadless) {
+			throw new IllegalStateException("Executor is not headless");
+		}
+		this.headlessRoot = _root;
+		this.headlessPools.clear();
+		if (_pools != null) {
+			this.headlessPools.addAll(_pools);
+			// START AGT#9 2026-10-18: Keep track of pool changes (for the call target cache)
+			for (IRoutinePool pool: _pools) {
+				pool.addChangeListener(this);
+			}
+			// END AGT#9 2026-10-18
+		}
+		this.headlessTrouble = "";
+		this.exitCode = null;
+		synchronized (this) {
+			this.paus = false;
+			this.step = false;
+			this.stop = false;
+		}
+		this.running = true;
+		try {
+			this.execute();
+		}
+		finally {
+			this.running = false;
+			this.headlessOutput.flush();
+		}
+		return this.headlessTrouble;
+	}
+	
+	/**
+	 * @return the value of the exit instruction that terminated the last execution
+	 * or null if the execution did not end by an exit instruction.
+	 */
+	public Integer getExitCode()
+	{
+		return this.exitCode;
+	}
+	
+	// START AGT#4 2026-10-18
+	/**
+	 * @return the number of element steps performed since the start of the last
+	 * (or current) execution (disabled elements not counted)
+	 */
+	public long getStepCount()
+	{
+		return this.stepCount;
+	}
+	// END AGT#4 2026-10-18
+	
+	// START AGT#4 2026-10-18
+	/**
+	 * Specifies whether this Executor updates the execution counters and the time profile of the
+	 * elements while {@link Element#E_COLLECTRUNTIMEDATA} is set (default: true). Since these are held
+	 * in static tables, Executors running concurrently (e.g. grading jobs) must switch it off. The test
+	 * coverage (kept in the elements) is collected nevertheless.
+	 * @param _collecting - false if the element counters are to be left alone
+	 */
+	public void setCollectingCounts(boolean _collecting)
+	{
+		this.collectingCounts = _collecting;
+	}
+	// END AGT#4 2026-10-18
+	
+	// START AGT#15 2026-10-18: Resource limits
+	/**
+	 * Sets the resource limits for the subsequent executions. If one of the limits is exceeded
+	 * then the execution is aborted with a specific error message.
+	 * @param _budget - the limits (null for {@link ExecutionBudget#UNLIMITED})
+	 * @see #getExceededLimit()
+	 */
+	public void setBudget(ExecutionBudget _budget)
+	{
+		this.budget = (_budget == null) ? ExecutionBudget.UNLIMITED : _budget;
+	}
+	
+	/**
+	 * @return the resource limits for the executions
+	 */
+	public ExecutionBudget getBudget()
+	{
+		return this.budget;
+	}
+	
+	/**
+	 * @return the limit of the {@link ExecutionBudget} that caused the abortion of the last
+	 * (or current) execution, or null if no limit was exceeded.
+	 */
+	public ExecutionBudget.Limit getExceededLimit()
+	{
+		return this.exceededLimit;
+	}
+	
+	/**
+	 * Counts a step and checks the step and time limits of the {@link ExecutionBudget} (to be called
+	 * on every element step and loop iteration - otherwise an empty loop would never exceed the step
+	 * limit). If a limit is exceeded then the execution is stopped.
+	 * @return the error message if a limit is exceeded, an empty string otherwise
+	 */
+	private String checkBudget()
+	{
+		this.budgetSteps++;
+		if (this.budget.maxSteps > 0 && this.budgetStepBase + this.budgetSteps > this.budget.maxSteps) {
+			return this.budgetExceeded(ExecutionBudget.Limit.STEPS, Control.msgStepLimitExceeded, this.budget.maxSteps);
+		}
+		if (this.budget.maxTime > 0 && (System.nanoTime() - this.budgetStartTime) / 1000000 > this.budget.maxTime) {
+			return this.budgetExceeded(ExecutionBudget.Limit.TIME, Control.msgTimeLimitExceeded, this.budget.maxTime);
+		}
+		return "";
+	}
+	
+	/**
+	 * Checks whether another subroutine call would exceed the call depth limit of the
+	 * {@link ExecutionBudget}. If so then the execution is stopped.
+	 * @return the error message if the limit would be exceeded, an empty string otherwise
+	 */
+	private String checkCallDepth()
+	{
+		if (this.budget.maxCallDepth > 0 && this.budgetCallDepthBase + this.callers.size() >= this.budget.maxCallDepth) {
+			return this.budgetExceeded(ExecutionBudget.Limit.CALL_DEPTH, Control.msgCallDepthExceeded, this.budget.maxCallDepth);
+		}
+		return "";
+	}
+	
+	/**
+	 * Accounts the given output line to the output limit of the {@link ExecutionBudget}. If the
+	 * limit would be exceeded then the execution is stopped (and the line must not be written).
+	 * @param _line - the line to be written (without line separator)
+	 * @return the error message if the limit would be exceeded, an empty string otherwise
+	 */
+	private String checkOutput(String _line)
+	{
+		if (this.budget.maxOutputBytes > 0) {
+			long nBytes = 1;
+			try {
+				nBytes += _line.getBytes("UTF-8").length;
+			} catch (UnsupportedEncodingException ex) {
+				nBytes += _line.length();
+			}
+			if (this.budgetOutputBytes.addAndGet(nBytes) > this.budget.maxOutputBytes) {
+				return this.budgetExceeded(ExecutionBudget.Limit.OUTPUT, Control.msgOutputLimitExceeded, this.budget.maxOutputBytes);
+			}
+		}
+		return "";
+	}
+	
+	private String budgetExceeded(ExecutionBudget.Limit _limit, LangTextHolder _message, long _value)
+	{
+		if (this.exceededLimit == null) {
+			this.budgetTrouble = _message.getText().replace("%", Long.toString(_value));
+			this.exceededLimit = _limit;
+		}
+		if (this.parentExecutor != null && this.parentExecutor.exceededLimit == null) {
+			this.parentExecutor.budgetExceeded(_limit, _message, _value);
+		}
+		this.stop = true;
+		return this.budgetTrouble;
+	}
+	// END AGT#15 2026-10-18
+
+	// START AGT#7 2026-10-18: Execution time profiling
+	/**
+	 * Writes the execution profile (collected while {@link Element#E_COLLECTRUNTIMEDATA} was
+	 * enabled) of all executed elements of the given diagrams in CSV format (semicolon-separated).
+	 * Columns: diagram signature, element type, element text, execution count, operation steps
+	 * (aggregated), cumulative time, self time, evaluation time, and preprocessing time (i.e. self
+	 * time without evaluation time); times in µs.
+	 * @param _roots - the diagrams the profile of which is to be written
+	 * @param _out - the target stream
+	 */
+	public static void writeProfile(Collection<Root> _roots, final PrintStream _out)
+	{
+		_out.println("Diagram;Element;Text;Count;Steps;Total[us];Self[us];Eval[us];Prep[us]");
+		for (Root root: _roots) {
+			final String rootName = root.getSignatureString(false);
+			root.traverse(new IElementVisitor() {
+				@Override
+				public boolean visitPreOrder(Element _ele) {
+					long total = _ele.getExecTime(Element.PROFILE_TOTAL);
+					if (!(_ele instanceof Subqueue) && (total > 0 || _ele.getExecCount() > 0)) {
+						long self = _ele.getExecTime(Element.PROFILE_SELF);
+						long eval = _ele.getExecTime(Element.PROFILE_EVAL);
+						String text = _ele.getText().getLongString().replace(";", ",").replace("\r", "").replace("\n", " | ");
+						_out.println(rootName + ";" + _ele.getClass().getSimpleName() + ";" + text + ";"
+								+ _ele.getExecCount() + ";" + _ele.getExecStepCount(true) + ";"
+								+ total / 1000 + ";" + self / 1000 + ";" + eval / 1000 + ";"
+								+ Math.max(self - eval, 0) / 1000);
+					}
+					return true;
+				}
+				@Override
+				public boolean visitPostOrder(Element _ele) {
+					return true;
+				}
+			});
+		}
+	}
+	// END AGT#7 2026-10-18
+	
+	/**
+	 * @return the Root currently being executed or shown (in headless mode the
+	 * Root of the current execution context)
+	 */
+	private Root getCurrentRoot()
+	{
+		if (this.isHeadless) {
+			return (this.context != null) ? this.context.root : this.headlessRoot;
+		}
+		return this.diagram.getRoot();
+	}
+	
+	/**
+	 * Reads the next line from the headless input
+	 * @param _prompt - the prompt for the input dialog a concurrent branch of an interactive
+	 * execution has to show instead (AGT#8)
+	 * @return the line or null if the input is exhausted or unreadable 
+	 */
+	private String readHeadlessInput(String _prompt)
+	{
+		String line = null;
+		// START AGT#8 2026-10-18: A concurrent branch of an interactive execution has no input stream
+		if (this.headlessInput == null && this.parentExecutor != null) {
+			// One dialog at a time
+			synchronized (BRANCH_INPUT_LOCK) {
+				return JOptionPane.showInputDialog(diagram.getParent(), _prompt, null);
+			}
+		}
+		// END AGT#8 2026-10-18
+		try {
+			line = this.headlessInput.readLine();
+		}
+		catch (IOException ex) {
+			logger.log(Level.WARNING, "headless input", ex);
+		}
+		return line;
+	}
+	
+	/** @return true if meta information is to be logged to the output console */
+	private boolean logMeta()
+	{
+		return this.console != null && this.console.logMeta();
+	}
+
+	/** @return true if calls are to be traced in the output console */
+	private boolean logCalls()
+	{
+		return this.console != null && this.console.logCalls();
+	}
+	// END AGT#3 2026-10-18
+
 	// START KGU#210/KGU#234 2016-08-08: Issue #201 - Ensure GUI consistency
 	public static void updateLookAndFeel()
 	{
@@ -1177,6 +1953,398 @@ public class Executor implements Runnable
 		return s;
 	}
 	
+	// START AGT#1 2026-10-18: Cache for the text-dependent preprocessing of element lines
+	/**
+	 * Returns the prepared line record for the line {@code _lineNo} of {@code _element} with text
+	 * {@code _line}. The record holds the result of {@code convert(line, false)} after the tokens of
+	 * all parser keywords named in {@code _keywordKeys} (if not null) have been removed from it and
+	 * - for instruction lines (i.e. with {@code _keywordKeys == null}) - the line kind and the
+	 * decomposition of an assignment.<br/>
+	 * Since this preparation only depends on the text, the parser keywords, and the diagram
+	 * controllers, the record is cached per element id and line number and reused as long as
+	 * neither the line text nor the parser keywords change. So loop conditions and instructions
+	 * in loop bodies needn't be tokenized and analysed over and over again.<br/>
+	 * NOTE: The value-dependent {@link #convertStringComparison(String)} is NOT applied here!
+	 * @param _element - the element the line belongs to
+	 * @param _lineNo - the index of the line within the (unbroken) element text
+	 * @param _line - the (trimmed) line text
+	 * @param _keywordKeys - names of the parser preferences to be removed (e.g. "preWhile") or null
+	 * @return the prepared line
+	 * @see #convert(String, boolean)
+	 */
+	private PreparedLine getPreparedLine(Element _element, int _lineNo, String _line, String[] _keywordKeys)
+	{
+		Long id = _element.getId();
+		long keywordRevision = CodeParser.getKeywordRevision();
+		PreparedLines cached = this.preparedLinesCache.get(id);
+		if (cached == null || cached.keywordRevision != keywordRevision || cached.ignoreCase != CodeParser.ignoreCase) {
+			cached = new PreparedLines(keywordRevision, CodeParser.ignoreCase);
+			this.preparedLinesCache.put(id, cached);
+		}
+		if (_lineNo >= cached.lines.length) {
+			PreparedLine[] lines = new PreparedLine[_lineNo + 1];
+			System.arraycopy(cached.lines, 0, lines, 0, cached.lines.length);
+			cached.lines = lines;
+		}
+		else if (cached.lines[_lineNo] != null && _line.equals(cached.lines[_lineNo].source)) {
+			return cached.lines[_lineNo];
+		}
+		PreparedLine prepared = new PreparedLine(_line);
+		String converted = _line;
+		if (_keywordKeys != null) {
+			StringList tokens = Element.splitLexically(_line, true);
+			for (String keyName: _keywordKeys)
+			{
+				String key = CodeParser.getKeyword(keyName);
+				if (key != null && !key.trim().isEmpty())
+				{
+					tokens.removeAll(Element.splitLexically(key, false), !CodeParser.ignoreCase);
+				}
+			}
+			converted = tokens.concatenate();
+		}
+		else if (_line.matches(this.getKeywordPattern(CodeParser.getKeyword("input")) + "([\\W].*|$)")) {
+			prepared.kind = PreparedLine.KIND_INPUT;
+		}
+		else if (_line.matches(this.getKeywordPattern(CodeParser.getKeyword("output")) + "([\\W].*|$)")) {
+			prepared.kind = PreparedLine.KIND_OUTPUT;
+		}
+		else if (_line.matches(this.getKeywordPattern(CodeParser.getKeywordOrDefault("preReturn", "return")) + "([\\W].*|$)")) {
+			prepared.kind = PreparedLine.KIND_RETURN;
+		}
+		else {
+			// The type map will have to decide
+			prepared.mayBeTypeDef = Instruction.isTypeDefinition(_line, null);
+		}
+		prepared.converted = convert(converted, false).trim();
+		StringList tokens = Element.splitLexically(prepared.converted, true);
+		for (int i = 0; !prepared.hasControllerCalls && i < tokens.count(); i++) {
+			if (tokens.get(i).equals("(")) {
+				int pos = i;
+				String token = null;
+				while (pos > 0 && (token = tokens.get(--pos).trim()).isEmpty());
+				prepared.hasControllerCalls = token != null && this.controllerFunctionNames.contains(token.toLowerCase());
+			}
+		}
+		prepared.expression = prepared.converted;
+		int posAsgnOpr = -1;
+		if (_keywordKeys == null && prepared.kind == PreparedLine.KIND_OTHER) {
+			if ((posAsgnOpr = tokens.indexOf("<-")) >= 0) {
+				prepared.kind = PreparedLine.KIND_ASSIGNMENT;
+				prepared.target = tokens.concatenate("", 0, posAsgnOpr).trim();
+				// START AGT#12 2026-10-18
+				prepared.plainTarget = Function.testIdentifier(prepared.target, null);
+				// END AGT#12 2026-10-18
+				// START AGT#14 2026-10-18
+				StringList targetTokens = Element.splitLexically(prepared.target, true);
+				targetTokens.removeAll(" ");
+				if (targetTokens.count() > 3 && targetTokens.get(1).equals("[") && targetTokens.get(targetTokens.count()-1).equals("]")
+						&& Function.testIdentifier(targetTokens.get(0), null)) {
+					prepared.indexedArray = targetTokens.get(0);
+				}
+				// END AGT#14 2026-10-18
+				if (!prepared.target.contains(".") && !prepared.target.contains("[")) {
+					prepared.assignedVar = ((Instruction)_element).getAssignedVarname(Element.splitLexically(prepared.target, true)) + "";
+				}
+				tokens.remove(0, posAsgnOpr+1);
+				tokens.removeAll(" ");
+				prepared.expression = tokens.concatenate().trim();
+			}
+			else if (prepared.converted.matches("^var.*:.*")) {
+				prepared.kind = PreparedLine.KIND_VAR;
+			}
+			else if (prepared.converted.matches("^dim.* as .*")) {
+				prepared.kind = PreparedLine.KIND_DIM;
+			}
+		}
+		if (_keywordKeys != null || prepared.kind == PreparedLine.KIND_ASSIGNMENT) {
+			HashSet<String> identifiers = new HashSet<String>();
+			for (int i = 0; i < tokens.count(); i++) {
+				String token = tokens.get(i);
+				if (Function.testIdentifier(token, null)) {
+					identifiers.add(token);
+				}
+			}
+			prepared.identifiers = identifiers.toArray(new String[identifiers.size()]);
+		}
+		cached.lines[_lineNo] = prepared;
+		return prepared;
+	}
+	
+	/**
+	 * Returns the compiled expression of the given prepared line (compiles it on the first
+	 * request), i.e. of the right-hand side of an assignment or the entire line otherwise,
+	 * with the string comparison semantics of {@link #convertStringComparison(String)}.
+	 * @param _prepared - the prepared line
+	 * @return the compiled expression or null if it can't be evaluated natively
+	 */
+	private NativeExpression getNativeExpression(PreparedLine _prepared)
+	{
+		if (!_prepared.compiled) {
+			_prepared.compiled = true;
+			if (!_prepared.hasControllerCalls && _prepared.expression != null && !_prepared.expression.isEmpty()) {
+				StringList tokens = this.prepareExpressionTokens(_prepared.expression, false);
+				if (!tokens.get(tokens.count()-1).equals("}")) {
+					_prepared.nativeExpr = NativeExpression.compile(tokens.concatenate(), true);
+				}
+			}
+		}
+		return _prepared.nativeExpr;
+	}
+	
+	// START AGT#14 2026-10-18
+	/**
+	 * Returns the compiled target of the given prepared assignment line if it is an indexed
+	 * variable (compiles it on the first request).
+	 * @param _prepared - the prepared assignment line
+	 * @return the compiled target or null if it isn't an indexed variable or can't be compiled
+	 */
+	private NativeExpression getNativeTarget(PreparedLine _prepared)
+	{
+		if (!_prepared.targetCompiled) {
+			_prepared.targetCompiled = true;
+			if (_prepared.indexedArray != null) {
+				_prepared.targetExpr = NativeExpression.compile(this.prepareExpressionTokens(_prepared.target, false).concatenate());
+			}
+		}
+		return _prepared.targetExpr;
+	}
+	// END AGT#14 2026-10-18
+	
+	/**
+	 * Evaluates {@code _expr} on the current variables and adds the time spent to the
+	 * evaluation time of the profile.
+	 * @param _expr - the compiled expression
+	 * @return the value
+	 * @throws NativeExpression.FallbackException if the interpreter will have to do it
+	 */
+	private Object evaluateNatively(NativeExpression _expr) throws NativeExpression.FallbackException
+	{
+		long startTime = Element.E_COLLECTRUNTIMEDATA ? System.nanoTime() : 0;
+		// START AGT#12 2026-10-18: Pending slot values needn't be written into the namespace
+		//Object value = _expr.evaluate(context.interpreter.getNameSpace(), context.frame);
+		Object value = _expr.evaluate(this.getEvaluationNameSpace(), context.frame);
+		// END AGT#12 2026-10-18
+		if (Element.E_COLLECTRUNTIMEDATA) {
+			this.profileEvalTime += System.nanoTime() - startTime;
+		}
+		return value;
+	}
+	
+	// START AGT#12 2026-10-18
+	/**
+	 * @return the namespace for the native evaluation of expressions, which needn't be up to date
+	 * for the variables held in valid slots of the current frame
+	 * @see VariableFrame#getNameSpace()
+	 */
+	private NameSpace getEvaluationNameSpace()
+	{
+		NameSpace ns = null;
+		if (context.frame == null || (ns = context.frame.getNameSpace()) == null) {
+			ns = context.interpreter.getNameSpace();
+		}
+		return ns;
+	}
+	
+	/**
+	 * Evaluates the compiled expression {@code _expr} to an int and assigns it to the plain
+	 * variable {@code _prepared.target} directly via its frame slot, provided the variable is
+	 * held in a slot and none of the checks of {@link #setVar(String, Object)} (loop variable,
+	 * constant, record type) would intervene.
+	 * @param _prepared - the prepared assignment line
+	 * @param _expr - the compiled right-hand side
+	 * @return true if the assignment has been done, false if the caller must do it otherwise
+	 * @throws NativeExpression.FallbackException if the value isn't an int or can't be computed natively
+	 */
+	private boolean assignIntNatively(PreparedLine _prepared, NativeExpression _expr) throws EvalError, NativeExpression.FallbackException
+	{
+		VariableFrame frame = context.frame;
+		if (frame == null || !_prepared.plainTarget || !_expr.mayBeInt()) {
+			return false;
+		}
+		if (_prepared.targetLayout != frame.getLayout()) {
+			_prepared.targetLayout = frame.getLayout();
+			_prepared.targetSlot = frame.getLayout().getSlot(_prepared.target);
+		}
+		String target = _prepared.target;
+		TypeMapEntry typeEntry = null;
+		if (_prepared.targetSlot < 0 || context.forLoopVars.lastIndexOf(target, context.forLoopVars.count()-1) >= 0
+				|| context.constants.containsKey(target)
+				|| (typeEntry = context.dynTypeMap.get(target)) != null && typeEntry.isRecord()) {
+			return false;
+		}
+		long startTime = Element.E_COLLECTRUNTIMEDATA ? System.nanoTime() : 0;
+		int value = _expr.evaluateInt(this.getEvaluationNameSpace(), frame);
+		if (Element.E_COLLECTRUNTIMEDATA) {
+			this.profileEvalTime += System.nanoTime() - startTime;
+		}
+		if (!frame.storeInt(_prepared.targetSlot, value)) {
+			// Let setVar() do it (or complain)
+			setVar(target, value);
+			return true;
+		}
+		context.variables.addIfNew(target);
+		if (this.eventDispatcher != null) {
+			this.postEvent(ExecutionEvent.Kind.VARIABLE_ASSIGNED, null, target, value);
+		}
+		this.traceAssignment(target, false);
+		if (this.delay != 0 || step)
+		{
+			updateVariableDisplay();
+		}
+		return true;
+	}
+	// END AGT#12 2026-10-18
+	
+	// START AGT#14 2026-10-18
+	/**
+	 * Evaluates the compiled expression {@code _expr} to an int and assigns it to the array element
+	 * {@code _prepared.target} without boxing, provided the array holds int elements (see
+	 * {@link NumericArrayList#setInt(int, int)}), the index is within range, and none of the checks
+	 * of {@link #setVar(String, Object)} (loop variable, constant) would intervene.
+	 * @param _prepared - the prepared assignment line
+	 * @param _expr - the compiled right-hand side
+	 * @return true if the assignment has been done, false if the caller must do it otherwise
+	 * @throws NativeExpression.FallbackException if the value isn't an int or can't be computed natively
+	 */
+	private boolean assignIntElementNatively(PreparedLine _prepared, NativeExpression _expr) throws EvalError, NativeExpression.FallbackException
+	{
+		NativeExpression targetExpr = this.getNativeTarget(_prepared);
+		String arrayName = _prepared.indexedArray;
+		if (targetExpr == null || !_expr.mayBeInt()
+				|| context.forLoopVars.lastIndexOf(arrayName, context.forLoopVars.count()-1) >= 0
+				|| context.constants.containsKey(arrayName)) {
+			return false;
+		}
+		NameSpace ns = this.getEvaluationNameSpace();
+		long startTime = Element.E_COLLECTRUNTIMEDATA ? System.nanoTime() : 0;
+		int value = _expr.evaluateInt(ns, context.frame);
+		boolean assigned = targetExpr.assignInt(ns, context.frame, value);
+		if (Element.E_COLLECTRUNTIMEDATA) {
+			this.profileEvalTime += System.nanoTime() - startTime;
+		}
+		if (!assigned) {
+			// Let setVar() do it (e.g. enlarge the array) or complain
+			setVar(_prepared.target, value);
+			return true;
+		}
+		if (this.eventDispatcher != null) {
+			this.postEvent(ExecutionEvent.Kind.VARIABLE_ASSIGNED, null, arrayName, value);
+		}
+		this.traceAssignment(arrayName, true);
+		if (this.delay != 0 || step)
+		{
+			updateVariableDisplay();
+		}
+		return true;
+	}
+	// END AGT#14 2026-10-18
+	
+	/**
+	 * Evaluates the condition held by the prepared line {@code _prepared}, preferably via the
+	 * compiled expression, otherwise in the conventional way (evaluation of diagram controller
+	 * functions, string comparison conversion, and evaluation by the interpreter).
+	 * @param _prepared - the prepared condition
+	 * @param _comparisonFirst - whether the string comparison is to be converted before the
+	 * diagram controller functions are evaluated
+	 * @return the value of the condition (expected to be a Boolean)
+	 * @throws EvalError
+	 */
+	private Object evaluateCondition(PreparedLine _prepared, boolean _comparisonFirst) throws EvalError
+	{
+		NativeExpression nativeExpr = this.getNativeExpression(_prepared);
+		if (nativeExpr != null) {
+			try {
+				return this.evaluateNatively(nativeExpr);
+			}
+			catch (NativeExpression.FallbackException ex) {
+				// Let the interpreter do it (and possibly compose an error message)
+			}
+		}
+		String cond = _prepared.converted;
+		if (_comparisonFirst) {
+			cond = this.evaluateDiagramControllerFunctions(this.convertStringComparison(cond));
+		}
+		else {
+			cond = this.convertStringComparison(this.evaluateDiagramControllerFunctions(cond));
+		}
+		return this.evaluateExpression(cond, false, false);
+	}
+	
+	/**
+	 * @return true if one of the identifiers in the expression of {@code _prepared} is a
+	 * constant array or record (which must be copied on assignment).
+	 */
+	private boolean refersToConstantStructure(PreparedLine _prepared)
+	{
+		if (!context.constants.isEmpty()) {
+			for (String id: _prepared.identifiers) {
+				Object constVal = context.constants.get(id);
+				if (constVal instanceof ArrayList<?> || constVal instanceof HashMap<?, ?>) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	// END AGT#1 2026-10-18
+	
+	// START AGT#11 2026-10-18: Prepared FOR loop parameters
+	/**
+	 * Returns the prepared loop parameters of {@code _element}, i.e. the counter variable, the
+	 * step constant, and the converted start and end expressions (or the value list of a FOR-IN
+	 * loop). The plan is cached per element id and only rebuilt if the element text, the loop
+	 * style, or the parser keywords have changed.<br/>
+	 * NOTE: The value-dependent {@link #convertStringComparison(String)} is NOT applied here!
+	 * @param _element - the FOR loop
+	 * @return the loop plan
+	 */
+	private ForLoopPlan getForLoopPlan(For _element)
+	{
+		Long id = _element.getId();
+		String source = _element.getUnbrokenText().getLongString();
+		long keywordRevision = CodeParser.getKeywordRevision();
+		ForLoopPlan plan = this.forLoopPlans.get(id);
+		if (plan == null || plan.keywordRevision != keywordRevision || plan.ignoreCase != CodeParser.ignoreCase
+				|| plan.style != _element.style || !source.equals(plan.source)) {
+			plan = new ForLoopPlan(keywordRevision, CodeParser.ignoreCase, source, _element.style);
+			plan.isForIn = _element.isForInLoop();
+			plan.counter = _element.getCounterVar();
+			plan.isPlainCounter = plan.counter != null && Function.testIdentifier(plan.counter, null);
+			if (plan.isForIn) {
+				plan.valueList = _element.getValueList();
+			}
+			else {
+				plan.stepConst = _element.getStepConst();
+				plan.startExpr = convert(_element.getStartValue(), false);
+				plan.endExpr = convert(_element.getEndValue(), false);
+				plan.startConst = parseIntLiteral(plan.startExpr);
+				plan.endConst = parseIntLiteral(plan.endExpr);
+			}
+			this.forLoopPlans.put(id, plan);
+		}
+		return plan;
+	}
+	
+	/**
+	 * @param _expr - a converted expression
+	 * @return the value of {@code _expr} if it is a (possibly signed) decimal integer literal, null otherwise
+	 */
+	private static Integer parseIntLiteral(String _expr)
+	{
+		String literal = _expr.trim();
+		String digits = literal.startsWith("-") ? literal.substring(1) : literal;
+		// Leading zeros would indicate an octal literal to the interpreter
+		if (!digits.isEmpty() && Character.isDigit(digits.charAt(0)) && (digits.length() == 1 || digits.charAt(0) != '0')) {
+			try {
+				return Integer.valueOf(literal);
+			}
+			catch (NumberFormatException ex) {}
+		}
+		return null;
+	}
+	// END AGT#11 2026-10-18
+	
 	// START KGU#57 2015-11-07
 	private String convertStringComparison(String str)
 	{
@@ -1344,6 +2512,14 @@ public class Executor implements Runnable
 
 	private void delay()
 	{
+		// START AGT#3 2026-10-18: Nothing to animate or to wait for in headless mode
+		if (this.isHeadless) {
+			return;
+		}
+		// END AGT#3 2026-10-18
+		// START AGT#7 2026-10-18: Delays and pauses must not count as execution time
+		long startTime = System.nanoTime();
+		// END AGT#7 2026-10-18
 		if (delay != 0)
 		{
 			diagram.redraw();
@@ -1356,6 +2532,9 @@ public class Executor implements Runnable
 			}
 		}
 		waitForNext();
+		// START AGT#7 2026-10-18
+		this.profileIdleTime += System.nanoTime() - startTime;
+		// END AGT#7 2026-10-18
 	}
 
 	/**
@@ -1384,9 +2563,17 @@ public class Executor implements Runnable
 		{
 			iter.next().clearExecutionStatus();
 		}
-		this.diagram.clearExecutionStatus();
+		// START AGT#3 2026-10-18
+		//this.diagram.clearExecutionStatus();
+		if (!this.isHeadless) {
+			this.diagram.clearExecutionStatus();
+		}
+		// END AGT#3 2026-10-18
 		// START KGU#156 2016-03-10: Enh. #124
-		if (!Element.E_COLLECTRUNTIMEDATA)
+		// START AGT#4 2026-10-18: Don't reset the counters of concurrently running Executors
+		//if (!Element.E_COLLECTRUNTIMEDATA)
+		if (!Element.E_COLLECTRUNTIMEDATA && this.collectingCounts)
+		// END AGT#4 2026-10-18
 		{
 			Element.resetMaxExecCount();
 		}
@@ -1394,18 +2581,99 @@ public class Executor implements Runnable
 	}
 	// END KGU#117 2016-03-08
 
+	// START AGT#19 2026-10-18: Display of accumulated test coverage
+	/**
+	 * Marks the elements of the edited diagram and of all diagrams held by the Arranger
+	 * or the known subroutine pools as covered according to the given coverage store
+	 * and redraws them (the test coverage mode should be active)
+	 * @param _coverage - the loaded coverage store
+	 * @return the number of diagrams the store had coverage data for
+	 */
+	public int applyCoverage(CoverageStore _coverage)
+	{
+		Set<Root> roots = new HashSet<Root>();
+		if (!this.isHeadless) {
+			roots.add(this.diagram.getRoot());
+		}
+		if (Arranger.hasInstance()) {
+			roots.addAll(Arranger.getInstance().getAllRoots());
+		}
+		for (IRoutinePool pool: this.routinePools) {
+			roots.addAll(pool.getAllRoots());
+		}
+		int nApplied = 0;
+		for (Root root: roots) {
+			if (_coverage.apply(root)) {
+				nApplied++;
+			}
+		}
+		if (Arranger.hasInstance()) {
+			Arranger.getInstance().redraw();
+		}
+		this.redraw();
+		return nApplied;
+	}
+	// END AGT#19 2026-10-18
+
 	// METHOD MODIFIED BY GENNARO DONNARUMMA
 
 	public void execute()
 	// START KGU#2 (#9) 2015-11-13: We need a recursively applicable version
 	{
-		Root root = this.diagram.getRoot();
+		// START AGT#3 2026-10-18: Headless mode
+		//Root root = this.diagram.getRoot();
+		Root root = this.isHeadless ? this.headlessRoot : this.diagram.getRoot();
+		// END AGT#3 2026-10-18
 		this.callers.clear();
 		this.stackTrace.clear();
 		this.routinePools.clear();
+		// START AGT#4 2026-10-18
+		this.stepCount = 0;
+		// END AGT#4 2026-10-18
+		// START AGT#15 2026-10-18
+		this.budgetStartTime = System.nanoTime();
+		this.budgetSteps = 0;
+		this.budgetOutputBytes.set(0);
+		this.exceededLimit = null;
+		this.budgetTrouble = null;
+		// END AGT#15 2026-10-18
 		// START KGU#376 2017-04-22: Enh. #389
 		this.importMap.clear();
+		// START AGT#13 2026-10-18
+		this.importsByName.clear();
+		// END AGT#13 2026-10-18
 		// END KGU#376 2017-04-22
+		// START AGT#1 2026-10-18: Elements may have been edited or replaced since the last run
+		this.preparedLinesCache.clear();
+		// END AGT#1 2026-10-18
+		// START AGT#2 2026-10-18
+		this.nativeExpressions.clear();
+		// END AGT#2 2026-10-18
+		// START AGT#9 2026-10-18: Diagrams may have been edited or replaced since the last run
+		this.callTargetCache.clear();
+		// END AGT#9 2026-10-18
+		// START AGT#16 2026-10-18: Diagrams may have been edited since the last run
+		this.pureFunctions.clear();
+		synchronized (this.memoTable) {
+			this.memoTable.clear();
+		}
+		// END AGT#16 2026-10-18
+		// START AGT#11 2026-10-18
+		this.forLoopPlans.clear();
+		// END AGT#11 2026-10-18
+		// START AGT#12 2026-10-18
+		this.frameLayouts.clear();
+		// END AGT#12 2026-10-18
+		// START AGT#10 2026-10-18: Start the trace recording if requested
+		if (this.traceFile != null) {
+			try {
+				this.traceRecorder = new TraceRecorder(new BufferedOutputStream(new FileOutputStream(this.traceFile)));
+				this.traceContext = null;
+			} catch (IOException ex) {
+				logger.log(Level.WARNING, "Trace recording to " + this.traceFile + " failed", ex);
+			}
+		}
+		// END AGT#10 2026-10-18
 		// START KGU#307 2016-12-12: Issue #307: Keep track of FOR loop variables
 		//this.forLoopVars.clear();	// KGU#384 2017-04-22 -> new context
 		// END KGU#307 2016-12-12
@@ -1425,7 +2693,14 @@ public class Executor implements Runnable
 		this.openFiles.clear();
 		// END KGU#311 2016-12-18
 
-		if (Arranger.hasInstance())
+		// START AGT#3 2026-10-18: Headless mode - the pools are to be passed in
+		//if (Arranger.hasInstance())
+		if (this.isHeadless)
+		{
+			this.routinePools.addAll(this.headlessPools);
+		}
+		else if (Arranger.hasInstance())
+		// END AGT#3 2026-10-18
 		{
 			this.routinePools.addElement(Arranger.getInstance());
 			// START KGU#117 2016-03-08: Enh. #77
@@ -1434,6 +2709,10 @@ public class Executor implements Runnable
 		}
 		this.isErrorReported = false;
 		root.isCalling = false;
+		SimpleDateFormat sdf = new SimpleDateFormat();
+		// START AGT#3 2026-10-18: Headless mode - there is no console
+		if (!this.isHeadless) {
+		// END AGT#3 2026-10-18
 		// START KGU#160 2016-04-12: Enh. #137 - Address the console window
 		// START KGU#569 2018-08-08: Issue #577: Replace the console if it has become inconsistent
 		//this.console.clear();
@@ -1446,20 +2725,57 @@ public class Executor implements Runnable
 			this.console = new OutputConsole();
 		}
 		// END KGU#569 2018-08-08
-		SimpleDateFormat sdf = new SimpleDateFormat();
-		if (this.console.logMeta()) {
+		if (this.logMeta()) {
 			this.console.writeln("*** STARTED \"" + root.getText().getLongString() +
 					"\" at " + sdf.format(System.currentTimeMillis()) + " ***", Color.GRAY);
 		}
 		if (this.isConsoleEnabled) this.console.setVisible(true);
 		// END KGU#160 2016-04-12
+		// START AGT#3 2026-10-18
+		}
+		// END AGT#3 2026-10-18
 		// START KGU#384 2017-04-22
-		this.context = new ExecutionContext(root);
-		initInterpreter();
+		// START AGT#5 2026-10-18: New prototype namespace for the built-in functions
+		//this.context = new ExecutionContext(root);
+		//initInterpreter();
+		this.builtInNameSpace = null;
+		// START AGT#12 2026-10-18
+		//this.context = new ExecutionContext(root, null, createInterpreter());
+		this.context = createContext(root, null);
+		// END AGT#12 2026-10-18
+		// END AGT#5 2026-10-18
 		// END KGU#384 2017-04-22
+		// START AGT#6 2026-10-18: Make sure the first step refreshes the GUI in turbo mode
+		this.turboRefreshTime = 0;
+		// END AGT#6 2026-10-18
+		// START AGT#18 2026-10-18
+		this.postEvent(ExecutionEvent.Kind.EXECUTION_STARTED, root, null, null);
+		// END AGT#18 2026-10-18
 		/////////////////////////////////////////////////////////
-		this.execute(null);	// The actual top-level execution
+		// START AGT#18 2026-10-18
+		//this.execute(null);	// The actual top-level execution
+		boolean successful = this.execute(null);	// The actual top-level execution
+		// END AGT#18 2026-10-18
 		/////////////////////////////////////////////////////////
+		// START AGT#6 2026-10-18: Show the final state in turbo mode
+		if (this.isTurbo()) {
+			this.refreshTurboDisplay(true);
+		}
+		// END AGT#6 2026-10-18
+		// START AGT#10 2026-10-18: Complete the trace with the final state
+		if (this.traceRecorder != null) {
+			try {
+				Vector<String[]> vars = null;
+				try {
+					vars = this.getVariableSnapshot();
+				} catch (EvalError ex) {}
+				this.traceRecorder.close(vars);
+			} catch (IOException ex) {
+				logger.log(Level.WARNING, "Trace recording to " + this.traceFile + " failed", ex);
+			}
+			this.traceRecorder = null;
+		}
+		// END AGT#10 2026-10-18
 		this.callers.clear();
 		this.stackTrace.clear();
 		// START KGU#307 2016-12-12: Issue #307: Keep track of FOR loop variables
@@ -1477,12 +2793,15 @@ public class Executor implements Runnable
 		}
 		this.openFiles.clear();
 		// END KGU 2016-12-18
+		// START AGT#18 2026-10-18
+		this.postEvent(ExecutionEvent.Kind.EXECUTION_TERMINATED, root, null, successful);
+		// END AGT#18 2026-10-18
 		// START KGU#160 2016-04-12: Enh. #137 - Address the console window 
-		if (this.console.logMeta()) {
+		if (this.logMeta()) {
 			this.console.writeln("*** TERMINATED \"" + root.getText().getLongString() +
 					"\" at " + sdf.format(System.currentTimeMillis()) + " ***", Color.GRAY);
 		}
-		if (this.isConsoleEnabled) this.console.setVisible(true);
+		if (this.isConsoleEnabled && !this.isHeadless) this.console.setVisible(true);
 		// END KGU#160 2016-04-12
 		//System.out.println("stackTrace size: " + stackTrace.count());
 	}
@@ -1518,15 +2837,25 @@ public class Executor implements Runnable
 		}
 		// END KGU#2 (#9) 2015-11-14
 
-		boolean analyserState = diagram.getAnalyser();
-		diagram.setAnalyser(false);
+		// START AGT#3 2026-10-18: Headless mode - no diagram
+		//boolean analyserState = diagram.getAnalyser();
+		//diagram.setAnalyser(false);
+		boolean analyserState = false;
+		if (!this.isHeadless) {
+			analyserState = diagram.getAnalyser();
+			diagram.setAnalyser(false);
+		}
+		// END AGT#3 2026-10-18
 		// START KGU 2015-10-11/13:
 		// Unselect all elements before start!
 		//diagram.unselectAll();	// KGU 2016-03-08: There is no need anymore
 		// Reset all execution state remnants (just for sure)
 		// START KGU#430 2017-10-12: Issue #432 reduce redraw() calls at least if delay = 0
 		//diagram.clearExecutionStatus();
-		if (delay > 0) {
+		// START AGT#3 2026-10-18: Headless mode (with delay 0)
+		//if (delay > 0) {
+		if (delay > 0 && !this.isHeadless) {
+		// END AGT#3 2026-10-18
 			diagram.clearExecutionStatus();
 		}
 		else {
@@ -1594,16 +2923,28 @@ public class Executor implements Runnable
 					// START KGU#89 2016-03-18: More language support 
 					//String str = JOptionPane.showInputDialog(null,
 					//		"Please enter a value for <" + in + ">", null);
-					String msg = control.lbInputValue.getText();
+					String msg = Control.lbInputValue.getText();
 					msg = msg.replace("%", in);
-					String str = JOptionPane.showInputDialog(diagram.getParent(), msg, null);
+					// START AGT#3 2026-10-18: Headless mode - read the value from the input
+					//String str = JOptionPane.showInputDialog(diagram.getParent(), msg, null);
+					String str = null;
+					if (this.isHeadless) {
+						str = this.readHeadlessInput(msg);
+					}
+					else {
+						str = JOptionPane.showInputDialog(diagram.getParent(), msg, null);
+					}
+					// END AGT#3 2026-10-18
+					// START AGT#10 2026-10-18
+					this.traceInput(str);
+					// END AGT#10 2026-10-18
 					// END KGU#89 2016-03-18
 					if (str == null)
 					{
 						//i = params.count();	// leave the loop
 						// START KGU#197 2016-07-27: Enhanced localization
 						//trouble = "Manual break!";
-						trouble = control.msgManualBreak.getText();
+						trouble = Control.msgManualBreak.getText();
 						// END KGU#197 2016-07-27
 						break;
 					}
@@ -1624,7 +2965,7 @@ public class Executor implements Runnable
 						arguments[i] = context.interpreter.get(in);
 						// END KGU#2 2015-11-24
 						// START KGU#160 2016-04-26: Issue #137 - document the arguments
-						if (this.console.logMeta()) {
+						if (this.logMeta()) {
 							this.console.writeln("*** Argument <" + in + "> = " + prepareValueForDisplay(arguments[i], context.dynTypeMap), Color.CYAN);
 						}
 						// END KGU#160 2016-04-26
@@ -1683,14 +3024,20 @@ public class Executor implements Runnable
 			{
 				// START KGU#197 2016-07-27: Enhanced localization
 				//trouble = "Manual break!";
-				trouble = control.msgManualBreak.getText();
+				// START AGT#15 2026-10-18: Not a manual break if a resource limit was exceeded
+				//trouble = Control.msgManualBreak.getText();
+				trouble = (this.budgetTrouble != null) ? this.budgetTrouble : Control.msgManualBreak.getText();
+				// END AGT#15 2026-10-18
 				// END KGU#197 2016-07-27
 			}
 		}
 
 		// START KGU#430 2017-10-12: Issue #432 reduce redraw() calls with delay 0 (KGU#558: unless we are in step mode)
 		//diagram.redraw();
-		if (delay > 0 || step) {
+		// START AGT#3 2026-10-18: Headless mode
+		//if (delay > 0 || step) {
+		if ((delay > 0 || step) && !this.isHeadless) {
+		// END AGT#3 2026-10-18
 			diagram.redraw();
 		}
 		// END KGU#430 2017-10-12
@@ -1720,11 +3067,23 @@ public class Executor implements Runnable
 			//		JOptionPane.ERROR_MESSAGE);
 			if (!isErrorReported)
 			{
-				JOptionPane.showMessageDialog(diagram.getParent(), trouble, control.msgTitleError.getText(),
+				// START AGT#18 2026-10-18
+				this.postEvent(ExecutionEvent.Kind.ERROR, root, null, trouble);
+				// END AGT#18 2026-10-18
+				// START AGT#3 2026-10-18: Headless mode - keep the message for the caller
+				if (this.isHeadless) {
+					this.headlessTrouble = trouble;
+				}
+				else {
+				// END AGT#3 2026-10-18
+				JOptionPane.showMessageDialog(diagram.getParent(), trouble, Control.msgTitleError.getText(),
 						JOptionPane.ERROR_MESSAGE);
 				// START KGU#160 2016-07-27: Issue #137 - also log the trouble to the console
 				this.console.writeln("*** " + trouble, Color.RED);
 				// END KGU#160 2016-07-27
+				// START AGT#3 2026-10-18
+				}
+				// END AGT#3 2026-10-18
 				isErrorReported = true;
 			}
 			if (!this.callers.isEmpty())
@@ -1738,7 +3097,17 @@ public class Executor implements Runnable
 				// START KGU#159 2016-03-17: Now we permanently maintain the stacktrace, so there is no need anymore
 				//addToStackTrace(root, arguments);
 				// END KGU#159 2016-03-17
-				showStackTrace();
+				// START AGT#3 2026-10-18: Headless mode - append the stack trace to the message
+				//showStackTrace();
+				if (this.isHeadless) {
+					for (int i = stackTrace.count() - 1; i >= 0; i--) {
+						this.headlessTrouble += "\n\t" + i + ": " + stackTrace.get(i);
+					}
+				}
+				else {
+					showStackTrace();
+				}
+				// END AGT#3 2026-10-18
 			}
 			// END KGU#2 2015-11-24	
 		} else
@@ -1775,7 +3144,7 @@ public class Executor implements Runnable
 							if (this.callers.isEmpty())
 							{
 								// START KGU#197 2016-05-25: Translate the headline!
-								String header = control.lbReturnedResult.getText();
+								String header = Control.lbReturnedResult.getText();
 								// END KGU#197 2016-05-25
 								// START KGU#133 2016-01-09: Show large arrays in a listview
 								//JOptionPane.showMessageDialog(diagram, n,
@@ -1789,7 +3158,14 @@ public class Executor implements Runnable
 								//	showArray((Object[])resObj, header, !step);
 								//	// END KGU#147 2016-01-29
 								//}
-								if (resObj instanceof ArrayList<?> || resObj instanceof HashMap<?,?>)
+								// START AGT#3 2026-10-18: Headless mode - write the result to the output
+								//if (resObj instanceof ArrayList<?> || resObj instanceof HashMap<?,?>)
+								if (this.isHeadless)
+								{
+									this.headlessOutput.println(header + ": " + prepareValueForDisplay(resObj, context.dynTypeMap));
+								}
+								else if (resObj instanceof ArrayList<?> || resObj instanceof HashMap<?,?>)
+								// END AGT#3 2026-10-18
 								{
 									showCompoundValue(resObj, header, !step);
 								}
@@ -1803,7 +3179,7 @@ public class Executor implements Runnable
 								else if (step)
 								{
 									// START KGU#160 2016-04-26: Issue #137 - also log the result to the console
-									if (this.console.logMeta()) {
+									if (this.logMeta()) {
 										this.console.writeln("*** " + header + ": " + prepareValueForDisplay(resObj, context.dynTypeMap), Color.CYAN);
 									}
 									// END KGU#160 2016-04-26
@@ -1813,7 +3189,7 @@ public class Executor implements Runnable
 								else
 								{
 									// START KGU#198 2016-05-25: Issue #137 - also log the result to the console
-									if (this.console.logMeta()) {
+									if (this.logMeta()) {
 										this.console.writeln("*** " + header + ": " + prepareValueForDisplay(resObj, context.dynTypeMap), Color.CYAN);
 									}
 									// END KGU#198 2016-05-25
@@ -1861,7 +3237,10 @@ public class Executor implements Runnable
 		// START KGU 2015-10-13: Unsets all execution flags in the diagram
 		// START KGU#430 2017-10-12: Issue #432 Reduce redraw() calls at least if delay = 0
 		//diagram.clearExecutionStatus();
-		if (delay > 0) {
+		// START AGT#3 2026-10-18: Headless mode (with delay 0)
+		//if (delay > 0) {
+		if (delay > 0 && !this.isHeadless) {
+		// END AGT#3 2026-10-18
 			diagram.clearExecutionStatus();
 		}
 		else {
@@ -1869,7 +3248,12 @@ public class Executor implements Runnable
 		}
 		// END KGU#430 2017-10-12
 		// END KGU 2015-10-13
-		diagram.setAnalyser(analyserState);
+		// START AGT#3 2026-10-18: Headless mode - no diagram
+		//diagram.setAnalyser(analyserState);
+		if (!this.isHeadless) {
+			diagram.setAnalyser(analyserState);
+		}
+		// END AGT#3 2026-10-18
 
 		if (successful)
 		{
@@ -1885,6 +3269,9 @@ public class Executor implements Runnable
 	private String importSpecifiedIncludables(Root root) {
 		String errorString = "";
 		if (root.includeList != null) {
+			// START AGT#13 2026-10-18: Variables existing before may shadow imported ones
+			StringList formerVariables = context.variables.copy();
+			// END AGT#13 2026-10-18
 			root.waited = true;
 			root.isIncluding = true;
 			for (int i = 0; errorString.isEmpty() && i < root.includeList.count(); i++) {
@@ -1944,7 +3331,7 @@ public class Executor implements Runnable
 					// START KGU#197 2016-07-27: Now translatable message
 					//trouble = "A subroutine diagram " + f.getName() + " (" + f.paramCount() + 
 					//		" parameters) could not be found!\nConsider starting the Arranger and place needed subroutine diagrams there first.";
-					errorString = control.msgNoInclDiagram.getText().
+					errorString = Control.msgNoInclDiagram.getText().
 							replace("%", diagrName);
 					// END KGU#197 2016-07-27
 				}
@@ -1953,6 +3340,14 @@ public class Executor implements Runnable
 				root.waited = false;
 				root.isIncluding = false;
 			}
+			// START AGT#13 2026-10-18: Now the imported variables coincide (except shadowed ones)
+			this.markImportsSynced(context);
+			if (context.frame != null) {
+				for (int i = 0; i < formerVariables.count(); i++) {
+					context.frame.markModified(formerVariables.get(i));
+				}
+			}
+			// END AGT#13 2026-10-18
 		}
 		return errorString;
 	}
@@ -2047,7 +3442,7 @@ public class Executor implements Runnable
 		
 		// END KGU#147 2016-01-29
 		// START KGU#160 2016-04-26: Issue #137 - also log the result to the console
-		if (this.console.logMeta()) {
+		if (this.logMeta()) {
 			this.console.writeln("*** " + _title + ":", Color.CYAN);
 		}
 		// END KGU#160 2016-04-26
@@ -2059,7 +3454,7 @@ public class Executor implements Runnable
 			{
 				String valLine = "[" + i + "]  " + prepareValueForDisplay(array.get(i), context.dynTypeMap);
 				// START KGU#160 2016-04-26: Issue #137 - also log the result to the console
-				if (this.console.logMeta()) {
+				if (this.logMeta()) {
 					this.console.writeln("\t" + valLine, Color.CYAN);
 				}
 				// END KGU#160 2016-04-26
@@ -2071,7 +3466,7 @@ public class Executor implements Runnable
 			HashMap<String, Object> record = (HashMap<String, Object>)_arrayOrRecord;
 			if (record.containsKey("§TYPENAME§")) {
 				String valLine = "== " + record.get("§TYPENAME§") + " ==";
-				if (this.console.logMeta()) {
+				if (this.logMeta()) {
 					this.console.writeln("\t" + valLine, Color.CYAN);
 				}
 				arrayContent.add(valLine);				
@@ -2080,7 +3475,7 @@ public class Executor implements Runnable
 			{
 				if (!entry.getKey().startsWith("§")) {
 					String valLine = entry.getKey() + ":  " + prepareValueForDisplay(entry.getValue(), context.dynTypeMap);
-					if (this.console.logMeta()) {
+					if (this.logMeta()) {
 						this.console.writeln("\t" + valLine, Color.CYAN);
 					}
 					arrayContent.add(valLine);
@@ -2089,7 +3484,7 @@ public class Executor implements Runnable
 		}
 		else {
 			String valLine = prepareValueForDisplay(_arrayOrRecord, context.dynTypeMap);
-			if (this.console.logMeta()) {
+			if (this.logMeta()) {
 				this.console.writeln("\t" + valLine, Color.CYAN);
 			}
 			arrayContent.add(valLine);
@@ -2114,6 +3509,29 @@ public class Executor implements Runnable
 		boolean cloned = false;
 		Root root = subRoot;
 		Object resultObject = null;
+		// START AGT#18 2026-10-18
+		String signature = null;
+		if (this.eventDispatcher != null) {
+			signature = subRoot.getSignatureString(false);
+			this.postEvent(ExecutionEvent.Kind.CALL_ENTERED, subRoot, signature, null);
+		}
+		// END AGT#18 2026-10-18
+		// START AGT#16 2026-10-18: Fast evaluation - look for a memoized result first
+		ArrayList<Object> memoKey = null;
+		if (this.fastEvaluation && arguments != null && !Element.E_COLLECTRUNTIMEDATA
+				&& this.isPureFunction(subRoot)
+				&& (memoKey = getMemoKey(subRoot, arguments)) != null) {
+			synchronized (this.memoTable) {
+				resultObject = this.memoTable.get(memoKey);
+			}
+			if (resultObject != null) {
+				// START AGT#18 2026-10-18
+				this.postEvent(ExecutionEvent.Kind.CALL_LEFT, subRoot, signature, resultObject);
+				// END AGT#18 2026-10-18
+				return resultObject;
+			}
+		}
+		// END AGT#16 2026-10-18
 		// START KGU#384 2017-04-22: Replaced by the ExecutionContext cartridge
 //		Root oldRoot = this.diagram.getRoot();
 //		ExecutionStackEntry entry = new ExecutionStackEntry(
@@ -2138,16 +3556,32 @@ public class Executor implements Runnable
 		// START KGU#2 2015-10-18: cross-NSD subroutine execution?
 		// END KGU#384 2017-04-22
 		// START KGU#376 2017-04-21: Update all current imports before sub execution
+		// START AGT#13 2026-10-18: Only propagate the variables modified since the last update
+//		for (int i = 0; i < context.importList.count(); i++) {
+//			String impName = context.importList.get(i);
+//			// FIXME This retrieval is a little awkward - maybe the importList should be a set of Root
+//			for (Root impRoot: this.importMap.keySet()) {
+//				if (impRoot.getMethodName().equals(impName)) {
+//					ImportInfo info = this.importMap.get(impRoot);
+//					this.copyInterpreterContents(context.interpreter, info.interpreter, info.variableNames, impRoot.constants.keySet(), true);
+//				}
+//			}
+//		}
+		// Versions of the imported values after the update (to tell whether the called routine changed them)
+		HashMap<ImportInfo, Long> importVersions = new HashMap<ImportInfo, Long>();
 		for (int i = 0; i < context.importList.count(); i++) {
-			String impName = context.importList.get(i);
-			// FIXME This retrieval is a little awkward - maybe the importList should be a set of Root
-			for (Root impRoot: this.importMap.keySet()) {
-				if (impRoot.getMethodName().equals(impName)) {
-					ImportInfo info = this.importMap.get(impRoot);
-					this.copyInterpreterContents(context.interpreter, info.interpreter, info.variableNames, impRoot.constants.keySet(), true);
+			for (Root impRoot: this.getImportsByName(context.importList.get(i))) {
+				ImportInfo info = this.importMap.get(impRoot);
+				StringList varNames = this.getImportedVariablesToPropagate(context, impRoot, info);
+				if (varNames.count() > 0
+						&& this.copyInterpreterContents(context.interpreter, info.interpreter, varNames, impRoot.constants.keySet(), true)) {
+					info.version++;
 				}
+				importVersions.put(info, info.version);
 			}
 		}
+		this.markImportsSynced(context);
+		// END AGT#13 2026-10-18
 		// START KGU#384 2017-04-22 Is done below now, when setting up the new context
 //		if (!subRoot.isProgram) {
 //			// It's not an import, so start with a new importList 
@@ -2168,7 +3602,10 @@ public class Executor implements Runnable
 		// END KGU#384 2017-04-22
 		
 		// If the found subroutine is already an active caller, then we need a new instance of it
-		if (root.isCalling)
+		// START AGT#8 2026-10-18: Concurrent branches must not share the element states
+		//if (root.isCalling)
+		if (root.isCalling || this.parentExecutor != null)
+		// END AGT#8 2026-10-18
 		{
 			root = (Root)root.copy();
 			root.isCalling = false;
@@ -2178,18 +3615,37 @@ public class Executor implements Runnable
 		// START KGU#384 2017-04-22: Execution context redesign
 		if (root.isInclude()) {
 			// For an import Call continue the importList recursively
-			this.context = new ExecutionContext(root, this.context.importList);
+			// START AGT#5 2026-10-18: Interpreter based on the prototype namespace
+			//this.context = new ExecutionContext(root, this.context.importList);
+			// START AGT#12 2026-10-18
+			//this.context = new ExecutionContext(root, this.context.importList, createInterpreter());
+			this.context = createContext(root, this.context.importList);
+			// END AGT#12 2026-10-18
+			// END AGT#5 2026-10-18
 		}
 		else {
 			// For a subroutine call, start with a new import list
-			this.context = new ExecutionContext(root);
-		}
-		initInterpreter();
+			// START AGT#5 2026-10-18: Interpreter based on the prototype namespace
+			//this.context = new ExecutionContext(root);
+			// START AGT#12 2026-10-18
+			//this.context = new ExecutionContext(root, null, createInterpreter());
+			this.context = createContext(root, null);
+			// END AGT#12 2026-10-18
+			// END AGT#5 2026-10-18
+		}
+		// START AGT#5 2026-10-18: Now done once in createInterpreter()
+		//initInterpreter();
+		// END AGT#5 2026-10-18
 		// END KGU#384 2017-04-22
 		
 		// START KGU#430 2017-10-12: Issue #432 reduce redraw() calls on delay 0
 		//this.diagram.setRoot(root, !Element.E_AUTO_SAVE_ON_EXECUTE);
-		this.diagram.setRoot(root, !Element.E_AUTO_SAVE_ON_EXECUTE, delay > 0);
+		// START AGT#3 2026-10-18: Headless mode - no diagram
+		//this.diagram.setRoot(root, !Element.E_AUTO_SAVE_ON_EXECUTE, delay > 0);
+		if (!this.isHeadless) {
+			this.diagram.setRoot(root, !Element.E_AUTO_SAVE_ON_EXECUTE, delay > 0);
+		}
+		// END AGT#3 2026-10-18
 		// END KGU#430 2017-10-12
 		
 		// START KGU#156 2016-03-11: Enh. #124 - detect execution counter diff.
@@ -2252,7 +3708,10 @@ public class Executor implements Runnable
 					entry.constants.put(constEntry.getKey(), constEntry.getValue());
 				}
 			}	
-			this.importMap.put(subRoot, new ImportInfo(this.context.interpreter, this.context.variables, this.context.dynTypeMap));
+			// START AGT#13 2026-10-18
+			//this.importMap.put(subRoot, new ImportInfo(this.context.interpreter, this.context.variables, this.context.dynTypeMap));
+			this.registerImport(subRoot, new ImportInfo(this.context.interpreter, this.context.variables, this.context.dynTypeMap));
+			// END AGT#13 2026-10-18
 			context.importList.addIfNew(subRoot.getMethodName());
 			// TODO: Check this for necessity and soundness!
 			for (Entry<String, String> constEntry: subRoot.constants.entrySet()) {
@@ -2263,19 +3722,45 @@ public class Executor implements Runnable
 		}
 		else {
 			// Subroutines may have updated definitions from import diagrams - we must get aware of these changes 
+			// START AGT#13 2026-10-18: Only propagate the modified variables, only update the caller if necessary
+//			for (int i = 0; i < context.importList.count(); i++) {
+//				String impName = context.importList.get(i);
+//				// FIXME This retrieval is a little awkward - maybe the importList should be a set of Root
+//				for (Root impRoot: this.importMap.keySet()) {
+//					if (impRoot.getMethodName().equals(impName)) {
+//						ImportInfo info = this.importMap.get(impRoot);
+//						if (this.copyInterpreterContents(context.interpreter, info.interpreter, info.variableNames, impRoot.constants.keySet(), true)
+//								&& entry.importList.contains(impName)) {
+//							this.copyInterpreterContents(info.interpreter, entry.interpreter, info.variableNames, impRoot.constants.keySet(), true);
+//						}
+//					}
+//				}
+//			}
+			// The caller was up to date before the call, so it will be afterwards (unless it changed meanwhile)
+			boolean callerSynced = entry.frame != null && entry.importsSyncedAt == entry.frame.getModCount();
 			for (int i = 0; i < context.importList.count(); i++) {
 				String impName = context.importList.get(i);
-				// FIXME This retrieval is a little awkward - maybe the importList should be a set of Root
-				for (Root impRoot: this.importMap.keySet()) {
-					if (impRoot.getMethodName().equals(impName)) {
-						ImportInfo info = this.importMap.get(impRoot);
-						if (this.copyInterpreterContents(context.interpreter, info.interpreter, info.variableNames, impRoot.constants.keySet(), true)
-								&& entry.importList.contains(impName)) {
+				for (Root impRoot: this.getImportsByName(impName)) {
+					ImportInfo info = this.importMap.get(impRoot);
+					StringList varNames = this.getImportedVariablesToPropagate(context, impRoot, info);
+					if (varNames.count() > 0
+							&& this.copyInterpreterContents(context.interpreter, info.interpreter, varNames, impRoot.constants.keySet(), true)) {
+						info.version++;
+					}
+					if (entry.importList.contains(impName)) {
+						Long versionBefore = importVersions.get(info);
+						// Concurrent branches might share the import info, so don't rely on the version then
+						if (versionBefore == null || versionBefore != info.version || this.parentExecutor != null) {
 							this.copyInterpreterContents(info.interpreter, entry.interpreter, info.variableNames, impRoot.constants.keySet(), true);
 						}
+						entry.importVersions.put(impRoot, info.version);
 					}
 				}
 			}
+			if (callerSynced) {
+				entry.importsSyncedAt = entry.frame.getModCount();
+			}
+			// END AGT#13 2026-10-18
 		}
 //		// END KGU#376 2017-04-21
 		// START KGU#384 2017-04-22: Now done at once with the entire context cartridge
@@ -2292,7 +3777,12 @@ public class Executor implements Runnable
 		
 		// START KGU#430 2017-10-12: Issue #432 reduce redraw() calls on delay 0
 		//this.diagram.setRoot(entry.root, !Element.E_AUTO_SAVE_ON_EXECUTE);
-		this.diagram.setRoot(entry.root, !Element.E_AUTO_SAVE_ON_EXECUTE, delay > 0);
+		// START AGT#3 2026-10-18: Headless mode - no diagram
+		//this.diagram.setRoot(entry.root, !Element.E_AUTO_SAVE_ON_EXECUTE, delay > 0);
+		if (!this.isHeadless) {
+			this.diagram.setRoot(entry.root, !Element.E_AUTO_SAVE_ON_EXECUTE, delay > 0);
+		}
+		// END AGT#3 2026-10-18
 		// END KGU#430 2017-10-12
 		entry.root.isCalling = false;
 
@@ -2314,6 +3804,17 @@ public class Executor implements Runnable
 		}
 		catch (EvalError ex) {}
 		
+		// START AGT#16 2026-10-18: Fast evaluation - memoize the result unless the execution failed
+		if (memoKey != null && !this.stop && isImmutableScalar(resultObject)) {
+			synchronized (this.memoTable) {
+				this.memoTable.put(memoKey, resultObject);
+			}
+		}
+		// END AGT#16 2026-10-18
+		// START AGT#18 2026-10-18
+		this.postEvent(ExecutionEvent.Kind.CALL_LEFT, subRoot, signature, resultObject);
+		// END AGT#18 2026-10-18
+		
 		return resultObject;
 	}
 	
@@ -2331,7 +3832,7 @@ public class Executor implements Runnable
 		}
 		this.stackTrace.add(_root.getMethodName() + argumentString);
 		// START KGU#569 2018-08-03: Enh. #577 - optional call trace in console window
-		if (this.console.logCalls()) {
+		if (this.logCalls()) {
 			int depth = this.stackTrace.count() - 1;
 			for (int i = 0; i < Math.min(MAX_STACK_INDENT, depth); i++) {
 				this.console.write("  ");
@@ -2352,7 +3853,7 @@ public class Executor implements Runnable
 		{
 			size--;
 			// START KGU#569 2018-08-03: Enh. #577 - optional call trace in console window
-			if (this.console.logCalls()) {
+			if (this.logCalls()) {
 				for (int i = 0; i < Math.min(MAX_STACK_INDENT, size); i++) {
 					this.console.write("  ");
 				}
@@ -2427,20 +3928,312 @@ public class Executor implements Runnable
      * @throws Exception 
      */
     public Root findSubroutineWithSignature(String name, int nArgs) throws Exception
+    {
+    	// START AGT#9 2026-10-18: Delegate to the caching variant
+    	return findSubroutineWithSignature(name, nArgs, null);
+    	// END AGT#9 2026-10-18
+    }
+    
+    // START AGT#9 2026-10-18: Lookup with call target cache
+    /**
+     * Searches all known pools for subroutines with a signature compatible to name(arg1, arg2, ..., arg_nArgs).
+     * If {@code _call} is given then the diagram found in the pools is cached for this {@link Call} element
+     * until some routine pool reports a change.
+     * @param name - function name
+     * @param nArgs - number of parameters of the requested function
+     * @param _call - the calling element (may be null)
+     * @return a Root that matches the specification if uniquely found, null otherwise
+     * @throws Exception on ambiguity
+     */
+    private Root findSubroutineWithSignature(String name, int nArgs, Call _call) throws Exception
     {
     	Root subroutine = null;
     	// First test whether the current root calls itself recursively
-    	Root root = diagram.getRoot();
+    	// START AGT#3 2026-10-18: Headless mode
+    	//Root root = diagram.getRoot();
+    	Root root = this.getCurrentRoot();
+    	// END AGT#3 2026-10-18
     	if (name.equals(root.getMethodName()) && nArgs == root.getParameterNames().count())
     	{
     		subroutine = root;
     	}
+    	if (subroutine == null && _call != null) {
+    		subroutine = this.callTargetCache.get(_call);
+    	}
     	if (subroutine == null) {
     		subroutine = findDiagramWithSignature(name, nArgs);
+    		if (subroutine != null && _call != null) {
+    			this.callTargetCache.put(_call, subroutine);
+    		}
     	}
     	return subroutine;
     }
     
+    /* (non-Javadoc)
+     * @see lu.fisch.structorizer.executor.IRoutinePoolListener#routinePoolChanged(lu.fisch.structorizer.executor.IRoutinePool)
+     */
+    @Override
+    public void routinePoolChanged(IRoutinePool _source)
+    {
+    	// Diagrams may have been added, removed, renamed or changed in their parameter lists
+    	this.callTargetCache.clear();
+    	// START AGT#16 2026-10-18: Purity may depend on the resolved call targets
+    	this.pureFunctions.clear();
+    	synchronized (this.memoTable) {
+    		this.memoTable.clear();
+    	}
+    	// END AGT#16 2026-10-18
+    }
+    // END AGT#9 2026-10-18
+    
+    // START AGT#18 2026-10-18: Listener API for external tools
+    /**
+     * Registers a listener to be informed about the progress of executions (steps, subroutine calls,
+     * variable assignments, output, errors). The events are delivered asynchronously on a dispatcher
+     * thread; the execution is never held up by listeners (if they can't keep pace, events get dropped).
+     * @param _listener - the listener to be added
+     * @see #removeExecutionListener(IExecutionListener)
+     * @see ExecutionEvent
+     */
+    public synchronized void addExecutionListener(IExecutionListener _listener)
+    {
+    	if (this.eventDispatcher == null) {
+    		this.eventDispatcher = new ExecutionEventDispatcher();
+    	}
+    	this.eventDispatcher.addListener(_listener);
+    }
+    
+    /**
+     * Unregisters the given execution listener.
+     * @param _listener - the listener to be removed
+     * @see #addExecutionListener(IExecutionListener)
+     */
+    public synchronized void removeExecutionListener(IExecutionListener _listener)
+    {
+    	if (this.eventDispatcher != null) {
+    		this.eventDispatcher.removeListener(_listener);
+    	}
+    }
+    
+    /**
+     * @return the dispatcher of the execution events (e.g. in order to await the delivery of
+     * all events or to retrieve the number of dropped events), null if no listener was ever added.
+     */
+    public ExecutionEventDispatcher getEventDispatcher()
+    {
+    	return this.eventDispatcher;
+    }
+    
+    /**
+     * Posts an event to the execution listeners if there are any.
+     * @see ExecutionEventDispatcher#post(ExecutionEvent.Kind, Element, String, Object, int)
+     */
+    private void postEvent(ExecutionEvent.Kind _kind, Element _element, String _name, Object _value)
+    {
+    	if (this.eventDispatcher != null) {
+    		this.eventDispatcher.post(_kind, _element, _name, _value, this.callers.size());
+    	}
+    }
+    // END AGT#18 2026-10-18
+    
+    // START AGT#17 2026-10-18: File API encoding
+    /**
+     * Sets the character set the file API routines (fileOpen, fileCreate, fileAppend) use to
+     * decode or encode text files. Takes effect with the next execution.
+     * @param _charset - the character set (null means UTF-8)
+     */
+    public void setFileCharset(Charset _charset)
+    {
+    	this.fileCharset = (_charset != null) ? _charset : Charset.forName("UTF-8");
+    }
+    
+    /**
+     * @return the character set used by the file API routines
+     * @see #setFileCharset(Charset)
+     */
+    public Charset getFileCharset()
+    {
+    	return this.fileCharset;
+    }
+    // END AGT#17 2026-10-18
+    
+    // START AGT#16 2026-10-18: Memoization of pure functions
+    /**
+     * Enables or disables "fast evaluation", i.e. the memoization of results of pure subroutine
+     * diagrams (see {@link #isPureFunction(Root)}) by argument tuple. Only calls with scalar
+     * arguments (numbers, strings, characters, booleans) yielding a scalar result are memoized.
+     * As memoized calls aren't executed again, neither their steps nor breakpoints within them
+     * will be regarded. Memoization is suspended while run data are collected.
+     * @param _fastEvaluation - true to enable memoization
+     */
+    public void setFastEvaluation(boolean _fastEvaluation)
+    {
+    	this.fastEvaluation = _fastEvaluation;
+    	if (!_fastEvaluation) {
+    		synchronized (this.memoTable) {
+    			this.memoTable.clear();
+    		}
+    	}
+    }
+    
+    /**
+     * @return true if results of pure subroutine diagrams are memoized
+     * @see #setFastEvaluation(boolean)
+     */
+    public boolean isFastEvaluation()
+    {
+    	return this.fastEvaluation;
+    }
+    
+    /**
+     * Checks whether the given diagram is a pure subroutine, i.e. its result depends on nothing but
+     * its arguments and its execution has no side effects: it doesn't include diagrams (whose variables
+     * might be read or modified), contains neither input, output, exit, nor Parallel elements, doesn't
+     * use random numbers, the file API, or diagram controller routines, and all subroutine diagrams
+     * called by it are pure as well.
+     * @param _root - the diagram to be analysed
+     * @return true if {@code _root} is a pure subroutine
+     */
+    private boolean isPureFunction(Root _root)
+    {
+    	Boolean pure = this.pureFunctions.get(_root.getId());
+    	if (pure == null) {
+    		pure = new PurityChecker().check(_root);
+    		this.pureFunctions.put(_root.getId(), pure);
+    	}
+    	return pure;
+    }
+    
+    /**
+     * Element visitor for the purity analysis, following the calls of subroutine diagrams.
+     * Recursive calls are assumed to be pure.
+     * @see Executor#isPureFunction(Root)
+     */
+    private final class PurityChecker implements IElementVisitor {
+    	/** Names of the routines with side effects or nondeterministic results (lower case) */
+    	private final Set<String> impureNames = new HashSet<String>();
+    	/** Diagrams already analysed (or being analysed) */
+    	private final Set<Root> visited = new HashSet<Root>();
+    	private Root currentRoot = null;
+    	private boolean pure = true;
+    	
+    	public PurityChecker()
+    	{
+    		impureNames.add("random");
+    		impureNames.add("randomize");
+    		for (String name: fileAPI_names) {
+    			impureNames.add(name.toLowerCase());
+    		}
+    		impureNames.addAll(controllerFunctionNames);
+    		for (String key: controllerProcedures.keySet()) {
+    			impureNames.add(key.substring(0, key.indexOf('#')).toLowerCase());
+    		}
+    	}
+    	
+    	public boolean check(Root _root)
+    	{
+    		if (!visited.add(_root)) {
+    			return pure;
+    		}
+    		Boolean known = pureFunctions.get(_root.getId());
+    		if (known != null) {
+    			pure = pure && known;
+    		}
+    		else if (!_root.isSubroutine() || _root.includeList != null && _root.includeList.count() > 0) {
+    			pure = false;
+    		}
+    		else {
+    			Root outerRoot = currentRoot;
+    			currentRoot = _root;
+    			_root.children.traverse(this);
+    			currentRoot = outerRoot;
+    		}
+    		return pure;
+    	}
+    	
+    	@Override
+    	public boolean visitPreOrder(Element _ele)
+    	{
+    		if (_ele instanceof Parallel || _ele instanceof Jump && ((Jump)_ele).isExit()) {
+    			pure = false;
+    		}
+    		else if (_ele instanceof Instruction && (((Instruction)_ele).isInput() || ((Instruction)_ele).isOutput())) {
+    			pure = false;
+    		}
+    		StringList lines = _ele.getUnbrokenText();
+    		for (int i = 0; pure && i < lines.count(); i++) {
+    			StringList tokens = Element.splitLexically(lines.get(i), true);
+    			for (int j = 0; pure && j < tokens.count(); j++) {
+    				if (impureNames.contains(tokens.get(j).toLowerCase())) {
+    					pure = false;
+    				}
+    			}
+    			if (pure && _ele instanceof Instruction) {
+    				checkCalledDiagram(tokens);
+    			}
+    		}
+    		return pure;
+    	}
+    	
+    	@Override
+    	public boolean visitPostOrder(Element _ele)
+    	{
+    		return pure;
+    	}
+    	
+    	/** Analyses the subroutine diagram called by the given instruction line (if any) */
+    	private void checkCalledDiagram(StringList _tokens)
+    	{
+    		int asgnPos = _tokens.indexOf("<-");
+    		if (asgnPos < 0) {
+    			asgnPos = _tokens.indexOf(":=");
+    		}
+    		String expr = _tokens.concatenate("", asgnPos + 1);
+    		if (Function.isFunction(expr)) {
+    			Function fct = new Function(expr);
+    			String name = fct.getName();
+    			int nArgs = fct.paramCount();
+    			if (!name.equals(currentRoot.getMethodName()) || nArgs != currentRoot.getParameterNames().count()) {
+    				try {
+    					Root called = findDiagramWithSignature(name, nArgs);
+    					if (called != null) {
+    						check(called);
+    					}
+    				}
+    				catch (Exception ex) {
+    					// Ambiguous call - better not memoize
+    					pure = false;
+    				}
+    			}
+    		}
+    	}
+    }
+    
+    /**
+     * Builds the memoization key for a call of {@code _root} with the given arguments
+     * @return the key or null if some of the arguments isn't an immutable scalar value
+     */
+    private static ArrayList<Object> getMemoKey(Root _root, Object[] _arguments)
+    {
+    	ArrayList<Object> key = new ArrayList<Object>(_arguments.length + 1);
+    	key.add(_root.getId());
+    	for (Object arg: _arguments) {
+    		if (!isImmutableScalar(arg)) {
+    			return null;
+    		}
+    		key.add(arg);
+    	}
+    	return key;
+    }
+    
+    private static boolean isImmutableScalar(Object _value)
+    {
+    	return _value instanceof Integer || _value instanceof Double || _value instanceof Long
+    			|| _value instanceof String || _value instanceof Boolean || _value instanceof Character
+    			|| _value instanceof Float || _value instanceof Short || _value instanceof Byte;
+    }
+    // END AGT#16 2026-10-18
+    
     private Root findDiagramWithSignature(String name, int nArgs) throws Exception
     {
     	Root diagr = null;
@@ -2472,7 +4265,7 @@ public class Executor implements Runnable
     				Root cand = candidates.get(c);
     				int similarity = diagr.compareTo(cand); 
     				if (similarity > 2 && similarity != 4) {
-    					throw new Exception(control.msgAmbiguousCall.getText().replace("%1", name).replace("%2", (nArgs < 0 ? "--" : Integer.toString(nArgs))));
+    					throw new Exception(Control.msgAmbiguousCall.getText().replace("%1", name).replace("%2", (nArgs < 0 ? "--" : Integer.toString(nArgs))));
     				}
     			}
     			// END KGU#317 2016-12-29
@@ -2481,7 +4274,12 @@ public class Executor implements Runnable
     			{
     				diagr.addUpdater((Updater)pool);
     			}
-    			diagram.adoptArrangedOrphanNSD(diagr);
+    			// START AGT#3 2026-10-18: Headless mode
+    			//diagram.adoptArrangedOrphanNSD(diagr);
+    			if (!this.isHeadless) {
+    				diagram.adoptArrangedOrphanNSD(diagr);
+    			}
+    			// END AGT#3 2026-10-18
     			// END KGU#125 2016-01-05
     		}
     	}
@@ -2608,19 +4406,98 @@ public class Executor implements Runnable
 		}
 	}
 	
-	private void initInterpreter()
+	// START AGT#5 2026-10-18: Built-in functions are no longer defined in every context
+	/**
+	 * Creates a new interpreter for an execution context. Its namespace is a child of the
+	 * namespace holding the built-in functions and the file API variables (which is
+	 * set up on the first request within an execution). This way, neither the costly
+	 * configuration of a stand-alone interpreter nor the parsing of all built-in function
+	 * definitions is necessary on every subroutine call.
+	 * @return the new interpreter
+	 */
+	// START AGT#12 2026-10-18: Optionally with a variable frame
+	//private Interpreter createInterpreter()
+	private Interpreter createInterpreter(VariableFrame frame)
+	// END AGT#12 2026-10-18
+	{
+		if (this.builtInNameSpace == null) {
+			Interpreter prototype = new Interpreter();
+			initInterpreter(prototype);
+			this.builtInNameSpace = prototype.getNameSpace();
+		}
+		// START AGT#12 2026-10-18
+		if (frame != null) {
+			return new VariableFrame.FrameInterpreter(new StringReader(""), System.out, System.err,
+					new NameSpace(this.builtInNameSpace, "context"), frame);
+		}
+		// END AGT#12 2026-10-18
+		return new Interpreter(new StringReader(""), System.out, System.err, false,
+				new NameSpace(this.builtInNameSpace, "context"));
+	}
+	// END AGT#5 2026-10-18
+	
+	// START AGT#12 2026-10-18: Primitive storage of numeric variables
+	/**
+	 * Creates the execution context for the given diagram with a fresh interpreter and a
+	 * {@link VariableFrame}, the slot layout of which is derived from the variables of
+	 * {@code root} only once per execution.
+	 * @param root - the diagram to be executed in the new context
+	 * @param importList - names of the includables to be considered (may be null)
+	 * @return the new context
+	 */
+	private ExecutionContext createContext(Root root, StringList importList)
+	{
+		Long id = root.getId();
+		VariableFrame.Layout layout = this.frameLayouts.get(id);
+		if (layout == null) {
+			layout = new VariableFrame.Layout(root);
+			this.frameLayouts.put(id, layout);
+		}
+		VariableFrame frame = new VariableFrame(layout);
+		return new ExecutionContext(root, importList, createInterpreter(frame), frame);
+	}
+	// END AGT#12 2026-10-18
+
+	// START AGT#5 2026-10-18: Now only applied to the prototype interpreter
+	//private void initInterpreter()
+	private void initInterpreter(Interpreter interpreter)
+	// END AGT#5 2026-10-18
 	{
 		try
 		{
 			// STRT KGU#384 2017-04-22: Redesign of execution context
 			//interpreter = new Interpreter();
-			Interpreter interpreter = this.context.interpreter;
+			//Interpreter interpreter = this.context.interpreter;	// AGT#5 2026-10-18: now the argument
 			// END KGU#384 2017-04-22
 
 			// START KGU 2016-12-18: #314: Support for simple text file API
-			interpreter.set("executorFileMap", this.openFiles);
-			interpreter.set("executorCurrentDirectory", 
-					(diagram.currentDirectory.isDirectory() ? diagram.currentDirectory : diagram.currentDirectory.getParentFile()).getAbsolutePath());
+			// START AGT#17 2026-10-18: The file API is now a compiled object
+			//interpreter.set("executorFileMap", this.openFiles);
+			// END AGT#17 2026-10-18
+			// START AGT#3 2026-10-18: Headless mode - use the directory of the diagram file
+			//interpreter.set("executorCurrentDirectory", 
+			//		(diagram.currentDirectory.isDirectory() ? diagram.currentDirectory : diagram.currentDirectory.getParentFile()).getAbsolutePath());
+			File currentDir = null;
+			if (this.isHeadless) {
+				File rootFile = this.headlessRoot.getFile();
+				currentDir = (rootFile != null) ? rootFile.getAbsoluteFile().getParentFile() : null;
+				if (currentDir == null) {
+					currentDir = new File(System.getProperty("user.dir"));
+				}
+			}
+			else {
+				currentDir = diagram.currentDirectory.isDirectory() ? diagram.currentDirectory : diagram.currentDirectory.getParentFile();
+			}
+			// START AGT#17 2026-10-18: The file API is now a compiled object
+			//interpreter.set("executorCurrentDirectory", currentDir.getAbsolutePath());
+			FileAPI fileAPI = new FileAPI(this.openFiles, currentDir.getAbsoluteFile());
+			fileAPI.setCharset(this.fileCharset);
+			interpreter.set("executorFileAPI", fileAPI);
+			for (String[] adapter: fileAPIAdapters) {
+				interpreter.eval(makeFileAPIAdapter(adapter));
+			}
+			// END AGT#17 2026-10-18
+			// END AGT#3 2026-10-18
 			// END KGU 2016-12-18
 
 			for (int i = 0; i < builtInFunctions.length; i++) {
@@ -2634,6 +4511,29 @@ public class Executor implements Runnable
 		}
 	}
 	
+	// START AGT#17 2026-10-18
+	/**
+	 * Composes the interpreter method definition delegating to the {@link FileAPI} object.
+	 * @param adapter - an entry of {@link #fileAPIAdapters}
+	 * @return the method definition
+	 */
+	private String makeFileAPIAdapter(String[] adapter)
+	{
+		StringBuilder sb = new StringBuilder("public ");
+		sb.append(adapter[0]).append(" ").append(adapter[1]).append("(").append(adapter[2]).append(") { ");
+		if (adapter[4] != null) {
+			String message = (adapter[4].equals("isWritable") ? Control.msgInvalidFileNumberWrite : Control.msgInvalidFileNumberRead).getText();
+			sb.append("if (!executorFileAPI.").append(adapter[4]).append("(fileNo)) { throw new java.io.IOException(\"");
+			sb.append(message.replace("\\", "\\\\").replace("\"", "\\\"")).append("\"); } ");
+		}
+		if (!adapter[0].equals("void")) {
+			sb.append("return ");
+		}
+		sb.append("executorFileAPI.").append(adapter[1]).append("(").append(adapter[3]).append("); }");
+		return sb.toString();
+	}
+	// END AGT#17 2026-10-18
+	
 	// Test for Interpreter routines
 //	public Object structorizerGetScannedObject(java.util.Scanner sc) {
 //		Object result = null; 
@@ -2860,6 +4760,96 @@ public class Executor implements Runnable
 		return somethingCopied;
 	}
 	// END KGU#376 2017-04-20
+	
+	// START AGT#13 2026-10-18: Support for the incremental propagation of imported variables
+	/**
+	 * Registers the results of an executed import diagram
+	 * @param _impRoot - the imported diagram
+	 * @param _info - the import results
+	 */
+	private void registerImport(Root _impRoot, ImportInfo _info)
+	{
+		this.importMap.put(_impRoot, _info);
+		String name = _impRoot.getMethodName();
+		Vector<Root> roots = this.importsByName.get(name);
+		if (roots == null) {
+			this.importsByName.put(name, roots = new Vector<Root>());
+		}
+		if (!roots.contains(_impRoot)) {
+			roots.add(_impRoot);
+		}
+	}
+	
+	/**
+	 * @param _name - a diagram name (as held in an import list)
+	 * @return the executed import diagrams with name {@code _name} (may be empty)
+	 */
+	private Vector<Root> getImportsByName(String _name)
+	{
+		Vector<Root> roots = this.importsByName.get(_name);
+		if (roots == null) {
+			roots = new Vector<Root>();
+		}
+		return roots;
+	}
+	
+	/**
+	 * Identifies the variables imported from {@code _impRoot} that are to be copied from the given
+	 * context to the held import values, i.e. those that may have been modified since the context
+	 * was synchronized with them. If the held values have changed meanwhile (e.g. by a subroutine
+	 * not importing {@code _impRoot} itself) then all variables are to be copied, as before.
+	 * @param _context - an execution context
+	 * @param _impRoot - an imported diagram
+	 * @param _info - the held import values of {@code _impRoot}
+	 * @return the names of the variables to be copied
+	 * @see #markImportsSynced(ExecutionContext)
+	 */
+	private StringList getImportedVariablesToPropagate(ExecutionContext _context, Root _impRoot, ImportInfo _info)
+	{
+		Long syncedVersion = _context.importVersions.get(_impRoot);
+		if (_context.frame == null || _context.importsSyncedAt < 0
+				|| syncedVersion == null || syncedVersion != _info.version) {
+			return _info.variableNames;
+		}
+		return restrictVariableList(_info.variableNames, _context.frame.getModifiedSince(_context.importsSyncedAt));
+	}
+	
+	/**
+	 * Records that the imported variables of the given context now coincide with the held values
+	 * of all imported diagrams.
+	 * @param _context - an execution context
+	 */
+	private void markImportsSynced(ExecutionContext _context)
+	{
+		if (_context.frame != null) {
+			_context.importsSyncedAt = _context.frame.getModCount();
+			for (int i = 0; i < _context.importList.count(); i++) {
+				for (Root impRoot: this.getImportsByName(_context.importList.get(i))) {
+					_context.importVersions.put(impRoot, this.importMap.get(impRoot).version);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @param _varNames - a list of variable names
+	 * @param _modified - names of the modified variables or null (meaning all)
+	 * @return the variables of {@code _varNames} that are contained in {@code _modified}
+	 */
+	private static StringList restrictVariableList(StringList _varNames, StringList _modified)
+	{
+		if (_modified == null) {
+			return _varNames;
+		}
+		StringList restricted = new StringList();
+		for (int i = 0; i < _modified.count(); i++) {
+			if (_varNames.contains(_modified.get(i))) {
+				restricted.add(_modified.get(i));
+			}
+		}
+		return restricted;
+	}
+	// END AGT#13 2026-10-18
 
 	public boolean isNumeric(String input)
 	{
@@ -2897,7 +4887,10 @@ public class Executor implements Runnable
 		// START KGU#117/KGU#156 2016-03-13: Enh. #77 + #124
 		// It is utterly annoying when in run data mode the control always 
 		// closes after execution.
-		if (reopen || Element.E_COLLECTRUNTIMEDATA)
+		// START AGT#10 2026-10-18: Give access to the replay after a recorded run
+		//if (reopen || Element.E_COLLECTRUNTIMEDATA)
+		if (reopen || Element.E_COLLECTRUNTIMEDATA || this.traceFile != null)
+		// END AGT#10 2026-10-18
 		{
 			control.init();
 			control.validate();
@@ -2965,7 +4958,10 @@ public class Executor implements Runnable
 		{
 			diagram.redraw();
  			try {
-				updateVariableDisplay();
+				// START AGT#6 2026-10-18: Turbo mode must not suppress this update
+				//updateVariableDisplay();
+				updateVariableDisplay(true);
+				// END AGT#6 2026-10-18
 			}
 			catch (EvalError ex)
 			{
@@ -2990,7 +4986,12 @@ public class Executor implements Runnable
 	 */
 	public void setStop(boolean aStop)
 	{
-		diagram.clearExecutionStatus();
+		// START AGT#3 2026-10-18: Headless mode - no diagram
+		//diagram.clearExecutionStatus();
+		if (!this.isHeadless) {
+			diagram.clearExecutionStatus();
+		}
+		// END AGT#3 2026-10-18
 		synchronized (this)
 		{
 			stop = aStop;
@@ -2998,6 +4999,13 @@ public class Executor implements Runnable
 			step = false;
 			this.notify();
 		}
+		// START AGT#8 2026-10-18: Concurrently running branches are to be stopped as well
+		synchronized (this.activeBranches) {
+			for (Executor branch: this.activeBranches) {
+				branch.setStop(aStop);
+			}
+		}
+		// END AGT#8 2026-10-18
 	}
 
 	
@@ -3212,10 +5220,10 @@ public class Executor implements Runnable
 				tokens = tokens.subSequence(0, posColon);
 				// In case of an explicit and Pascal- or BASIC-style variable declaration the target must be an unqualified identifier
 				if (tokens.contains(".")) {
-					throw new EvalError(control.msgConstantRecordComponent.getText().replace("%", target), null, null);
+					throw new EvalError(Control.msgConstantRecordComponent.getText().replace("%", target), null, null);
 				}
 				if (tokens.contains("[")) {
-					throw new EvalError(control.msgConstantArrayElement.getText().replace("%", target), null, null);
+					throw new EvalError(Control.msgConstantArrayElement.getText().replace("%", target), null, null);
 				}
 			}
 			nTokens = tokens.count();
@@ -3230,14 +5238,14 @@ public class Executor implements Runnable
 //			// b) indexed variable or d) a C-style array declaration or g) or h)?
 //			int posLBrack = tokens.indexOf("[");
 //			if (posLBrack < 1) {
-//				throw new EvalError(control.msgInvalidExpr.getText().replace("%1", tokens.concatenate(" ")), null, null);
+//				throw new EvalError(Control.msgInvalidExpr.getText().replace("%1", tokens.concatenate(" ")), null, null);
 //			}
 //			else {
 //				name = tokens.get(posLBrack-1);
 //				if (posLBrack == 1) {
 //					indexStr = tokens.concatenate(" ");
 //					if (isConstant) {
-//						throw new EvalError(control.msgConstantArrayElement.getText().replace("%", indexStr), null, null);
+//						throw new EvalError(Control.msgConstantArrayElement.getText().replace("%", indexStr), null, null);
 //					}
 //				}
 //			}
@@ -3271,21 +5279,21 @@ public class Executor implements Runnable
 						nTokens -= 2;
 					}
 					else {
-						throw new EvalError(control.msgInvalidExpr.getText().replace("%1", target + "." + compName), null, null);
+						throw new EvalError(Control.msgInvalidExpr.getText().replace("%1", target + "." + compName), null, null);
 					}
 				}
 				if (isConstant) {
-					throw new EvalError(control.msgConstantRecordComponent.getText().replace("%", target), null, null);
+					throw new EvalError(Control.msgConstantRecordComponent.getText().replace("%", target), null, null);
 				}
 				if (this.isConstant(recordName)) {
-					throw new EvalError(control.msgConstantRedefinition.getText().replace("%", recordName), null, null);
+					throw new EvalError(Control.msgConstantRedefinition.getText().replace("%", recordName), null, null);
 				}
 			}
 			if (tokens.get(nTokens-1).equals("]")) {
 				// b) indexed variable or d) a C-style array declaration?
 				int posLBrack = tokens.indexOf("[");
 				if (posLBrack < 1 || recordName != null && posLBrack > 1) {
-					throw new EvalError(control.msgInvalidExpr.getText().replace("%1", tokens.concatenate(" ")), null, null);
+					throw new EvalError(Control.msgInvalidExpr.getText().replace("%1", tokens.concatenate(" ")), null, null);
 				}
 				else {
 					target = tokens.get(posLBrack-1);
@@ -3296,7 +5304,7 @@ public class Executor implements Runnable
 						indexStr = this.convertStringComparison(indexStr);
 						// END KGU#490 2018-02-08
 						if (isConstant) {
-							throw new EvalError(control.msgConstantArrayElement.getText().replace("%", indexStr), null, null);
+							throw new EvalError(Control.msgConstantArrayElement.getText().replace("%", indexStr), null, null);
 						}
 					}
 				}
@@ -3320,32 +5328,38 @@ public class Executor implements Runnable
 		// START KGU#307 2016-12-12: Enh. #307 - check FOR loop variable manipulation
 		if (context.forLoopVars.lastIndexOf(target, ignoreLoopStackLevel) >= 0)
 		{
-			throw new EvalError(control.msgForLoopManipulation.getText().replace("%", target), null, null);
+			throw new EvalError(Control.msgForLoopManipulation.getText().replace("%", target), null, null);
 		}
 		// END KGU#307 2016-12-12
 		
 		// ======== PHASE 3: Precautions against violation of constants ===========
 		// START KGU#375 2017-03-30: Enh. #388 - check redefinition of constant
 		if (this.isConstant(target) || recordName != null && this.isConstant(recordName)) {
-			throw new EvalError(control.msgConstantRedefinition.getText().replace("%", target), null, null);
+			throw new EvalError(Control.msgConstantRedefinition.getText().replace("%", target), null, null);
 		}
 		
 		// Avoid sharing an array if the target is a constant (while the source may not be) 
 		if (isConstant && content instanceof Object[]) {
 			// START KGU#439 2017-10-13: Enh. #436
 			//content = ((Object[])content).clone();
-			ArrayList<Object> newContent = new ArrayList<Object>(((Object[])content).length);
-			for (Object elem: (Object[])content) {
-				newContent.add(elem);
-			}
-			content = newContent;
+			// START AGT#14 2026-10-18: Arrays with numeric contents are held unboxed
+			//ArrayList<Object> newContent = new ArrayList<Object>(((Object[])content).length);
+			//for (Object elem: (Object[])content) {
+			//	newContent.add(elem);
+			//}
+			//content = newContent;
+			content = new NumericArrayList((Object[])content);
+			// END AGT#14 2026-10-18
 			// END KGU#439 2017-10-13
 		}
 		// END KGU#375 2017-03-30
 		// START KGU#439 2017-10-13: Enh. #436
 		else if (isConstant && content instanceof ArrayList<?>) {
 			// FIXME: This is only a shallow copy, we might have to clone all values as well
-			content = new ArrayList<Object>((ArrayList<Object>)content);
+			// START AGT#14 2026-10-18: Arrays with numeric contents are held unboxed
+			//content = new ArrayList<Object>((ArrayList<Object>)content);
+			content = new NumericArrayList((ArrayList<Object>)content);
+			// END AGT#14 2026-10-18
 		}
 		// END KGU#439 2017-10-13
 		// START KGU#388 2017-09-14: Enh. #423
@@ -3415,7 +5429,10 @@ public class Executor implements Runnable
 				Object targetObject = this.context.interpreter.get(target);
 				if (targetObject == null && context.dynTypeMap.containsKey(target) && context.dynTypeMap.get(target).isArray()) {
 					// KGU#432: The variable had been declared as array but not initialized - so be generous here
-					objectArray = new ArrayList<Object>();
+					// START AGT#14 2026-10-18: Arrays with numeric contents are held unboxed
+					//objectArray = new ArrayList<Object>();
+					objectArray = new NumericArrayList();
+					// END AGT#14 2026-10-18
 				}
 				else if (targetObject instanceof ArrayList<?>) {
 					objectArray = (ArrayList<Object>)targetObject;
@@ -3445,7 +5462,10 @@ public class Executor implements Runnable
 					}
 				}
 				if (comp == null) {
-					objectArray = new ArrayList<Object>();
+					// START AGT#14 2026-10-18: Arrays with numeric contents are held unboxed
+					//objectArray = new ArrayList<Object>();
+					objectArray = new NumericArrayList();
+					// END AGT#14 2026-10-18
 				}
 				else if (comp instanceof ArrayList<?>) {
 					objectArray = (ArrayList<Object>)comp;
@@ -3453,7 +5473,7 @@ public class Executor implements Runnable
 				}
 				else {
 					String valueType = Instruction.identifyExprType(context.dynTypeMap, prepareValueForDisplay(comp, null), true);
-					throw new EvalError(control.msgTypeMismatch.getText().
+					throw new EvalError(Control.msgTypeMismatch.getText().
 							replace("%1", valueType).
 									replace("%2", compType.getCanonicalType(true, true)).
 									replace("%3", target), null, null);
@@ -3473,7 +5493,10 @@ public class Executor implements Runnable
 //					objectArray[i] = new Integer(0);
 //				}
 				if (objectArray == null) {
-					objectArray = new ArrayList<Object>(index+1);
+					// START AGT#14 2026-10-18: Arrays with numeric contents are held unboxed
+					//objectArray = new ArrayList<Object>(index+1);
+					objectArray = new NumericArrayList(index+1);
+					// END AGT#14 2026-10-18
 				}
 				// This adds dummy elements until inclusively index
 				for (int i = oldSize; i <= index; i++) {
@@ -3515,7 +5538,7 @@ public class Executor implements Runnable
 				}
 				// START KGU#568 2018-08-01: Avoid a dull NullPointerException
 				else if (record == null || !(record instanceof HashMap)) {
-					throw new EvalError(control.msgInvalidRecord.getText().replace("%1", recordName).replaceAll("%2", String.valueOf(record)), null, null);
+					throw new EvalError(Control.msgInvalidRecord.getText().replace("%1", recordName).replaceAll("%2", String.valueOf(record)), null, null);
 				}
 				// END KGU#568 2018-08-01 
 				Object comp = record;
@@ -3527,7 +5550,7 @@ public class Executor implements Runnable
 						((HashMap<String, Object>)comp).put(path.get(i), subComp);
 					}
 					else if (!(subComp instanceof HashMap<?,?>)) {
-						throw new EvalError(control.msgInvalidComponent.getText().replace("%1", path.get(i-1)).replace("%2", path.concatenate(".",0,i-1)), null, null);
+						throw new EvalError(Control.msgInvalidComponent.getText().replace("%1", path.get(i-1)).replace("%2", path.concatenate(".",0,i-1)), null, null);
 					}
 					comp = subComp;
 				}
@@ -3571,7 +5594,7 @@ public class Executor implements Runnable
 					if (compType != null) {
 						compTypeStr = compType.getCanonicalType(true, true).replace("@", "array of ");
 					}
-					throw new EvalError(control.msgTypeMismatch.getText().
+					throw new EvalError(Control.msgTypeMismatch.getText().
 							replace("%1", ((HashMap<?, ?>)content).get("§TYPENAME§").toString()).
 							replace("%2", compTypeStr).
 							replace("%3", target), null, null);
@@ -3580,7 +5603,7 @@ public class Executor implements Runnable
 			else if (content != null && (context.dynTypeMap.containsKey(target) && (compType = context.dynTypeMap.get(target)) != null
 				|| typeDescr != null && typeDescr.count() == 1 && (compType = context.dynTypeMap.get("%" + typeDescr.get(0))) != null)
 					&& compType.isRecord() ) {
-				throw new EvalError(control.msgTypeMismatch.getText().
+				throw new EvalError(Control.msgTypeMismatch.getText().
 						replace("%1", content.toString()).
 						replace("%2", compType.typeName).
 						replace("%3", target), null, null);
@@ -3588,21 +5611,41 @@ public class Executor implements Runnable
 
 			// START KGU#322 2017-01-06: Bugfix #324 - an array assigned on input hindered scalar re-assignment
 			//this.interpreter.set(name, content);
-			try {
-				context.interpreter.set(target, content);
-			}
-			catch (EvalError ex) {
-				if (MTCH_EVAL_ERROR_ARRAY.reset(ex.getMessage()).matches()) {
-					// Stored array type is an obstacle for re-assignment, so drop it
-					context.interpreter.unset(target);
-					// Now try again
+			// START AGT#12 2026-10-18: Numeric values of plain variables go to the primitive slots
+//			try {
+//				context.interpreter.set(target, content);
+//			}
+//			catch (EvalError ex) {
+//				if (MTCH_EVAL_ERROR_ARRAY.reset(ex.getMessage()).matches()) {
+//					// Stored array type is an obstacle for re-assignment, so drop it
+//					context.interpreter.unset(target);
+//					// Now try again
+//					context.interpreter.set(target, content);
+//				}
+//				else {
+//					// Something different, so rethrow
+//					throw ex;
+//				}
+//			}
+			boolean storedInFrame = !isConstant && context.frame != null && context.frame.store(target, content);
+			if (!storedInFrame) {
+				try {
 					context.interpreter.set(target, content);
 				}
-				else {
-					// Something different, so rethrow
-					throw ex;
+				catch (EvalError ex) {
+					if (MTCH_EVAL_ERROR_ARRAY.reset(ex.getMessage()).matches()) {
+						// Stored array type is an obstacle for re-assignment, so drop it
+						context.interpreter.unset(target);
+						// Now try again
+						context.interpreter.set(target, content);
+					}
+					else {
+						// Something different, so rethrow
+						throw ex;
+					}
 				}
 			}
+			// END AGT#12 2026-10-18
 			// END KGU#322 2017-01-06
 			
 			// MODIFIED BY GENNARO DONNARUMMA
@@ -3622,7 +5665,10 @@ public class Executor implements Runnable
 //			this.interpreter.eval(name + " = " + content);	// What the heck is this good for, now?
 			// START KGU#99 2015-12-10: Bugfix #49 - for later comparison etc. we try to replace wrapper objects by simple values
 			// FIXME: Why is String also excluded here?
-			if (! (content instanceof String || content instanceof Character || content instanceof ArrayList<?> || content instanceof HashMap<?,?>))
+			// START AGT#12 2026-10-18: Not necessary if the frame already stored the value as primitive
+			//if (! (content instanceof String || content instanceof Character || content instanceof ArrayList<?> || content instanceof HashMap<?,?>))
+			if (!storedInFrame && ! (content instanceof String || content instanceof Character || content instanceof ArrayList<?> || content instanceof HashMap<?,?>))
+			// END AGT#12 2026-10-18
 			{
 				try {
 					this.evaluateExpression(target + " = " + content, false, false);	// Avoid the variable content to be an object
@@ -3654,6 +5700,12 @@ public class Executor implements Runnable
 //			this.control.updateVars(vars);
 //		}
 		
+		// START AGT#18 2026-10-18
+		this.postEvent(ExecutionEvent.Kind.VARIABLE_ASSIGNED, null, target, content);
+		// END AGT#18 2026-10-18
+		// START AGT#10 2026-10-18
+		this.traceAssignment(recordName != null ? recordName : target, indexStr != null || recordName != null);
+		// END AGT#10 2026-10-18
 		if (this.delay != 0 || step)
 		{
 			updateVariableDisplay();
@@ -3720,6 +5772,55 @@ public class Executor implements Runnable
 	 * of variables with it
 	 */
 	private void updateVariableDisplay() throws EvalError
+	// START AGT#6 2026-10-18: Turbo mode
+	{
+		updateVariableDisplay(false);
+	}
+
+	/**
+	 * Prepares an editable variable table and has the Control update the display
+	 * of variables with it
+	 * @param ignoreTurbo - if true then the update will also be done in turbo mode
+	 * (otherwise it's left to the periodic refresh, see {@link #refreshTurboDisplay(boolean)})
+	 */
+	private void updateVariableDisplay(boolean ignoreTurbo) throws EvalError
+	// END AGT#6 2026-10-18
+	{
+		// START AGT#3 2026-10-18: Headless mode - there is no display
+		if (this.isHeadless) {
+			return;
+		}
+		// END AGT#3 2026-10-18
+		// START AGT#6 2026-10-18: Turbo mode - the display is refreshed periodically from step()
+		if (!ignoreTurbo && this.isTurbo()) {
+			return;
+		}
+		// END AGT#6 2026-10-18
+		// START AGT#6 2026-10-18: Moved to getVariableSnapshot()
+		//Vector<String[]> vars = new Vector<String[]>();
+		//for (int i = 0; i < context.variables.count(); i++)
+		//{
+		//	String varName = context.variables.get(i);
+		//	Object val = context.interpreter.get(varName);
+		//	String valStr = prepareValueForDisplay(val, context.dynTypeMap);
+		//	vars.add(new String[]{varName, valStr});
+		//}
+		Vector<String[]> vars = this.getVariableSnapshot();
+		// END AGT#6 2026-10-18
+		this.control.updateVars(vars);
+		// START KGU#2 (#9) 2015-11-14
+		this.control.updateCallLevel(this.callers.size());
+		// END#2 (#9) KGU 2015-11-14
+	}
+	// END KGU#20 2015-10-13
+
+	// START AGT#6 2026-10-18: Turbo mode
+	/**
+	 * Builds the display table of the current variables (names and prepared values)
+	 * @return the vector of name-value pairs
+	 * @throws EvalError if a variable value cannot be retrieved from the interpreter
+	 */
+	private Vector<String[]> getVariableSnapshot() throws EvalError
 	{
 		Vector<String[]> vars = new Vector<String[]>();
 		for (int i = 0; i < context.variables.count(); i++)
@@ -3732,12 +5833,57 @@ public class Executor implements Runnable
 			// END KGU#67 2015-11-08
 			vars.add(new String[]{varName, valStr});
 		}
-		this.control.updateVars(vars);
-		// START KGU#2 (#9) 2015-11-14
-		this.control.updateCallLevel(this.callers.size());
-		// END#2 (#9) KGU 2015-11-14
+		return vars;
 	}
-	// END KGU#20 2015-10-13
+
+	/**
+	 * Checks whether we are in "turbo" mode, i.e. running with delay 0, neither headless nor
+	 * in step mode. In turbo mode, button states, variable display, and diagram are not updated
+	 * on every step but at a fixed rate (see {@link #refreshTurboDisplay(boolean)}).
+	 * @return true if GUI refreshes are to be coalesced
+	 */
+	private boolean isTurbo()
+	{
+		return delay == 0 && !step && !this.isHeadless;
+	}
+
+	/**
+	 * In turbo mode, takes a snapshot of the variables (on the executing thread) if the refresh
+	 * interval has elapsed and no former refresh is still pending, and schedules the update of
+	 * variable display, button states, and diagram on the event dispatch thread.
+	 * @param force - if true then the refresh is done irrespective of interval and pending refresh
+	 */
+	private void refreshTurboDisplay(boolean force)
+	{
+		long now = System.currentTimeMillis();
+		if (!force && (now < this.turboRefreshTime || !this.turboRefreshPending.compareAndSet(false, true))) {
+			return;
+		}
+		this.turboRefreshPending.set(true);
+		this.turboRefreshTime = now + TURBO_REFRESH_INTERVAL;
+		final int callLevel = this.callers.size();
+		Vector<String[]> snapshot = null;
+		try {
+			snapshot = this.getVariableSnapshot();
+		}
+		catch (EvalError ex) {
+			logger.log(Level.WARNING, "Sync Error in refreshTurboDisplay(): {0}", ex.toString());
+		}
+		final Vector<String[]> vars = snapshot;
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				turboRefreshPending.set(false);
+				if (vars != null) {
+					control.updateVars(vars);
+				}
+				control.updateCallLevel(callLevel);
+				diagram.doButtons();
+				diagram.redraw();
+			}
+		});
+	}
+	// END AGT#6 2026-10-18
 	
 	// START KGU#67/KGU#68 2015-11-08: We have to present values in an editable way (recursively!)
 	// START KGU#526 2018-08-01: Enh. #423 - new optional argument to improve record presentation
@@ -3748,18 +5894,36 @@ public class Executor implements Runnable
 		String valStr = "";
 		if (val != null)
 		{
-			valStr = val.toString();
+			// START AGT#14 2026-10-18: Avoid the string conversion of (possibly large) arrays twice
+			//valStr = val.toString();
+			if (!(val instanceof ArrayList<?>)) {
+				valStr = val.toString();
+			}
+			// END AGT#14 2026-10-18
 			if (val instanceof ArrayList<?>)
 			{
-				valStr = "{";
+				// START AGT#14 2026-10-18: Numeric arrays are converted without boxing, linear effort
+				//valStr = "{";
+				StringBuilder sb = new StringBuilder("{");
+				// END AGT#14 2026-10-18
 				@SuppressWarnings("unchecked")
 				ArrayList<Object> valArray = (ArrayList<Object>)val;
-				for (int j = 0; j < valArray.size(); j++)
-				{
-					String elementStr = prepareValueForDisplay(valArray.get(j), typeMap);
-					valStr = valStr + ((j > 0) ? ", " : "") + elementStr;
+				// START AGT#14 2026-10-18
+				//for (int j = 0; j < valArray.size(); j++)
+				//{
+				//	String elementStr = prepareValueForDisplay(valArray.get(j), typeMap);
+				//	valStr = valStr + ((j > 0) ? ", " : "") + elementStr;
+				//}
+				//valStr = valStr + "}";
+				if (!(valArray instanceof NumericArrayList && ((NumericArrayList)valArray).appendElements(sb, ", "))) {
+					for (int j = 0; j < valArray.size(); j++)
+					{
+						String elementStr = prepareValueForDisplay(valArray.get(j), typeMap);
+						sb.append((j > 0) ? ", " : "").append(elementStr);
+					}
 				}
-				valStr = valStr + "}";
+				valStr = sb.append("}").toString();
+				// END AGT#14 2026-10-18
 			}
 			// START KGU#388 2017-09-14: Enh. #423
 			// START KGU#526 2018-08-01: Enh. #423
@@ -3831,7 +5995,7 @@ public class Executor implements Runnable
 	public StringList adoptVarChanges(HashMap<String,Object> newValues)
 	{
 		StringList errors = new StringList();
-		String tmplManuallySet = control.lbManuallySet.getText();	// The message template
+		String tmplManuallySet = Control.lbManuallySet.getText();	// The message template
 		for (HashMap.Entry<String, Object> entry: newValues.entrySet())
 		{
 			String varName = entry.getKey();
@@ -3849,7 +6013,7 @@ public class Executor implements Runnable
 				// START KGU#160 2016-04-12: Enh. #137 - text window output
 				// START KGU#197 2016-05-05: Language support extended
 				//this.console.writeln("*** Manually set: " + varName + " <- " + newValues[i] + " ***", Color.RED);
-				if (this.console.logMeta()) {				
+				if (this.logMeta()) {				
 					this.console.writeln(tmplManuallySet.replace("%1", varName).replace("%2", newValue.toString()), Color.RED);
 				}
 				// END KGU#197 2016-05-05
@@ -3935,6 +6099,9 @@ public class Executor implements Runnable
 				logger.log(Level.WARNING, "adoptVarChanges({}) on {0}: {1}", new Object[]{newValues, varName, err.getMessage()});
 			}
 		}
+		// START AGT#10 2026-10-18: Values may have been modified in place - record all variables with the next step
+		this.traceContext = null;
+		// END AGT#10 2026-10-18
 		return errors;
 	}
 	// END KGU#68 2015-11-06
@@ -3955,6 +6122,11 @@ public class Executor implements Runnable
 		//this.variables = new StringList();
 		// END KGU#384 2017-04-22
 		control.updateVars(new Vector<String[]>());
+		// START AGT#9 2026-10-18: Keep track of pool changes (for the call target cache)
+		if (Arranger.hasInstance()) {
+			Arranger.getInstance().addChangeListener(this);
+		}
+		// END AGT#9 2026-10-18
 		
 		running = true;
 		Thread runner = new Thread(this, "Player");
@@ -3964,6 +6136,11 @@ public class Executor implements Runnable
 	// START KGU#43 2015-10-12 New method for breakpoint support
 	private boolean checkBreakpoint(Element element)
 	{
+		// START AGT#3 2026-10-18: Breakpoints are ignored in headless mode
+		if (this.isHeadless) {
+			return false;
+		}
+		// END AGT#3 2026-10-18
 		// START KGU#213 2016-08-01: Enh. #215
 		//boolean atBreakpoint = element.isBreakpoint();
 		boolean atBreakpoint = element.triggersBreakNow();
@@ -3984,8 +6161,270 @@ public class Executor implements Runnable
 	}
 	// END KGU#43 2015-10-12
 
-	// START KGU 2015-10-13: Decomposed this "monster" method into Element-type-specific subroutines
+	// START AGT#7 2026-10-18: Execution time profiling
+	/**
+	 * Executes the given element via {@link #stepElement(Element)} and - if runtime data are to
+	 * be collected - adds the elapsed time (without delays and pauses) to the element's profile,
+	 * distinguishing cumulative time, self time, and time spent in expression evaluation.
+	 * @param element - the element to be executed
+	 * @return the error message (empty if there was no trouble)
+	 */
 	private String step(Element element)
+	{
+		// START AGT#10 2026-10-18: Execution trace
+		if (this.traceRecorder != null && !element.disabled) {
+			this.traceStep(element);
+		}
+		// END AGT#10 2026-10-18
+		// START AGT#18 2026-10-18: Execution events
+		if (this.eventDispatcher != null && !element.disabled) {
+			String trouble = null;
+			this.postEvent(ExecutionEvent.Kind.STEP_STARTED, element, null, null);
+			try {
+				trouble = stepProfiled(element);
+			}
+			finally {
+				this.postEvent(ExecutionEvent.Kind.STEP_FINISHED, element, null,
+						(trouble == null || trouble.isEmpty()) ? null : trouble);
+			}
+			return trouble;
+		}
+		return stepProfiled(element);
+		// END AGT#18 2026-10-18
+	}
+	
+	/**
+	 * Executes the given element via {@link #stepElement(Element)} with profiling if required
+	 * (see {@link #step(Element)}).
+	 * @param element - the element to be executed
+	 * @return the error message (empty if there was no trouble)
+	 */
+	private String stepProfiled(Element element)
+	{
+		if (!Element.E_COLLECTRUNTIMEDATA || !this.collectingCounts || element.disabled) {
+			return stepElement(element);
+		}
+		long outerSubTime = this.profileSubTime;
+		long outerEvalTime = this.profileEvalTime;
+		long idleTime = this.profileIdleTime;
+		element.startExecTime();
+		this.profileSubTime = 0;
+		this.profileEvalTime = 0;
+		long startTime = System.nanoTime();
+		try {
+			return stepElement(element);
+		}
+		finally {
+			long total = System.nanoTime() - startTime - (this.profileIdleTime - idleTime);
+			element.stopExecTime(total, Math.max(total - this.profileSubTime, 0), this.profileEvalTime);
+			this.profileSubTime = outerSubTime + total;
+			this.profileEvalTime = outerEvalTime;
+		}
+	}
+	// END AGT#7 2026-10-18
+
+	// START AGT#10 2026-10-18: Execution trace for a later replay
+	/**
+	 * Specifies the file the execution trace of subsequent runs is to be recorded to.
+	 * The trace will be overwritten with every new run.
+	 * @param _traceFile - the trace file or null (no recording)
+	 * @see ExecutionTrace
+	 */
+	public void setTraceFile(File _traceFile)
+	{
+		this.traceFile = _traceFile;
+	}
+
+	/**
+	 * @return the file the execution traces are recorded to (or null)
+	 * @see #setTraceFile(File)
+	 */
+	public File getTraceFile()
+	{
+		return this.traceFile;
+	}
+
+	/**
+	 * Records the step about to be done with the given element (and the preceding changes of
+	 * the variable display) to the trace. Only the variables assigned since the last recorded
+	 * step are formatted, unless the context has changed (call, return) or variables have
+	 * vanished. Stops the recording on failure.
+	 * @param element - the element to be executed next
+	 * @see #traceAssignment(String, boolean)
+	 */
+	private void traceStep(Element element)
+	{
+		try {
+			int nVars = context.variables.count();
+			if (context != this.traceContext || nVars < this.traceVarCount) {
+				this.traceRecorder.recordStep(context.root, element, this.callers.size(), this.getVariableSnapshot(), true);
+			}
+			else {
+				this.traceRecorder.recordStep(context.root, element, this.callers.size(), this.getVariableChanges(), false);
+			}
+			this.traceContext = context;
+			this.traceVarCount = nVars;
+			this.traceChangedVars.clear();
+			this.traceComponentChanged = false;
+		} catch (Exception ex) {
+			logger.log(Level.WARNING, "Trace recording to " + this.traceFile + " failed", ex);
+			this.traceRecorder = null;
+		}
+	}
+
+	/**
+	 * Notes an assignment to variable {@code varName} for the next trace record (if a trace
+	 * is being recorded).
+	 * @param varName - the name of the assigned variable
+	 * @param isComponent - whether only an array element or record component was assigned
+	 * (arrays and records may be shared by several variables, so all of these have to be
+	 * formatted anew)
+	 * @see #traceStep(Element)
+	 */
+	private void traceAssignment(String varName, boolean isComponent)
+	{
+		if (this.traceRecorder != null) {
+			this.traceChangedVars.add(varName);
+			this.traceComponentChanged = this.traceComponentChanged || isComponent;
+		}
+	}
+
+	/**
+	 * Builds the display entries (names and prepared values) of the variables possibly changed
+	 * since the last recorded step, i.e. the variables added or assigned since then and - if some
+	 * array element or record component was assigned - all variables holding arrays or records.
+	 * @return the vector of name-value pairs (new variables in order of their introduction)
+	 * @throws EvalError if a variable value cannot be retrieved from the interpreter
+	 */
+	private Vector<String[]> getVariableChanges() throws EvalError
+	{
+		Vector<String[]> vars = new Vector<String[]>();
+		int nVars = context.variables.count();
+		for (int i = this.traceVarCount; i < nVars; i++) {
+			String varName = context.variables.get(i);
+			vars.add(new String[]{varName, prepareValueForDisplay(context.interpreter.get(varName), context.dynTypeMap)});
+		}
+		if (this.traceComponentChanged) {
+			for (int i = 0; i < this.traceVarCount; i++) {
+				String varName = context.variables.get(i);
+				Object val = context.interpreter.get(varName);
+				if (val instanceof ArrayList<?> || val instanceof HashMap<?,?> || this.traceChangedVars.contains(varName)) {
+					vars.add(new String[]{varName, prepareValueForDisplay(val, context.dynTypeMap)});
+				}
+			}
+		}
+		else {
+			for (String varName: this.traceChangedVars) {
+				int index = context.variables.indexOf(varName);
+				if (index >= 0 && index < this.traceVarCount) {
+					vars.add(new String[]{varName, prepareValueForDisplay(context.interpreter.get(varName), context.dynTypeMap)});
+				}
+			}
+		}
+		return vars;
+	}
+
+	/**
+	 * Shows the state of the given frame of a recorded execution trace, i.e. highlights the
+	 * recorded element (switching the diagram if necessary) and shows the recorded variable
+	 * display and call level. Nothing is evaluated. Not applicable while running.
+	 * @param _trace - the loaded execution trace
+	 * @param _frame - the frame index (0 ... {@link ExecutionTrace#getFrameCount()}-1)
+	 * @return true if the element of the frame could be identified (or it's the final frame)
+	 * @see #endTraceDisplay()
+	 */
+	public boolean displayTraceFrame(ExecutionTrace _trace, int _frame)
+	{
+		if (this.isHeadless || this.running) {
+			return false;
+		}
+		if (this.replayOrigRoot == null) {
+			this.replayOrigRoot = diagram.getRoot();
+		}
+		clearReplayHighlighting();
+		Set<Root> candidates = new HashSet<Root>();
+		candidates.add(this.replayOrigRoot);
+		candidates.add(diagram.getRoot());
+		if (Arranger.hasInstance()) {
+			candidates.addAll(Arranger.getInstance().getAllRoots());
+		}
+		for (IRoutinePool pool: this.routinePools) {
+			candidates.addAll(pool.getAllRoots());
+		}
+		Root root = _trace.findRoot(_frame, candidates);
+		Element element = _trace.getElement(_frame, root);
+		if (root != null && root != diagram.getRoot()) {
+			diagram.setRoot(root, !Element.E_AUTO_SAVE_ON_EXECUTE, false);
+		}
+		if (element != null) {
+			element.executed = true;
+			this.replayHighlighted.add(element);
+			// Let the enclosing structures appear as being waited for
+			for (Element ancestor = element.parent; ancestor != null; ancestor = ancestor.parent) {
+				if (!(ancestor instanceof Subqueue)) {
+					ancestor.waited = true;
+					this.replayHighlighted.add(ancestor);
+				}
+			}
+		}
+		control.updateVars(_trace.getVariables(_frame));
+		control.updateCallLevel(_trace.getCallDepth(_frame));
+		diagram.redraw();
+		if (element != null) {
+			diagram.redraw(element);
+		}
+		return element != null || _frame == _trace.getFrameCount() - 1;
+	}
+
+	/**
+	 * Ends the display of trace frames, i.e. removes the highlighting and restores the
+	 * diagram shown before.
+	 * @see #displayTraceFrame(ExecutionTrace, int)
+	 */
+	public void endTraceDisplay()
+	{
+		if (this.isHeadless) {
+			return;
+		}
+		clearReplayHighlighting();
+		if (this.replayOrigRoot != null && this.replayOrigRoot != diagram.getRoot() && !this.running) {
+			diagram.setRoot(this.replayOrigRoot, !Element.E_AUTO_SAVE_ON_EXECUTE, false);
+		}
+		this.replayOrigRoot = null;
+		diagram.redraw();
+	}
+
+	private void clearReplayHighlighting()
+	{
+		for (Element ele: this.replayHighlighted) {
+			ele.executed = false;
+			ele.waited = false;
+		}
+		this.replayHighlighted.clear();
+	}
+
+	/**
+	 * Records a consumed input line to the trace (if being recorded)
+	 * @param input - the input string
+	 */
+	private void traceInput(String input)
+	{
+		if (this.traceRecorder != null && input != null) {
+			try {
+				this.traceRecorder.recordInput(input);
+			} catch (IOException ex) {
+				logger.log(Level.WARNING, "Trace recording to " + this.traceFile + " failed", ex);
+				this.traceRecorder = null;
+			}
+		}
+	}
+	// END AGT#10 2026-10-18
+
+	// START KGU 2015-10-13: Decomposed this "monster" method into Element-type-specific subroutines
+	// START AGT#7 2026-10-18: Renamed, wrapped by step(Element) for profiling
+	//private String step(Element element)
+	private String stepElement(Element element)
+	// END AGT#7 2026-10-18
 	{
 		String trouble = new String();
 		// START KGU#277 2016-10-13: Enh. #270: skip the element if disabled
@@ -3994,6 +6433,14 @@ public class Executor implements Runnable
 		}
 		// END KGU#277 2016-10-13
 		
+		// START AGT#4 2026-10-18
+		this.stepCount++;
+		// END AGT#4 2026-10-18
+		// START AGT#15 2026-10-18
+		if (!(trouble = this.checkBudget()).isEmpty()) {
+			return trouble;
+		}
+		// END AGT#15 2026-10-18
 		element.executed = true;
 		// START KGU#276 2016-10-09: Issue #269: Now done in checkBreakpoint()
 //		if (delay != 0 || step)
@@ -4008,7 +6455,20 @@ public class Executor implements Runnable
 //		}
 		// END KGU#276 2016-10-09
 		// START KGU#143 2016-01-21: Bugfix #114 - make sure no compromising editing is done
-		diagram.doButtons();
+		// START AGT#3 2026-10-18: Headless mode - no diagram
+		//diagram.doButtons();
+		// START AGT#6 2026-10-18: In turbo mode, the GUI is only refreshed at a fixed rate
+		//if (!this.isHeadless) {
+		//	diagram.doButtons();
+		//}
+		if (this.isTurbo()) {
+			this.refreshTurboDisplay(false);
+		}
+		else if (!this.isHeadless) {
+			diagram.doButtons();
+		}
+		// END AGT#6 2026-10-18
+		// END AGT#3 2026-10-18
 		// END KGU#143 2016-01-21
 		// START KGU#43 2015-10-12: If there is a breakpoint switch to step mode before delay
 		checkBreakpoint(element);
@@ -4085,7 +6545,12 @@ public class Executor implements Runnable
 			// END KGU#117 2016-03-07
 			// START KGU#156 2016-03-11: Enh. #124
 			// Increment the execution counters
-			element.countExecution();
+			// START AGT#4 2026-10-18
+			//element.countExecution();
+			if (this.collectingCounts) {
+				element.countExecution();
+			}
+			// END AGT#4 2026-10-18
 			// END KGU#156 2016-03-11
 		}
 		return trouble;
@@ -4176,15 +6641,24 @@ public class Executor implements Runnable
 				// START KGU#490 2018-02-07: Bugfix #503 - we should first rule out input, output instructions, and JUMPs
 				//if (!Instruction.isTypeDefinition(cmd, context.dynTypeMap)) {
 				//	cmd = convert(cmd).trim();
+				// START AGT#1 2026-10-18: Line kind and decomposition are prepared only once
+				PreparedLine prepared = this.getPreparedLine(element, i, cmd, null);
+				// END AGT#1 2026-10-18
 				// Input (keyword should only trigger this if positioned at line start)
-				if (cmd.matches(
-						this.getKeywordPattern(CodeParser.getKeyword("input")) + "([\\W].*|$)"))
+				// START AGT#1 2026-10-18
+				//if (cmd.matches(
+				//		this.getKeywordPattern(CodeParser.getKeyword("input")) + "([\\W].*|$)"))
+				if (prepared.kind == PreparedLine.KIND_INPUT)
+				// END AGT#1 2026-10-18
 				{
 					trouble = tryInput(cmd);
 				}
 				// output (keyword should only trigger this if positioned at line start)
-				else if (cmd.matches(
-						this.getKeywordPattern(CodeParser.getKeyword("output")) + "([\\W].*|$)"))
+				// START AGT#1 2026-10-18
+				//else if (cmd.matches(
+				//		this.getKeywordPattern(CodeParser.getKeyword("output")) + "([\\W].*|$)"))
+				else if (prepared.kind == PreparedLine.KIND_OUTPUT)
+				// END AGT#1 2026-10-18
 				{
 					// START KGU#569 2018-08-06: Issue #577 - circumvent GUI trouble on window output
 					isOutput = true;
@@ -4198,31 +6672,55 @@ public class Executor implements Runnable
 				// The "return" keyword ought to be the first word of the instruction,
 				// comparison should not be case-sensitive while CodeParser.preReturn isn't fully configurable,
 				// but a separator would be fine...
-				else if (cmd.matches(
-						this.getKeywordPattern(CodeParser.getKeywordOrDefault("preReturn", "return")) + "([\\W].*|$)"))
+				// START AGT#1 2026-10-18
+				//else if (cmd.matches(
+				//		this.getKeywordPattern(CodeParser.getKeywordOrDefault("preReturn", "return")) + "([\\W].*|$)"))
+				else if (prepared.kind == PreparedLine.KIND_RETURN)
+				// END AGT#1 2026-10-18
 				{		 
 					trouble = tryReturn(cmd.trim());
 				}
 				else 
 				// START KGU#388 2017-09-13: Enh. #423 We shouldn't do this for type definitions
-				if (!Instruction.isTypeDefinition(cmd, context.dynTypeMap)) {
-					cmd = convert(cmd, false).trim();	// Do the string comparison analysis after decomposition!
+				// START AGT#1 2026-10-18: Only lines with type definition syntax need the check against the type map
+				//if (!Instruction.isTypeDefinition(cmd, context.dynTypeMap)) {
+				if (!prepared.mayBeTypeDef || !Instruction.isTypeDefinition(cmd, context.dynTypeMap)) {
+				// END AGT#1 2026-10-18
+					// START AGT#1 2026-10-18: Reuse cached preprocessing results
+					//cmd = convert(cmd, false).trim();	// Do the string comparison analysis after decomposition!
+					cmd = prepared.converted;	// Do the string comparison analysis after decomposition!
+					// END AGT#1 2026-10-18
 				// END KGU#388 2017-09-13
 				// END KGU#490 2018-02-07
 
 					// START KGU#417 2017-06-30: Enh. #424 (Turtleizer functions introduced)
 					// FIXME (KGU#490): Is this too early?
-					cmd = this.evaluateDiagramControllerFunctions(cmd);
+					// START AGT#1 2026-10-18: The prepared line knows whether there are any
+					//cmd = this.evaluateDiagramControllerFunctions(cmd);
+					if (prepared.hasControllerCalls) {
+						cmd = this.evaluateDiagramControllerFunctions(cmd);
+					}
+					// END AGT#1 2026-10-18
 					// END KGU#417 2017-06-30
 
 					// assignment?
 					// START KGU#377 2017-03-30: Bugfix
 					//if (cmd.indexOf("<-") >= 0)
-					if (Element.splitLexically(cmd, true).contains("<-"))
-						// END KGU#377 2017-03-30: Bugfix
+					// START AGT#1 2026-10-18: Assignments without controller function calls are prepared
+					//if (Element.splitLexically(cmd, true).contains("<-"))
+					//	// END KGU#377 2017-03-30: Bugfix
+					//{
+					//	trouble = tryAssignment(cmd, element, i);
+					//}
+					if (prepared.kind == PreparedLine.KIND_ASSIGNMENT && !prepared.hasControllerCalls)
+					{
+						trouble = tryAssignment(prepared, element, i);
+					}
+					else if (prepared.kind == PreparedLine.KIND_ASSIGNMENT)
 					{
 						trouble = tryAssignment(cmd, element, i);
 					}
+					// END AGT#1 2026-10-18
 					// input
 					// START KGU#490 2018-02-07: Bugfix #503 - we should first rule out input, output instructions, and JUMPs
 					//// START KGU#65 2015-11-04: Input keyword should only trigger this if positioned at line start
@@ -4254,7 +6752,10 @@ public class Executor implements Runnable
 					//	trouble = tryReturn(cmd.trim());
 					//}
 					// START KGU#332 2017-01-17/19: Enh. #335 - tolerate a Pascal variable declaration
-					else if (cmd.matches("^var.*:.*")) {
+					// START AGT#1 2026-10-18
+					//else if (cmd.matches("^var.*:.*")) {
+					else if (prepared.kind == PreparedLine.KIND_VAR) {
+					// END AGT#1 2026-10-18
 						// START KGU#388 2017-09-14: Enh. #423
 						element.updateTypeMapFromLine(this.context.dynTypeMap, cmd, i);
 						// END KGU#388 2017-09-14
@@ -4263,7 +6764,10 @@ public class Executor implements Runnable
 							setVar(varNames.get(j).trim(), null);
 						}
 					}
-					else if (cmd.matches("^dim.* as .*")) {
+					// START AGT#1 2026-10-18
+					//else if (cmd.matches("^dim.* as .*")) {
+					else if (prepared.kind == PreparedLine.KIND_DIM) {
+					// END AGT#1 2026-10-18
 						// START KGU#388 2017-09-14: Enh. #423
 						element.updateTypeMapFromLine(this.context.dynTypeMap, cmd, i);
 						// END KGU#388 2017-09-14
@@ -4333,9 +6837,9 @@ public class Executor implements Runnable
 				//if (trouble == null || trouble.length() < 5) trouble = ex.getMessage();
 				//if (trouble == null || trouble.length() < 5) trouble = ex.toString();
 				logger.log(Level.WARNING, "Unspecific error during execution of " + element.toString(), ex);
-				if (trouble.isEmpty() && isOutput && !repeated && JOptionPane.showConfirmDialog(
+				if (trouble.isEmpty() && isOutput && !repeated && !this.isHeadless && JOptionPane.showConfirmDialog(
 						this.control, Control.msgGUISyncFault.getText().replace("%", cmd),
-						control.msgTitleError.getText(),
+						Control.msgTitleError.getText(),
 						JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
 					if (!outputDone) {
 						// Try to repeat it once
@@ -4471,7 +6975,7 @@ public class Executor implements Runnable
 			int nLevels = element.getLevelsUp();
 			if (nLevels < 1) {
 				String argument = sl.get(0).trim().substring(CodeParser.getKeyword("preLeave").length()).trim();
-				trouble = control.msgIllegalLeave.getText().replace("%1", argument);				
+				trouble = Control.msgIllegalLeave.getText().replace("%1", argument);				
 			}
 			else {
 				this.leave += nLevels;
@@ -4521,7 +7025,7 @@ public class Executor implements Runnable
 				{
 					// START KGU#197 2016-07-27: More localization support
 					//trouble = "Inappropriate exit value: <" + (n == null ? tokens.get(1) : n.toString()) + ">";
-					trouble = control.msgWrongExit.getText().replace("%1",
+					trouble = Control.msgWrongExit.getText().replace("%1",
 							"<" + (n == null ? expr : n.toString()) + ">");
 					// END KGU#197 2016-07-27
 				}
@@ -4532,16 +7036,19 @@ public class Executor implements Runnable
 				//trouble = "Wrong exit value: " + ex.getMessage();
 				String exMessage = ex.getLocalizedMessage();
 				if (exMessage == null) exMessage = ex.getMessage();
-				trouble = control.msgWrongExit.getText().replace("%1", exMessage);
+				trouble = Control.msgWrongExit.getText().replace("%1", exMessage);
 				// END KGU#197 2016-07-27
 			}
 			if (trouble.isEmpty())
 			{
 				// START KGU#197 2016-07-27: More localization support
 				//trouble = "Program exited with code " + exitValue + "!";
-				trouble = control.msgExitCode.getText().replace("%1",
+				trouble = Control.msgExitCode.getText().replace("%1",
 						Integer.toString(exitValue));
 				// END KGU#197 2016-07-27
+				// START AGT#3 2026-10-18: Headless mode - caller may want to pass the exit code on
+				this.exitCode = exitValue;
+				// END AGT#3 2026-10-18
 				// START KGU#117 2016-03-07: Enh. #77
 				element.checkTestCoverage(true);
 				// END KGU#117 2016-03-07
@@ -4553,7 +7060,7 @@ public class Executor implements Runnable
 		{
 			// START KGU#197 2016-07-27: More localization support
 			//trouble = "Illegal content of a Jump (i.e. exit) instruction: <" + cmd + ">!";
-			trouble = control.msgIllegalJump.getText().replace("%1", sl.concatenate(" <nl> "));
+			trouble = Control.msgIllegalJump.getText().replace("%1", sl.concatenate(" <nl> "));
 			// END KGU#197 2016-07-27
 		}
 		// END KGU#380 2017-04-14
@@ -4562,7 +7069,7 @@ public class Executor implements Runnable
 		{
 			// START KGU#197 2016-07-27: More localization support
 			trouble = "Too many levels to leave (actual depth: " + context.loopDepth + " / specified: " + leave + ")!";
-			trouble = control.msgTooManyLevels.getText().
+			trouble = Control.msgTooManyLevels.getText().
 					replace("%1", Integer.toString(context.loopDepth)).
 					replace("%2", Integer.toString(leave));
 			// END KGU#197 2016-07-27
@@ -4709,12 +7216,22 @@ public class Executor implements Runnable
 				//Root sub = this.findSubroutineWithSignature(f.getName(), f.paramCount());
 				Root sub = null;
 				try {
-					sub = this.findSubroutineWithSignature(f.getName(), f.paramCount());
+					// START AGT#9 2026-10-18: Cached per Call
+					//sub = this.findSubroutineWithSignature(f.getName(), f.paramCount());
+					sub = this.findSubroutineWithSignature(f.getName(), f.paramCount(), (Call)instr);
+					// END AGT#9 2026-10-18
 				} catch (Exception ex) {
 					return ex.getMessage();	// Ambiguous call!
 				}
 				// END KGU#317 2016-12-29
-				if (sub != null)
+				// START AGT#15 2026-10-18: Check the call depth limit
+				//if (sub != null)
+				if (sub != null && !(trouble = this.checkCallDepth()).isEmpty())
+				{
+					return trouble;
+				}
+				else if (sub != null)
+				// END AGT#15 2026-10-18
 				{
 					Object[] args = new Object[f.paramCount()];
 					for (int p = 0; p < f.paramCount(); p++)
@@ -4734,7 +7251,7 @@ public class Executor implements Runnable
 					// START KGU#197 2016-07-27: Now translatable
 					//trouble = "A function diagram " + f.getName() + " (" + f.paramCount() + 
 					//		" parameters) could not be found!\nConsider starting the Arranger and place needed subroutine diagrams there first.";
-					trouble = control.msgNoSubroutine.getText().
+					trouble = Control.msgNoSubroutine.getText().
 							replace("%1", f.getName()).
 							replace("%2", Integer.toString(f.paramCount())).
 							replace("\\n", "\n");
@@ -4745,7 +7262,7 @@ public class Executor implements Runnable
 			{
 				// START KGU#197 2016-07-27: Now translatable
 				//trouble = "<" + expression + "> is not a correct function!";
-				trouble = control.msgIllFunction.getText().replace("%1", expression);
+				trouble = Control.msgIllFunction.getText().replace("%1", expression);
 				// END KGU#197 2016-07-27
 			}
 		}
@@ -4769,7 +7286,7 @@ public class Executor implements Runnable
 //			this.evaluateExpression("HashMap tmp20170913kgu = new HashMap()", false);
 //			HashMap<String, String> components = Element.splitRecordInitializer(expression);
 //			if (components == null || components.containsKey("§TAIL§")) {
-//				trouble = control.msgInvalidExpr.getText().replace("%1", expression);
+//				trouble = Control.msgInvalidExpr.getText().replace("%1", expression);
 //			}
 //			else {
 //				components.remove("§TYPENAME§");
@@ -4780,7 +7297,7 @@ public class Executor implements Runnable
 //						context.interpreter.eval("tmp20170913kgu.put(\"" + comp.getKey() + "\", " + comp.getValue() + ");");
 //					}
 //					else {
-//						trouble = control.msgInvalidComponent.getText().replace("%1", comp.getKey()).replace("%2", recordType.typeName);
+//						trouble = Control.msgInvalidComponent.getText().replace("%1", comp.getKey()).replace("%2", recordType.typeName);
 //						break;
 //					}
 //				}
@@ -4839,7 +7356,7 @@ public class Executor implements Runnable
 			//trouble = "<"
 			//		+ expression
 			//		+ "> is not a correct or existing expression.";
-			trouble = control.msgInvalidExpr.getText().replace("%1", expression);
+			trouble = Control.msgInvalidExpr.getText().replace("%1", expression);
 			// END KGU#197 2016-07-27
 		}
 
@@ -4847,6 +7364,78 @@ public class Executor implements Runnable
 		
 	}
 	
+	// START AGT#1 2026-10-18: Assignment based on the prepared line
+	/**
+	 * Submethod of stepInstruction(Instruction element), handling an assignment the line of which
+	 * has been prepared (see {@link #getPreparedLine(Element, int, String, String[])}) and does not
+	 * call diagram controller functions. Evaluates the compiled right-hand side if possible and
+	 * otherwise delegates to {@link #tryAssignment(String, Instruction, int)}.
+	 * Also updates the dynamic type map (the type of the expression is only identified again if
+	 * the type map has changed since the last execution of the line).
+	 * @param prepared - the prepared assignment line
+	 * @param instr - the Instruction element
+	 * @param lineNo - the line number of the current assignment (for the type registration)
+	 * @return a possible error message (for errors not thrown as EvalError)
+	 * @throws EvalError
+	 */
+	private String tryAssignment(PreparedLine prepared, Instruction instr, int lineNo) throws EvalError
+	{
+		NativeExpression nativeExpr = null;
+		if (instr instanceof Call || (nativeExpr = this.getNativeExpression(prepared)) == null
+				|| this.refersToConstantStructure(prepared)) {
+			return tryAssignment(prepared.converted, instr, lineNo);
+		}
+		// START AGT#12 2026-10-18: int results go to the frame slot without boxing
+		boolean assigned = false;
+		try {
+			// START AGT#14 2026-10-18: ... or into int arrays
+			assigned = this.assignIntNatively(prepared, nativeExpr)
+					|| prepared.indexedArray != null && this.assignIntElementNatively(prepared, nativeExpr);
+			// END AGT#14 2026-10-18
+		}
+		catch (NativeExpression.FallbackException ex) {
+			// Not an int value (or not natively computable) - try the general way
+		}
+		if (!assigned) {
+			Object value = null;
+			try {
+				value = this.evaluateNatively(nativeExpr);
+			}
+			catch (NativeExpression.FallbackException ex) {
+				return tryAssignment(prepared.converted, instr, lineNo);
+			}
+			if (value == null) {
+				return stop ? "" : Control.msgInvalidExpr.getText().replace("%1", prepared.expression);
+			}
+			setVar(prepared.target, value);
+		}
+		// END AGT#12 2026-10-18
+		HashMap<String, TypeMapEntry> typeMap = context.dynTypeMap;
+		String target = prepared.assignedVar;
+		if (target != null && (prepared.registeredEntry == null || prepared.registeredMap != typeMap
+				|| prepared.registeredMapSize != typeMap.size() || prepared.registeredEntry != typeMap.get(target))) {
+			TypeMapEntry oldEntry = typeMap.get(target);
+			if (oldEntry == null || !oldEntry.isDeclared) {
+				String typeDescr = Instruction.identifyExprType(typeMap, prepared.expression, true);
+				if (oldEntry == null) {
+					TypeMapEntry typeEntry = null;
+					if (typeDescr != null && (typeEntry = typeMap.get(":" + typeDescr)) == null) {
+						typeEntry = new TypeMapEntry(typeDescr, null, instr, lineNo, true, false, false);
+					}
+					typeMap.put(target, typeEntry);
+				}
+				else {
+					oldEntry.addDeclaration(typeDescr, instr, lineNo, true, false);
+				}
+			}
+			prepared.registeredMap = typeMap;
+			prepared.registeredMapSize = typeMap.size();
+			prepared.registeredEntry = typeMap.get(target);
+		}
+		return "";
+	}
+	// END AGT#1 2026-10-18
+	
 	// Submethod of stepInstruction(Instruction element), handling an input instruction
 	private String tryInput(String cmd) throws EvalError
 	{
@@ -4886,14 +7475,20 @@ public class Executor implements Runnable
 		// END KGU#490 2018-02-07
 
 		// START KGU#107 2015-12-13: Enh-/bug #51: Handle empty input instruction
-		if (in.isEmpty())
+		// START AGT#3 2026-10-18: Headless mode - nobody to acknowledge
+		//if (in.isEmpty())
+		if (in.isEmpty() && this.isHeadless)
+		{
+		}
+		else if (in.isEmpty())
+		// END AGT#3 2026-10-18
 		{
 			// In run mode, give the user a chance to intervene
 			Object[] options = {
 					Control.lbOk.getText(),
 					Control.lbPause.getText()
 			};
-			int pressed = JOptionPane.showOptionDialog(diagram.getParent(), control.lbAcknowledge.getText(), control.lbInput.getText(),
+			int pressed = JOptionPane.showOptionDialog(diagram.getParent(), Control.lbAcknowledge.getText(), Control.lbInput.getText(),
 					JOptionPane.OK_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, null);
 			if (pressed == 1)
 			{
@@ -4937,7 +7532,7 @@ public class Executor implements Runnable
 			// END KGU#33 2014-12-05
 			// START KGU#375 2017-03-30: Enh. #388 - support of constants
 			if (this.isConstant(in)) {
-				trouble = control.msgConstantRedefinition.getText().replaceAll("%", in);
+				trouble = Control.msgConstantRedefinition.getText().replaceAll("%", in);
 			}
 			// END KGU#375 2017-03-30
 			// START KGU#141 2016-01-16: Bugfix #112 - nothing more to do than exiting
@@ -4950,13 +7545,26 @@ public class Executor implements Runnable
 			//String str = JOptionPane.showInputDialog(null,
 			//		"Please enter a value for <" + in + ">", null);
 			// START KGU#281 2016-10-12: Enh. #271
-			//String msg = control.lbInputValue.getText();
+			//String msg = Control.lbInputValue.getText();
 			//msg = msg.replace("%", in);
 			if (prompt == null) {
-				prompt = control.lbInputValue.getText();				
+				prompt = Control.lbInputValue.getText();				
 				prompt = prompt.replace("%", in);
 			}
 			// END KGU#281 2016-10-12
+			// START AGT#3 2026-10-18: Headless mode - just read the next line
+			if (this.isHeadless) {
+				String str = this.readHeadlessInput(prompt);
+				if (str == null) {
+					return Control.lbInputCancelled.getText();
+				}
+				// START AGT#10 2026-10-18
+				this.traceInput(str);
+				// END AGT#10 2026-10-18
+				setVarRaw(in, str);
+				return trouble;
+			}
+			// END AGT#3 2026-10-18
 			// START KGU#160 2016-04-12: Enh. #137 - text window output
 			this.console.write(prompt + (prompt.trim().endsWith(":") ? " " : ": "), Color.YELLOW);
 			if (isConsoleEnabled)
@@ -4966,6 +7574,9 @@ public class Executor implements Runnable
 			// END KGU#160 2016-04-12
 			String str = JOptionPane.showInputDialog(diagram.getParent(), prompt, null);
 			// END KGU#89 2016-03-18
+			// START AGT#10 2026-10-18
+			this.traceInput(str);
+			// END AGT#10 2026-10-18
 			// START KGU#84 2015-11-23: ER #36 - Allow a controlled continuation on cancelled input
 			//setVarRaw(in, str);
 			if (str == null)
@@ -4974,8 +7585,8 @@ public class Executor implements Runnable
 				// START KGU#197 2016-05-05: Issue #89
 				//JOptionPane.showMessageDialog(diagram, "Execution paused - you may enter the value in the variable display.",
 				//		"Input cancelled", JOptionPane.WARNING_MESSAGE);
-				JOptionPane.showMessageDialog(control, control.lbInputPaused.getText(),
-						control.lbInputCancelled.getText(), JOptionPane.WARNING_MESSAGE);
+				JOptionPane.showMessageDialog(control, Control.lbInputPaused.getText(),
+						Control.lbInputCancelled.getText(), JOptionPane.WARNING_MESSAGE);
 				// START KGU#197 2016-05-05
 				synchronized(this)
 				{
@@ -5037,7 +7648,7 @@ public class Executor implements Runnable
 				Object n = this.evaluateExpression(out, false, false);
 				if (n == null)
 				{
-					trouble = control.msgInvalidExpr.getText().replace("%1", out);
+					trouble = Control.msgInvalidExpr.getText().replace("%1", out);
 				} else
 				{
 		// START KGU#101 2015-12-11: Fix #54 (continued)
@@ -5055,19 +7666,41 @@ public class Executor implements Runnable
 		{
 			String s = unconvert(str.trim());	// FIXME (KGU): What the heck is this good for?
 		// END KGU#101 2015-12-11
+			// START AGT#15 2026-10-18: Output limit
+			if (!(trouble = this.checkOutput(s)).isEmpty()) {
+				return trouble;
+			}
+			// END AGT#15 2026-10-18
+			// START AGT#18 2026-10-18
+			this.postEvent(ExecutionEvent.Kind.OUTPUT_PRODUCED, null, null, s);
+			// END AGT#18 2026-10-18
 			// START KGU#84 2015-11-23: Enhancement #36 to give a chance to pause
 			//JOptionPane.showMessageDialog(diagram, s, "Output",
 			//		0);
 			//System.out.println("running/step/paus/stop: " +
 			//		running + " / " + step + " / " + paus + " / " + " / " + stop);
 
+			// START AGT#3 2026-10-18: Headless mode - just write to the output stream
+			if (this.isHeadless) {
+				// START AGT#8 2026-10-18: Concurrent branch of an interactive execution?
+				//this.headlessOutput.println(s);
+				if (this.headlessOutput == null) {
+					this.console.writeln(s);
+				}
+				else {
+					this.headlessOutput.println(s);
+				}
+				// END AGT#8 2026-10-18
+				return trouble;
+			}
+			// END AGT#3 2026-10-18
 			// START KGU#160 2016-04-12: Enh. #137 - Checkbox for text window output
 			//if (step)
 			this.console.writeln(s);
 			// START KGU#107 2016-05-05: For the message dialog we must show something
 			if (s.isEmpty())
 			{
-				s = "(" + control.lbEmptyLine.getText() + ")";
+				s = "(" + Control.lbEmptyLine.getText() + ")";
 			}
 			// END KGU#107 2016-05-05
 			if (isConsoleEnabled)
@@ -5079,7 +7712,7 @@ public class Executor implements Runnable
 			{
 				// In step mode, there is no use to offer pausing
 				// diagram is a bad anchor component since its extension is the Root rectangle (may be huge!)
-				JOptionPane.showMessageDialog(diagram.getParent(), s, control.lbOutput.getText(),
+				JOptionPane.showMessageDialog(diagram.getParent(), s, Control.lbOutput.getText(),
 						JOptionPane.INFORMATION_MESSAGE);
 			}
 			else
@@ -5090,7 +7723,7 @@ public class Executor implements Runnable
 						Control.lbPause.getText()
 				};
 				// diagram is a bad anchor component since its extension is the Root rectangle (may be huge!)
-				int pressed = JOptionPane.showOptionDialog(diagram.getParent(), s, control.lbOutput.getText(),
+				int pressed = JOptionPane.showOptionDialog(diagram.getParent(), s, Control.lbOutput.getText(),
 						JOptionPane.OK_CANCEL_OPTION, JOptionPane.INFORMATION_MESSAGE, null, options, null);
 				if (pressed == 1)
 				{
@@ -5114,7 +7747,7 @@ public class Executor implements Runnable
 	private String tryReturn(String cmd) throws EvalError
 	{
 		String trouble = "";
-		String header = control.lbReturnedResult.getText();
+		String header = Control.lbReturnedResult.getText();
 		String out = cmd.substring(CodeParser.getKeywordOrDefault("preReturn", "return").length()).trim();
 		// START KGU#77 (#21) 2015-11-13: We out to allow an empty return
 		//Object n = interpreter.eval(out);
@@ -5140,23 +7773,31 @@ public class Executor implements Runnable
 			resObj = this.evaluateExpression(out, true, false);
 			// END KGU#426 2017-09-30
 			// If this diagram is executed at top level then show the return value
-			if (this.callers.empty())
+			// START AGT#8 2026-10-18: Not if this is a concurrent branch (the parent is responsible)
+			//if (this.callers.empty())
+			if (this.callers.empty() && this.parentExecutor == null)
+			// END AGT#8 2026-10-18
 			{
 				if (resObj == null)	{
-					trouble = control.msgInvalidExpr.getText().replace("%1", out);
+					trouble = Control.msgInvalidExpr.getText().replace("%1", out);
 				} 
 				// START KGU#133 2016-01-29: Arrays should be presented as scrollable list
 				// START KGU#439 2017-10-13: Issue 436 - Structorizer arrays now implemented as ArrayLists rather than Object[] 
 				//else if (resObj instanceof Object[]) {
 				//	showArray((Object[])resObj, header, !step);
 				//}
+				// START AGT#3 2026-10-18: Headless mode - write the result to the output
+				else if (this.isHeadless) {
+					this.headlessOutput.println(header + ": " + prepareValueForDisplay(resObj, context.dynTypeMap));
+				}
+				// END AGT#3 2026-10-18
 				else if (resObj instanceof ArrayList<?> || resObj instanceof HashMap<?,?>) {
 					showCompoundValue(resObj, header, !step);
 				}
 				// END KGU#439 2017-10-13
 				else if (step) {
 					// START KGU#160 2016-04-26: Issue #137 - also log the result to the console
-					if (this.console.logMeta()) {
+					if (this.logMeta()) {
 						this.console.writeln("*** " + header + ": " + prepareValueForDisplay(resObj, context.dynTypeMap), Color.CYAN);
 					}
 					// END KGU#160 2016-04-26
@@ -5171,7 +7812,7 @@ public class Executor implements Runnable
 				}
 				else {
 					// START KGU#198 2016-05-25: Issue #137 - also log the result to the console
-					if (this.console.logMeta()) {
+					if (this.logMeta()) {
 						this.console.writeln("*** " + header + ": " + prepareValueForDisplay(resObj, context.dynTypeMap), Color.CYAN);
 					}
 					// END KGU#198 2016-05-25
@@ -5226,7 +7867,7 @@ public class Executor implements Runnable
 							trouble = trouble + "\n";
 						}
 						trouble = trouble + "PARAM " + (p+1) + ": "
-								+ control.msgInvalidExpr.getText().replace("%1", f.getParam(p));
+								+ Control.msgInvalidExpr.getText().replace("%1", f.getParam(p));
 					}
 //					else
 //					{
@@ -5253,12 +7894,22 @@ public class Executor implements Runnable
 				//Root sub = this.findSubroutineWithSignature(f.getName(), f.paramCount());
 				Root sub = null;
 				try {
-					sub = this.findSubroutineWithSignature(procName, f.paramCount());
+					// START AGT#9 2026-10-18: Cached per Call
+					//sub = this.findSubroutineWithSignature(procName, f.paramCount());
+					sub = this.findSubroutineWithSignature(procName, f.paramCount(), (Call)element);
+					// END AGT#9 2026-10-18
 				} catch (Exception ex) {
 					return ex.getMessage();	// Ambiguous call!
 				}
 				// END KGU#317 2016-12-29
-				if (sub != null)
+				// START AGT#15 2026-10-18: Check the call depth limit
+				//if (sub != null)
+				if (sub != null && !(trouble = this.checkCallDepth()).isEmpty())
+				{
+					return trouble;
+				}
+				else if (sub != null)
+				// END AGT#15 2026-10-18
 				{
 					executeCall(sub, args, (Call)element);
 					// START KGU#117 2016-03-10: Enh. #77
@@ -5273,7 +7924,7 @@ public class Executor implements Runnable
 					// START KGU#197 2016-07-27: Now translatable message
 					//trouble = "A subroutine diagram " + f.getName() + " (" + f.paramCount() + 
 					//		" parameters) could not be found!\nConsider starting the Arranger and place needed subroutine diagrams there first.";
-					trouble = control.msgNoSubroutine.getText().
+					trouble = Control.msgNoSubroutine.getText().
 							replace("%1", procName).
 							replace("%2", Integer.toString(f.paramCount())).
 							replace("\\n", "\n");
@@ -5378,7 +8029,7 @@ public class Executor implements Runnable
 //				// START KGU#197 2016-07-27: Now translatable message
 //				//trouble = "A subroutine diagram " + f.getName() + " (" + f.paramCount() + 
 //				//		" parameters) could not be found!\nConsider starting the Arranger and place needed subroutine diagrams there first.";
-//				trouble = control.msgNoProgDiagram.getText().
+//				trouble = Control.msgNoProgDiagram.getText().
 //						replace("%", diagrName);
 //				// END KGU#197 2016-07-27
 //			}
@@ -5388,7 +8039,7 @@ public class Executor implements Runnable
 		else {
 			// START KGU#197 2017-06-06: Now translatable
 			//trouble = "<" + cmd + "> is not a correct function!";
-			trouble = control.msgIllFunction.getText().replace("%1", cmd);
+			trouble = Control.msgIllFunction.getText().replace("%1", cmd);
 			// END KGU#197 2017-06-06
 		}
 		return trouble;
@@ -5529,33 +8180,42 @@ public class Executor implements Runnable
 //			}
 //
 //			s = convert(s);
-			StringList tokens = Element.splitLexically(s, true);
-			for (String key : new String[]{
-					CodeParser.getKeyword("preAlt"),
-					CodeParser.getKeyword("postAlt")})
-			{
-				if (!key.trim().isEmpty())
-				{
-					tokens.removeAll(Element.splitLexically(key, false), !CodeParser.ignoreCase);
-				}		
-			}
-			s = convert(tokens.concatenate());
+			// START AGT#1 2026-10-18: Reuse cached preprocessing results
+			//StringList tokens = Element.splitLexically(s, true);
+			//for (String key : new String[]{
+			//		CodeParser.getKeyword("preAlt"),
+			//		CodeParser.getKeyword("postAlt")})
+			//{
+			//	if (!key.trim().isEmpty())
+			//	{
+			//		tokens.removeAll(Element.splitLexically(key, false), !CodeParser.ignoreCase);
+			//	}		
+			//}
+			//s = convert(tokens.concatenate());
+			PreparedLine prepared = getPreparedLine(element, 0, s, new String[]{"preAlt", "postAlt"});
+			s = prepared.converted;
+			// END AGT#1 2026-10-18
 			// END KGU#150 2016-04-03
 
 			// START KGU#417 2017-06-30: Enh. #424
-			s = this.evaluateDiagramControllerFunctions(s);
+			// START AGT#1 2026-10-18: Done in evaluateCondition() unless the compiled condition suffices
+			//s = this.evaluateDiagramControllerFunctions(s);
+			// END AGT#1 2026-10-18
 			// END KGU#417 2017-06-30
 
 			//System.out.println("C=  " + interpreter.get("C"));
 			//System.out.println("IF: " + s);
-			Object cond = this.evaluateExpression(s, false, false);
+			// START AGT#1 2026-10-18: Evaluate the prepared condition
+			//Object cond = this.evaluateExpression(s, false, false);
+			Object cond = this.evaluateCondition(prepared, true);
+			// END AGT#1 2026-10-18
 			//System.out.println("Res= " + n);
 			if (cond == null || !(cond instanceof Boolean))
 			{
 				// START KGU#197 2016-07-27: Localization support
 				//trouble = "<" + s
 				//		+ "> is not a correct or existing expression.";
-				trouble = control.msgInvalidBool.getText().replace("%1", s);
+				trouble = Control.msgInvalidBool.getText().replace("%1", s);
 				// END KGU#197 2016-07-27
 			}
 			// if(getExec(s).equals("OK"))
@@ -5619,6 +8279,9 @@ public class Executor implements Runnable
 		try
 		{
 			String condStr = "true";	// Condition expression
+			// START AGT#1 2026-10-18
+			PreparedLine prepared = null;
+			// END AGT#1 2026-10-18
 			if (!eternal) {
 				// START KGU#413 2017-06-09: Enh. #416: Cope with user-inserted line breaks
 				//condStr = element.getText().getText();
@@ -5640,28 +8303,35 @@ public class Executor implements Runnable
 //				condStr = convert(condStr, false);
 //				// END KGU#79 2015-11-12
 //				// System.out.println("WHILE: "+condStr);
-				StringList tokens = Element.splitLexically(condStr, true);
-				for (String key : new String[]{
-						CodeParser.getKeyword("preWhile"),
-						CodeParser.getKeyword("postWhile")})
-				{
-					if (!key.trim().isEmpty())
-					{
-						tokens.removeAll(Element.splitLexically(key, false), !CodeParser.ignoreCase);
-					}		
-				}
-				// START KGU#433 2017-10-11: Bugfix #434 Don't try to be too clever here - variables might change type within the loop..
-				//condStr = convert(tokens.concatenate());
-				condStr = convert(tokens.concatenate(), false);
-				// END KGU#433 2017-10-11
+				// START AGT#1 2026-10-18: Reuse cached preprocessing results
+				//StringList tokens = Element.splitLexically(condStr, true);
+				//for (String key : new String[]{
+				//		CodeParser.getKeyword("preWhile"),
+				//		CodeParser.getKeyword("postWhile")})
+				//{
+				//	if (!key.trim().isEmpty())
+				//	{
+				//		tokens.removeAll(Element.splitLexically(key, false), !CodeParser.ignoreCase);
+				//	}		
+				//}
+				//// START KGU#433 2017-10-11: Bugfix #434 Don't try to be too clever here - variables might change type within the loop..
+				////condStr = convert(tokens.concatenate());
+				//condStr = convert(tokens.concatenate(), false);
+				//// END KGU#433 2017-10-11
+				prepared = getPreparedLine(element, 0, condStr, new String[]{"preWhile", "postWhile"});
+				condStr = prepared.converted;
+				// END AGT#1 2026-10-18
 				// END KGU#150 2016-04-03
 			}
 
 			//int cw = 0;
 			// START KGU#417 2017-06-30: Enh. #424 - Turtleizer functions must be evaluated each time
 			//Object cond = context.interpreter.eval(convertStringComparison(condStr));
-			String tempCondStr = this.evaluateDiagramControllerFunctions(condStr);
-			Object cond = this.evaluateExpression(convertStringComparison(tempCondStr), false, false);
+			// START AGT#1 2026-10-18: Evaluate the prepared condition
+			//String tempCondStr = this.evaluateDiagramControllerFunctions(condStr);
+			//Object cond = this.evaluateExpression(convertStringComparison(tempCondStr), false, false);
+			Object cond = eternal ? Boolean.TRUE : this.evaluateCondition(prepared, false);
+			// END AGT#1 2026-10-18
 			// END KGU#417 2017-06-30
 
 			if (cond == null || !(cond instanceof Boolean))
@@ -5669,7 +8339,7 @@ public class Executor implements Runnable
 				// START KGU#197 2016-07-27: Localization support
 				//trouble = "<" + condStr
 				//		+ "> is not a correct or existing expression.";
-				trouble = control.msgInvalidBool.getText().replace("%1", condStr);
+				trouble = Control.msgInvalidBool.getText().replace("%1", condStr);
 				// END KGU#197 2016-07-27
 			} else
 			{
@@ -5729,13 +8399,19 @@ public class Executor implements Runnable
 						//cw++;
 						// START KGU 2015-10-13: Symbolizes the loop condition check 
 						checkBreakpoint(element);
+						// START AGT#15 2026-10-18: Iterations count as steps for the budget (stops on excess)
+						this.checkBudget();
+						// END AGT#15 2026-10-18
 						delay();
 						// END KGU 2015-10-13
 					}
 					// START KGU#417 2017-06-30: Enh. #424 - Turtleizer functions must be evaluated each time
 					//cond = context.interpreter.eval(convertStringComparison(condStr));
-					tempCondStr = this.evaluateDiagramControllerFunctions(condStr);
-					cond = this.evaluateExpression(convertStringComparison(tempCondStr), false, false);
+					// START AGT#1 2026-10-18: Evaluate the prepared condition
+					//tempCondStr = this.evaluateDiagramControllerFunctions(condStr);
+					//cond = this.evaluateExpression(convertStringComparison(tempCondStr), false, false);
+					cond = eternal ? Boolean.TRUE : this.evaluateCondition(prepared, false);
+					// END AGT#1 2026-10-18
 					// END KGU#417 2017-06-30
 					if (cond == null)
 					{
@@ -5743,7 +8419,7 @@ public class Executor implements Runnable
 						//trouble = "<"
 						//		+ condStr
 						//		+ "> is not a correct or existing expression.";
-						trouble = control.msgInvalidExpr.getText().replace("%1", condStr);
+						trouble = Control.msgInvalidExpr.getText().replace("%1", condStr);
 						// END KGU#197 2016-07-27
 					}
 					// START KGU#156 2016-03-11: Enh. #124
@@ -5810,20 +8486,24 @@ public class Executor implements Runnable
 //				condStr = BString.replace(condStr, CodeParser.postRepeat, "");
 //			}
 //			condStr = convert(condStr, false);
-			StringList tokens = Element.splitLexically(condStr, true);
-			for (String key : new String[]{
-					CodeParser.getKeyword("preRepeat"),
-					CodeParser.getKeyword("postRepeat")})
-			{
-				if (!key.trim().isEmpty())
-				{
-					tokens.removeAll(Element.splitLexically(key, false), !CodeParser.ignoreCase);
-				}		
-			}
-			// START KGU#433 2017-10-11: Bugfix #434 Don't try to be too clever here - variables might change type within the loop...
-			//condStr = convert(tokens.concatenate());
-			condStr = convert(tokens.concatenate(), false);
-			// END KGU#433 2017-10-11
+			// START AGT#1 2026-10-18: Reuse cached preprocessing results
+			//StringList tokens = Element.splitLexically(condStr, true);
+			//for (String key : new String[]{
+			//		CodeParser.getKeyword("preRepeat"),
+			//		CodeParser.getKeyword("postRepeat")})
+			//{
+			//	if (!key.trim().isEmpty())
+			//	{
+			//		tokens.removeAll(Element.splitLexically(key, false), !CodeParser.ignoreCase);
+			//	}		
+			//}
+			//// START KGU#433 2017-10-11: Bugfix #434 Don't try to be too clever here - variables might change type within the loop...
+			////condStr = convert(tokens.concatenate());
+			//condStr = convert(tokens.concatenate(), false);
+			//// END KGU#433 2017-10-11
+			PreparedLine prepared = getPreparedLine(element, 0, condStr, new String[]{"preRepeat", "postRepeat"});
+			condStr = prepared.converted;
+			// END AGT#1 2026-10-18
 			// END KGU#150 2016-04-03
 
 			//int cw = 0;
@@ -5838,7 +8518,7 @@ public class Executor implements Runnable
 			//	// START KGU#197 2016-07-27: Localization support
 			//	//trouble = "<" + condStr
 			//	//		+ "> is not a correct or existing expression.";
-			//	trouble = control.msgInvalidExpr.getText().replace("%1", condStr);
+			//	trouble = Control.msgInvalidExpr.getText().replace("%1", condStr);
 			//	// END KGU#197 2016-07-27
 			//} else
 			Object cond = null;
@@ -5873,19 +8553,25 @@ public class Executor implements Runnable
 						element.executed = true;
 						// START KGU#515 2018-04-03: The following must not be done if the body failed (had erroneously resided after this if)
 						// START KGU#417 2017-06-30: Enh. #424 - Turtleizer functions must be evaluated each time
-						String tempCondStr = this.evaluateDiagramControllerFunctions(condStr);
-						cond = this.evaluateExpression(convertStringComparison(tempCondStr), false, false);
+						// START AGT#1 2026-10-18: Evaluate the prepared condition
+						//String tempCondStr = this.evaluateDiagramControllerFunctions(condStr);
+						//cond = this.evaluateExpression(convertStringComparison(tempCondStr), false, false);
+						cond = this.evaluateCondition(prepared, false);
+						// END AGT#1 2026-10-18
 						// END KGU#417 2017-06-30
 						if (cond == null || !(cond instanceof Boolean))
 						{
 							// START KGU#197 2016-07-27: Localization support
-							trouble = control.msgInvalidBool.getText().replace("%1", condStr);
+							trouble = Control.msgInvalidBool.getText().replace("%1", condStr);
 							// END KGU#197 2016-07-27
 						}
 
 						// delay this element
 						// START KGU 2015-10-12: This remains an important breakpoint position
 						checkBreakpoint(element);
+						// START AGT#15 2026-10-18: Iterations count as steps for the budget (stops on excess)
+						this.checkBudget();
+						// END AGT#15 2026-10-18
 						// END KGU 2015-10-12
 						element.waited = false;
 						delay();	// Symbolizes the loop condition check time
@@ -5932,10 +8618,19 @@ public class Executor implements Runnable
 	
 	private String stepFor(For element)
 	{
+		// START AGT#11 2026-10-18: Loop parameters are prepared only once
+		ForLoopPlan plan = getForLoopPlan(element);
+		// END AGT#11 2026-10-18
 		// START KGU#61 2016-03-21: Enh. #84
-		if (element.isForInLoop())
+		// START AGT#11 2026-10-18
+		//if (element.isForInLoop())
+		if (plan.isForIn)
+		// END AGT#11 2026-10-18
 		{
-			return stepForIn(element);
+			// START AGT#11 2026-10-18
+			//return stepForIn(element);
+			return stepForIn(element, plan);
+			// END AGT#11 2026-10-18
 		}
 		// END KGU#61 2016-03-21
 		String trouble = new String();
@@ -5960,7 +8655,10 @@ public class Executor implements Runnable
 //			// 3. the pas value was parsed again and again in every loop.
 //			// 4. It's certainly not consistent with code export
 //			// To solve 2 and 3 we provide the Integer conversion once in advance
-			int sval = element.getStepConst();
+			// START AGT#11 2026-10-18
+			//int sval = element.getStepConst();
+			int sval = plan.stepConst;
+			// END AGT#11 2026-10-18
 			// END KGU#3 2015-10-31
                             
 			// START KGU#3 2015-10-27: Now replaced by For-intrinsic mechanisms
@@ -5979,7 +8677,10 @@ public class Executor implements Runnable
 //			// do other transformations
 //			str = CGenerator.transform(str);
 //			String counter = str.substring(0, str.indexOf("="));
-			String counter = element.getCounterVar();
+			// START AGT#11 2026-10-18
+			//String counter = element.getCounterVar();
+			String counter = plan.counter;
+			// END AGT#11 2026-10-18
 			// END KGU#3 2015-10-27
 			// complete
 			
@@ -5987,81 +8688,116 @@ public class Executor implements Runnable
 			context.forLoopVars.add(counter);
 			// END KGU#307 2016-12-12
 
-			// START KGU#3 2015-10-27: Now replaced by For-intrinsic mechanisms
+			// START AGT#11 2026-10-18: Use the prepared expressions, integer literals needn't be evaluated at all
+//			// START KGU#3 2015-10-27: Now replaced by For-intrinsic mechanisms
 //			String s = str.substring(str.indexOf("=") + 1,
 //					str.indexOf("<=")).trim();
-			String s = element.getStartValue(); 
-			// END KGU#3 2015-10-27
-			s = convert(s);
-			// START KGU#417 2017-06-30: Enh. #424 - Turtleizer functions must be evaluated
-			s = this.evaluateDiagramControllerFunctions(s);
-			// END KGU#417 2017-06-30
-			Object n = this.evaluateExpression(s, false, false);
-			if (n == null)
-			{
-				// START KGU#197 2016-07-27: Localization support
-				//trouble = "<"+s+"> is not a correct or existing expression.";
-				trouble = control.msgInvalidExpr.getText().replace("%1", s);
-				// END KGU#197 2016-07-27
-			}
-			int ival = 0;
-			if (n instanceof Integer)
-			{
-				ival = (Integer) n;
-			}
-			else if (n instanceof Long)
-			{
-				ival = ((Long) n).intValue();
-			}
-			else if (n instanceof Float)
-			{
-				ival = ((Float) n).intValue();
-			}
-			else if (n instanceof Double)
-			{
-				ival = ((Double) n).intValue();
-			}
+//			String s = element.getStartValue(); 
+//			// END KGU#3 2015-10-27
+//			s = convert(s);
+//			// START KGU#417 2017-06-30: Enh. #424 - Turtleizer functions must be evaluated
+//			s = this.evaluateDiagramControllerFunctions(s);
+//			// END KGU#417 2017-06-30
+//			Object n = this.evaluateExpression(s, false, false);
+//			if (n == null)
+//			{
+//				// START KGU#197 2016-07-27: Localization support
+//				//trouble = "<"+s+"> is not a correct or existing expression.";
+//				trouble = Control.msgInvalidExpr.getText().replace("%1", s);
+//				// END KGU#197 2016-07-27
+//			}
+//			int ival = 0;
+//			if (n instanceof Integer)
+//			{
+//				ival = (Integer) n;
+//			}
+//			else if (n instanceof Long)
+//			{
+//				ival = ((Long) n).intValue();
+//			}
+//			else if (n instanceof Float)
+//			{
+//				ival = ((Float) n).intValue();
+//			}
+//			else if (n instanceof Double)
+//			{
+//				ival = ((Double) n).intValue();
+//			}
 
-			// START KGU#3 2015-10-27: Now replaced by For-intrinsic mechanisms
+//			// START KGU#3 2015-10-27: Now replaced by For-intrinsic mechanisms
 //			s = str.substring(str.indexOf("<=") + 2, str.length()).trim();
-			s = element.getEndValue();
-			// END KGU#3 2015-10-27
-			s = convert(s);
-			// START KGU#417 2017-06-30: Enh. #424 - Turtleizer functions must be evaluated
-			s = this.evaluateDiagramControllerFunctions(s);
-			// END KGU#417 2017-06-30
+//			s = element.getEndValue();
+//			// END KGU#3 2015-10-27
+//			s = convert(s);
+//			// START KGU#417 2017-06-30: Enh. #424 - Turtleizer functions must be evaluated
+//			s = this.evaluateDiagramControllerFunctions(s);
+//			// END KGU#417 2017-06-30
 			
-			n = this.evaluateExpression(s, false, false);
-			if (n == null)
-			{
-				// START KGU#197 2016-07-27: Localization support
-				//trouble = "<"+s+"> is not a correct or existing expression.";
-				trouble = control.msgInvalidExpr.getText().replace("%1", s);
-				// END KGU#197 2016-07-27
-			}
-			int fval = 0;
-			if (n instanceof Integer)
+//			n = this.evaluateExpression(s, false, false);
+//			if (n == null)
+//			{
+//				// START KGU#197 2016-07-27: Localization support
+//				//trouble = "<"+s+"> is not a correct or existing expression.";
+//				trouble = Control.msgInvalidExpr.getText().replace("%1", s);
+//				// END KGU#197 2016-07-27
+//			}
+//			int fval = 0;
+//			if (n instanceof Integer)
+//			{
+//				fval = (Integer) n;
+//			}
+//			else if (n instanceof Long)
+//			{
+//				fval = ((Long) n).intValue();
+//			}
+//			else if (n instanceof Float)
+//			{
+//				fval = ((Float) n).intValue();
+//			}
+//			else if (n instanceof Double)
+//			{
+//				fval = ((Double) n).intValue();
+//			}
+			int ival = 0;
+			if (plan.startConst != null)
 			{
-				fval = (Integer) n;
+				ival = plan.startConst;
 			}
-			else if (n instanceof Long)
+			else
 			{
-				fval = ((Long) n).intValue();
+				String s = this.evaluateDiagramControllerFunctions(convertStringComparison(plan.startExpr));
+				Object n = this.evaluateExpression(s, false, false);
+				if (n == null)
+				{
+					trouble = Control.msgInvalidExpr.getText().replace("%1", s);
+				}
+				ival = getLoopBoundValue(n);
 			}
-			else if (n instanceof Float)
+			int fval = 0;
+			if (plan.endConst != null)
 			{
-				fval = ((Float) n).intValue();
+				fval = plan.endConst;
 			}
-			else if (n instanceof Double)
+			else
 			{
-				fval = ((Double) n).intValue();
+				String s = this.evaluateDiagramControllerFunctions(convertStringComparison(plan.endExpr));
+				Object n = this.evaluateExpression(s, false, false);
+				if (n == null)
+				{
+					trouble = Control.msgInvalidExpr.getText().replace("%1", s);
+				}
+				fval = getLoopBoundValue(n);
 			}
+			// END AGT#11 2026-10-18
 
 			// START KGU#156 2016-03-11: Enh. #124
 			element.addToExecTotalCount(1, true);	// For the initialisation and first test
 			//END KGU#156 2016-03-11
 			
 			int cw = ival;
+			// START AGT#11 2026-10-18
+			boolean firstPass = true;
+			// END AGT#11 2026-10-18
 			// START KGU#77/KGU#78 2015-11-25: Leave if some kind of Jump statement has been executed
 			//while (((sval >= 0) ? (cw <= fval) : (cw >= fval)) && trouble.equals("") && (stop == false))
 			context.loopDepth++;
@@ -6071,7 +8807,18 @@ public class Executor implements Runnable
 			{
 				// START KGU#307 2016-12-12: Issue #307 - prepare warnings on loop variable manipulations
 				//setVar(counter, cw);
-				setVar(counter, cw, forLoopLevel-1);
+				// START AGT#11 2026-10-18: After the first (fully checked) assignment, a plain counter is set directly
+				//setVar(counter, cw, forLoopLevel-1);
+				if (firstPass || !plan.isPlainCounter)
+				{
+					setVar(counter, cw, forLoopLevel-1);
+					firstPass = false;
+				}
+				else
+				{
+					setLoopCounter(counter, cw, forLoopLevel-1);
+				}
+				// END AGT#11 2026-10-18
 				// END KGU#307 2016-12-12
 				element.waited = true;
 
@@ -6106,6 +8853,9 @@ public class Executor implements Runnable
 					diagram.redraw();
 				}
 				checkBreakpoint(element);
+				// START AGT#15 2026-10-18: Iterations count as steps for the budget (stops on excess)
+				this.checkBudget();
+				// END AGT#15 2026-10-18
 				delay();
 				element.executed = false;
 				element.waited = true;
@@ -6146,16 +8896,88 @@ public class Executor implements Runnable
 		return trouble;
 	}
 	
+	// START AGT#11 2026-10-18: Helpers for stepFor()
+	/**
+	 * Converts the evaluated start or end value of a counting FOR loop to int
+	 * @param n - the evaluation result
+	 * @return the (truncated) int value, 0 if {@code n} isn't numeric
+	 */
+	private int getLoopBoundValue(Object n)
+	{
+		int val = 0;
+		if (n instanceof Integer)
+		{
+			val = (Integer) n;
+		}
+		else if (n instanceof Long)
+		{
+			val = ((Long) n).intValue();
+		}
+		else if (n instanceof Float)
+		{
+			val = ((Float) n).intValue();
+		}
+		else if (n instanceof Double)
+		{
+			val = ((Double) n).intValue();
+		}
+		return val;
+	}
+	
+	/**
+	 * Sets the (plain) counter variable of a counting FOR loop to the given value as primitive int
+	 * without the analysis and checks of {@link #setVar(String, Object, int)}, which must already
+	 * have been passed with the first value.
+	 * @param counter - the counter variable name
+	 * @param value - the new counter value
+	 * @param ignoreLoopStackLevel - the loop nesting level beyond which loop variables aren't critical
+	 * @throws EvalError
+	 */
+	private void setLoopCounter(String counter, int value, int ignoreLoopStackLevel) throws EvalError
+	{
+		try {
+			// START AGT#12 2026-10-18
+			//context.interpreter.set(counter, value);
+			if (context.frame == null || !context.frame.store(counter, value)) {
+				context.interpreter.set(counter, value);
+			}
+			// END AGT#12 2026-10-18
+		}
+		catch (EvalError ex) {
+			// Let the general mechanism cope with it (or produce the appropriate message)
+			setVar(counter, value, ignoreLoopStackLevel);
+			return;
+		}
+		// START AGT#18 2026-10-18
+		this.postEvent(ExecutionEvent.Kind.VARIABLE_ASSIGNED, null, counter, value);
+		// END AGT#18 2026-10-18
+		// START AGT#10 2026-10-18
+		this.traceAssignment(counter, false);
+		// END AGT#10 2026-10-18
+		if (this.delay != 0 || step)
+		{
+			updateVariableDisplay();
+		}
+	}
+	// END AGT#11 2026-10-18
+	
 	// START KGU#61 2016-03-21: Enh. #84
 	// This executes FOR-IN loops
-	private String stepForIn(For element)
+	// START AGT#11 2026-10-18: Use the prepared loop plan
+	//private String stepForIn(For element)
+	private String stepForIn(For element, ForLoopPlan plan)
+	// END AGT#11 2026-10-18
 	{
 		String trouble = new String();
 		// START KGU#307 2016-12-12: Issue #307 - prepare warnings on loop variable manipulations
 		int forLoopLevel = context.forLoopVars.count();
 		// END KGU#307 2016-12-12
-		String valueListString = element.getValueList();
-		String iterVar = element.getCounterVar();
+		// START AGT#11 2026-10-18
+		//String valueListString = element.getValueList();
+		//String iterVar = element.getCounterVar();
+		String valueListString = plan.valueList;
+		String iterVar = plan.counter;
+		// END AGT#11 2026-10-18
 		Object[] valueList = null;
 		String problem = "";	// Gathers exception descriptions for analysis purposes
 		Object value = null;
@@ -6272,11 +9094,11 @@ public class Executor implements Runnable
 
 		if (valueList == null)
 		{
-			trouble = control.msgBadValueList.getText().replace("%", valueListString);
+			trouble = Control.msgBadValueList.getText().replace("%", valueListString);
 			// START KGU 2016-07-06: Privide the gathered information
 			if (!problem.isEmpty())
 			{
-				trouble += "\n" + control.msgBadValueListDetails.getText().replace("%", problem);
+				trouble += "\n" + Control.msgBadValueListDetails.getText().replace("%", problem);
 			}
 			// END KGU 2016-07-06
 		}
@@ -6328,6 +9150,9 @@ public class Executor implements Runnable
 							cw++;
 							// Symbolizes the loop condition check 
 							checkBreakpoint(element);
+							// START AGT#15 2026-10-18: Iterations count as steps for the budget (stops on excess)
+							this.checkBudget();
+							// END AGT#15 2026-10-18
 							delay();
 						}
 						element.addToExecTotalCount(1, true);	// For the condition evaluation
@@ -6364,6 +9189,11 @@ public class Executor implements Runnable
 	
 	private String stepParallel(Parallel element)
 	{
+		// START AGT#8 2026-10-18: Opt-in real concurrency
+		if (this.concurrentParallel && element.qs.size() > 1) {
+			return stepParallelConcurrently(element);
+		}
+		// END AGT#8 2026-10-18
 		String trouble = new String();
 		try
 		{
@@ -6379,7 +9209,19 @@ public class Executor implements Runnable
 			element.waited = true;
 			// Since we can hardly really execute this in parallel here,
 			// the workaround is to run all the "threads" in a randomly chosen order...
-			Random rdmGenerator = new Random(System.currentTimeMillis());
+			// START AGT#10 2026-10-18: Record the seed to the trace
+			//Random rdmGenerator = new Random(System.currentTimeMillis());
+			long seed = System.currentTimeMillis();
+			if (this.traceRecorder != null) {
+				try {
+					this.traceRecorder.recordSeed(seed);
+				} catch (IOException ex) {
+					logger.log(Level.WARNING, "Trace recording to " + this.traceFile + " failed", ex);
+					this.traceRecorder = null;
+				}
+			}
+			Random rdmGenerator = new Random(seed);
+			// END AGT#10 2026-10-18
 
 			// The first condition holds if there is at least one unexhausted "thread"
 			// START KGU#77/KGU#78 2015-11-25: Leave if some kind of Jump statement has been executed
@@ -6422,9 +9264,16 @@ public class Executor implements Runnable
 						//JOptionPane.showMessageDialog(diagram, "Uncaught attempt to jump out of a parallel thread:\n\n" + 
 						//		instr.getText().getText().replace("\n",  "\n\t") + "\n\nThread killed!",
 						//		"Parallel Execution Problem", JOptionPane.WARNING_MESSAGE);
-						JOptionPane.showMessageDialog(diagram.getParent(), control.msgJumpOutParallel.getText().replace("%", "\n\n" + 
+						// START AGT#3 2026-10-18: Headless mode - no dialog
+						if (this.isHeadless) {
+							logger.log(Level.WARNING, Control.msgJumpOutParallel.getText().replace("%", "\n\n" + 
+									instr.getText().getText().replace("\n",  "\n\t") + "\n\n"));
+						}
+						else
+						// END AGT#3 2026-10-18
+						JOptionPane.showMessageDialog(diagram.getParent(), Control.msgJumpOutParallel.getText().replace("%", "\n\n" + 
 								instr.getText().getText().replace("\n",  "\n\t") + "\n\n"),
-								control.msgTitleParallel.getText(), JOptionPane.WARNING_MESSAGE);
+								Control.msgTitleParallel.getText(), JOptionPane.WARNING_MESSAGE);
 						// END KGU#247 2016-09-17
 					}
 					// END KGU#78 2015-11-25
@@ -6443,6 +9292,181 @@ public class Executor implements Runnable
 		return trouble;
 	}
 
+	// START AGT#8 2026-10-18: Opt-in concurrent execution of Parallel branches
+	/**
+	 * Executes the branches of the given {@link Parallel} element truly concurrently, each by a
+	 * branch Executor of its own on a worker thread (virtual threads if the Java runtime supports
+	 * them, a bounded pool otherwise). The branches share the variables existing before (the
+	 * interpreter namespace is thread-safe per access, so real races may occur), variables and
+	 * constants introduced by a branch are adopted after all branches have terminated (join).
+	 * The first error raised by a branch stops the siblings.
+	 * @param element - the Parallel element
+	 * @return the error message (empty if there was no trouble)
+	 */
+	private String stepParallelConcurrently(Parallel element)
+	{
+		String trouble = "";
+		int nBranches = element.qs.size();
+		element.waited = true;
+		Vector<Executor> branches = new Vector<Executor>(nBranches);
+		int oldExecCount = 0;
+		for (int i = 0; i < nBranches; i++) {
+			oldExecCount += getExecStepCount(element.qs.get(i));
+		}
+		ExecutorService pool = createBranchPool(nBranches);
+		CompletionService<String> completion = new ExecutorCompletionService<String>(pool);
+		try {
+			for (int i = 0; i < nBranches; i++) {
+				final Executor branch = new Executor(this, this.createBranchContext());
+				final Subqueue sq = element.qs.get(i);
+				branches.add(branch);
+				this.activeBranches.add(branch);
+				completion.submit(new Callable<String>() {
+					@Override
+					public String call() throws Exception {
+						return branch.stepSubqueue(sq, false);
+					}
+				});
+			}
+			// Join - in order of termination, such that a failing branch may stop the others at once
+			for (int i = 0; i < nBranches; i++) {
+				String branchTrouble = "";
+				try {
+					branchTrouble = completion.take().get();
+				}
+				catch (ExecutionException ex) {
+					branchTrouble = ex.getCause().toString();
+				}
+				catch (InterruptedException ex) {
+					branchTrouble = Control.msgManualBreak.getText();
+				}
+				if (!branchTrouble.isEmpty() && trouble.isEmpty()) {
+					trouble = branchTrouble;
+					synchronized (this.activeBranches) {
+						for (Executor branch: branches) {
+							branch.setStop(true);
+						}
+					}
+				}
+			}
+		}
+		finally {
+			pool.shutdown();
+			this.activeBranches.removeAll(branches);
+		}
+		int newExecCount = 0;
+		for (int i = 0; i < nBranches; i++) {
+			this.joinBranch(branches.get(i));
+			newExecCount += getExecStepCount(element.qs.get(i));
+		}
+		element.addToExecTotalCount(newExecCount - oldExecCount, false);
+		if (trouble.isEmpty())
+		{
+			// Recursively reset all `waited´ flags of the subqueues now finished
+			element.clearExecutionStatus();
+		}
+		return trouble;
+	}
+
+	/**
+	 * @param sq - a branch of a Parallel element
+	 * @return the sum of the aggregated operation step counts of the elements of {@code sq}
+	 */
+	private static int getExecStepCount(Subqueue sq)
+	{
+		int count = 0;
+		for (int i = 0; i < sq.getSize(); i++) {
+			count += sq.getElement(i).getExecStepCount(true);
+		}
+		return count;
+	}
+
+	/**
+	 * Creates a thread pool for the concurrent execution of {@code nBranches} Parallel branches.
+	 * Uses virtual threads where the Java runtime provides them (detected via reflection).
+	 * @param nBranches - number of branches
+	 * @return the thread pool
+	 */
+	private static ExecutorService createBranchPool(int nBranches)
+	{
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService)factory.invoke(null);
+		}
+		catch (Exception ex) {
+			// Java runtime without virtual threads
+		}
+		// All branches must be able to run at the same time lest they might block each other
+		return Executors.newFixedThreadPool(Math.min(nBranches, MAX_BRANCH_THREADS));
+	}
+
+	/**
+	 * Creates the execution context for a concurrent branch: same diagram, and a new
+	 * interpreter the namespace of which is a child of the current one. Hence, all
+	 * existing variables are shared, whereas new variables remain local to the branch
+	 * until it is joined (see {@link #joinBranch(Executor)}).
+	 * @return the new execution context
+	 */
+	private ExecutionContext createBranchContext()
+	{
+		Interpreter interpreter = new Interpreter(new StringReader(""), System.out, System.err, false,
+				new NameSpace(this.context.interpreter.getNameSpace(), "branch"));
+		ExecutionContext branchContext = new ExecutionContext(this.context.root, this.context.importList.copy(), interpreter);
+		branchContext.variables = this.context.variables.copy();
+		branchContext.forLoopVars = this.context.forLoopVars.copy();
+		branchContext.constants.putAll(this.context.constants);
+		branchContext.dynTypeMap.putAll(this.context.dynTypeMap);
+		return branchContext;
+	}
+
+	/**
+	 * Adopts the variables, constants, and types introduced by the terminated branch {@code _branch}
+	 * as well as a performed return or exit, and its step count.
+	 * @param _branch - the branch Executor
+	 */
+	private void joinBranch(Executor _branch)
+	{
+		ExecutionContext branchContext = _branch.context;
+		// START AGT#12 2026-10-18: The branch may have modified shared variables in the parent namespace
+		if (this.context.frame != null) {
+			this.context.frame.invalidate();
+		}
+		// END AGT#12 2026-10-18
+		// START AGT#10 2026-10-18: Record all variables with the next step
+		this.traceContext = null;
+		// END AGT#10 2026-10-18
+		for (String varName: branchContext.interpreter.getNameSpace().getVariableNames()) {
+			try {
+				this.context.interpreter.set(varName, branchContext.interpreter.get(varName));
+			}
+			catch (EvalError ex) {
+				logger.log(Level.WARNING, "joinBranch({0}): {1}", new Object[]{varName, ex.getMessage()});
+			}
+		}
+		for (int i = 0; i < branchContext.variables.count(); i++) {
+			this.context.variables.addIfNew(branchContext.variables.get(i));
+		}
+		for (Entry<String, Object> constEntry: branchContext.constants.entrySet()) {
+			if (!this.context.constants.containsKey(constEntry.getKey())) {
+				this.context.constants.put(constEntry.getKey(), constEntry.getValue());
+			}
+		}
+		for (Entry<String, TypeMapEntry> typeEntry: branchContext.dynTypeMap.entrySet()) {
+			if (!this.context.dynTypeMap.containsKey(typeEntry.getKey())) {
+				this.context.dynTypeMap.put(typeEntry.getKey(), typeEntry.getValue());
+			}
+		}
+		if (branchContext.returned && !this.context.returned) {
+			this.context.returned = true;
+			this.context.returnedValue = branchContext.returnedValue;
+		}
+		if (_branch.exitCode != null && this.exitCode == null) {
+			this.exitCode = _branch.exitCode;
+		}
+		this.stepCount += _branch.stepCount;
+	}
+	// END AGT#8 2026-10-18
+
 	// START KGU#117 2016-03-07: Enh. #77 - to track test coverage a consistent subqueue handling is necessary
 	String stepSubqueue(Subqueue sq, boolean checkLeave)
 	{
@@ -6466,7 +9490,12 @@ public class Executor implements Runnable
 		{
 			sq.deeplyCovered = sq.simplyCovered = true;
 			// START KGU#156 2016-03-11: Enh. #124
-			sq.countExecution();
+			// START AGT#4 2026-10-18
+			//sq.countExecution();
+			if (this.collectingCounts) {
+				sq.countExecution();
+			}
+			// END AGT#4 2026-10-18
 			//END KGU#156 2016-03-11
 		}
 		return trouble;
@@ -6494,6 +9523,41 @@ public class Executor implements Runnable
 	protected Object evaluateExpression(String _expr, boolean _withInitializers, boolean _preserveBrackets) throws EvalError
 	{
 		Object value = null;
+		// START AGT#1 2026-10-18: Value-independent part extracted (also needed for prepared lines)
+		StringList tokens = this.prepareExpressionTokens(_expr, _preserveBrackets);
+		// START KGU#100/KGU#388 2017-09-29: Enh. #84, #423 TODO Make this available at more places
+		if (tokens.get(tokens.count()-1).equals("}") && _withInitializers) {
+			TypeMapEntry recordType = null;
+			// START KGU#100 2016-01-14: Enh. #84 - accept array assignments with syntax array <- {val1, val2, ..., valN}
+			if (tokens.get(0).equals("{")) {			
+				value = evaluateArrayInitializer(_expr, tokens);
+			}
+			// END KGU#100 2016-01-14
+			// START KGU#388 2017-09-13: Enh. #423 - accept record assignments with syntax recordVar <- typename{comp1: val1, comp2: val2, ..., compN: valN}
+			else if (tokens.get(1).equals("{") && (recordType = identifyRecordType(tokens.get(0), true)) != null) {
+				value = evaluateRecordInitializer(_expr, tokens, recordType);
+			}
+			// END KGU#388 2017-09-13
+		}
+		// END KGU#100/KGU#388 2017-09-29
+		else
+		{
+			value = this.evaluatePreparedExpression(tokens.concatenate());
+		}
+		return value;
+	}
+	
+	/**
+	 * Tokenizes the converted expression {@code _expr} and does the value-independent preparation
+	 * for the interpreter: replacement of array index brackets by get() calls (unless
+	 * {@code _preserveBrackets} is true) and of record component access by map retrieval.
+	 * @param _expr - the converted expression
+	 * @param _preserveBrackets - if true then brackets won't be substituted
+	 * @return the prepared tokens
+	 * @see #evaluateExpression(String, boolean, boolean)
+	 */
+	private StringList prepareExpressionTokens(String _expr, boolean _preserveBrackets)
+	{
 		StringList tokens = Element.splitLexically(_expr, true);
 		// START KGU#439 2017-10-13: Enh. #436 Arrays now represented by ArrayLists
 		if (!_preserveBrackets) {
@@ -6519,70 +9583,107 @@ public class Executor implements Runnable
 				tokens.remove(i+1);
 			}
 		}
-		// START KGU#100/KGU#388 2017-09-29: Enh. #84, #423 TODO Make this available at more places
-		if (tokens.get(tokens.count()-1).equals("}") && _withInitializers) {
-			TypeMapEntry recordType = null;
-			// START KGU#100 2016-01-14: Enh. #84 - accept array assignments with syntax array <- {val1, val2, ..., valN}
-			if (tokens.get(0).equals("{")) {			
-				value = evaluateArrayInitializer(_expr, tokens);
+		return tokens;
+	}
+	
+	/**
+	 * Evaluates the expression {@code expr} as prepared by {@link #prepareExpressionTokens(String, boolean)}
+	 * (without initializers), natively if possible, otherwise by the interpreter.
+	 * @param expr - the prepared expression
+	 * @return the evaluated result if successful 
+	 * @throws EvalError an exception if something went wrong
+	 */
+	private Object evaluatePreparedExpression(String expr) throws EvalError
+	{
+		Object value = null;
+		// END AGT#1 2026-10-18
+		// Possibly our resolution of qualified names went too far. For this case give it some more tries
+		// with partially undone conversions. This should not noticeably slow down the evaluation in case
+		// no error occurs.
+		boolean error423 = false;
+		// START AGT#1 2026-10-18
+		//String expr = tokens.concatenate();
+		// END AGT#1 2026-10-18
+		// START AGT#2 2026-10-18: Try a direct evaluation first (without parsing again)
+		NativeExpression nativeExpr = null;
+		if (this.nativeExpressions.containsKey(expr)) {
+			nativeExpr = this.nativeExpressions.get(expr);
+		}
+		else {
+			if (this.nativeExpressions.size() >= MAX_NATIVE_EXPRESSIONS) {
+				this.nativeExpressions.clear();
 			}
-			// END KGU#100 2016-01-14
-			// START KGU#388 2017-09-13: Enh. #423 - accept record assignments with syntax recordVar <- typename{comp1: val1, comp2: val2, ..., compN: valN}
-			else if (tokens.get(1).equals("{") && (recordType = identifyRecordType(tokens.get(0), true)) != null) {
-				value = evaluateRecordInitializer(_expr, tokens, recordType);
+			nativeExpr = NativeExpression.compile(expr);
+			this.nativeExpressions.put(expr, nativeExpr);
+		}
+		// START AGT#7 2026-10-18: Measure the evaluation time for the profile
+		long startTime = Element.E_COLLECTRUNTIMEDATA ? System.nanoTime() : 0;
+		// END AGT#7 2026-10-18
+		if (nativeExpr != null) {
+			try {
+				// START AGT#7 2026-10-18
+				// START AGT#12 2026-10-18: Numeric variables are preferably read from the frame slots
+				value = nativeExpr.evaluate(this.getEvaluationNameSpace(), context.frame);
+				// END AGT#12 2026-10-18
+				if (Element.E_COLLECTRUNTIMEDATA) {
+					this.profileEvalTime += System.nanoTime() - startTime;
+				}
+				return value;
+				// END AGT#7 2026-10-18
+			}
+			catch (NativeExpression.FallbackException ex) {
+				// Let the interpreter do it (and possibly compose an error message)
 			}
-			// END KGU#388 2017-09-13
 		}
-		// END KGU#100/KGU#388 2017-09-29
-		else
-		{
-			// Possibly our resolution of qualified names went too far. For this case give it some more tries
-			// with partially undone conversions. This should not noticeably slow down the evaluation in case
-			// no error occurs.
-			boolean error423 = false;
-			String expr = tokens.concatenate();
-			do {
-				error423 = false;
-				try {
-					value = context.interpreter.eval(expr);
-				}
-				catch (EvalError err) {
-					String error423message = err.getMessage(); 
-					if (error423message.contains(ERROR423MESSAGE)) {
-						if (ERROR423MATCHER.reset(error423message).matches()) {
-							// Restore the assumed original attribute access and try again
-							// (this will at least induce a less confusing message)
-							// Could still be improved as we obtain in the end of the message the very name
-							expr = ERROR423MATCHER.group(1) + ERROR423MATCHER.group(2) + ERROR423MATCHER.group(3);
-							error423 = true;
-						}
+		// END AGT#2 2026-10-18
+		do {
+			error423 = false;
+			try {
+				value = context.interpreter.eval(expr);
+			}
+			catch (EvalError err) {
+				String error423message = err.getMessage(); 
+				if (error423message.contains(ERROR423MESSAGE)) {
+					if (ERROR423MATCHER.reset(error423message).matches()) {
+						// Restore the assumed original attribute access and try again
+						// (this will at least induce a less confusing message)
+						// Could still be improved as we obtain in the end of the message the very name
+						expr = ERROR423MATCHER.group(1) + ERROR423MATCHER.group(2) + ERROR423MATCHER.group(3);
+						error423 = true;
 					}
-					// START KGU#509 2018-03-20: Issue #527 - index range problem detection for more helpful message
-					else if (ERROR527MATCHER.reset(error423message).matches()) {
-						try {
-							Object potArray = context.interpreter.eval(ERROR527MATCHER.group(4));
-							Object potIndex = context.interpreter.eval(ERROR527MATCHER.group(2));
-							if (potArray instanceof ArrayList && potIndex instanceof Integer) {
-								int index = ((Integer)potIndex).intValue();
-								if (index < 0 || index >= ((ArrayList<?>)potArray).size()) {
-									err.setMessage(control.msgIndexOutOfBounds.getText().
-											replace("%1", ERROR527MATCHER.group(2)).
-											replace("%2", Integer.toString(index)).
-											replace("%3", ERROR527MATCHER.group(4)));
-								}
+				}
+				// START KGU#509 2018-03-20: Issue #527 - index range problem detection for more helpful message
+				else if (ERROR527MATCHER.reset(error423message).matches()) {
+					try {
+						Object potArray = context.interpreter.eval(ERROR527MATCHER.group(4));
+						Object potIndex = context.interpreter.eval(ERROR527MATCHER.group(2));
+						if (potArray instanceof ArrayList && potIndex instanceof Integer) {
+							int index = ((Integer)potIndex).intValue();
+							if (index < 0 || index >= ((ArrayList<?>)potArray).size()) {
+								err.setMessage(Control.msgIndexOutOfBounds.getText().
+										replace("%1", ERROR527MATCHER.group(2)).
+										replace("%2", Integer.toString(index)).
+										replace("%3", ERROR527MATCHER.group(4)));
 							}
 						}
-						catch (EvalError err1) {
-							
-						}
 					}
-					// END KGU#509 2018-03-20
-					if (!error423) {
-						throw err;
+					catch (EvalError err1) {
+						
 					}
 				}
-			} while (error423);
-		}
+				// END KGU#509 2018-03-20
+				if (!error423) {
+					throw err;
+				}
+			}
+			// START AGT#7 2026-10-18
+			finally {
+				if (Element.E_COLLECTRUNTIMEDATA && !error423) {
+					this.profileEvalTime += System.nanoTime() - startTime;
+				}
+			}
+			// END AGT#7 2026-10-18
+		} while (error423);
 		return value;
 	}
 	// END KGU#388 2017-09-16
@@ -6603,10 +9704,13 @@ public class Executor implements Runnable
 		StringList elementExprs = Element.splitExpressionList(tokens.subSequence(1, tokens.count()-1), ",", true);
 		int nElements = elementExprs.count();
 		if (!elementExprs.get(nElements-1).isEmpty()) {
-			throw new EvalError(control.msgInvalidExpr.getText().replace("%1", _expr), null, null);				
+			throw new EvalError(Control.msgInvalidExpr.getText().replace("%1", _expr), null, null);				
 		}
 		elementExprs.remove(--nElements);
-		ArrayList<Object> valueArray = new ArrayList<Object>(nElements);
+		// START AGT#14 2026-10-18: Arrays with numeric contents are held unboxed
+		//ArrayList<Object> valueArray = new ArrayList<Object>(nElements);
+		ArrayList<Object> valueArray = new NumericArrayList(nElements);
+		// END AGT#14 2026-10-18
 		for (int i = 0; i < nElements; i++) {
 			valueArray.add(evaluateExpression(elementExprs.get(i), true, false));
 		}
@@ -6629,7 +9733,7 @@ public class Executor implements Runnable
 		HashMap<String, String> components = Element.splitRecordInitializer(tokens.concatenate(null), recordType);
 		// END KGU#559 2018-07-20
 		if (components == null || components.containsKey("§TAIL§")) {
-			throw new EvalError(control.msgInvalidExpr.getText().replace("%1", _expr), null, null);
+			throw new EvalError(Control.msgInvalidExpr.getText().replace("%1", _expr), null, null);
 		}
 		HashMap<String, Object> valueRecord = new LinkedHashMap<String, Object>();
 		valueRecord.put("§TYPENAME§", components.remove("§TYPENAME§"));
@@ -6641,7 +9745,7 @@ public class Executor implements Runnable
 				valueRecord.put(comp.getKey(), this.evaluateExpression(comp.getValue(), true, false));
 			}
 			else {
-				throw new EvalError(control.msgInvalidComponent.getText().replace("%1", comp.getKey()).replace("%2", recordType.typeName), null, null);
+				throw new EvalError(Control.msgInvalidComponent.getText().replace("%1", comp.getKey()).replace("%2", recordType.typeName), null, null);
 			}
 		}
 //		value = context.interpreter.get("tmp20170913kgu");
@@ -6761,7 +9865,12 @@ public class Executor implements Runnable
 	// START KGU#156 2016-03-10: An interface for an external update trigger was needed
 	public void redraw()
 	{
-		diagram.repaint();
+		// START AGT#3 2026-10-18: Headless mode - no diagram
+		//diagram.repaint();
+		if (!this.isHeadless) {
+			diagram.repaint();
+		}
+		// END AGT#3 2026-10-18
 	}
 	// END KGU#156 2016-03-10
 	
@@ -0,0 +1,482 @@
+/*
+    Structorizer
+    A little tool which you can use to create Nassi-Schneiderman Diagrams (NSD)
+
+    Copyright (C) 2009  Bob Fisch
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or any
+    later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package lu.fisch.structorizer.executor;
+
+/******************************************************************************************************
+ *
+ *      Author:         agent
+ *
+ *      Description:    Compiled implementation of the simple text file API (#314) for the Executor.
+ *
+ ******************************************************************************************************
+ *
+ *      Revision List
+ *
+ *      Author          Date            Description
+ *      ------          ----            -----------
+ *      agent           2026.10.18      First Issue (AGT#17)
+ *
+ ******************************************************************************************************
+ *
+ *      Comment:
+ *      2026.10.18 / agent
+ *      - Replaces the interpreted method definitions formerly held in Executor.builtInFunctions. The
+ *        instance is set as variable into the prototype namespace of the interpreter, where one-line
+ *        adapter methods delegate to it (these also check the file number, such that invalid handles
+ *        still produce the localized error messages of Control in the execution error reports).
+ *      - Files are accessed via NIO file channels with a large byte buffer, the character set is
+ *        configurable (UTF-8 by default). Token scanning semantics are the same as before.
+ *
+ ******************************************************************************************************///
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Scanner;
+import java.util.regex.Pattern;
+
+/**
+ * Implements the file API routines (fileOpen, fileCreate, fileAppend, fileClose, fileEOF, fileRead,
+ * fileReadChar, fileReadInt, fileReadDouble, fileReadLine, fileWrite, fileWriteLine) on behalf of
+ * the {@link Executor}. The file handles are 1-based indices into the given list of open files.
+ * @author agent
+ * @see Executor#fileAPI_names
+ */
+public class FileAPI {
+
+	/** Size of the byte buffers between file channels and character decoders / encoders */
+	public static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final Pattern PATTERN_DQ_STRING = Pattern.compile("\\\".*?\\\"");
+	private static final Pattern PATTERN_SQ_STRING = Pattern.compile("'.*?'");
+	private static final Pattern PATTERN_ARRAY = Pattern.compile("\\{.*?\\}");
+	private static final Pattern PATTERN_DQ_START = Pattern.compile("\\\".*");
+	private static final Pattern PATTERN_DQ_END = Pattern.compile(".*\\\"");
+	private static final Pattern PATTERN_SQ_START = Pattern.compile("'.*");
+	private static final Pattern PATTERN_SQ_END = Pattern.compile(".*'");
+	private static final Pattern PATTERN_ARRAY_START = Pattern.compile("\\{.*");
+	private static final Pattern PATTERN_ARRAY_END = Pattern.compile("\\}");
+	private static final Pattern PATTERN_BRACE_DELIM = Pattern.compile("\\}");
+	private static final Pattern PATTERN_ELEMENT_SEPARATOR = Pattern.compile("\\p{javaWhitespace}*,\\p{javaWhitespace}*");
+	private static final Pattern PATTERN_ANY_CHAR = Pattern.compile(".");
+	private static final Pattern PATTERN_NO_DELIM = Pattern.compile("");
+
+	private final List<Closeable> openFiles;
+	private File currentDirectory;
+	private Charset charset = Charset.forName("UTF-8");
+
+	/**
+	 * Creates a file API instance working on the given handle list
+	 * @param _openFiles - the list of open files (shared with the {@link Executor}, which closes them)
+	 * @param _currentDirectory - the directory relative paths are to be resolved against
+	 */
+	public FileAPI(List<Closeable> _openFiles, File _currentDirectory)
+	{
+		this.openFiles = _openFiles;
+		this.currentDirectory = _currentDirectory;
+	}
+
+	/**
+	 * Sets the character set for files opened subsequently
+	 * @param _charset - the character set (null means UTF-8)
+	 */
+	public void setCharset(Charset _charset)
+	{
+		this.charset = (_charset != null) ? _charset : Charset.forName("UTF-8");
+	}
+
+	/**
+	 * @return the character set used for files opened subsequently
+	 */
+	public Charset getCharset()
+	{
+		return this.charset;
+	}
+
+	/**
+	 * Sets the directory relative file paths are to be resolved against
+	 * @param _currentDirectory - an existing directory
+	 */
+	public void setCurrentDirectory(File _currentDirectory)
+	{
+		this.currentDirectory = _currentDirectory;
+	}
+
+	/*===================================== Handle checks ======================================*/
+
+	/**
+	 * @param fileNo - a file handle
+	 * @return true if {@code fileNo} is within the range of handles ever delivered
+	 */
+	public boolean isValidFileNumber(int fileNo)
+	{
+		return fileNo > 0 && fileNo <= openFiles.size();
+	}
+
+	/**
+	 * @param fileNo - a file handle
+	 * @return true if {@code fileNo} denotes a file currently open for reading
+	 */
+	public boolean isReadable(int fileNo)
+	{
+		return isValidFileNumber(fileNo) && openFiles.get(fileNo - 1) instanceof Scanner;
+	}
+
+	/**
+	 * @param fileNo - a file handle
+	 * @return true if {@code fileNo} denotes a file currently open for writing
+	 */
+	public boolean isWritable(int fileNo)
+	{
+		return isValidFileNumber(fileNo) && openFiles.get(fileNo - 1) instanceof BufferedWriter;
+	}
+
+	/*===================================== File opening ======================================*/
+
+	/**
+	 * Opens the text file with the given path for reading.
+	 * @param filePath - absolute path or path relative to the current directory
+	 * @return the file handle (&gt; 0) or an error code (-1: I/O error, -2: file not found,
+	 * -3: security violation)
+	 */
+	public int fileOpen(String filePath)
+	{
+		int fileNo = 0;
+		try {
+			FileChannel channel = FileChannel.open(resolve(filePath).toPath(), StandardOpenOption.READ);
+			Scanner scanner = new Scanner(Channels.newReader(channel,
+					charset.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE),
+					BUFFER_SIZE));
+			fileNo = register(scanner);
+		}
+		catch (SecurityException e) { fileNo = -3; }
+		catch (InvalidPathException e) { fileNo = -2; }
+		catch (NoSuchFileException e) { fileNo = -2; }
+		catch (AccessDeniedException e) { fileNo = -2; }
+		catch (NotDirectoryException e) { fileNo = -2; }
+		catch (IOException e) { fileNo = -1; }
+		return fileNo;
+	}
+
+	/**
+	 * Creates (or truncates) the text file with the given path for writing.
+	 * @param filePath - absolute path or path relative to the current directory
+	 * @return the file handle (&gt; 0) or an error code (-1: I/O error, -2: file not found,
+	 * -3: security violation)
+	 */
+	public int fileCreate(String filePath)
+	{
+		return openForWriting(filePath, StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	/**
+	 * Opens (or creates) the text file with the given path for appending.
+	 * @param filePath - absolute path or path relative to the current directory
+	 * @return the file handle (&gt; 0) or an error code (-1: I/O error, -2: file not found,
+	 * -3: security violation)
+	 */
+	public int fileAppend(String filePath)
+	{
+		return openForWriting(filePath, StandardOpenOption.APPEND);
+	}
+
+	private int openForWriting(String filePath, OpenOption mode)
+	{
+		int fileNo = 0;
+		try {
+			FileChannel channel = FileChannel.open(resolve(filePath).toPath(),
+					StandardOpenOption.WRITE, StandardOpenOption.CREATE, mode);
+			BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel,
+					charset.newEncoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE),
+					BUFFER_SIZE));
+			fileNo = register(writer);
+		}
+		catch (SecurityException e) { fileNo = -3; }
+		catch (InvalidPathException e) { fileNo = -2; }
+		catch (NoSuchFileException e) { fileNo = -2; }
+		catch (AccessDeniedException e) { fileNo = -2; }
+		catch (NotDirectoryException e) { fileNo = -2; }
+		catch (IOException e) { fileNo = -1; }
+		return fileNo;
+	}
+
+	/**
+	 * Closes the file with the given handle (if open).
+	 * @param fileNo - the file handle
+	 */
+	public void fileClose(int fileNo)
+	{
+		synchronized (openFiles) {
+			if (fileNo > 0 && fileNo <= openFiles.size()) {
+				Closeable file = openFiles.get(fileNo - 1);
+				if (file != null) {
+					try { file.close(); }
+					catch (IOException e) {}
+					openFiles.set(fileNo - 1, null);
+				}
+			}
+		}
+	}
+
+	/*===================================== Reading ======================================*/
+
+	/**
+	 * Checks whether there is no further token in the file with the given handle.
+	 * @param fileNo - the handle of a file opened for reading
+	 * @return true if the end of the file has been reached (or the handle denotes no reader)
+	 * @throws IOException if the handle is out of range
+	 */
+	public boolean fileEOF(int fileNo) throws IOException
+	{
+		boolean isEOF = true;
+		if (isValidFileNumber(fileNo)) {
+			Closeable reader = openFiles.get(fileNo - 1);
+			if (reader instanceof Scanner) {
+				isEOF = !((Scanner)reader).hasNext();
+			}
+		}
+		else {
+			throw new IOException(Control.msgInvalidFileNumberRead.getText());
+		}
+		return isEOF;
+	}
+
+	/**
+	 * Reads the next token from the file with the given handle and converts it into an integer,
+	 * floating-point number, string or array according to its appearance.
+	 * @param fileNo - the handle of a file opened for reading
+	 * @return the interpreted value
+	 * @throws IOException if the handle does not denote a file opened for reading
+	 */
+	public Object fileRead(int fileNo) throws IOException
+	{
+		return getScannedObject(getScanner(fileNo));
+	}
+
+	/**
+	 * Reads the next character from the file with the given handle (a line end is delivered as '\n').
+	 * @param fileNo - the handle of a file opened for reading
+	 * @return the character
+	 * @throws IOException if the handle does not denote a file opened for reading
+	 */
+	public Character fileReadChar(int fileNo) throws IOException
+	{
+		Character result = '\0';
+		Scanner sc = getScanner(fileNo);
+		Pattern oldDelim = sc.delimiter();
+		sc.useDelimiter(PATTERN_NO_DELIM);
+		try {
+			if (!sc.hasNext(PATTERN_ANY_CHAR) && sc.hasNextLine()) {
+				sc.nextLine();
+				result = '\n';
+			}
+			else {
+				result = sc.next(PATTERN_ANY_CHAR).charAt(0);
+			}
+		}
+		finally {
+			sc.useDelimiter(oldDelim);
+		}
+		return result;
+	}
+
+	/**
+	 * Reads the next token from the file with the given handle as integer.
+	 * @param fileNo - the handle of a file opened for reading
+	 * @return the integer value
+	 * @throws IOException if the handle does not denote a file opened for reading
+	 */
+	public Integer fileReadInt(int fileNo) throws IOException
+	{
+		return getScanner(fileNo).nextInt();
+	}
+
+	/**
+	 * Reads the next token from the file with the given handle as floating-point number.
+	 * @param fileNo - the handle of a file opened for reading
+	 * @return the double value
+	 * @throws IOException if the handle does not denote a file opened for reading
+	 */
+	public Double fileReadDouble(int fileNo) throws IOException
+	{
+		return getScanner(fileNo).nextDouble();
+	}
+
+	/**
+	 * Reads the rest of the current line from the file with the given handle.
+	 * @param fileNo - the handle of a file opened for reading
+	 * @return the line content (without line separator)
+	 * @throws IOException if the handle does not denote a file opened for reading
+	 */
+	public String fileReadLine(int fileNo) throws IOException
+	{
+		return getScanner(fileNo).nextLine();
+	}
+
+	/*===================================== Writing ======================================*/
+
+	/**
+	 * Writes the string representation of {@code data} to the file with the given handle.
+	 * @param fileNo - the handle of a file opened for writing
+	 * @param data - the value to be written
+	 * @throws IOException if the handle does not denote a file opened for writing
+	 */
+	public void fileWrite(int fileNo, Object data) throws IOException
+	{
+		getWriter(fileNo).write(data.toString());
+	}
+
+	/**
+	 * Writes the string representation of {@code data} and a line separator to the file with
+	 * the given handle.
+	 * @param fileNo - the handle of a file opened for writing
+	 * @param data - the value to be written
+	 * @throws IOException if the handle does not denote a file opened for writing
+	 */
+	public void fileWriteLine(int fileNo, Object data) throws IOException
+	{
+		BufferedWriter writer = getWriter(fileNo);
+		writer.write(data.toString());
+		writer.newLine();
+	}
+
+	/*===================================== Helpers ======================================*/
+
+	private File resolve(String filePath)
+	{
+		File file = new File(filePath);
+		if (!file.isAbsolute() && currentDirectory != null) {
+			file = new File(currentDirectory, filePath);
+		}
+		return file;
+	}
+
+	private int register(Closeable file)
+	{
+		synchronized (openFiles) {
+			openFiles.add(file);
+			return openFiles.size();
+		}
+	}
+
+	private Scanner getScanner(int fileNo) throws IOException
+	{
+		if (isValidFileNumber(fileNo)) {
+			Closeable reader = openFiles.get(fileNo - 1);
+			if (reader instanceof Scanner) {
+				return (Scanner)reader;
+			}
+		}
+		throw new IOException(Control.msgInvalidFileNumberRead.getText());
+	}
+
+	private BufferedWriter getWriter(int fileNo) throws IOException
+	{
+		if (isValidFileNumber(fileNo)) {
+			Closeable writer = openFiles.get(fileNo - 1);
+			if (writer instanceof BufferedWriter) {
+				return (BufferedWriter)writer;
+			}
+		}
+		throw new IOException(Control.msgInvalidFileNumberWrite.getText());
+	}
+
+	/**
+	 * Fetches the next token from {@code sc} and interprets it as integer, floating-point number,
+	 * quoted string (possibly spanning several tokens) or braced array literal, otherwise just
+	 * returns the token as is.
+	 * @param sc - the scanner
+	 * @return the interpreted object
+	 */
+	private Object getScannedObject(Scanner sc)
+	{
+		Object result = null;
+		sc.useLocale(Locale.UK);
+		if (sc.hasNextInt()) { result = sc.nextInt(); }
+		else if (sc.hasNextDouble()) { result = sc.nextDouble(); }
+		else if (sc.hasNext(PATTERN_DQ_STRING)) {
+			String str = sc.next(PATTERN_DQ_STRING);
+			result = str.substring(1, str.length() - 1);
+		}
+		else if (sc.hasNext(PATTERN_SQ_STRING)) {
+			String str = sc.next(PATTERN_SQ_STRING);
+			result = str.substring(1, str.length() - 1);
+		}
+		else if (sc.hasNext(PATTERN_ARRAY)) {
+			String token = sc.next();
+			result = new NumericArrayList(new Object[]{token.substring(1, token.length()-1)});
+		}
+		else if (sc.hasNext(PATTERN_DQ_START)) {
+			result = scanQuotedString(sc, PATTERN_DQ_END);
+		}
+		else if (sc.hasNext(PATTERN_SQ_START)) {
+			result = scanQuotedString(sc, PATTERN_SQ_END);
+		}
+		else if (sc.hasNext(PATTERN_ARRAY_START)) {
+			Pattern oldDelim = sc.delimiter();
+			sc.useDelimiter(PATTERN_BRACE_DELIM);
+			String content = sc.next().trim().substring(1);
+			sc.useDelimiter(oldDelim);
+			if (sc.hasNext(PATTERN_ARRAY_END)) { sc.next(); }
+			String[] elements = {};
+			if (!content.isEmpty()) {
+				elements = PATTERN_ELEMENT_SEPARATOR.split(content);
+			}
+			Object[] objects = new Object[elements.length];
+			for (int i = 0; i < elements.length; i++) {
+				Scanner sc0 = new Scanner(elements[i]);
+				objects[i] = getScannedObject(sc0);
+				sc0.close();
+			}
+			result = new NumericArrayList(objects);
+		}
+		else { result = sc.next(); }
+		return result;
+	}
+
+	private String scanQuotedString(Scanner sc, Pattern endPattern)
+	{
+		StringBuilder str = new StringBuilder(sc.next());
+		while (sc.hasNext() && !sc.hasNext(endPattern)) {
+			str.append(' ').append(sc.next());
+		}
+		if (sc.hasNext()) { str.append(' ').append(sc.next()); }
+		return str.substring(1, str.length() - 1);
+	}
+
+}
@@ -0,0 +1,517 @@
+/*
+    Structorizer
+    A little tool which you can use to create Nassi-Schneiderman Diagrams (NSD)
+
+    Copyright (C) 2009  Bob Fisch
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or any
+    later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package lu.fisch.structorizer.executor;
+
+/******************************************************************************************************
+ *
+ *      Author:         agent
+ *
+ *      Description:    Concurrent batch execution of many diagrams against a set of test cases.
+ *
+ ******************************************************************************************************
+ *
+ *      Revision List
+ *
+ *      Author          Date            Description
+ *      ------          ----            -----------
+ *      agent           2026.10.18      First Issue (AGT#4)
+ *      agent           2026.10.18      AGT#15: Execution budget (step, time, call depth, output limits)
+ *      agent           2026.10.18      AGT#16: Optional fast evaluation (memoization of pure functions)
+ *      agent           2026.10.18      AGT#17: The file API of the submissions uses the configured charset
+ *      agent           2026.10.18      AGT#19: Optional accumulation of the test coverage of all jobs
+ *      agent           2026.10.18      AGT#4: Jobs don't update the static element execution counters
+ *
+ ******************************************************************************************************
+ *
+ *      Comment:
+ *      2026.10.18 / agent
+ *      - Each submission (an .nsd file or an .arrz archive) is executed once per test case. A test
+ *        case consists of an expected output file NAME.out and an optional input file NAME.in in the
+ *        test directory. The jobs run on a fixed thread pool, each of them with a freshly loaded set
+ *        of diagrams and an own headless Executor instance (and hence an own interpreter context),
+ *        such that no execution state is shared among the jobs.
+ *      - Output comparison ignores line separator differences, trailing white space of the lines
+ *        and trailing empty lines.
+ *      - A time limit (if given) is enforced by stopping the respective Executor from a watchdog
+ *        thread.
+ *      2026.10.18 / agent
+ *      - The limits of an ExecutionBudget (including the time limit) are now checked by the Executors
+ *        themselves, such that a runaway job gets aborted with a specific message at once. The
+ *        watchdog thread is retained as a fallback for jobs blocking within a single step.
+ *      - Exceeded limits other than the time limit yield the status LIMIT.
+ *
+ ******************************************************************************************************///
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import lu.fisch.structorizer.elements.Element;
+import lu.fisch.structorizer.elements.Root;
+import lu.fisch.structorizer.io.ArrZipFilter;
+import lu.fisch.structorizer.io.StructogramFilter;
+
+/**
+ * Executes a number of diagram files (submissions) against a set of test cases (input and
+ * expected output) concurrently, using an independent headless {@link Executor} per job,
+ * and produces a summary report.
+ * @author agent
+ */
+public class GradingRunner {
+
+	public static final Logger logger = Logger.getLogger(GradingRunner.class.getName());
+
+	/** Possible outcomes of a grading job (LIMIT: the execution budget was exceeded) */
+	public static enum Status {PASSED, FAILED, ERROR, TIMEOUT, LIMIT};
+
+	/**
+	 * Test case record: name, input text, and expected output text
+	 */
+	public static final class TestCase {
+		public final String name;
+		public final String input;
+		public final String expectedOutput;
+
+		public TestCase(String _name, String _input, String _expectedOutput)
+		{
+			this.name = _name;
+			this.input = (_input == null) ? "" : _input;
+			this.expectedOutput = _expectedOutput;
+		}
+	}
+
+	/**
+	 * Result record of a single job (i.e. of a submission executed with a test case)
+	 */
+	public static final class Result {
+		public final String submission;
+		public final String testCase;
+		public final Status status;
+		/** Number of executed element steps */
+		public final long steps;
+		/** Wall time of the execution in milliseconds */
+		public final long wallTime;
+		/** Error message or description of the deviation (empty if passed) */
+		public final String message;
+
+		public Result(String _submission, String _testCase, Status _status, long _steps, long _wallTime, String _message)
+		{
+			this.submission = _submission;
+			this.testCase = _testCase;
+			this.status = _status;
+			this.steps = _steps;
+			this.wallTime = _wallTime;
+			this.message = (_message == null) ? "" : _message;
+		}
+	}
+
+	private final int nThreads;
+	private final long timeLimit;
+	private final String charSet;
+	// START AGT#15 2026-10-18
+	private final ExecutionBudget budget;
+	// END AGT#15 2026-10-18
+	// START AGT#16 2026-10-18
+	private boolean fastEvaluation = false;
+	// END AGT#16 2026-10-18
+	// START AGT#19 2026-10-18
+	private CoverageStore coverage = null;
+	// END AGT#19 2026-10-18
+
+	/**
+	 * Creates a runner with the given configuration
+	 * @param _nThreads - number of worker threads (if &lt;= 0 then the number of available processors)
+	 * @param _timeLimit - maximum execution time per job in milliseconds (0 = unlimited)
+	 * @param _charSet - name of the character set used to read test case files and to
+	 *        capture the output
+	 */
+	public GradingRunner(int _nThreads, long _timeLimit, String _charSet)
+	{
+		// START AGT#15 2026-10-18
+		//this.nThreads = (_nThreads > 0) ? _nThreads : Runtime.getRuntime().availableProcessors();
+		//this.timeLimit = _timeLimit;
+		//this.charSet = _charSet;
+		this(_nThreads, new ExecutionBudget(0, _timeLimit, 0, 0), _charSet);
+		// END AGT#15 2026-10-18
+	}
+
+	// START AGT#15 2026-10-18: Execution budget
+	/**
+	 * Creates a runner with the given configuration
+	 * @param _nThreads - number of worker threads (if &lt;= 0 then the number of available processors)
+	 * @param _budget - resource limits per job (the time limit in milliseconds), null for unlimited
+	 * @param _charSet - name of the character set used to read test case files and to
+	 *        capture the output, also used for files accessed via the file API
+	 */
+	public GradingRunner(int _nThreads, ExecutionBudget _budget, String _charSet)
+	{
+		this.nThreads = (_nThreads > 0) ? _nThreads : Runtime.getRuntime().availableProcessors();
+		this.budget = (_budget == null) ? ExecutionBudget.UNLIMITED : _budget;
+		this.timeLimit = this.budget.maxTime;
+		this.charSet = _charSet;
+	}
+	// END AGT#15 2026-10-18
+
+	// START AGT#16 2026-10-18
+	/**
+	 * Enables or disables the memoization of pure subroutine results for the jobs
+	 * @param _fastEvaluation - true to enable memoization
+	 * @see Executor#setFastEvaluation(boolean)
+	 */
+	public void setFastEvaluation(boolean _fastEvaluation)
+	{
+		this.fastEvaluation = _fastEvaluation;
+	}
+	// END AGT#16 2026-10-18
+
+	// START AGT#19 2026-10-18
+	/**
+	 * Sets a store the test coverage of all jobs is to be added to (requires
+	 * {@link Element#E_COLLECTRUNTIMEDATA} to be set).
+	 * @param _coverage - the coverage store or null
+	 */
+	public void setCoverageStore(CoverageStore _coverage)
+	{
+		this.coverage = _coverage;
+	}
+	// END AGT#19 2026-10-18
+
+	/**
+	 * Gathers the test cases from the given directory: every file NAME.out defines a test
+	 * case with the expected output, an associated file NAME.in (if existent) the input.
+	 * @param _testDir - the directory containing the test case files
+	 * @return the list of test cases, sorted by name
+	 * @throws IOException if the directory or some of the files can't be read
+	 */
+	public Vector<TestCase> loadTestCases(File _testDir) throws IOException
+	{
+		Vector<TestCase> testCases = new Vector<TestCase>();
+		File[] files = _testDir.listFiles();
+		if (files == null) {
+			throw new IOException(_testDir + ": not a readable directory");
+		}
+		Arrays.sort(files);
+		for (File file: files) {
+			String fileName = file.getName();
+			if (file.isFile() && fileName.endsWith(".out")) {
+				String name = fileName.substring(0, fileName.length() - 4);
+				File inFile = new File(_testDir, name + ".in");
+				String input = inFile.isFile() ? readFile(inFile) : null;
+				testCases.add(new TestCase(name, input, readFile(file)));
+			}
+		}
+		return testCases;
+	}
+
+	/**
+	 * Gathers the submissions, i.e. .nsd files and .arrz archives, from the given
+	 * files and directories (directories aren't searched recursively).
+	 * @param _paths - the paths of submission files or of directories containing them
+	 * @return the list of submission files (in the order of the paths, directory contents
+	 *         sorted by name)
+	 */
+	public static Vector<File> findSubmissions(List<String> _paths)
+	{
+		Vector<File> submissions = new Vector<File>();
+		for (String path: _paths) {
+			File file = new File(path);
+			if (file.isDirectory()) {
+				File[] files = file.listFiles();
+				if (files != null) {
+					Arrays.sort(files);
+					for (File f: files) {
+						if (f.isFile() && (StructogramFilter.isNSD(f.getName()) || ArrZipFilter.isArr(f.getName()))) {
+							submissions.add(f);
+						}
+					}
+				}
+			}
+			else {
+				submissions.add(file);
+			}
+		}
+		return submissions;
+	}
+
+	/**
+	 * Executes all submissions with all test cases concurrently and waits for the
+	 * completion of all jobs.
+	 * @param _submissions - the .nsd or .arrz files to be executed
+	 * @param _testCases - the test cases
+	 * @return the job results, ordered by submission and test case
+	 */
+	public Vector<Result> run(List<File> _submissions, List<TestCase> _testCases)
+	{
+		ExecutorService pool = Executors.newFixedThreadPool(this.nThreads);
+		ScheduledExecutorService watchdog = null;
+		if (this.timeLimit > 0) {
+			watchdog = Executors.newSingleThreadScheduledExecutor();
+		}
+		Vector<Future<Result>> futures = new Vector<Future<Result>>();
+		for (File submission: _submissions) {
+			for (TestCase testCase: _testCases) {
+				futures.add(pool.submit(new Job(submission, testCase, watchdog)));
+			}
+		}
+		Vector<Result> results = new Vector<Result>();
+		int i = 0;
+		for (File submission: _submissions) {
+			for (TestCase testCase: _testCases) {
+				Result result = null;
+				try {
+					result = futures.get(i).get();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					result = new Result(submission.getName(), testCase.name, Status.ERROR, 0, 0, ex.toString());
+				}
+				catch (ExecutionException ex) {
+					result = new Result(submission.getName(), testCase.name, Status.ERROR, 0, 0, ex.getCause().toString());
+				}
+				results.add(result);
+				i++;
+			}
+		}
+		pool.shutdown();
+		if (watchdog != null) {
+			watchdog.shutdownNow();
+		}
+		return results;
+	}
+
+	/**
+	 * Writes the report for the given results as semicolon-separated lines (one per job)
+	 * followed by a summary per submission and a total summary.
+	 * @param _results - the job results as obtained by {@link #run(List, List)}
+	 * @param _wallTime - the total wall time in milliseconds
+	 * @param _out - the target stream
+	 */
+	public static void writeReport(List<Result> _results, long _wallTime, PrintStream _out)
+	{
+		_out.println("Submission;Test;Result;Steps;Time[ms];Message");
+		for (Result result: _results) {
+			_out.println(result.submission + ";" + result.testCase + ";" + result.status + ";"
+					+ result.steps + ";" + result.wallTime + ";"
+					+ result.message.replace(";", ",").replace("\r", "").replace("\n", " | "));
+		}
+		_out.println();
+		int nPassed = 0;
+		long totalSteps = 0;
+		int i = 0;
+		while (i < _results.size()) {
+			String submission = _results.get(i).submission;
+			int nJobs = 0, nSubPassed = 0;
+			for (; i < _results.size() && _results.get(i).submission.equals(submission); i++) {
+				Result result = _results.get(i);
+				nJobs++;
+				totalSteps += result.steps;
+				if (result.status == Status.PASSED) {
+					nSubPassed++;
+				}
+			}
+			nPassed += nSubPassed;
+			_out.println(submission + ": " + nSubPassed + "/" + nJobs + " passed");
+		}
+		_out.println("Total: " + nPassed + "/" + _results.size() + " passed, "
+				+ totalSteps + " steps, " + _wallTime + " ms");
+	}
+
+	/**
+	 * A single grading job: loads the submission, executes its main diagram with the input
+	 * of the test case, and compares the output.
+	 */
+	private final class Job implements Callable<Result> {
+		private final File submission;
+		private final TestCase testCase;
+		private final ScheduledExecutorService watchdog;
+
+		public Job(File _submission, TestCase _testCase, ScheduledExecutorService _watchdog)
+		{
+			this.submission = _submission;
+			this.testCase = _testCase;
+			this.watchdog = _watchdog;
+		}
+
+		@Override
+		public Result call() throws Exception
+		{
+			String subName = submission.getName();
+			// Load the diagrams anew for every job (Roots carry execution state)
+			DiagramFilePool diagrPool = new DiagramFilePool();
+			Root mainRoot = null;
+			try {
+				for (Root root: diagrPool.loadFile(submission)) {
+					if (mainRoot == null || !mainRoot.isProgram() && root.isProgram()) {
+						mainRoot = root;
+					}
+				}
+			}
+			catch (Exception ex) {
+				return new Result(subName, testCase.name, Status.ERROR, 0, 0, ex.toString());
+			}
+			if (mainRoot == null) {
+				return new Result(subName, testCase.name, Status.ERROR, 0, 0, "no diagram found");
+			}
+			ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+			PrintStream output = new PrintStream(outBytes, true, charSet);
+			final Executor executor = new Executor(new BufferedReader(new StringReader(testCase.input)), output);
+			// START AGT#15 2026-10-18
+			executor.setBudget(budget);
+			// END AGT#15 2026-10-18
+			// START AGT#16 2026-10-18
+			executor.setFastEvaluation(fastEvaluation);
+			// END AGT#16 2026-10-18
+			// START AGT#17 2026-10-18 (the name has proved valid on creating the output stream)
+			executor.setFileCharset(Charset.forName(charSet));
+			// END AGT#17 2026-10-18
+			// START AGT#4 2026-10-18: The static element counters would be shared by all jobs
+			executor.setCollectingCounts(false);
+			// END AGT#4 2026-10-18
+			Vector<IRoutinePool> pools = new Vector<IRoutinePool>();
+			pools.add(diagrPool);
+			final AtomicBoolean timedOut = new AtomicBoolean(false);
+			ScheduledFuture<?> alarm = null;
+			if (watchdog != null) {
+				alarm = watchdog.schedule(new Runnable() {
+					@Override
+					public void run() {
+						timedOut.set(true);
+						executor.setStop(true);
+					}
+				// START AGT#15 2026-10-18: The Executor checks the time limit itself, this is just a fallback
+				//}, timeLimit, TimeUnit.MILLISECONDS);
+				}, timeLimit + timeLimit / 4 + 100, TimeUnit.MILLISECONDS);
+				// END AGT#15 2026-10-18
+			}
+			long startTime = System.nanoTime();
+			String trouble = null;
+			try {
+				trouble = executor.executeHeadless(mainRoot, pools);
+			}
+			catch (Exception ex) {
+				logger.log(Level.WARNING, subName + " / " + testCase.name, ex);
+				trouble = ex.toString();
+			}
+			long wallTime = (System.nanoTime() - startTime) / 1000000;
+			if (alarm != null) {
+				alarm.cancel(false);
+			}
+			output.close();
+			// START AGT#19 2026-10-18: The diagrams are job-local, so they may be recorded without locking
+			if (coverage != null) {
+				coverage.record(diagrPool.getAllRoots());
+			}
+			// END AGT#19 2026-10-18
+			long steps = executor.getStepCount();
+			Status status = Status.PASSED;
+			String message = "";
+			// START AGT#15 2026-10-18
+			ExecutionBudget.Limit exceeded = executor.getExceededLimit();
+			//if (timedOut.get()) {
+			if (exceeded == ExecutionBudget.Limit.TIME || exceeded == null && timedOut.get()) {
+			// END AGT#15 2026-10-18
+				status = Status.TIMEOUT;
+				message = "time limit of " + timeLimit + " ms exceeded";
+			}
+			// START AGT#15 2026-10-18
+			else if (exceeded != null) {
+				status = Status.LIMIT;
+				message = trouble;
+			}
+			// END AGT#15 2026-10-18
+			else if (!trouble.isEmpty() && executor.getExitCode() == null) {
+				status = Status.ERROR;
+				message = trouble;
+			}
+			else {
+				String[] actual = normalizeLines(outBytes.toString(charSet));
+				String[] expected = normalizeLines(testCase.expectedOutput);
+				for (int i = 0; status == Status.PASSED && i < Math.max(actual.length, expected.length); i++) {
+					if (i >= actual.length || i >= expected.length || !actual[i].equals(expected[i])) {
+						status = Status.FAILED;
+						message = "line " + (i+1) + ": expected \"" + (i < expected.length ? expected[i] : "")
+								+ "\", got \"" + (i < actual.length ? actual[i] : "") + "\"";
+					}
+				}
+			}
+			return new Result(subName, testCase.name, status, steps, wallTime, message);
+		}
+	}
+
+	/**
+	 * Splits the given text into lines, removing trailing white space from every line
+	 * and dropping trailing empty lines.
+	 */
+	private static String[] normalizeLines(String _text)
+	{
+		String[] lines = _text.replace("\r\n", "\n").replace('\r', '\n').split("\n");
+		int nLines = lines.length;
+		for (int i = 0; i < nLines; i++) {
+			int end = lines[i].length();
+			while (end > 0 && Character.isWhitespace(lines[i].charAt(end-1))) {
+				end--;
+			}
+			lines[i] = lines[i].substring(0, end);
+		}
+		while (nLines > 0 && lines[nLines-1].isEmpty()) {
+			nLines--;
+		}
+		return Arrays.copyOf(lines, nLines);
+	}
+
+	private String readFile(File _file) throws IOException
+	{
+		StringBuilder sb = new StringBuilder();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(_file), this.charSet));
+		try {
+			char[] buffer = new char[4096];
+			int nChars = 0;
+			while ((nChars = reader.read(buffer)) >= 0) {
+				sb.append(buffer, 0, nChars);
+			}
+		}
+		finally {
+			reader.close();
+		}
+		return sb.toString();
+	}
+
+}
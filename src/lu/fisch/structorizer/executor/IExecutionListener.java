@@ -0,0 +1,60 @@
+/*
+    Structorizer
+    A little tool which you can use to create Nassi-Schneiderman Diagrams (NSD)
+
+    Copyright (C) 2009  Bob Fisch
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or any
+    later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package lu.fisch.structorizer.executor;
+
+/******************************************************************************************************
+ *
+ *      Author:         agent
+ *
+ *      Description:    Interface for external observers of an execution (profilers, tracers etc.).
+ *
+ ******************************************************************************************************
+ *
+ *      Revision List
+ *
+ *      Author          Date            Description
+ *      ------          ----            -----------
+ *      agent           2026.10.18      First Issue (AGT#18)
+ *
+ ******************************************************************************************************
+ *
+ *      Comment:
+ *
+ *
+ ******************************************************************************************************///
+
+/**
+ * Listener to be informed about the progress of an execution by the {@link Executor}.<br/>
+ * The events are delivered asynchronously by the dispatcher thread of an {@link ExecutionEventDispatcher}
+ * (neither on the interpreter thread nor on the Swing event thread), in the order they were posted.
+ * @author agent
+ * @see Executor#addExecutionListener(IExecutionListener)
+ */
+public interface IExecutionListener {
+
+	/**
+	 * Is called for every execution event (see {@link ExecutionEvent.Kind}). Should return quickly
+	 * since all listeners share the dispatcher thread.
+	 * @param _event - the event
+	 */
+	public void executionEvent(ExecutionEvent _event);
+
+}
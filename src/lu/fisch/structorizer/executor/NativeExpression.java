@@ -0,0 +1,1373 @@
+/*
+    Structorizer
+    A little tool which you can use to create Nassi-Schneiderman Diagrams (NSD)
+
+    Copyright (C) 2009  Bob Fisch
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or any
+    later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package lu.fisch.structorizer.executor;
+
+/******************************************************************************************************
+ *
+ *      Author:         agent
+ *
+ *      Description:    Precompiled expression tree for the direct evaluation of simple expressions
+ *                      without the interpreter.
+ *
+ ******************************************************************************************************
+ *
+ *      Revision List
+ *
+ *      Author          Date            Description
+ *      ------          ----            -----------
+ *      agent           2026.10.18      First Issue (AGT#2)
+ *      agent           2026.10.18      AGT#12: Variables are preferably read from the slots of a VariableFrame
+ *      agent           2026.10.18      AGT#1: Compilation mode with the string comparison semantics of the Executor
+ *      agent           2026.10.18      AGT#12: Evaluation of int subexpressions without boxing (evaluateInt())
+ *      agent           2026.10.18      AGT#14: Unboxed element access to int arrays (evalInt(), assignInt())
+ *
+ ******************************************************************************************************
+ *
+ *      Comment:
+ *      2026.10.18 / agent
+ *      - The BeanShell interpreter re-parses the Java source of an expression on every evaluation,
+ *        which dominates the execution time of loops. Most of the expressions occurring in typical
+ *        diagrams, however, consist of literals, variables, arithmetic, comparison and logical
+ *        operators, indexed access and some built-in functions. This class compiles such an
+ *        expression (as prepared by the Executor for the interpreter) once into a tree and evaluates
+ *        it directly against the variables of the interpreter namespace.
+ *      - Everything else (unknown functions or methods, casts, assignments, initializers etc.) is
+ *        rejected on compilation: {@link #compile(String)} returns null then. If an evaluation runs
+ *        into a situation the semantics of which might differ from that of the interpreter (e.g.
+ *        undefined variables, unexpected operand types, index errors, integer division by zero)
+ *        a {@link FallbackException} is raised. In both cases the caller is expected to let the
+ *        interpreter do the job (and produce the appropriate error message, if necessary).
+ *      - Since the supported expressions are free of side effects, a repeated evaluation by the
+ *        interpreter after an aborted native evaluation is harmless.
+ *      2026.10.18 / agent
+ *      - Expressions compiled with string comparison semantics (see compile(String, boolean)) behave
+ *        as if the Executor had applied its value-dependent comparison conversion (compareTo for
+ *        strings and characters, equals for indexed operands), such that the Executor may compile
+ *        the prepared lines of an element once instead of converting them on every execution.
+ *
+ ******************************************************************************************************///
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import bsh.NameSpace;
+import bsh.Primitive;
+import bsh.UtilEvalError;
+import lu.fisch.structorizer.elements.Element;
+import lu.fisch.utils.StringList;
+
+/**
+ * Precompiled tree representation of a simple (already converted) expression, which can
+ * directly be evaluated against the variables of an interpreter {@link NameSpace}, thus
+ * avoiding the repeated parsing of the expression source by the interpreter.
+ * @author agent
+ * @see #compile(String)
+ * @see #evaluate(NameSpace)
+ */
+public class NativeExpression {
+
+	/**
+	 * Signals that an expression cannot (reliably) be evaluated natively in the current
+	 * situation, such that the interpreter has to be consulted instead.
+	 */
+	public static class FallbackException extends Exception {
+		private static final long serialVersionUID = -6201880217412264213L;
+
+		@Override
+		public synchronized Throwable fillInStackTrace()
+		{
+			// No stack trace needed - this is a mere control flow signal
+			return this;
+		}
+	}
+
+	/** Signals that the expression source is not within the supported subset */
+	private static class UnsupportedException extends Exception {
+		private static final long serialVersionUID = 7330165153716002839L;
+
+		@Override
+		public synchronized Throwable fillInStackTrace()
+		{
+			return this;
+		}
+	}
+
+	private static final FallbackException FALLBACK = new FallbackException();
+	private static final UnsupportedException UNSUPPORTED = new UnsupportedException();
+
+	private static final Pattern INT_LITERAL = Pattern.compile("(0|[1-9][0-9]*)[lL]?");
+	private static final Pattern DOUBLE_LITERAL = Pattern.compile("([0-9]+[.][0-9]*|[.][0-9]+)([eE][+-]?[0-9]+)?[dD]?|[0-9]+[eE][+-]?[0-9]+[dD]?");
+
+	/** Names that must not be mistaken for variables (casts, instantiations etc.) */
+	private static final StringList RESERVED_NAMES = StringList.explode(
+			"boolean,byte,char,short,int,long,float,double,void,new,instanceof,this,super,class,"
+			+ "Object,String,Character,Integer,Long,Float,Double,Boolean,Math,ArrayList,HashMap", ",");
+
+	/** Supported functions (built-in functions of the Executor and Math methods) with their arities */
+	private static final Map<String, Integer> FUNCTIONS = new HashMap<String, Integer>();
+	static {
+		for (String name: new String[]{"length", "lowercase", "uppercase", "trim", "ord", "chr", "sqr", "sgn",
+				"isArray", "isString", "isChar", "isBool", "isNumber"}) {
+			FUNCTIONS.put(name, 1);
+		}
+		FUNCTIONS.put("pos", 2);
+		FUNCTIONS.put("copy", 3);
+		FUNCTIONS.put("delete", 3);
+		FUNCTIONS.put("insert", 3);
+		for (String name: new String[]{"sin", "cos", "tan", "asin", "acos", "atan", "exp", "log", "sqrt",
+				"ceil", "floor", "toRadians", "toDegrees", "abs", "round", "signum"}) {
+			FUNCTIONS.put("Math." + name, 1);
+		}
+		for (String name: new String[]{"pow", "min", "max"}) {
+			FUNCTIONS.put("Math." + name, 2);
+		}
+	}
+
+	/** Supported methods (applicable to the objects the Executor works with) with their arities */
+	private static final Map<String, Integer> METHODS = new HashMap<String, Integer>();
+	static {
+		METHODS.put("get", 1);
+		METHODS.put("equals", 1);
+		METHODS.put("compareTo", 1);
+		METHODS.put("length", 0);
+		METHODS.put("charAt", 1);
+	}
+
+	// Operator codes
+	private static final int OP_OR = 1;
+	private static final int OP_AND = 2;
+	private static final int OP_EQ = 3;
+	private static final int OP_NE = 4;
+	private static final int OP_LT = 5;
+	private static final int OP_LE = 6;
+	private static final int OP_GT = 7;
+	private static final int OP_GE = 8;
+	private static final int OP_SHL = 9;
+	private static final int OP_SHR = 10;
+	private static final int OP_ADD = 11;
+	private static final int OP_SUB = 12;
+	private static final int OP_MUL = 13;
+	private static final int OP_DIV = 14;
+	private static final int OP_MOD = 15;
+	private static final int OP_NEG = 16;
+	private static final int OP_NOT = 17;
+
+	/** Binary operators by precedence level (lowest first) */
+	private static final String[][] BINARY_OPERATORS = {
+			{"||"}, {"&&"}, {"==", "!="}, {"<", "<=", ">", ">="}, {"<<", ">>"}, {"+", "-"}, {"*", "/", "%"}
+	};
+	private static final int[][] BINARY_CODES = {
+			{OP_OR}, {OP_AND}, {OP_EQ, OP_NE}, {OP_LT, OP_LE, OP_GT, OP_GE}, {OP_SHL, OP_SHR}, {OP_ADD, OP_SUB}, {OP_MUL, OP_DIV, OP_MOD}
+	};
+
+	//=============================== Expression tree nodes ================================
+
+	private static abstract class Node {
+		public abstract Object eval(NameSpace _ns, VariableFrame _frame) throws FallbackException;
+		// START AGT#12 2026-10-18
+		/**
+		 * Evaluates this node to an int without boxing where possible
+		 * @throws FallbackException if the value isn't an int (or can't be evaluated natively)
+		 */
+		public int evalInt(NameSpace _ns, VariableFrame _frame) throws FallbackException
+		{
+			Object val = eval(_ns, _frame);
+			if (val instanceof Integer) {
+				return ((Integer)val).intValue();
+			}
+			throw FALLBACK;
+		}
+		// END AGT#12 2026-10-18
+		// START AGT#1 2026-10-18
+		/** @return true if this node or some node below it is an indexed access (array element) */
+		public boolean hasIndexing()
+		{
+			return false;
+		}
+		// END AGT#1 2026-10-18
+	}
+
+	private static final class Literal extends Node {
+		private final Object value;
+		public Literal(Object _value)
+		{
+			value = _value;
+		}
+		@Override
+		public Object eval(NameSpace _ns, VariableFrame _frame)
+		{
+			return value;
+		}
+	}
+
+	private static final class Variable extends Node {
+		private final String name;
+		// START AGT#12 2026-10-18
+		/** Slot of the variable in the frame layout it was last resolved for */
+		private SlotRef slotRef = null;
+		// END AGT#12 2026-10-18
+		public Variable(String _name)
+		{
+			name = _name;
+		}
+		@Override
+		public Object eval(NameSpace _ns, VariableFrame _frame) throws FallbackException
+		{
+			// START AGT#12 2026-10-18: Try the primitive slot first
+			if (_frame != null) {
+				SlotRef ref = slotRef;
+				if (ref == null || ref.layout != _frame.getLayout()) {
+					// Resolve the slot only once per diagram (layout)
+					slotRef = ref = new SlotRef(_frame.getLayout(), _frame.getLayout().getSlot(name));
+				}
+				if (ref.slot >= 0) {
+					Object value = _frame.load(ref.slot);
+					if (value != null) {
+						return value;
+					}
+				}
+			}
+			// END AGT#12 2026-10-18
+			Object value = null;
+			try {
+				value = _ns.getVariable(name);
+			} catch (UtilEvalError e) {
+				throw FALLBACK;
+			}
+			if (value == Primitive.VOID) {
+				// Undefined variable - leave the error message to the interpreter
+				throw FALLBACK;
+			}
+			if (value == Primitive.NULL) {
+				return null;
+			}
+			return Primitive.unwrap(value);
+		}
+		// START AGT#12 2026-10-18
+		@Override
+		public int evalInt(NameSpace _ns, VariableFrame _frame) throws FallbackException
+		{
+			if (_frame != null) {
+				SlotRef ref = slotRef;
+				if (ref != null && ref.layout == _frame.getLayout() && ref.slot >= 0 && _frame.holdsInt(ref.slot)) {
+					return _frame.loadInt(ref.slot);
+				}
+			}
+			return super.evalInt(_ns, _frame);
+		}
+		// END AGT#12 2026-10-18
+	}
+
+	// START AGT#12 2026-10-18
+	/** Slot index of a variable within a certain frame layout (-1 if not contained) */
+	private static final class SlotRef {
+		public final VariableFrame.Layout layout;
+		public final int slot;
+		public SlotRef(VariableFrame.Layout _layout, int _slot)
+		{
+			layout = _layout;
+			slot = _slot;
+		}
+	}
+	// END AGT#12 2026-10-18
+
+	private static final class Unary extends Node {
+		private final int opCode;
+		private final Node operand;
+		public Unary(int _opCode, Node _operand)
+		{
+			opCode = _opCode;
+			operand = _operand;
+		}
+		// START AGT#1 2026-10-18
+		@Override
+		public boolean hasIndexing()
+		{
+			return operand.hasIndexing();
+		}
+		// END AGT#1 2026-10-18
+		@Override
+		public Object eval(NameSpace _ns, VariableFrame _frame) throws FallbackException
+		{
+			Object val = operand.eval(_ns, _frame);
+			if (opCode == OP_NOT) {
+				if (val instanceof Boolean) {
+					return !((Boolean)val).booleanValue();
+				}
+				throw FALLBACK;
+			}
+			switch (numRank(val)) {
+			case 1:
+				return opCode == OP_NEG ? -toInt(val) : toInt(val);
+			case 2:
+				return opCode == OP_NEG ? -toLong(val) : toLong(val);
+			case 3:
+				return opCode == OP_NEG ? -toFloat(val) : toFloat(val);
+			case 4:
+				return opCode == OP_NEG ? -toDouble(val) : toDouble(val);
+			}
+			throw FALLBACK;
+		}
+		// START AGT#12 2026-10-18
+		@Override
+		public int evalInt(NameSpace _ns, VariableFrame _frame) throws FallbackException
+		{
+			if (opCode == OP_NOT) {
+				throw FALLBACK;
+			}
+			int val = operand.evalInt(_ns, _frame);
+			return opCode == OP_NEG ? -val : val;
+		}
+		// END AGT#12 2026-10-18
+	}
+
+	private static final class Logical extends Node {
+		private final boolean isAnd;
+		private final Node left, right;
+		public Logical(boolean _isAnd, Node _left, Node _right)
+		{
+			isAnd = _isAnd;
+			left = _left;
+			right = _right;
+		}
+		// START AGT#1 2026-10-18
+		@Override
+		public boolean hasIndexing()
+		{
+			return left.hasIndexing() || right.hasIndexing();
+		}
+		// END AGT#1 2026-10-18
+		@Override
+		public Object eval(NameSpace _ns, VariableFrame _frame) throws FallbackException
+		{
+			Object val = left.eval(_ns, _frame);
+			if (!(val instanceof Boolean)) {
+				throw FALLBACK;
+			}
+			if (((Boolean)val).booleanValue() != isAnd) {
+				// Short-circuit evaluation
+				return val;
+			}
+			val = right.eval(_ns, _frame);
+			if (!(val instanceof Boolean)) {
+				throw FALLBACK;
+			}
+			return val;
+		}
+	}
+
+	private static final class Binary extends Node {
+		private final int opCode;
+		private final Node left, right;
+		// START AGT#1 2026-10-18
+		/** Whether strings and characters are to be compared by their contents (see {@link #compile(String, boolean)}) */
+		private final boolean stringComparison;
+		/** Whether an equality test is to be done with equals() (both operands involve indexed access) */
+		private final boolean indexedEquality;
+		// END AGT#1 2026-10-18
+		// START AGT#12 2026-10-18
+		/** Set when the operands turned out not to be both int (then the boxed evaluation is used) */
+		private boolean notInt = false;
+		// END AGT#12 2026-10-18
+		public Binary(int _opCode, Node _left, Node _right, boolean _stringComparison)
+		{
+			opCode = _opCode;
+			left = _left;
+			right = _right;
+			// START AGT#1 2026-10-18
+			stringComparison = _stringComparison && _opCode >= OP_EQ && _opCode <= OP_GE;
+			indexedEquality = stringComparison && _opCode <= OP_NE && _left.hasIndexing() && _right.hasIndexing();
+			// END AGT#1 2026-10-18
+		}
+		// START AGT#1 2026-10-18
+		@Override
+		public boolean hasIndexing()
+		{
+			return left.hasIndexing() || right.hasIndexing();
+		}
+		// END AGT#1 2026-10-18
+		// START AGT#12 2026-10-18
+		@Override
+		public int evalInt(NameSpace _ns, VariableFrame _frame) throws FallbackException
+		{
+			if (opCode < OP_SHL) {
+				// Comparisons don't yield an int
+				throw FALLBACK;
+			}
+			return intOperation(left.evalInt(_ns, _frame), right.evalInt(_ns, _frame));
+		}
+		
+		/** @return the result of the arithmetic or shift operation for int operands {@code _a} and {@code _b} */
+		private int intOperation(int _a, int _b)
+		{
+			switch (opCode) {
+			case OP_SHL: return _a << _b;
+			case OP_SHR: return _a >> _b;
+			case OP_ADD: return _a + _b;
+			case OP_SUB: return _a - _b;
+			case OP_MUL: return _a * _b;
+			case OP_DIV: return _a / _b;	// Division by zero is to be reported by the interpreter
+			default: return _a % _b;
+			}
+		}
+		// END AGT#12 2026-10-18
+		@Override
+		public Object eval(NameSpace _ns, VariableFrame _frame) throws FallbackException
+		{
+			// START AGT#12 2026-10-18: Operands that are both int needn't be boxed
+			if (!notInt) {
+				try {
+					int a = left.evalInt(_ns, _frame);
+					int b = right.evalInt(_ns, _frame);
+					if (opCode <= OP_GE) {
+						return compareIntegral(opCode, a, b);
+					}
+					return intOperation(a, b);
+				}
+				catch (FallbackException ex) {
+					notInt = true;
+				}
+			}
+			// END AGT#12 2026-10-18
+			Object val1 = left.eval(_ns, _frame);
+			Object val2 = right.eval(_ns, _frame);
+			if (opCode == OP_ADD && (val1 instanceof String || val2 instanceof String)) {
+				return String.valueOf(val1) + String.valueOf(val2);
+			}
+			// START AGT#1 2026-10-18: Comparison semantics of Executor.convertStringComparison()
+			if (stringComparison) {
+				boolean isText1 = val1 instanceof String || val1 instanceof Character;
+				boolean isText2 = val2 instanceof String || val2 instanceof Character;
+				if (isText1 && isText2 && (val1 instanceof String || val2 instanceof String)) {
+					return compareIntegral(opCode, val1.toString().compareTo(val2.toString()), 0);
+				}
+				else if (indexedEquality) {
+					if (val1 == null) {
+						// The interpreter would fail with equals() here
+						throw FALLBACK;
+					}
+					return val1.equals(val2) == (opCode == OP_EQ);
+				}
+			}
+			// END AGT#1 2026-10-18
+			int rank1 = numRank(val1);
+			int rank2 = numRank(val2);
+			if (opCode == OP_EQ || opCode == OP_NE) {
+				boolean equal;
+				if (val1 instanceof Boolean && val2 instanceof Boolean) {
+					equal = val1.equals(val2);
+				}
+				else if (rank1 > 0 && rank2 > 0) {
+					equal = compare(OP_EQ, val1, val2, Math.max(rank1, rank2));
+				}
+				else if (isPrimitiveLike(val1) || isPrimitiveLike(val2)) {
+					throw FALLBACK;
+				}
+				else {
+					// Reference comparison, as with the interpreter
+					equal = val1 == val2;
+				}
+				return equal == (opCode == OP_EQ);
+			}
+			if (rank1 == 0 || rank2 == 0) {
+				throw FALLBACK;
+			}
+			int rank = Math.max(rank1, rank2);
+			switch (opCode) {
+			case OP_LT:
+			case OP_LE:
+			case OP_GT:
+			case OP_GE:
+				return compare(opCode, val1, val2, rank);
+			case OP_SHL:
+			case OP_SHR:
+				if (rank1 > 2 || rank2 > 2) {
+					throw FALLBACK;
+				}
+				// The result type depends on the left operand only
+				if (rank1 == 1) {
+					return opCode == OP_SHL ? toInt(val1) << toLong(val2) : toInt(val1) >> toLong(val2);
+				}
+				return opCode == OP_SHL ? toLong(val1) << toLong(val2) : toLong(val1) >> toLong(val2);
+			}
+			switch (rank) {
+			case 1:
+			{
+				int a = toInt(val1), b = toInt(val2);
+				switch (opCode) {
+				case OP_ADD: return a + b;
+				case OP_SUB: return a - b;
+				case OP_MUL: return a * b;
+				case OP_DIV: return a / b;	// Division by zero is to be reported by the interpreter
+				case OP_MOD: return a % b;
+				}
+				break;
+			}
+			case 2:
+			{
+				long a = toLong(val1), b = toLong(val2);
+				switch (opCode) {
+				case OP_ADD: return a + b;
+				case OP_SUB: return a - b;
+				case OP_MUL: return a * b;
+				case OP_DIV: return a / b;
+				case OP_MOD: return a % b;
+				}
+				break;
+			}
+			case 3:
+			{
+				float a = toFloat(val1), b = toFloat(val2);
+				switch (opCode) {
+				case OP_ADD: return a + b;
+				case OP_SUB: return a - b;
+				case OP_MUL: return a * b;
+				case OP_DIV: return a / b;
+				case OP_MOD: return a % b;
+				}
+				break;
+			}
+			case 4:
+			{
+				double a = toDouble(val1), b = toDouble(val2);
+				switch (opCode) {
+				case OP_ADD: return a + b;
+				case OP_SUB: return a - b;
+				case OP_MUL: return a * b;
+				case OP_DIV: return a / b;
+				case OP_MOD: return a % b;
+				}
+				break;
+			}
+			}
+			throw FALLBACK;
+		}
+	}
+
+	private static final class FunctionCall extends Node {
+		private final String name;
+		private final Node[] args;
+		public FunctionCall(String _name, Node[] _args)
+		{
+			name = _name;
+			args = _args;
+		}
+		// START AGT#1 2026-10-18
+		@Override
+		public boolean hasIndexing()
+		{
+			for (Node arg: args) {
+				if (arg.hasIndexing()) {
+					return true;
+				}
+			}
+			return false;
+		}
+		// END AGT#1 2026-10-18
+		@Override
+		public Object eval(NameSpace _ns, VariableFrame _frame) throws FallbackException
+		{
+			Object[] vals = new Object[args.length];
+			for (int i = 0; i < args.length; i++) {
+				vals[i] = args[i].eval(_ns, _frame);
+			}
+			Object arg = vals[0];
+			if (name.startsWith("Math.")) {
+				return evalMath(name.substring(5), vals);
+			}
+			else if (name.equals("length")) {
+				if (arg instanceof String) {
+					return ((String)arg).length();
+				}
+				else if (arg instanceof ArrayList) {
+					return ((ArrayList<?>)arg).size();
+				}
+			}
+			else if (name.equals("pos")) {
+				if (vals[1] instanceof String && (arg instanceof String || arg instanceof Character)) {
+					return ((String)vals[1]).indexOf(arg.toString()) + 1;
+				}
+			}
+			else if (name.equals("copy")) {
+				if (arg instanceof String && vals[1] instanceof Integer && vals[2] instanceof Integer) {
+					String s = (String)arg;
+					int start = (Integer)vals[1];
+					int end = Math.min(start - 1 + (Integer)vals[2], s.length());
+					return s.substring(start - 1, end);
+				}
+			}
+			else if (name.equals("delete")) {
+				if (arg instanceof String && vals[1] instanceof Integer && vals[2] instanceof Integer) {
+					String s = (String)arg;
+					int start = (Integer)vals[1];
+					return s.substring(0, start - 1) + s.substring(start + (Integer)vals[2] - 1);
+				}
+			}
+			else if (name.equals("insert")) {
+				if (arg instanceof String && vals[1] instanceof String && vals[2] instanceof Integer) {
+					String s = (String)vals[1];
+					int start = (Integer)vals[2];
+					return s.substring(0, start - 1) + arg + s.substring(start - 1);
+				}
+			}
+			else if (name.equals("lowercase")) {
+				if (arg instanceof String) {
+					return ((String)arg).toLowerCase();
+				}
+				else if (arg instanceof Character) {
+					return Character.toLowerCase((Character)arg);
+				}
+			}
+			else if (name.equals("uppercase")) {
+				if (arg instanceof String) {
+					return ((String)arg).toUpperCase();
+				}
+				else if (arg instanceof Character) {
+					return Character.toUpperCase((Character)arg);
+				}
+			}
+			else if (name.equals("trim")) {
+				if (arg instanceof String) {
+					return ((String)arg).trim();
+				}
+			}
+			else if (name.equals("ord")) {
+				if (arg instanceof Character) {
+					return (int)((Character)arg).charValue();
+				}
+				else if (arg instanceof String) {
+					return (int)((String)arg).charAt(0);
+				}
+			}
+			else if (name.equals("chr")) {
+				if (arg instanceof Integer) {
+					return (char)((Integer)arg).intValue();
+				}
+			}
+			else if (name.equals("sqr")) {
+				if (arg instanceof Number) {
+					double d = ((Number)arg).doubleValue();
+					return d * d;
+				}
+			}
+			else if (name.equals("sgn")) {
+				if (arg instanceof Integer || arg instanceof Double) {
+					double d = ((Number)arg).doubleValue();
+					return (d == 0 ? 0 : (d > 0 ? 1 : -1));
+				}
+			}
+			else if (name.equals("isArray")) {
+				return arg instanceof ArrayList;
+			}
+			else if (name.equals("isString")) {
+				return arg instanceof String;
+			}
+			else if (name.equals("isChar")) {
+				return arg instanceof Character;
+			}
+			else if (name.equals("isBool")) {
+				return arg instanceof Boolean;
+			}
+			else if (name.equals("isNumber")) {
+				return arg instanceof Integer || arg instanceof Double;
+			}
+			throw FALLBACK;
+		}
+
+		private static Object evalMath(String _name, Object[] _vals) throws FallbackException
+		{
+			Object arg = _vals[0];
+			int rank = (arg instanceof Character) ? 0 : numRank(arg);
+			if (rank == 0) {
+				throw FALLBACK;
+			}
+			if (_vals.length == 2) {
+				Object arg2 = _vals[1];
+				int rank2 = (arg2 instanceof Character) ? 0 : numRank(arg2);
+				if (rank2 == 0) {
+					throw FALLBACK;
+				}
+				if (_name.equals("pow")) {
+					return Math.pow(toDouble(arg), toDouble(arg2));
+				}
+				boolean isMin = _name.equals("min");
+				switch (Math.max(rank, rank2)) {
+				case 1:
+					return isMin ? Math.min(toInt(arg), toInt(arg2)) : Math.max(toInt(arg), toInt(arg2));
+				case 2:
+					return isMin ? Math.min(toLong(arg), toLong(arg2)) : Math.max(toLong(arg), toLong(arg2));
+				case 3:
+					return isMin ? Math.min(toFloat(arg), toFloat(arg2)) : Math.max(toFloat(arg), toFloat(arg2));
+				default:
+					return isMin ? Math.min(toDouble(arg), toDouble(arg2)) : Math.max(toDouble(arg), toDouble(arg2));
+				}
+			}
+			if (_name.equals("abs")) {
+				switch (rank) {
+				case 1: return Math.abs(toInt(arg));
+				case 2: return Math.abs(toLong(arg));
+				case 3: return Math.abs(toFloat(arg));
+				default: return Math.abs(toDouble(arg));
+				}
+			}
+			else if (_name.equals("round") || _name.equals("signum")) {
+				// The overloading for integral arguments is not obvious - leave it to the interpreter
+				if (arg instanceof Double) {
+					return _name.equals("round") ? (Object)Math.round((Double)arg) : (Object)Math.signum((Double)arg);
+				}
+				else if (arg instanceof Float) {
+					return _name.equals("round") ? (Object)Math.round((Float)arg) : (Object)Math.signum((Float)arg);
+				}
+				throw FALLBACK;
+			}
+			double d = toDouble(arg);
+			if (_name.equals("sqrt"))		return Math.sqrt(d);
+			if (_name.equals("sin"))		return Math.sin(d);
+			if (_name.equals("cos"))		return Math.cos(d);
+			if (_name.equals("tan"))		return Math.tan(d);
+			if (_name.equals("asin"))		return Math.asin(d);
+			if (_name.equals("acos"))		return Math.acos(d);
+			if (_name.equals("atan"))		return Math.atan(d);
+			if (_name.equals("exp"))		return Math.exp(d);
+			if (_name.equals("log"))		return Math.log(d);
+			if (_name.equals("ceil"))		return Math.ceil(d);
+			if (_name.equals("floor"))		return Math.floor(d);
+			if (_name.equals("toRadians"))	return Math.toRadians(d);
+			if (_name.equals("toDegrees"))	return Math.toDegrees(d);
+			throw FALLBACK;
+		}
+	}
+
+	private static final class MethodCall extends Node {
+		private final Node target;
+		private final String name;
+		private final Node[] args;
+		public MethodCall(Node _target, String _name, Node[] _args)
+		{
+			target = _target;
+			name = _name;
+			args = _args;
+		}
+		// START AGT#1 2026-10-18
+		@Override
+		public boolean hasIndexing()
+		{
+			// A get() with a string literal argument is a record component access
+			if (name.equals("get") && !(args[0] instanceof Literal && ((Literal)args[0]).value instanceof String)) {
+				return true;
+			}
+			if (target.hasIndexing()) {
+				return true;
+			}
+			for (Node arg: args) {
+				if (arg.hasIndexing()) {
+					return true;
+				}
+			}
+			return false;
+		}
+		// END AGT#1 2026-10-18
+		@Override
+		public Object eval(NameSpace _ns, VariableFrame _frame) throws FallbackException
+		{
+			Object obj = target.eval(_ns, _frame);
+			Object arg = null;
+			if (args.length > 0) {
+				arg = args[0].eval(_ns, _frame);
+			}
+			if (name.equals("get")) {
+				if (obj instanceof List && arg instanceof Integer) {
+					// Index range violations are left to the interpreter (for the sake of a helpful message)
+					return ((List<?>)obj).get((Integer)arg);
+				}
+				else if (obj instanceof Map) {
+					return ((Map<?,?>)obj).get(arg);
+				}
+			}
+			else if (name.equals("equals")) {
+				if (obj != null) {
+					return obj.equals(arg);
+				}
+			}
+			else if (name.equals("compareTo")) {
+				if (obj instanceof String && arg instanceof String) {
+					return ((String)obj).compareTo((String)arg);
+				}
+				else if (obj instanceof Character && arg instanceof Character) {
+					return ((Character)obj).compareTo((Character)arg);
+				}
+				else if (obj instanceof Integer && arg instanceof Integer) {
+					return ((Integer)obj).compareTo((Integer)arg);
+				}
+				else if (obj instanceof Double && arg instanceof Double) {
+					return ((Double)obj).compareTo((Double)arg);
+				}
+			}
+			else if (name.equals("length")) {
+				if (obj instanceof String) {
+					return ((String)obj).length();
+				}
+			}
+			else if (name.equals("charAt")) {
+				if (obj instanceof String && arg instanceof Integer) {
+					return ((String)obj).charAt((Integer)arg);
+				}
+			}
+			throw FALLBACK;
+		}
+		// START AGT#14 2026-10-18
+		@Override
+		public int evalInt(NameSpace _ns, VariableFrame _frame) throws FallbackException
+		{
+			if (name.equals("get")) {
+				Object obj = target.eval(_ns, _frame);
+				if (obj instanceof NumericArrayList && ((NumericArrayList)obj).holdsInts()) {
+					NumericArrayList array = (NumericArrayList)obj;
+					int index = args[0].evalInt(_ns, _frame);
+					if (index < 0 || index >= array.size()) {
+						// Index range violations are left to the interpreter
+						throw FALLBACK;
+					}
+					return array.getInt(index);
+				}
+			}
+			return super.evalInt(_ns, _frame);
+		}
+		// END AGT#14 2026-10-18
+	}
+
+	//================================= Auxiliary methods ==================================
+
+	/**
+	 * Returns the rank of the numeric type of {@code _val} after binary numeric promotion:
+	 * 1 = int (also for byte, short, char), 2 = long, 3 = float, 4 = double, 0 = not numeric
+	 */
+	private static int numRank(Object _val)
+	{
+		if (_val instanceof Integer || _val instanceof Character || _val instanceof Short || _val instanceof Byte) {
+			return 1;
+		}
+		else if (_val instanceof Double) {
+			return 4;
+		}
+		else if (_val instanceof Long) {
+			return 2;
+		}
+		else if (_val instanceof Float) {
+			return 3;
+		}
+		return 0;
+	}
+
+	private static boolean isPrimitiveLike(Object _val)
+	{
+		return _val instanceof Boolean || numRank(_val) > 0;
+	}
+
+	private static int toInt(Object _val)
+	{
+		if (_val instanceof Character) {
+			return ((Character)_val).charValue();
+		}
+		return ((Number)_val).intValue();
+	}
+
+	private static long toLong(Object _val)
+	{
+		if (_val instanceof Character) {
+			return ((Character)_val).charValue();
+		}
+		return ((Number)_val).longValue();
+	}
+
+	private static float toFloat(Object _val)
+	{
+		if (_val instanceof Character) {
+			return ((Character)_val).charValue();
+		}
+		return ((Number)_val).floatValue();
+	}
+
+	private static double toDouble(Object _val)
+	{
+		if (_val instanceof Character) {
+			return ((Character)_val).charValue();
+		}
+		return ((Number)_val).doubleValue();
+	}
+
+	/**
+	 * Applies the comparison operator {@code _opCode} with primitive semantics after binary
+	 * numeric promotion to the rank {@code _rank}
+	 */
+	private static boolean compare(int _opCode, Object _val1, Object _val2, int _rank)
+	{
+		if (_rank <= 2) {
+			return compareIntegral(_opCode, toLong(_val1), toLong(_val2));
+		}
+		// float values are exactly representable as double, so this is no falsification
+		double a = toDouble(_val1), b = toDouble(_val2);
+		switch (_opCode) {
+		case OP_EQ: return a == b;
+		case OP_NE: return a != b;
+		case OP_LT: return a < b;
+		case OP_LE: return a <= b;
+		case OP_GT: return a > b;
+		default:    return a >= b;
+		}
+	}
+
+	// START AGT#1 2026-10-18
+	/**
+	 * Applies the comparison operator {@code _opCode} to the integral values {@code _a} and {@code _b}
+	 */
+	private static boolean compareIntegral(int _opCode, long _a, long _b)
+	{
+		switch (_opCode) {
+		case OP_EQ: return _a == _b;
+		case OP_NE: return _a != _b;
+		case OP_LT: return _a < _b;
+		case OP_LE: return _a <= _b;
+		case OP_GT: return _a > _b;
+		default:    return _a >= _b;
+		}
+	}
+	// END AGT#1 2026-10-18
+
+	//===================================== Compilation =====================================
+
+	private final Node root;
+	private final String source;
+	// START AGT#12 2026-10-18
+	/** Set when an evaluation to int failed (see {@link #evaluateInt(NameSpace, VariableFrame)}) */
+	private boolean notInt = false;
+	// END AGT#12 2026-10-18
+
+	private NativeExpression(String _source, Node _root)
+	{
+		source = _source;
+		root = _root;
+	}
+
+	/**
+	 * Tries to compile the given expression (in the syntax the interpreter is fed with, i.e. after
+	 * conversion) into a directly evaluable expression tree.
+	 * @param _expr - the converted expression
+	 * @return the compiled expression or null if the expression is not within the supported subset
+	 */
+	public static NativeExpression compile(String _expr)
+	// START AGT#1 2026-10-18
+	{
+		return compile(_expr, false);
+	}
+
+	/**
+	 * Tries to compile the given expression (in the syntax the interpreter is fed with, i.e. after
+	 * conversion) into a directly evaluable expression tree. If {@code _stringComparison} is true then
+	 * the comparison operators will compare strings (and characters with strings) by their contents
+	 * and operands that both involve indexed access by equals(), as the Executor would convert the
+	 * expression for the interpreter (see Executor.convertStringComparison()).
+	 * @param _expr - the converted expression (without string comparison conversion if {@code _stringComparison} is true)
+	 * @param _stringComparison - whether the string comparison semantics is to be applied
+	 * @return the compiled expression or null if the expression is not within the supported subset
+	 */
+	public static NativeExpression compile(String _expr, boolean _stringComparison)
+	// END AGT#1 2026-10-18
+	{
+		StringList tokens = Element.splitLexically(_expr, true);
+		tokens.removeAll(" ");
+		tokens.removeAll("");
+		// START AGT#1 2026-10-18
+		//Compiler compiler = new Compiler(tokens);
+		Compiler compiler = new Compiler(tokens, _stringComparison);
+		// END AGT#1 2026-10-18
+		Node root = null;
+		try {
+			root = compiler.parseExpression(0);
+			if (compiler.pos < tokens.count()) {
+				// Something left over we don't understand
+				root = null;
+			}
+		}
+		catch (UnsupportedException ex) {
+			root = null;
+		}
+		if (root == null) {
+			return null;
+		}
+		return new NativeExpression(_expr, root);
+	}
+
+	/**
+	 * Evaluates this expression against the variables of the given interpreter namespace.
+	 * @param _ns - the namespace providing the variable values
+	 * @return the result value (boxed)
+	 * @throws FallbackException if the evaluation is to be delegated to the interpreter
+	 */
+	public Object evaluate(NameSpace _ns) throws FallbackException
+	{
+		// START AGT#12 2026-10-18
+		return evaluate(_ns, null);
+	}
+
+	/**
+	 * Evaluates this expression against the variables of the given variable frame and
+	 * interpreter namespace (the latter being consulted for all variables not held by
+	 * a valid slot of the frame).
+	 * @param _ns - the namespace providing the variable values
+	 * @param _frame - the variable frame associated to the namespace, may be null
+	 * @return the result value (boxed)
+	 * @throws FallbackException if the evaluation is to be delegated to the interpreter
+	 */
+	public Object evaluate(NameSpace _ns, VariableFrame _frame) throws FallbackException
+	{
+		// END AGT#12 2026-10-18
+		try {
+			return root.eval(_ns, _frame);
+		}
+		catch (RuntimeException ex) {
+			// Arithmetic or index errors etc. are to be reported by the interpreter
+			throw FALLBACK;
+		}
+	}
+
+	// START AGT#12 2026-10-18
+	/**
+	 * Evaluates this expression to an int without boxing (reading int variables directly from the
+	 * slots of {@code _frame}). If the value is not an int then a {@link FallbackException} is raised
+	 * and {@link #mayBeInt()} will return false from then on.
+	 * @param _ns - the namespace providing the variable values
+	 * @param _frame - the variable frame associated to the namespace, may be null
+	 * @return the int value
+	 * @throws FallbackException if the value isn't an int or the evaluation is to be delegated to
+	 * the interpreter
+	 * @see #evaluate(NameSpace, VariableFrame)
+	 */
+	public int evaluateInt(NameSpace _ns, VariableFrame _frame) throws FallbackException
+	{
+		try {
+			return root.evalInt(_ns, _frame);
+		}
+		catch (FallbackException ex) {
+			notInt = true;
+			throw ex;
+		}
+		catch (RuntimeException ex) {
+			throw FALLBACK;
+		}
+	}
+
+	/** @return false if this expression didn't yield an int on some former {@link #evaluateInt(NameSpace, VariableFrame)} */
+	public boolean mayBeInt()
+	{
+		return !notInt;
+	}
+	// END AGT#12 2026-10-18
+
+	// START AGT#14 2026-10-18
+	/**
+	 * Assigns {@code _value} to the array element this expression designates without boxing it,
+	 * provided this is an indexed variable (i.e. {@code a.get(i)}) referring to a {@link NumericArrayList}
+	 * with int elements and the index is within range.
+	 * @param _ns - the namespace providing the variable values
+	 * @param _frame - the variable frame associated to the namespace, may be null
+	 * @param _value - the value to be assigned
+	 * @return true if the element has been assigned, false if the caller must do it otherwise
+	 * @throws FallbackException if the index can't be evaluated natively to an int
+	 */
+	public boolean assignInt(NameSpace _ns, VariableFrame _frame, int _value) throws FallbackException
+	{
+		if (root instanceof MethodCall && ((MethodCall)root).name.equals("get")
+				&& ((MethodCall)root).target instanceof Variable) {
+			MethodCall access = (MethodCall)root;
+			Object obj = access.target.eval(_ns, _frame);
+			if (obj instanceof NumericArrayList) {
+				try {
+					return ((NumericArrayList)obj).setInt(access.args[0].evalInt(_ns, _frame), _value);
+				}
+				catch (RuntimeException ex) {
+					throw FALLBACK;
+				}
+			}
+		}
+		return false;
+	}
+	// END AGT#14 2026-10-18
+
+	/** @return the expression source this was compiled from */
+	public String getSource()
+	{
+		return source;
+	}
+
+	/** Recursive-descent parser building the expression tree */
+	private static final class Compiler {
+		private final StringList tokens;
+		public int pos = 0;
+		// START AGT#1 2026-10-18
+		private final boolean stringComparison;
+		// END AGT#1 2026-10-18
+
+		public Compiler(StringList _tokens, boolean _stringComparison)
+		{
+			tokens = _tokens;
+			// START AGT#1 2026-10-18
+			stringComparison = _stringComparison;
+			// END AGT#1 2026-10-18
+		}
+
+		private String peek()
+		{
+			return pos < tokens.count() ? tokens.get(pos) : "";
+		}
+
+		private void expect(String _token) throws UnsupportedException
+		{
+			if (!peek().equals(_token)) {
+				throw UNSUPPORTED;
+			}
+			pos++;
+		}
+
+		public Node parseExpression(int _level) throws UnsupportedException
+		{
+			if (_level >= BINARY_OPERATORS.length) {
+				return parseUnary();
+			}
+			Node node = parseExpression(_level + 1);
+			boolean found = true;
+			while (found) {
+				found = false;
+				String token = peek();
+				for (int i = 0; !found && i < BINARY_OPERATORS[_level].length; i++) {
+					if (token.equals(BINARY_OPERATORS[_level][i])) {
+						found = true;
+						pos++;
+						int opCode = BINARY_CODES[_level][i];
+						Node right = parseExpression(_level + 1);
+						if (opCode == OP_AND || opCode == OP_OR) {
+							node = new Logical(opCode == OP_AND, node, right);
+						}
+						else {
+							// START AGT#1 2026-10-18
+							//node = new Binary(opCode, node, right);
+							node = new Binary(opCode, node, right, stringComparison);
+							// END AGT#1 2026-10-18
+						}
+					}
+				}
+			}
+			return node;
+		}
+
+		private Node parseUnary() throws UnsupportedException
+		{
+			String token = peek();
+			if (token.equals("-") || token.equals("+")) {
+				pos++;
+				return new Unary(token.equals("-") ? OP_NEG : 0, parseUnary());
+			}
+			else if (token.equals("!")) {
+				pos++;
+				return new Unary(OP_NOT, parseUnary());
+			}
+			return parsePostfix(parsePrimary());
+		}
+
+		private Node parsePostfix(Node _node) throws UnsupportedException
+		{
+			while (peek().equals(".")) {
+				pos++;
+				String name = peek();
+				pos++;
+				Integer arity = METHODS.get(name);
+				if (arity == null || !peek().equals("(")) {
+					throw UNSUPPORTED;
+				}
+				Node[] args = parseArguments();
+				if (args.length != arity) {
+					throw UNSUPPORTED;
+				}
+				_node = new MethodCall(_node, name, args);
+			}
+			return _node;
+		}
+
+		private Node[] parseArguments() throws UnsupportedException
+		{
+			ArrayList<Node> args = new ArrayList<Node>();
+			expect("(");
+			if (!peek().equals(")")) {
+				args.add(parseExpression(0));
+				while (peek().equals(",")) {
+					pos++;
+					args.add(parseExpression(0));
+				}
+			}
+			expect(")");
+			return args.toArray(new Node[args.size()]);
+		}
+
+		private Node parsePrimary() throws UnsupportedException
+		{
+			String token = peek();
+			pos++;
+			if (token.equals("(")) {
+				Node node = parseExpression(0);
+				expect(")");
+				return node;
+			}
+			else if (token.equals("true") || token.equals("false")) {
+				return new Literal(Boolean.valueOf(token));
+			}
+			else if (token.equals("null")) {
+				return new Literal(null);
+			}
+			else if (token.length() >= 2 && token.startsWith("\"") && token.endsWith("\"")) {
+				return new Literal(unescape(token.substring(1, token.length()-1), '"').intern());
+			}
+			else if (token.length() >= 3 && token.startsWith("'") && token.endsWith("'")) {
+				String content = unescape(token.substring(1, token.length()-1), '\'');
+				if (content.length() != 1) {
+					throw UNSUPPORTED;
+				}
+				return new Literal(content.charAt(0));
+			}
+			else if (INT_LITERAL.matcher(token).matches()) {
+				try {
+					if (token.endsWith("L") || token.endsWith("l")) {
+						return new Literal(Long.parseLong(token.substring(0, token.length()-1)));
+					}
+					return new Literal(Integer.parseInt(token));
+				}
+				catch (NumberFormatException ex) {
+					throw UNSUPPORTED;
+				}
+			}
+			else if (DOUBLE_LITERAL.matcher(token).matches()) {
+				return new Literal(Double.valueOf(token));
+			}
+			else if (token.equals("Math") && peek().equals(".")) {
+				pos++;
+				String name = "Math." + peek();
+				pos++;
+				return parseFunction(name);
+			}
+			else if (isIdentifier(token) && !RESERVED_NAMES.contains(token)) {
+				if (peek().equals("(")) {
+					return parseFunction(token);
+				}
+				return new Variable(token);
+			}
+			throw UNSUPPORTED;
+		}
+
+		private Node parseFunction(String _name) throws UnsupportedException
+		{
+			Integer arity = FUNCTIONS.get(_name);
+			if (arity == null || !peek().equals("(")) {
+				throw UNSUPPORTED;
+			}
+			Node[] args = parseArguments();
+			if (args.length != arity) {
+				throw UNSUPPORTED;
+			}
+			return new FunctionCall(_name, args);
+		}
+
+		private static boolean isIdentifier(String _token)
+		{
+			if (_token.isEmpty() || !Character.isJavaIdentifierStart(_token.charAt(0))) {
+				return false;
+			}
+			for (int i = 1; i < _token.length(); i++) {
+				if (!Character.isJavaIdentifierPart(_token.charAt(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Resolves the Java escape sequences in the given literal content
+		 * @param _content - the literal without delimiters
+		 * @param _delimiter - the literal delimiter, which must not occur unescaped
+		 * @return the resulting string
+		 * @throws UnsupportedException if some illegal or unsupported escape sequence occurs
+		 */
+		private static String unescape(String _content, char _delimiter) throws UnsupportedException
+		{
+			if (_content.indexOf('\\') < 0) {
+				if (_content.indexOf(_delimiter) >= 0) {
+					throw UNSUPPORTED;
+				}
+				return _content;
+			}
+			StringBuilder sb = new StringBuilder(_content.length());
+			int len = _content.length();
+			for (int i = 0; i < len; i++) {
+				char ch = _content.charAt(i);
+				if (ch == _delimiter) {
+					throw UNSUPPORTED;
+				}
+				else if (ch != '\\') {
+					sb.append(ch);
+					continue;
+				}
+				if (++i >= len) {
+					throw UNSUPPORTED;
+				}
+				ch = _content.charAt(i);
+				switch (ch) {
+				case 'b': sb.append('\b'); break;
+				case 't': sb.append('\t'); break;
+				case 'n': sb.append('\n'); break;
+				case 'f': sb.append('\f'); break;
+				case 'r': sb.append('\r'); break;
+				case '"':
+				case '\'':
+				case '\\':
+					sb.append(ch);
+					break;
+				default:
+					if (ch >= '0' && ch <= '7') {
+						// Octal escape: up to three digits, maximum value \377
+						int maxEnd = Math.min(len, i + (ch <= '3' ? 3 : 2));
+						int end = i + 1;
+						while (end < maxEnd && _content.charAt(end) >= '0' && _content.charAt(end) <= '7') {
+							end++;
+						}
+						sb.append((char)Integer.parseInt(_content.substring(i, end), 8));
+						i = end - 1;
+					}
+					else {
+						throw UNSUPPORTED;
+					}
+				}
+			}
+			return sb.toString();
+		}
+	}
+
+}
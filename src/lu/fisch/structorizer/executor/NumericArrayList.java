@@ -0,0 +1,855 @@
+/*
+    Structorizer
+    A little tool which you can use to create Nassi-Schneiderman Diagrams (NSD)
+
+    Copyright (C) 2009  Bob Fisch
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or any
+    later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package lu.fisch.structorizer.executor;
+
+/******************************************************************************************************
+ *
+ *      Author:         agent
+ *
+ *      Description:    Array representation for the Executor holding int or double elements unboxed.
+ *
+ ******************************************************************************************************
+ *
+ *      Revision List
+ *
+ *      Author          Date            Description
+ *      ------          ----            -----------
+ *      agent           2026.10.18      First Issue (AGT#14)
+ *      agent           2026.10.18      AGT#14: Unboxed element access getInt() / setInt()
+ *
+ ******************************************************************************************************
+ *
+ *      Comment:
+ *      2026.10.18 / agent
+ *      - Since issue #436, arrays are represented as ArrayList<Object> during execution, which costs a
+ *        boxed Integer or Double object per element (and per element assignment). Most arrays in
+ *        typical diagrams (e.g. sorting exercises) contain only integers or only floating-point
+ *        numbers, however. This class keeps such contents in an int[] or double[] as long as only
+ *        Integer (or only Double, respectively) values are stored. As soon as an element of another
+ *        type is stored, the contents are transparently moved into the inherited ArrayList storage
+ *        (object mode) and all methods just delegate to ArrayList from then on.
+ *      - It is a subclass of ArrayList such that the interpreter, the generated helper functions and
+ *        all instanceof checks keep working. Therefore all public methods of ArrayList accessing its
+ *        internal storage are to be overridden here. Rarely used bulk operations (like sort(),
+ *        subList(), removeAll() or spliterator()) simply switch to object mode before delegating.
+ *      - The element type is decided by the first element (as long as the array is empty in primitive
+ *        mode); Integer values are never converted into Double values or vice versa, so the retrieved
+ *        values are always equal to the stored ones.
+ *      - The Executor and NativeExpression read and write the elements of int arrays via getInt() and
+ *        setInt(), such that element access in sorting loops etc. doesn't box the values at all.
+ *
+ ******************************************************************************************************///
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Growable array for the {@link Executor}, holding int or double contents in a primitive
+ * array and falling back to the inherited {@link ArrayList} storage as soon as elements of
+ * other types are stored.
+ * @author agent
+ */
+@SuppressWarnings("serial")
+public class NumericArrayList extends ArrayList<Object> {
+
+	private static final int MODE_OBJECT = 0;
+	private static final int MODE_INT = 1;
+	private static final int MODE_DOUBLE = 2;
+
+	private static final int DEFAULT_CAPACITY = 10;
+
+	/** Storage mode (as long as the array is empty, a primitive mode may still change) */
+	private int mode = MODE_INT;
+	/** Number of elements (in primitive mode) */
+	private int count = 0;
+	private int[] ints = null;
+	private double[] doubles = null;
+
+	/**
+	 * Creates an empty array
+	 */
+	public NumericArrayList()
+	{
+		super(0);
+	}
+
+	/**
+	 * Creates an empty array with the given initial capacity
+	 * @param _capacity - the initial capacity
+	 */
+	public NumericArrayList(int _capacity)
+	{
+		super(0);
+		if (_capacity < 0) {
+			throw new IllegalArgumentException("Illegal Capacity: " + _capacity);
+		}
+		ints = new int[_capacity];
+	}
+
+	/**
+	 * Creates an array containing the elements of the given collection (in iteration order)
+	 * @param _elements - the elements to be copied
+	 */
+	public NumericArrayList(Collection<?> _elements)
+	{
+		super(0);
+		if (_elements instanceof NumericArrayList && ((NumericArrayList)_elements).mode != MODE_OBJECT) {
+			NumericArrayList source = (NumericArrayList)_elements;
+			mode = source.mode;
+			count = source.count;
+			if (mode == MODE_INT) {
+				ints = Arrays.copyOf(source.ints == null ? new int[0] : source.ints, count);
+			}
+			else {
+				doubles = Arrays.copyOf(source.doubles, count);
+			}
+		}
+		else {
+			this.addAll(_elements);
+		}
+	}
+
+	/**
+	 * Creates an array containing the given elements
+	 * @param _elements - the elements to be copied
+	 */
+	public NumericArrayList(Object[] _elements)
+	{
+		this(_elements.length);
+		for (Object elem: _elements) {
+			this.add(elem);
+		}
+	}
+
+	//========================== Storage management ==========================
+
+	/**
+	 * Checks whether {@code _value} can be stored in the current primitive mode (possibly
+	 * adapting the mode if the array is empty) and otherwise switches to object mode.
+	 * @return true if the value is to be stored in the primitive storage
+	 */
+	private boolean accepts(Object _value)
+	{
+		switch (mode) {
+		case MODE_INT:
+			if (_value instanceof Integer) {
+				return true;
+			}
+			else if (count == 0 && _value instanceof Double) {
+				mode = MODE_DOUBLE;
+				doubles = new double[ints == null ? 0 : ints.length];
+				ints = null;
+				return true;
+			}
+			break;
+		case MODE_DOUBLE:
+			if (_value instanceof Double) {
+				return true;
+			}
+			else if (count == 0 && _value instanceof Integer) {
+				mode = MODE_INT;
+				ints = new int[doubles.length];
+				doubles = null;
+				return true;
+			}
+			break;
+		default:
+			return false;
+		}
+		toObjectMode();
+		return false;
+	}
+
+	/**
+	 * Moves the contents into the inherited storage, all methods delegate to {@link ArrayList}
+	 * afterwards. This is not regarded as a structural modification.
+	 */
+	private void toObjectMode()
+	{
+		if (mode != MODE_OBJECT) {
+			int oldModCount = modCount;
+			super.ensureCapacity(count);
+			for (int i = 0; i < count; i++) {
+				super.add(box(i));
+			}
+			mode = MODE_OBJECT;
+			ints = null;
+			doubles = null;
+			count = 0;
+			modCount = oldModCount;
+		}
+	}
+
+	private void ensurePrimitiveCapacity(int _minCapacity)
+	{
+		int capacity = (mode == MODE_INT) ? (ints == null ? 0 : ints.length) : doubles.length;
+		if (_minCapacity > capacity) {
+			int newCapacity = Math.max(Math.max(capacity + (capacity >> 1), _minCapacity), DEFAULT_CAPACITY);
+			if (mode == MODE_INT) {
+				ints = Arrays.copyOf(ints == null ? new int[0] : ints, newCapacity);
+			}
+			else {
+				doubles = Arrays.copyOf(doubles, newCapacity);
+			}
+		}
+	}
+
+	private void store(int _index, Object _value)
+	{
+		if (mode == MODE_INT) {
+			ints[_index] = (Integer)_value;
+		}
+		else {
+			doubles[_index] = (Double)_value;
+		}
+	}
+
+	private Object box(int _index)
+	{
+		if (mode == MODE_INT) {
+			return ints[_index];
+		}
+		return doubles[_index];
+	}
+
+	private void checkIndex(int _index)
+	{
+		if (_index < 0 || _index >= count) {
+			throw new IndexOutOfBoundsException("Index: " + _index + ", Size: " + count);
+		}
+	}
+
+	private void checkPositionIndex(int _index)
+	{
+		if (_index < 0 || _index > count) {
+			throw new IndexOutOfBoundsException("Index: " + _index + ", Size: " + count);
+		}
+	}
+
+	/**
+	 * Appends the string representations of all elements, separated by {@code _separator},
+	 * to {@code _sb} without boxing them - provided the array is in a primitive mode.
+	 * @param _sb - the target {@link StringBuilder}
+	 * @param _separator - the separator to be inserted between the elements
+	 * @return true if the elements were appended, false if the array is in object mode
+	 */
+	public boolean appendElements(StringBuilder _sb, String _separator)
+	{
+		if (mode == MODE_OBJECT) {
+			return false;
+		}
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				_sb.append(_separator);
+			}
+			if (mode == MODE_INT) {
+				_sb.append(ints[i]);
+			}
+			else {
+				_sb.append(doubles[i]);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return true if the elements are held as int values, such that {@link #getInt(int)} and
+	 * {@link #setInt(int, int)} apply
+	 */
+	public boolean holdsInts()
+	{
+		return mode == MODE_INT;
+	}
+
+	/**
+	 * Returns the element at position {@code _index} without boxing it. Only applicable if
+	 * {@link #holdsInts()} is true.
+	 * @param _index - the element index
+	 * @return the int value of the element
+	 * @throws IllegalStateException if the array doesn't hold int values
+	 */
+	public int getInt(int _index)
+	{
+		if (mode != MODE_INT) {
+			throw new IllegalStateException("No int array");
+		}
+		checkIndex(_index);
+		return ints[_index];
+	}
+
+	/**
+	 * Replaces the element at position {@code _index} by {@code _value} without boxing it,
+	 * provided the array holds int values and the index is valid. Otherwise nothing is done.
+	 * @param _index - the element index
+	 * @param _value - the new int value
+	 * @return true if the element was replaced, false if {@link #set(int, Object)} is to be used
+	 */
+	public boolean setInt(int _index, int _value)
+	{
+		if (mode != MODE_INT || _index < 0 || _index >= count) {
+			return false;
+		}
+		ints[_index] = _value;
+		return true;
+	}
+
+	//========================== Single element access ==========================
+
+	@Override
+	public int size()
+	{
+		return mode == MODE_OBJECT ? super.size() : count;
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return size() == 0;
+	}
+
+	@Override
+	public Object get(int _index)
+	{
+		if (mode == MODE_OBJECT) {
+			return super.get(_index);
+		}
+		checkIndex(_index);
+		return box(_index);
+	}
+
+	@Override
+	public Object set(int _index, Object _element)
+	{
+		if (mode != MODE_OBJECT) {
+			checkIndex(_index);
+			Object oldValue = box(_index);
+			if (accepts(_element)) {
+				store(_index, _element);
+				return oldValue;
+			}
+		}
+		return super.set(_index, _element);
+	}
+
+	@Override
+	public boolean add(Object _element)
+	{
+		if (mode != MODE_OBJECT && accepts(_element)) {
+			ensurePrimitiveCapacity(count + 1);
+			store(count++, _element);
+			modCount++;
+			return true;
+		}
+		return super.add(_element);
+	}
+
+	@Override
+	public void add(int _index, Object _element)
+	{
+		if (mode != MODE_OBJECT) {
+			checkPositionIndex(_index);
+			if (accepts(_element)) {
+				ensurePrimitiveCapacity(count + 1);
+				if (mode == MODE_INT) {
+					System.arraycopy(ints, _index, ints, _index + 1, count - _index);
+				}
+				else {
+					System.arraycopy(doubles, _index, doubles, _index + 1, count - _index);
+				}
+				store(_index, _element);
+				count++;
+				modCount++;
+				return;
+			}
+		}
+		super.add(_index, _element);
+	}
+
+	@Override
+	public Object remove(int _index)
+	{
+		if (mode == MODE_OBJECT) {
+			return super.remove(_index);
+		}
+		checkIndex(_index);
+		Object oldValue = box(_index);
+		if (mode == MODE_INT) {
+			System.arraycopy(ints, _index + 1, ints, _index, count - _index - 1);
+		}
+		else {
+			System.arraycopy(doubles, _index + 1, doubles, _index, count - _index - 1);
+		}
+		count--;
+		modCount++;
+		return oldValue;
+	}
+
+	@Override
+	public boolean remove(Object _element)
+	{
+		if (mode == MODE_OBJECT) {
+			return super.remove(_element);
+		}
+		int index = indexOf(_element);
+		if (index >= 0) {
+			remove(index);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public void clear()
+	{
+		if (mode == MODE_OBJECT) {
+			super.clear();
+		}
+		else {
+			count = 0;
+			modCount++;
+		}
+	}
+
+	//========================== Searching and comparison ==========================
+
+	@Override
+	public int indexOf(Object _element)
+	{
+		if (mode == MODE_OBJECT) {
+			return super.indexOf(_element);
+		}
+		if (mode == MODE_INT && _element instanceof Integer) {
+			int value = (Integer)_element;
+			for (int i = 0; i < count; i++) {
+				if (ints[i] == value) {
+					return i;
+				}
+			}
+		}
+		else if (mode == MODE_DOUBLE && _element instanceof Double) {
+			for (int i = 0; i < count; i++) {
+				if (_element.equals(doubles[i])) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf(Object _element)
+	{
+		if (mode == MODE_OBJECT) {
+			return super.lastIndexOf(_element);
+		}
+		if (mode == MODE_INT && _element instanceof Integer) {
+			int value = (Integer)_element;
+			for (int i = count - 1; i >= 0; i--) {
+				if (ints[i] == value) {
+					return i;
+				}
+			}
+		}
+		else if (mode == MODE_DOUBLE && _element instanceof Double) {
+			for (int i = count - 1; i >= 0; i--) {
+				if (_element.equals(doubles[i])) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public boolean contains(Object _element)
+	{
+		return indexOf(_element) >= 0;
+	}
+
+	@Override
+	public boolean equals(Object _other)
+	{
+		if (mode == MODE_OBJECT) {
+			return super.equals(_other);
+		}
+		if (_other == this) {
+			return true;
+		}
+		if (!(_other instanceof List)) {
+			return false;
+		}
+		List<?> other = (List<?>)_other;
+		if (other.size() != count) {
+			return false;
+		}
+		Iterator<?> iter = other.iterator();
+		for (int i = 0; i < count; i++) {
+			if (!box(i).equals(iter.next())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		if (mode == MODE_OBJECT) {
+			return super.hashCode();
+		}
+		// Must coincide with the hash code of an equal list of boxed values
+		int hashCode = 1;
+		for (int i = 0; i < count; i++) {
+			int elemHash;
+			if (mode == MODE_INT) {
+				elemHash = ints[i];
+			}
+			else {
+				long bits = Double.doubleToLongBits(doubles[i]);
+				elemHash = (int)(bits ^ (bits >>> 32));
+			}
+			hashCode = 31 * hashCode + elemHash;
+		}
+		return hashCode;
+	}
+
+	//========================== Conversion and copying ==========================
+
+	@Override
+	public Object[] toArray()
+	{
+		if (mode == MODE_OBJECT) {
+			return super.toArray();
+		}
+		Object[] array = new Object[count];
+		for (int i = 0; i < count; i++) {
+			array[i] = box(i);
+		}
+		return array;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T[] toArray(T[] _array)
+	{
+		if (mode == MODE_OBJECT) {
+			return super.toArray(_array);
+		}
+		if (_array.length < count) {
+			return (T[])Arrays.copyOf(toArray(), count, _array.getClass());
+		}
+		for (int i = 0; i < count; i++) {
+			_array[i] = (T)box(i);
+		}
+		if (_array.length > count) {
+			_array[count] = null;
+		}
+		return _array;
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder("[");
+		if (!appendElements(sb, ", ")) {
+			return super.toString();
+		}
+		return sb.append("]").toString();
+	}
+
+	@Override
+	public Object clone()
+	{
+		NumericArrayList copy = (NumericArrayList)super.clone();
+		if (ints != null) {
+			copy.ints = ints.clone();
+		}
+		if (doubles != null) {
+			copy.doubles = doubles.clone();
+		}
+		return copy;
+	}
+
+	/** Serialization is delegated to a plain {@link ArrayList} copy */
+	private Object writeReplace()
+	{
+		return new ArrayList<Object>(this);
+	}
+
+	@Override
+	public void ensureCapacity(int _minCapacity)
+	{
+		if (mode == MODE_OBJECT) {
+			super.ensureCapacity(_minCapacity);
+		}
+		else {
+			ensurePrimitiveCapacity(_minCapacity);
+		}
+	}
+
+	@Override
+	public void trimToSize()
+	{
+		if (mode == MODE_OBJECT) {
+			super.trimToSize();
+		}
+		else if (mode == MODE_INT && ints != null) {
+			ints = Arrays.copyOf(ints, count);
+		}
+		else if (mode == MODE_DOUBLE) {
+			doubles = Arrays.copyOf(doubles, count);
+		}
+	}
+
+	//========================== Bulk operations ==========================
+
+	@Override
+	public boolean addAll(Collection<? extends Object> _elements)
+	{
+		Object[] elements = _elements.toArray();
+		if (mode != MODE_OBJECT) {
+			ensurePrimitiveCapacity(count + elements.length);
+		}
+		for (Object elem: elements) {
+			this.add(elem);
+		}
+		return elements.length != 0;
+	}
+
+	@Override
+	public boolean addAll(int _index, Collection<? extends Object> _elements)
+	{
+		toObjectMode();
+		return super.addAll(_index, _elements);
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> _elements)
+	{
+		toObjectMode();
+		return super.removeAll(_elements);
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> _elements)
+	{
+		toObjectMode();
+		return super.retainAll(_elements);
+	}
+
+	@Override
+	public boolean removeIf(Predicate<? super Object> _filter)
+	{
+		toObjectMode();
+		return super.removeIf(_filter);
+	}
+
+	@Override
+	public void replaceAll(UnaryOperator<Object> _operator)
+	{
+		toObjectMode();
+		super.replaceAll(_operator);
+	}
+
+	@Override
+	public void sort(Comparator<? super Object> _comparator)
+	{
+		toObjectMode();
+		super.sort(_comparator);
+	}
+
+	@Override
+	protected void removeRange(int _fromIndex, int _toIndex)
+	{
+		toObjectMode();
+		super.removeRange(_fromIndex, _toIndex);
+	}
+
+	@Override
+	public List<Object> subList(int _fromIndex, int _toIndex)
+	{
+		toObjectMode();
+		return super.subList(_fromIndex, _toIndex);
+	}
+
+	@Override
+	public Spliterator<Object> spliterator()
+	{
+		toObjectMode();
+		return super.spliterator();
+	}
+
+	@Override
+	public void forEach(Consumer<? super Object> _action)
+	{
+		if (mode == MODE_OBJECT) {
+			super.forEach(_action);
+		}
+		else {
+			int expectedModCount = modCount;
+			for (int i = 0; i < count && modCount == expectedModCount; i++) {
+				_action.accept(box(i));
+			}
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+	}
+
+	//========================== Iteration ==========================
+
+	@Override
+	public Iterator<Object> iterator()
+	{
+		if (mode == MODE_OBJECT) {
+			return super.iterator();
+		}
+		return new Iter(0);
+	}
+
+	@Override
+	public ListIterator<Object> listIterator()
+	{
+		return listIterator(0);
+	}
+
+	@Override
+	public ListIterator<Object> listIterator(int _index)
+	{
+		if (mode == MODE_OBJECT) {
+			return super.listIterator(_index);
+		}
+		checkPositionIndex(_index);
+		return new Iter(_index);
+	}
+
+	/**
+	 * List iterator working via the public element access methods (such that it remains
+	 * valid if the array switches to object mode while iterating)
+	 */
+	private class Iter implements ListIterator<Object> {
+		private int cursor;
+		private int lastRet = -1;
+		private int expectedModCount = modCount;
+
+		Iter(int _index)
+		{
+			cursor = _index;
+		}
+
+		private void checkForComodification()
+		{
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			return cursor != size();
+		}
+
+		@Override
+		public Object next()
+		{
+			checkForComodification();
+			if (cursor >= size()) {
+				throw new NoSuchElementException();
+			}
+			lastRet = cursor++;
+			return get(lastRet);
+		}
+
+		@Override
+		public boolean hasPrevious()
+		{
+			return cursor != 0;
+		}
+
+		@Override
+		public Object previous()
+		{
+			checkForComodification();
+			if (cursor <= 0) {
+				throw new NoSuchElementException();
+			}
+			lastRet = --cursor;
+			return get(lastRet);
+		}
+
+		@Override
+		public int nextIndex()
+		{
+			return cursor;
+		}
+
+		@Override
+		public int previousIndex()
+		{
+			return cursor - 1;
+		}
+
+		@Override
+		public void remove()
+		{
+			if (lastRet < 0) {
+				throw new IllegalStateException();
+			}
+			checkForComodification();
+			NumericArrayList.this.remove(lastRet);
+			cursor = lastRet;
+			lastRet = -1;
+			expectedModCount = modCount;
+		}
+
+		@Override
+		public void set(Object _element)
+		{
+			if (lastRet < 0) {
+				throw new IllegalStateException();
+			}
+			checkForComodification();
+			NumericArrayList.this.set(lastRet, _element);
+		}
+
+		@Override
+		public void add(Object _element)
+		{
+			checkForComodification();
+			NumericArrayList.this.add(cursor++, _element);
+			lastRet = -1;
+			expectedModCount = modCount;
+		}
+	}
+
+}
@@ -0,0 +1,308 @@
+/*
+    Structorizer
+    A little tool which you can use to create Nassi-Schneiderman Diagrams (NSD)
+
+    Copyright (C) 2009  Bob Fisch
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or any
+    later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package lu.fisch.structorizer.executor;
+
+/******************************************************************************************************
+ *
+ *      Author:         agent
+ *
+ *      Description:    Writes a compact binary trace of an execution (for a later replay).
+ *
+ ******************************************************************************************************
+ *
+ *      Revision List
+ *
+ *      Author          Date            Description
+ *      ------          ----            -----------
+ *      agent           2026.10.18      First Issue (AGT#10)
+ *
+ ******************************************************************************************************
+ *
+ *      Comment:
+ *      2026.10.18 / agent
+ *      - File layout: magic number and version (ints), followed by a sequence of records, each
+ *        starting with a tag byte. All counts and indices are written as unsigned variable-length
+ *        integers (7 bits per byte, low-order group first), strings as UTF-8 bytes preceded by
+ *        their count. Diagrams and variable names are defined by a ROOT or NAME record on first
+ *        use and later referred to by index.
+ *      - A STEP record (diagram index, element number in preorder, call depth) is preceded by the
+ *        SET / DROP records describing the changes of the variable display since the previous step,
+ *        so the display state belonging to a step is the one before the element is executed. The
+ *        changes caused by the last step precede the END record.
+ *      - INPUT and SEED records just document the consumed input lines and the seeds of the random
+ *        generators used to interleave Parallel branches (both in execution order).
+ *
+ ******************************************************************************************************///
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.Vector;
+import java.util.WeakHashMap;
+
+import lu.fisch.structorizer.elements.Element;
+import lu.fisch.structorizer.elements.IElementVisitor;
+import lu.fisch.structorizer.elements.Root;
+
+/**
+ * Records the steps of an execution together with the changes of the variable display, the
+ * consumed input, and the random seeds into a compact binary stream, which may be loaded as
+ * {@link ExecutionTrace} for a replay without re-evaluation.
+ * @author agent
+ */
+public class TraceRecorder {
+
+	/** File signature ("NSDT") */
+	static final int MAGIC = 0x4E534454;
+	static final int VERSION = 1;
+	/** Proposed file name extension for trace files */
+	public static final String FILE_EXTENSION = "nsdt";
+
+	static final int TAG_END = 0;
+	static final int TAG_ROOT = 1;
+	static final int TAG_NAME = 2;
+	static final int TAG_STEP = 3;
+	static final int TAG_SET = 4;
+	static final int TAG_DROP = 5;
+	static final int TAG_INPUT = 6;
+	static final int TAG_SEED = 7;
+
+	private final DataOutputStream out;
+	/** Indices of the diagrams already defined in the trace, by signature and path */
+	private final HashMap<String, Integer> rootIndices = new HashMap<String, Integer>();
+	/** Shortcut for {@link #rootIndices} (avoids to retrieve the signature for every step) */
+	private final WeakHashMap<Root, Integer> rootObjectIndices = new WeakHashMap<Root, Integer>();
+	/** Preorder numbers of the elements of all recorded diagrams, by (clone-invariant) element id */
+	private final HashMap<Long, Integer> elementNumbers = new HashMap<Long, Integer>();
+	/** Indices of the variable names already defined in the trace */
+	private final HashMap<String, Integer> nameIndices = new HashMap<String, Integer>();
+	/** The variable display (name -> value) as of the last step */
+	private LinkedHashMap<String, String> lastVars = new LinkedHashMap<String, String>();
+	private boolean closed = false;
+
+	/**
+	 * Creates a recorder writing to the given stream and writes the file header.
+	 * @param _out - the target stream (should be buffered, will be closed by {@link #close(Vector)})
+	 * @throws IOException
+	 */
+	public TraceRecorder(OutputStream _out) throws IOException
+	{
+		this.out = new DataOutputStream(_out);
+		this.out.writeInt(MAGIC);
+		this.out.writeInt(VERSION);
+	}
+
+	/**
+	 * Records the execution of {@code _element} (of diagram {@code _root}) at call level {@code _depth}
+	 * after the changes of the variable display leading to {@code _vars}.
+	 * @param _root - the diagram the element belongs to
+	 * @param _element - the element about to be executed
+	 * @param _depth - the current subroutine call level
+	 * @param _vars - the variable display (pairs of name and value string) before the step if
+	 * {@code _complete} is true, otherwise the entries of the variables possibly changed since the
+	 * last step (all other variables are retained as recorded)
+	 * @param _complete - whether {@code _vars} is the complete variable display
+	 * @throws IOException
+	 */
+	public synchronized void recordStep(Root _root, Element _element, int _depth, Vector<String[]> _vars, boolean _complete) throws IOException
+	{
+		if (closed) {
+			return;
+		}
+		if (_complete) {
+			writeVariableChanges(_vars);
+		}
+		else {
+			writeVariableUpdates(_vars);
+		}
+		int rootIndex = getRootIndex(_root);
+		Integer elementNo = this.elementNumbers.get(_element.getId());
+		out.writeByte(TAG_STEP);
+		writeVarInt(rootIndex);
+		// The element number is shifted by one such that 0 can represent an unknown element
+		writeVarInt(elementNo == null ? 0 : elementNo + 1);
+		writeVarInt(_depth);
+	}
+
+	/**
+	 * Records a consumed input line
+	 * @param _input - the input string as obtained
+	 * @throws IOException
+	 */
+	public synchronized void recordInput(String _input) throws IOException
+	{
+		if (!closed) {
+			out.writeByte(TAG_INPUT);
+			writeString(_input);
+		}
+	}
+
+	/**
+	 * Records the seed of a random generator (e.g. for the interleaving of Parallel branches)
+	 * @param _seed - the seed
+	 * @throws IOException
+	 */
+	public synchronized void recordSeed(long _seed) throws IOException
+	{
+		if (!closed) {
+			out.writeByte(TAG_SEED);
+			out.writeLong(_seed);
+		}
+	}
+
+	/**
+	 * Records the final variable changes, terminates and closes the trace.
+	 * @param _vars - the final variable display (may be null)
+	 * @throws IOException
+	 */
+	public synchronized void close(Vector<String[]> _vars) throws IOException
+	{
+		if (closed) {
+			return;
+		}
+		try {
+			if (_vars != null) {
+				writeVariableChanges(_vars);
+			}
+			out.writeByte(TAG_END);
+		}
+		finally {
+			closed = true;
+			out.close();
+		}
+	}
+
+	private int getRootIndex(Root _root) throws IOException
+	{
+		Integer objIndex = this.rootObjectIndices.get(_root);
+		if (objIndex != null) {
+			return objIndex;
+		}
+		String signature = _root.getSignatureString(false);
+		String path = _root.getPath();
+		String key = signature + "\n" + path;
+		Integer index = this.rootIndices.get(key);
+		if (index == null) {
+			index = this.rootIndices.size();
+			this.rootIndices.put(key, index);
+			out.writeByte(TAG_ROOT);
+			writeString(signature);
+			writeString(path);
+			// Number the elements in preorder (clones share the element ids with their original)
+			_root.traverse(new IElementVisitor() {
+				private int number = 0;
+				@Override
+				public boolean visitPreOrder(Element _ele) {
+					if (!elementNumbers.containsKey(_ele.getId())) {
+						elementNumbers.put(_ele.getId(), number);
+					}
+					number++;
+					return true;
+				}
+				@Override
+				public boolean visitPostOrder(Element _ele) {
+					return true;
+				}
+			});
+		}
+		this.rootObjectIndices.put(_root, index);
+		return index;
+	}
+
+	private void writeVariableChanges(Vector<String[]> _vars) throws IOException
+	{
+		LinkedHashMap<String, String> vars = new LinkedHashMap<String, String>();
+		for (String[] pair: _vars) {
+			vars.put(pair[0], pair[1]);
+		}
+		// Variables no longer displayed (e.g. after a call or return)
+		Iterator<String> iter = this.lastVars.keySet().iterator();
+		while (iter.hasNext()) {
+			String name = iter.next();
+			if (!vars.containsKey(name)) {
+				out.writeByte(TAG_DROP);
+				writeVarInt(getNameIndex(name));
+			}
+		}
+		for (Entry<String, String> entry: vars.entrySet()) {
+			String name = entry.getKey();
+			String value = entry.getValue();
+			if (!value.equals(this.lastVars.get(name))) {
+				int nameIndex = getNameIndex(name);
+				out.writeByte(TAG_SET);
+				writeVarInt(nameIndex);
+				writeString(value);
+			}
+		}
+		this.lastVars = vars;
+	}
+
+	private void writeVariableUpdates(Vector<String[]> _vars) throws IOException
+	{
+		for (String[] pair: _vars) {
+			if (!pair[1].equals(this.lastVars.get(pair[0]))) {
+				int nameIndex = getNameIndex(pair[0]);
+				out.writeByte(TAG_SET);
+				writeVarInt(nameIndex);
+				writeString(pair[1]);
+				this.lastVars.put(pair[0], pair[1]);
+			}
+		}
+	}
+
+	private int getNameIndex(String _name) throws IOException
+	{
+		Integer index = this.nameIndices.get(_name);
+		if (index == null) {
+			index = this.nameIndices.size();
+			this.nameIndices.put(_name, index);
+			out.writeByte(TAG_NAME);
+			writeString(_name);
+		}
+		return index;
+	}
+
+	/**
+	 * Writes a string as UTF-8 with a preceding variable-length byte count (since
+	 * {@link DataOutputStream#writeUTF(String)} is limited to 64 KiB, which might not
+	 * suffice for the display of large arrays)
+	 */
+	private void writeString(String _str) throws IOException
+	{
+		byte[] bytes = _str.getBytes("UTF-8");
+		writeVarInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private void writeVarInt(int _value) throws IOException
+	{
+		while ((_value & ~0x7F) != 0) {
+			out.writeByte((_value & 0x7F) | 0x80);
+			_value >>>= 7;
+		}
+		out.writeByte(_value);
+	}
+
+}
@@ -0,0 +1,190 @@
+/*
+    Structorizer
+    A little tool which you can use to create Nassi-Schneiderman Diagrams (NSD)
+
+    Copyright (C) 2009  Bob Fisch
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or any
+    later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package lu.fisch.structorizer.executor;
+
+/******************************************************************************************************
+ *
+ *      Author:         agent
+ *
+ *      Description:    Dialog to scrub through a recorded execution trace.
+ *
+ ******************************************************************************************************
+ *
+ *      Revision List
+ *
+ *      Author          Date            Description
+ *      ------          ----            -----------
+ *      agent           2026.10.18      First Issue (AGT#10)
+ *
+ ******************************************************************************************************
+ *
+ *      Comment:
+ *      2026.10.18 / agent
+ *      - Nothing is evaluated here: the Executor just highlights the recorded element and shows the
+ *        recorded variable display for the chosen step (see Executor.displayTraceFrame()).
+ *
+ ******************************************************************************************************///
+
+import java.awt.BorderLayout;
+import java.awt.Frame;
+import java.awt.GridLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JSlider;
+import javax.swing.SwingConstants;
+import javax.swing.border.EmptyBorder;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import lu.fisch.structorizer.gui.GUIScaler;
+import lu.fisch.structorizer.gui.LangTextHolder;
+import lu.fisch.structorizer.locales.LangDialog;
+import lu.fisch.structorizer.locales.Locales;
+
+/**
+ * Non-modal dialog allowing to step or scrub forwards and backwards through an {@link ExecutionTrace},
+ * the respective state being shown in the diagram and the variable display of the {@link Control}.
+ * @author agent
+ */
+@SuppressWarnings("serial")
+public class TraceReplayDialog extends LangDialog implements ActionListener, ChangeListener {
+
+	public static final LangTextHolder msgStep = new LangTextHolder("Step %1 of %2");
+	public static final LangTextHolder msgFinalState = new LangTextHolder("Final state");
+
+	private final ExecutionTrace trace;
+	private JLabel lblStep;
+	private JSlider slFrame;
+	private JButton btnFirst, btnPrevious, btnNext, btnLast, btnClose;
+
+	/**
+	 * Creates and shows the replay dialog for the given trace
+	 * @param _owner - the owning frame (usually the {@link Control})
+	 * @param _trace - the loaded execution trace
+	 */
+	public TraceReplayDialog(Frame _owner, ExecutionTrace _trace)
+	{
+		super(_owner, false);
+		this.trace = _trace;
+
+		initComponents();
+
+		Locales.getInstance().setLocale(this);
+
+		this.setLocationRelativeTo(_owner);
+		this.showFrame(0);
+		this.setVisible(true);
+	}
+
+	private void initComponents()
+	{
+		this.setTitle("Execution Replay");
+		this.setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+
+		JPanel contentPane = new JPanel();
+		contentPane.setLayout(new BorderLayout());
+		contentPane.setBorder(new EmptyBorder(5, 5, 5, 5));
+
+		lblStep = new JLabel("", SwingConstants.CENTER);
+		contentPane.add(lblStep, BorderLayout.NORTH);
+
+		slFrame = new JSlider(0, Math.max(trace.getFrameCount() - 1, 0), 0);
+		slFrame.addChangeListener(this);
+		contentPane.add(slFrame, BorderLayout.CENTER);
+
+		JPanel buttonBar = new JPanel();
+		buttonBar.setLayout(new GridLayout(1, 0, 5, 5));
+		btnFirst = new JButton("|<");
+		btnPrevious = new JButton("<");
+		btnNext = new JButton(">");
+		btnLast = new JButton(">|");
+		btnClose = new JButton("Close");
+		for (JButton button: new JButton[]{btnFirst, btnPrevious, btnNext, btnLast, btnClose}) {
+			button.addActionListener(this);
+			buttonBar.add(button);
+		}
+		contentPane.add(buttonBar, BorderLayout.SOUTH);
+
+		this.add(contentPane);
+
+		this.addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosed(WindowEvent evt) {
+				Executor.getInstance().endTraceDisplay();
+			}
+		});
+
+		GUIScaler.rescaleComponents(this);
+		this.pack();
+	}
+
+	private void showFrame(int _frame)
+	{
+		int nFrames = trace.getFrameCount();
+		if (_frame < nFrames - 1) {
+			lblStep.setText(msgStep.getText().replace("%1", Integer.toString(_frame + 1)).replace("%2", Integer.toString(nFrames - 1)));
+		}
+		else {
+			lblStep.setText(msgFinalState.getText());
+		}
+		btnFirst.setEnabled(_frame > 0);
+		btnPrevious.setEnabled(_frame > 0);
+		btnNext.setEnabled(_frame < nFrames - 1);
+		btnLast.setEnabled(_frame < nFrames - 1);
+		if (nFrames > 0) {
+			Executor.getInstance().displayTraceFrame(trace, _frame);
+		}
+	}
+
+	@Override
+	public void stateChanged(ChangeEvent evt)
+	{
+		showFrame(slFrame.getValue());
+	}
+
+	@Override
+	public void actionPerformed(ActionEvent evt)
+	{
+		Object source = evt.getSource();
+		if (source == btnClose) {
+			this.dispose();
+		}
+		else if (source == btnFirst) {
+			slFrame.setValue(0);
+		}
+		else if (source == btnPrevious) {
+			slFrame.setValue(slFrame.getValue() - 1);
+		}
+		else if (source == btnNext) {
+			slFrame.setValue(slFrame.getValue() + 1);
+		}
+		else if (source == btnLast) {
+			slFrame.setValue(slFrame.getMaximum());
+		}
+	}
+
+}
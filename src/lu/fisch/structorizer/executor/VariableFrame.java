@@ -0,0 +1,576 @@
+/*
+    Structorizer
+    A little tool which you can use to create Nassi-Schneiderman Diagrams (NSD)
+
+    Copyright (C) 2009  Bob Fisch
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or any
+    later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package lu.fisch.structorizer.executor;
+
+/******************************************************************************************************
+ *
+ *      Author:         agent
+ *
+ *      Description:    Frame-local store of the numeric variable values of an execution context.
+ *
+ ******************************************************************************************************
+ *
+ *      Revision List
+ *
+ *      Author          Date            Description
+ *      ------          ----            -----------
+ *      agent           2026.10.18      First Issue (AGT#12)
+ *      agent           2026.10.18      AGT#13: Modification tracking (for the propagation of imported variables)
+ *
+ ******************************************************************************************************
+ *
+ *      Comment:
+ *      2026.10.18 / agent
+ *      - The interpreter namespace remains the authoritative variable storage, since all expressions
+ *        not natively evaluable are still executed by the interpreter. The frame holds the int, long,
+ *        and double values assigned by the Executor in primitive slots (the slot indices are resolved
+ *        once per diagram from Root.getVarNames(), see Layout). The native expression evaluation reads
+ *        them from the slots (ints without boxing, see loadInt()), the Executor stores ints directly
+ *        by slot (see storeInt()).
+ *      - A slot value is only written into the namespace (as boxed Primitive) when the interpreter is
+ *        about to use the namespace: before an evaluation, a set, unset, or get operation, or a request
+ *        of the namespace via the FrameInterpreter (see flush()). Only the first assignment to a slot
+ *        after an invalidation is written through at once, because the namespace must get the chance
+ *        to reject it (e.g. for a typed variable). So a loop that is entirely evaluated natively
+ *        doesn't allocate a Primitive per assignment.
+ *      - Any access of the interpreter that might modify variables (evaluation, setting, unsetting)
+ *        invalidates all slots (in constant time, by a generation counter) - the FrameInterpreter
+ *        takes care of that. So a slot is only consulted as long as its value is known to coincide
+ *        with that of the namespace.
+ *      2026.10.18 / agent
+ *      - The frame also counts the modifications. For each slot the count of its last assignment is
+ *        kept, an interpreter access counts as modification of unknown variables. This way it can be
+ *        told which variables may have changed since a certain point (see getModifiedSince()), which
+ *        allows the Executor to propagate only the modified global variables to the imported diagrams.
+ *
+ ******************************************************************************************************///
+
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.HashMap;
+
+import bsh.EvalError;
+import bsh.Interpreter;
+import bsh.NameSpace;
+import bsh.Primitive;
+import bsh.UtilEvalError;
+import lu.fisch.structorizer.elements.Root;
+import lu.fisch.utils.StringList;
+
+/**
+ * Frame-local store of the numeric variables of an {@link ExecutionContext} with primitive int,
+ * long, and double slots, written into the namespace of the associated {@link FrameInterpreter}
+ * before the latter uses it.
+ * @author agent
+ */
+public class VariableFrame {
+
+	/**
+	 * Slot layout of a diagram, i.e. the mapping of its variable names to slot indices.
+	 * Is to be built only once per diagram and may be shared by all frames for it.
+	 */
+	public static final class Layout {
+		private final HashMap<String, Integer> slots = new HashMap<String, Integer>();
+		private final String[] names;
+
+		/**
+		 * Builds the layout for the variables of the given diagram
+		 * @param _root - the diagram
+		 * @see Root#getVarNames()
+		 */
+		public Layout(Root _root)
+		{
+			StringList varNames = _root.getVarNames();
+			names = new String[varNames.count()];
+			for (int i = 0; i < names.length; i++) {
+				names[i] = varNames.get(i);
+				slots.put(names[i], i);
+			}
+		}
+
+		/**
+		 * @param _name - a variable name
+		 * @return the slot index of the variable or -1 if it doesn't belong to the layout
+		 */
+		public int getSlot(String _name)
+		{
+			Integer slot = slots.get(_name);
+			return slot == null ? -1 : slot;
+		}
+
+		/** @return the number of slots */
+		public int size()
+		{
+			return names.length;
+		}
+
+		// START AGT#13 2026-10-18
+		/**
+		 * @param _slot - a slot index
+		 * @return the name of the variable held in slot {@code _slot}
+		 */
+		public String getName(int _slot)
+		{
+			return names[_slot];
+		}
+		// END AGT#13 2026-10-18
+	}
+
+	/**
+	 * Interpreter keeping the slots of its {@link VariableFrame} consistent: every evaluation,
+	 * setting, or unsetting invalidates them.
+	 */
+	public static final class FrameInterpreter extends Interpreter {
+		private static final long serialVersionUID = 1L;
+		private final VariableFrame frame;
+
+		/**
+		 * Creates an interpreter for the given frame, which gets attached to the namespace
+		 * @param _in - see {@link Interpreter#Interpreter(Reader, PrintStream, PrintStream, boolean, NameSpace)}
+		 * @param _out - see {@link Interpreter#Interpreter(Reader, PrintStream, PrintStream, boolean, NameSpace)}
+		 * @param _err - see {@link Interpreter#Interpreter(Reader, PrintStream, PrintStream, boolean, NameSpace)}
+		 * @param _namespace - the (fresh) namespace of the interpreter
+		 * @param _frame - the variable frame
+		 */
+		public FrameInterpreter(Reader _in, PrintStream _out, PrintStream _err, NameSpace _namespace, VariableFrame _frame)
+		{
+			super(_in, _out, _err, false, _namespace);
+			frame = _frame;
+			frame.namespace = _namespace;
+		}
+
+		@Override
+		public Object eval(String _statements) throws EvalError
+		{
+			frame.invalidate();
+			return super.eval(_statements);
+		}
+
+		@Override
+		public Object eval(String _statements, NameSpace _namespace) throws EvalError
+		{
+			frame.invalidate();
+			return super.eval(_statements, _namespace);
+		}
+
+		@Override
+		public Object eval(Reader _in) throws EvalError
+		{
+			frame.invalidate();
+			return super.eval(_in);
+		}
+
+		@Override
+		public Object eval(Reader _in, NameSpace _namespace, String _sourceFileInfo) throws EvalError
+		{
+			frame.invalidate();
+			return super.eval(_in, _namespace, _sourceFileInfo);
+		}
+
+		@Override
+		public void set(String _name, Object _value) throws EvalError
+		{
+			frame.invalidate();
+			super.set(_name, _value);
+		}
+
+		@Override
+		public void set(String _name, int _value) throws EvalError
+		{
+			frame.invalidate();
+			super.set(_name, _value);
+		}
+
+		@Override
+		public void set(String _name, long _value) throws EvalError
+		{
+			frame.invalidate();
+			super.set(_name, _value);
+		}
+
+		@Override
+		public void set(String _name, double _value) throws EvalError
+		{
+			frame.invalidate();
+			super.set(_name, _value);
+		}
+
+		@Override
+		public void set(String _name, float _value) throws EvalError
+		{
+			frame.invalidate();
+			super.set(_name, _value);
+		}
+
+		@Override
+		public void set(String _name, boolean _value) throws EvalError
+		{
+			frame.invalidate();
+			super.set(_name, _value);
+		}
+
+		@Override
+		public void unset(String _name) throws EvalError
+		{
+			frame.invalidate();
+			super.unset(_name);
+		}
+
+		@Override
+		public Object get(String _name) throws EvalError
+		{
+			// (Is already called by the super constructor)
+			if (frame != null) {
+				frame.flush();
+			}
+			return super.get(_name);
+		}
+
+		/**
+		 * {@inheritDoc}<br/>
+		 * Writes all pending slot values into the namespace before, since the caller might
+		 * retrieve variables from it. (Readers consulting the slots first may use
+		 * {@link VariableFrame#getNameSpace()} instead.)
+		 */
+		@Override
+		public NameSpace getNameSpace()
+		{
+			if (frame != null) {
+				frame.flush();
+			}
+			return super.getNameSpace();
+		}
+	}
+
+	private static final byte KIND_INT = 1;
+	private static final byte KIND_LONG = 2;
+	private static final byte KIND_DOUBLE = 3;
+
+	private final Layout layout;
+	private final byte[] kinds;
+	private final long[] longValues;
+	private final double[] doubleValues;
+	/** Generation the slot value was stored in - it is only valid if this equals {@link #generation} */
+	private final int[] stamps;
+	/** Generation in which the namespace accepted a value for the slot (then writing may be deferred) */
+	private final int[] boundStamps;
+	/** Whether the value of the slot is yet to be written into the namespace */
+	private final boolean[] dirty;
+	/** The slots with pending values (the first {@link #nDirty} entries) */
+	private final int[] dirtySlots;
+	private int nDirty = 0;
+	private int generation = 1;
+	/** The namespace of the associated interpreter (values are written into it on {@link #flush()}) */
+	private NameSpace namespace = null;
+	// START AGT#13 2026-10-18: Modification tracking
+	/** Number of modifications so far */
+	private long modCount = 0;
+	/** Value of {@link #modCount} after the last modification of unknown variables */
+	private long unknownModCount = 0;
+	/** Value of {@link #modCount} after the last assignment to the respective slot */
+	private final long[] slotModCounts;
+	// END AGT#13 2026-10-18
+
+	/**
+	 * Creates an empty frame with the given slot layout. Is to be associated with a
+	 * {@link FrameInterpreter}, before values may be stored.
+	 * @param _layout - the slot layout of the diagram
+	 */
+	public VariableFrame(Layout _layout)
+	{
+		layout = _layout;
+		int size = _layout.size();
+		kinds = new byte[size];
+		longValues = new long[size];
+		doubleValues = new double[size];
+		stamps = new int[size];
+		boundStamps = new int[size];
+		dirty = new boolean[size];
+		dirtySlots = new int[size];
+		// START AGT#13 2026-10-18
+		slotModCounts = new long[size];
+		// END AGT#13 2026-10-18
+	}
+
+	/** @return the slot layout of this frame */
+	public Layout getLayout()
+	{
+		return layout;
+	}
+
+	/**
+	 * Returns the namespace of the associated interpreter without writing the pending slot
+	 * values into it, i.e. variables held in valid slots must be retrieved via {@link #load(int)}
+	 * or {@link #loadInt(int)} rather than from the namespace.
+	 * @return the namespace of the associated {@link FrameInterpreter} (may be null)
+	 */
+	public NameSpace getNameSpace()
+	{
+		return namespace;
+	}
+
+	/**
+	 * Writes the pending slot values into the namespace
+	 */
+	public void flush()
+	{
+		for (int i = 0; i < nDirty; i++) {
+			int slot = dirtySlots[i];
+			dirty[slot] = false;
+			Primitive value = null;
+			switch (kinds[slot]) {
+			case KIND_INT:
+				value = new Primitive((int)longValues[slot]);
+				break;
+			case KIND_LONG:
+				value = new Primitive(longValues[slot]);
+				break;
+			default:
+				value = new Primitive(doubleValues[slot]);
+			}
+			try {
+				namespace.setVariable(layout.getName(slot), value, false);
+			}
+			catch (UtilEvalError ex) {
+				// Cannot happen since the namespace accepted a value in this generation
+			}
+		}
+		nDirty = 0;
+	}
+
+	/**
+	 * Invalidates all slots (e.g. because the interpreter may have modified variables)
+	 * after their pending values have been written into the namespace
+	 */
+	public void invalidate()
+	{
+		flush();
+		generation++;
+		// START AGT#13 2026-10-18: Any variable may have been modified
+		unknownModCount = ++modCount;
+		// END AGT#13 2026-10-18
+	}
+
+	// START AGT#13 2026-10-18: Modification tracking
+	/**
+	 * @return the current modification count of this frame (a mere logical time stamp)
+	 * @see #getModifiedSince(long)
+	 */
+	public long getModCount()
+	{
+		return modCount;
+	}
+
+	/**
+	 * Registers a modification of the variable {@code _name} without changing its value
+	 * (e.g. if it is known to differ from some other copy of it).
+	 * @param _name - a variable name
+	 */
+	public void markModified(String _name)
+	{
+		int slot = layout.getSlot(_name);
+		if (slot < 0) {
+			unknownModCount = ++modCount;
+		}
+		else {
+			slotModCounts[slot] = ++modCount;
+		}
+	}
+
+	/**
+	 * Tells which variables have been modified after the frame had the given modification count
+	 * @param _modCount - a value formerly obtained by {@link #getModCount()}
+	 * @return the names of the modified variables or null if unknown variables may have been modified
+	 */
+	public StringList getModifiedSince(long _modCount)
+	{
+		if (unknownModCount > _modCount) {
+			return null;
+		}
+		StringList modified = new StringList();
+		if (modCount > _modCount) {
+			for (int i = 0; i < slotModCounts.length; i++) {
+				if (slotModCounts[i] > _modCount) {
+					modified.add(layout.getName(i));
+				}
+			}
+		}
+		return modified;
+	}
+	// END AGT#13 2026-10-18
+
+	/**
+	 * Assigns the given value to variable {@code _name} if it is held by a slot of this frame
+	 * and {@code _value} is an Integer, Long, or Double. The value is also set in the namespace
+	 * (as primitive).
+	 * @param _name - the variable name
+	 * @param _value - the value to be assigned
+	 * @return true if the value has been assigned, false if the caller must do it otherwise
+	 */
+	public boolean store(String _name, Object _value)
+	{
+		if (_value instanceof Integer) {
+			return store(_name, ((Integer)_value).intValue());
+		}
+		else if (_value instanceof Long) {
+			return store(_name, ((Long)_value).longValue());
+		}
+		else if (_value instanceof Double) {
+			return store(_name, ((Double)_value).doubleValue());
+		}
+		return false;
+	}
+
+	/**
+	 * Assigns the int value {@code _value} to variable {@code _name} if it is held by a slot
+	 * of this frame. The value will also be set in the namespace (as primitive).
+	 * @param _name - the variable name
+	 * @param _value - the value to be assigned
+	 * @return true if the value has been assigned, false if the caller must do it otherwise
+	 */
+	public boolean store(String _name, int _value)
+	{
+		int slot = layout.getSlot(_name);
+		return slot >= 0 && storeInt(slot, _value);
+	}
+
+	/**
+	 * Assigns the long value {@code _value} to variable {@code _name} if it is held by a slot
+	 * of this frame. The value will also be set in the namespace (as primitive).
+	 * @param _name - the variable name
+	 * @param _value - the value to be assigned
+	 * @return true if the value has been assigned, false if the caller must do it otherwise
+	 */
+	public boolean store(String _name, long _value)
+	{
+		int slot = layout.getSlot(_name);
+		return slot >= 0 && storeSlot(slot, KIND_LONG, _value, 0.0);
+	}
+
+	/**
+	 * Assigns the double value {@code _value} to variable {@code _name} if it is held by a slot
+	 * of this frame. The value will also be set in the namespace (as primitive).
+	 * @param _name - the variable name
+	 * @param _value - the value to be assigned
+	 * @return true if the value has been assigned, false if the caller must do it otherwise
+	 */
+	public boolean store(String _name, double _value)
+	{
+		int slot = layout.getSlot(_name);
+		return slot >= 0 && storeSlot(slot, KIND_DOUBLE, 0L, _value);
+	}
+
+	/**
+	 * Assigns the int value {@code _value} to the variable held in slot {@code _slot}. The
+	 * value will also be set in the namespace (as primitive).
+	 * @param _slot - a slot index according to {@link #getLayout()}
+	 * @param _value - the value to be assigned
+	 * @return true if the value has been assigned, false if the caller must do it otherwise
+	 */
+	public boolean storeInt(int _slot, int _value)
+	{
+		return storeSlot(_slot, KIND_INT, _value, 0.0);
+	}
+
+	private boolean storeSlot(int _slot, byte _kind, long _longValue, double _doubleValue)
+	{
+		if (boundStamps[_slot] != generation) {
+			// The namespace has to accept the first value of this generation
+			if (!setInNamespace(layout.getName(_slot), _kind == KIND_INT ? new Primitive((int)_longValue)
+					: _kind == KIND_LONG ? new Primitive(_longValue) : new Primitive(_doubleValue))) {
+				return false;
+			}
+			boundStamps[_slot] = generation;
+		}
+		else if (!dirty[_slot]) {
+			dirty[_slot] = true;
+			dirtySlots[nDirty++] = _slot;
+		}
+		kinds[_slot] = _kind;
+		longValues[_slot] = _longValue;
+		doubleValues[_slot] = _doubleValue;
+		stamps[_slot] = generation;
+		// START AGT#13 2026-10-18
+		slotModCounts[_slot] = ++modCount;
+		// END AGT#13 2026-10-18
+		return true;
+	}
+
+	/**
+	 * Returns the value of the given slot if it is valid
+	 * @param _slot - a slot index according to {@link #getLayout()}
+	 * @return the boxed value or null if the slot doesn't hold a (currently valid) value
+	 */
+	public Object load(int _slot)
+	{
+		if (stamps[_slot] != generation) {
+			return null;
+		}
+		switch (kinds[_slot]) {
+		case KIND_INT:
+			return (int)longValues[_slot];
+		case KIND_LONG:
+			return longValues[_slot];
+		case KIND_DOUBLE:
+			return doubleValues[_slot];
+		}
+		return null;
+	}
+
+	/**
+	 * @param _slot - a slot index according to {@link #getLayout()}
+	 * @return true if the slot holds a currently valid int value
+	 * @see #loadInt(int)
+	 */
+	public boolean holdsInt(int _slot)
+	{
+		return stamps[_slot] == generation && kinds[_slot] == KIND_INT;
+	}
+
+	/**
+	 * Returns the int value of the given slot without boxing. Only to be called if
+	 * {@link #holdsInt(int)} returned true.
+	 * @param _slot - a slot index according to {@link #getLayout()}
+	 * @return the int value
+	 */
+	public int loadInt(int _slot)
+	{
+		return (int)longValues[_slot];
+	}
+
+	private boolean setInNamespace(String _name, Primitive _value)
+	{
+		if (namespace == null) {
+			return false;
+		}
+		try {
+			// Equivalent to Interpreter.set(String, int/long/double) for simple names
+			namespace.setVariable(_name, _value, false);
+		}
+		catch (UtilEvalError ex) {
+			// E.g. a typed variable - the interpreter will have to cope with it (or complain)
+			invalidate();
+			return false;
+		}
+		return true;
+	}
+
+}
@@ -78,6 +78,7 @@ package lu.fisch.structorizer.generators;
  *      Kay Gürtzig     2017.09.26      Enh. #389/#423: Supporting code parts from PasGenerator adopted
  *      Kay Gürtzig     2018.02.22      Bugfix #517: Infrastructure for correct handling of decl./init. from includables
  *      Kay Gürtzig     2018.03.13      Modifications for bugfix #521, transformOutput() revised
+ *      agent           2026.10.18      AGT#22: transform() retrieves the tokens from the element token cache
  *
  ******************************************************************************************************
  *
@@ -274,6 +275,10 @@ public abstract class Generator extends javax.swing.filechooser.FileFilter imple
 	// START KGU 2016-03-29: For keyword detection improvement
 	private Vector<StringList> splitKeywords = new Vector<StringList>();
 	// END KGU 2016-03-29
+	// START AGT#22 2026-10-18: Source of cached tokens for transform()
+	/** The element currently exported via {@link #generateCode(Element, String)} (or null) */
+	private Element currentElement = null;
+	// END AGT#22 2026-10-18
 	// START KGU#446 2017-10-27: Enh. #441
 	/** Flag to remember whether Turtleizer routine calls are in the code (to prepare support if possible) */
 	protected boolean usesTurtleizer = false;
@@ -974,13 +979,19 @@ public abstract class Generator extends javax.swing.filechooser.FileFilter imple
 		if (this.suppressTransformation)
 		{
 			// Suppress all syntax changes, just split to tokens.
-			tokens = Element.splitLexically(_input, true);
+			// START AGT#22 2026-10-18: Lines of the current element are found in its token cache
+			//tokens = Element.splitLexically(_input, true);
+			tokens = (currentElement != null) ? currentElement.getLineTokens(_input) : Element.splitLexically(_input, true);
+			// END AGT#22 2026-10-18
 			Element.cutOutRedundantMarkers(tokens);
 		}
 		else
 		{
 			// convert to tokens into a common intermediate language
-			tokens = Element.transformIntermediate(_input);
+			// START AGT#22 2026-10-18
+			//tokens = Element.transformIntermediate(_input);
+			tokens = Element.transformIntermediate(_input, currentElement);
+			// END AGT#22 2026-10-18
 		}
 		// END KGU#162 2016-03-31
 		
@@ -2202,46 +2213,55 @@ public abstract class Generator extends javax.swing.filechooser.FileFilter imple
 	 */
 	protected final void generateCode(Element _ele, String _indent)
 	{
-		if(_ele.getClass().getSimpleName().equals("Instruction"))
-		{
-			generateCode((Instruction) _ele, _indent);
-		}
-		else if(_ele.getClass().getSimpleName().equals("Alternative"))
-		{
-			generateCode((Alternative) _ele,_indent);
-		}
-		else if(_ele.getClass().getSimpleName().equals("Case"))
-		{
-			generateCode((Case) _ele,_indent);
-		}
-		else if(_ele.getClass().getSimpleName().equals("Parallel"))
-		{
-			generateCode((Parallel) _ele,_indent);
-		}
-		else if(_ele.getClass().getSimpleName().equals("For"))
-		{
-			generateCode((For) _ele, _indent);
-		}
-		else if(_ele.getClass().getSimpleName().equals("While"))
-		{
-			generateCode((While) _ele,_indent);
-		}
-		else if(_ele.getClass().getSimpleName().equals("Repeat"))
-		{
-			generateCode((Repeat) _ele,_indent);
-		}
-		else if(_ele.getClass().getSimpleName().equals("Forever"))
-		{
-			generateCode((Forever) _ele,_indent);
-		}
-		else if(_ele.getClass().getSimpleName().equals("Call"))
-		{
-			generateCode((Call) _ele,_indent);
+		// START AGT#22 2026-10-18: Make the token cache of _ele available to transform()
+		Element outerElement = currentElement;
+		currentElement = _ele;
+		try {
+			if(_ele.getClass().getSimpleName().equals("Instruction"))
+			{
+				generateCode((Instruction) _ele, _indent);
+			}
+			else if(_ele.getClass().getSimpleName().equals("Alternative"))
+			{
+				generateCode((Alternative) _ele,_indent);
+			}
+			else if(_ele.getClass().getSimpleName().equals("Case"))
+			{
+				generateCode((Case) _ele,_indent);
+			}
+			else if(_ele.getClass().getSimpleName().equals("Parallel"))
+			{
+				generateCode((Parallel) _ele,_indent);
+			}
+			else if(_ele.getClass().getSimpleName().equals("For"))
+			{
+				generateCode((For) _ele, _indent);
+			}
+			else if(_ele.getClass().getSimpleName().equals("While"))
+			{
+				generateCode((While) _ele,_indent);
+			}
+			else if(_ele.getClass().getSimpleName().equals("Repeat"))
+			{
+				generateCode((Repeat) _ele,_indent);
+			}
+			else if(_ele.getClass().getSimpleName().equals("Forever"))
+			{
+				generateCode((Forever) _ele,_indent);
+			}
+			else if(_ele.getClass().getSimpleName().equals("Call"))
+			{
+				generateCode((Call) _ele,_indent);
+			}
+			else if(_ele.getClass().getSimpleName().equals("Jump"))
+			{
+				generateCode((Jump) _ele,_indent);
+			}
 		}
-		else if(_ele.getClass().getSimpleName().equals("Jump"))
-		{
-			generateCode((Jump) _ele,_indent);
+		finally {
+			currentElement = outerElement;
 		}
+		// END AGT#22 2026-10-18
 	}
 	
 	/**
@@ -33,85 +33,262 @@ package lu.fisch.structorizer.gui;
  *      Author          Date			Description
  *      ------			----			-----------
  *      Bob Fisch       2008.04.18      First Issue
+ *      agent           2026.10.18      AGT#24: Rewritten as background analysis service
  *
  ******************************************************************************************************
  *
- *      Comment:		
+ *      Comment:
+ *      2026.10.18 / agent
+ *      - The former thread approach had been abandoned because the diagram was analysed while the
+ *        user kept on modifying it. Now a snapshot of the diagram (and of the diagrams it includes)
+ *        is taken on the event dispatch thread and analysed by a single daemon thread, such that
+ *        editing doesn't have to wait for the analysis. Requests for the same Diagram are coalesced:
+ *        only the most recent snapshot is analysed, results of outdated snapshots are dropped.
+ *      - Per Diagram, an AnalysisCache retains the element check results, such that only the
+ *        elements affected by a modification have to be re-checked.
+ *      - The results are published on the event dispatch thread, where the reported elements of the
+ *        snapshot are replaced by their counterparts in the diagram.
  *
  ******************************************************************************************************///
 
+import lu.fisch.structorizer.arranger.Arranger;
 import lu.fisch.structorizer.elements.*;
+import lu.fisch.utils.StringList;
 
 import java.util.*;
-
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.swing.*;
 
-public class Analyser extends Thread
+/**
+ * Background analysis service: analyses snapshots of the diagrams on a daemon thread of its own
+ * and hands the results to the respective {@link Diagram} on the event dispatch thread.
+ */
+public class Analyser implements Runnable
 {
-	private Root root = null;
-	private JList<DetectedError> errorlist = null;
-	private DefaultListModel<DetectedError> errors = null;
-	
-	private static boolean running = false;
-	
-	public Analyser(Root _root, JList<DetectedError> _errorlist)
+	private static final Logger logger = Logger.getLogger(Analyser.class.getName());
+	private static Analyser instance = null;
+
+	/** Analysis order for a {@link Diagram} */
+	private static final class Request {
+		final Diagram diagram;
+		/** The diagram as it is managed by {@link #diagram} */
+		final Root root;
+		/** The copy of {@link #root} to be analysed */
+		final Root snapshot;
+		final long number;
+
+		Request(Diagram _diagram, Root _root, Root _snapshot, long _number)
+		{
+			diagram = _diagram;
+			root = _root;
+			snapshot = _snapshot;
+			number = _number;
+		}
+	}
+
+	/** The latest request per Diagram not yet taken by the worker thread */
+	private final LinkedHashMap<Diagram, Request> pending = new LinkedHashMap<Diagram, Request>();
+	/** Number of the latest request per Diagram (only accessed on the event dispatch thread) */
+	private final WeakHashMap<Diagram, Long> latest = new WeakHashMap<Diagram, Long>();
+	/** Results of the previous analysis per Diagram (only accessed by the worker thread) */
+	private final WeakHashMap<Diagram, AnalysisCache> caches = new WeakHashMap<Diagram, AnalysisCache>();
+	private long nRequests = 0;
+	private Thread thread = null;
+
+	private Analyser()
 	{
-		super();
-		
-		//System.out.println("Setup ...");
-		root = _root;
-		errorlist = _errorlist;
-		errors = (DefaultListModel<DetectedError>) _errorlist.getModel();
 	}
 
-	public void run() 
+	/**
+	 * @return the analysis service
+	 */
+	public static synchronized Analyser getInstance()
 	{
-		// make sure the analyser is not yet running
-		if(running==false)
-		{
-			running=true;
-			//System.out.println("Working ...");
-			Vector<DetectedError> vec = root.analyse();
-			errors.clear();
-			
-			for(int i=0; i<vec.size(); i++)
-			{
-				errors.addElement(vec.get(i));
+		if (instance == null) {
+			instance = new Analyser();
+		}
+		return instance;
+	}
+
+	/**
+	 * Orders the analysis of the current state of {@code _root}, the results of which will be
+	 * handed to {@code _diagram} via {@link Diagram#showAnalysis(Root, Vector)} unless
+	 * a more recent request for {@code _diagram} supersedes it.
+	 * Must be called on the event dispatch thread.
+	 * @param _diagram - the Diagram managing {@code _root}
+	 * @param _root - the diagram to be analysed
+	 */
+	public void submit(Diagram _diagram, Root _root)
+	{
+		HashMap<String, Vector<Root>> includeSnapshots = null;
+		if (Arranger.hasInstance()) {
+			includeSnapshots = new HashMap<String, Vector<Root>>();
+			collectIncludes(_root, includeSnapshots);
+		}
+		Root snapshot = _root.copyForAnalysis(includeSnapshots);
+		Request request = new Request(_diagram, _root, snapshot, ++nRequests);
+		latest.put(_diagram, request.number);
+		synchronized (this) {
+			pending.remove(_diagram);
+			pending.put(_diagram, request);
+			if (thread == null) {
+				thread = new Thread(this, "Structorizer analyser");
+				thread.setDaemon(true);
+				thread.start();
 			}
-			
-			errorlist.repaint();
-			errorlist.validate();
-			running=false;
+			this.notifyAll();
 		}
-		//else System.out.println("RUNNING");
 	}
-/*	
-	public void mouseClicked(MouseEvent e) 
+
+	/**
+	 * Adds snapshots of all diagrams (transitively) included by {@code _root} to {@code _snapshots}
+	 * @param _root - the including diagram
+	 * @param _snapshots - maps the include names to the snapshots of the respective diagrams
+	 */
+	private void collectIncludes(Root _root, HashMap<String, Vector<Root>> _snapshots)
 	{
-		if (e.getClickCount() == 1)
-		{
-			// alors?
+		StringList includeNames = _root.includeList;
+		if (includeNames == null) {
+			return;
 		}
-		else if (e.getClickCount() == 2)
-		{
+		for (int i = 0; i < includeNames.count(); i++) {
+			String name = includeNames.get(i);
+			if (!_snapshots.containsKey(name)) {
+				Vector<Root> snapshots = new Vector<Root>();
+				// Registered before descending, such that a recursive inclusion doesn't loop forever
+				_snapshots.put(name, snapshots);
+				for (Root incl: Arranger.getInstance().findIncludesByName(name)) {
+					snapshots.add(incl.copyForAnalysis(_snapshots));
+					collectIncludes(incl, _snapshots);
+				}
+			}
 		}
-	}	
+	}
 
-    public void mouseReleased(MouseEvent e) 
+	@Override
+	public void run()
 	{
+		while (true) {
+			Request request = null;
+			synchronized (this) {
+				while (pending.isEmpty()) {
+					try {
+						this.wait();
+					} catch (InterruptedException ex) {
+						thread = null;
+						return;
+					}
+				}
+				Iterator<Request> iter = pending.values().iterator();
+				request = iter.next();
+				iter.remove();
+			}
+			AnalysisCache cache = caches.get(request.diagram);
+			if (cache == null) {
+				cache = new AnalysisCache();
+				caches.put(request.diagram, cache);
+			}
+			try {
+				final Request done = request;
+				final Vector<DetectedError> errors = request.snapshot.analyse(cache);
+				SwingUtilities.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						publish(done, errors);
+					}
+				});
+			}
+			catch (Exception ex) {
+				// The diagram will be analysed again on the next modification
+				logger.log(Level.WARNING, "Analysis of " + request.snapshot.getSignatureString(false) + " failed.", ex);
+			}
+		}
 	}
-	
-    public void mouseEntered(MouseEvent e) 
+
+	/**
+	 * Hands the results of the analysis of {@code _request} to the Diagram if they are still
+	 * topical. Has to be called on the event dispatch thread.
+	 * @param _request - the executed request
+	 * @param _errors - the analysis results (referring to the snapshot)
+	 */
+	private void publish(Request _request, Vector<DetectedError> _errors)
 	{
+		Long number = latest.get(_request.diagram);
+		if (number == null || number != _request.number || _request.diagram.getRoot() != _request.root) {
+			// Superseded
+			return;
+		}
+		IdentityHashMap<Element, Element> counterparts = matchElements(_request.snapshot, _request.root);
+		if (counterparts == null) {
+			// The diagram has been modified without a new request
+			submit(_request.diagram, _request.root);
+			return;
+		}
+		Vector<DetectedError> errors = new Vector<DetectedError>(_errors.size());
+		for (DetectedError error: _errors) {
+			Element ele = error.getElement();
+			if (ele != null) {
+				ele = counterparts.get(ele);
+				if (ele == null) {
+					ele = _request.root;
+				}
+			}
+			errors.add(new DetectedError(error.getError(), ele));
+		}
+		// The analysis has determined the variables (used for highlighting), so we may adopt them
+		_request.root.variables = _request.snapshot.variables;
+		_request.root.constants = _request.snapshot.constants;
+		_request.diagram.showAnalysis(_request.root, errors);
 	}
-	
-    public void mouseExited(MouseEvent e) 
+
+	/**
+	 * Associates the elements of {@code _snapshot} with the corresponding elements of {@code _root}
+	 * @param _snapshot - an analysis snapshot of {@code _root}
+	 * @param _root - the diagram
+	 * @return the map from snapshot elements to diagram elements or null if the structures differ
+	 */
+	private static IdentityHashMap<Element, Element> matchElements(Root _snapshot, Root _root)
 	{
+		List<Element> snapshotElements = getElements(_snapshot);
+		List<Element> rootElements = getElements(_root);
+		if (snapshotElements.size() != rootElements.size()) {
+			return null;
+		}
+		IdentityHashMap<Element, Element> counterparts = new IdentityHashMap<Element, Element>();
+		for (int i = 0; i < rootElements.size(); i++) {
+			Element ele0 = snapshotElements.get(i);
+			Element ele1 = rootElements.get(i);
+			// (Subqueue copies don't retain the id)
+			if (ele0.getClass() != ele1.getClass() || !(ele0 instanceof Subqueue) && ele0.getId() != ele1.getId()
+					|| ele0.disabled != ele1.disabled || !ele0.getText().getText().equals(ele1.getText().getText())) {
+				return null;
+			}
+			counterparts.put(ele0, ele1);
+		}
+		return counterparts;
 	}
-	
-	public void mousePressed(MouseEvent e) 
+
+	/**
+	 * @param _root - a diagram
+	 * @return all elements of {@code _root} (including Subqueues and {@code _root} itself) in pre-order
+	 */
+	private static List<Element> getElements(Root _root)
 	{
+		final List<Element> elements = new ArrayList<Element>();
+		_root.traverse(new IElementVisitor() {
+			@Override
+			public boolean visitPreOrder(Element _ele) {
+				elements.add(_ele);
+				return true;
+			}
+			@Override
+			public boolean visitPostOrder(Element _ele) {
+				return true;
+			}
+		});
+		return elements;
 	}
-*/
+
 }
@@ -158,6 +158,8 @@ package lu.fisch.structorizer.gui;
  *      Kay Gürtzig     2018.07.02      KGU#245: color preferences modified to work with arrays
  *      Kay Gürtzig     2018.07.09      KGU#548: The import option dialog now retains the selected plugin for specific options
  *      Kay Gürtzig     2018.07.27      Bugfix #569: Report list didn't react to mouse clicks on a selected line 
+ *      agent           2026.10.18      AGT#24: Analysis delegated to the background Analyser service (except for guided tours)
+ *      agent           2026.10.18      AGT#23: Cached variable retrieval results reset on in-place modifications
  *
  ******************************************************************************************************
  *
@@ -2930,6 +2932,9 @@ public class Diagram extends JPanel implements MouseMotionListener, MouseListene
 					// START KGU#277 2016-10-13: Enh. #270
 					ele.disabled = data.disabled;
 					// END KGU#277 2016-10-13
+					// START AGT#23 2026-10-18
+					ele.resetVarSummaryUp();
+					// END AGT#23 2026-10-18
 					// START KGU#213 2016-08-01: Enh. #215 (temprarily disabled again)
 					//ele.setBreakTriggerCount(data.breakTriggerCount);
 					// END KGU#213 2016-08-01
@@ -3025,6 +3030,9 @@ public class Diagram extends JPanel implements MouseMotionListener, MouseListene
 					// START KGU#277 2016-10-13: Enh. #270
 					element.disabled = data.disabled;
 					// END KGU#277 2016-10-13
+					// START AGT#23 2026-10-18
+					element.resetVarSummaryUp();
+					// END AGT#23 2026-10-18
 					// START KGU#3 2015-10-25
 					if (element instanceof For)
 					{
@@ -3311,6 +3319,9 @@ public class Diagram extends JPanel implements MouseMotionListener, MouseListene
 		}
 		else {
 			getSelected().disabled = !getSelected().disabled;
+			// START AGT#23 2026-10-18
+			getSelected().resetVarSummaryUp();
+			// END AGT#23 2026-10-18
 		}
 		
 		redraw();
@@ -3352,6 +3363,9 @@ public class Diagram extends JPanel implements MouseMotionListener, MouseListene
 				// START KGU#277 2016-10-13: Enh. #270
 				_ele.disabled = data.disabled;
 				// END KGU#277 2016-10-13
+				// START AGT#23 2026-10-18
+				_ele.resetVarSummaryUp();
+				// END AGT#23 2026-10-18
 				// START KGU#213 2016-08-01: Enh. #215
 				//_ele.setBreakTriggerCount(data.breakTriggerCount);
 				// END KGU#213 2016-08-01
@@ -4046,6 +4060,9 @@ public class Diagram extends JPanel implements MouseMotionListener, MouseListene
 									//_ele.getText().set(i, functionPairs[j][1 - from] + line.trim().substring(oldName.length()));
 									if (this.act) {
 										_ele.getText().set(i, functionPairs[j][1 - from] + line.trim().substring(oldName.length()));
+										// START AGT#23 2026-10-18
+										_ele.resetVarSummaryUp();
+										// END AGT#23 2026-10-18
 									}
 									nChanges++;
 									// END #272 2016-10-17
@@ -7570,21 +7587,59 @@ public class Diagram extends JPanel implements MouseMotionListener, MouseListene
 			 analyser.start();
 			 /**/
 
+			// START AGT#24 2026-10-18: Analysis is done in the background now, unless a tutorial is active
 			//System.out.println("Working ...");
-			Vector<DetectedError> vec = root.analyse();
-			DefaultListModel<DetectedError> errors = 
-					(DefaultListModel<DetectedError>) errorlist.getModel();
-			errors.clear();
-
-			for(int i=0;i<vec.size();i++)
-			{
-				errors.addElement(vec.get(i));
+			//Vector<DetectedError> vec = root.analyse();
+			//DefaultListModel<DetectedError> errors = 
+			//		(DefaultListModel<DetectedError>) errorlist.getModel();
+			//errors.clear();
+			//
+			//for(int i=0;i<vec.size();i++)
+			//{
+			//	errors.addElement(vec.get(i));
+			//}
+			//
+			//errorlist.repaint();
+			//errorlist.validate();
+			if (root.getCurrentTutorial() >= 0) {
+				// The guided tours interact with the user and the tutorial state of the diagram
+				showAnalysis(root, root.analyse());
 			}
+			else {
+				Analyser.getInstance().submit(this, root);
+			}
+			// END AGT#24 2026-10-18
+		}
+	}
 
-			errorlist.repaint();
-			errorlist.validate();
+	// START AGT#24 2026-10-18: Background analysis
+	/**
+	 * Presents the given analysis results for the given diagram in the error list
+	 * (provided that {@code _root} is still the diagram of this and the Analyser is on).
+	 * @param _root - the analysed diagram
+	 * @param _errors - the detected problems
+	 */
+	void showAnalysis(Root _root, Vector<DetectedError> _errors)
+	{
+		if (_root != root || !Element.E_ANALYSER || errorlist == null) {
+			return;
+		}
+		root.errors = _errors;
+		DefaultListModel<DetectedError> errors = 
+				(DefaultListModel<DetectedError>) errorlist.getModel();
+		errors.clear();
+
+		for(int i=0;i<_errors.size();i++)
+		{
+			errors.addElement(_errors.get(i));
 		}
+
+		errorlist.repaint();
+		errorlist.validate();
+		// Variable highlighting may have changed
+		repaint();
 	}
+	// END AGT#24 2026-10-18
 
 	 /*****************************************
 	  * Recently used files
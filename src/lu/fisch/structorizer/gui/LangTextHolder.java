@@ -35,6 +35,7 @@ package lu.fisch.structorizer.gui;
  *      ------			----			-----------
  *      Kay Gürtzig     2016.03.25      First Issue
  *      Kay Gürtzig     2017.09.29      Method toString overridden
+ *      agent           2026.10.18      AGT#24: Global text revision counter added
  *
  ******************************************************************************************************
  *
@@ -54,6 +55,9 @@ package lu.fisch.structorizer.gui;
 public class LangTextHolder
 {
 	private String text = "";
+	// START AGT#24 2026-10-18: Allows caches of translated texts to detect a language change
+	private static volatile long revision = 0;
+	// END AGT#24 2026-10-18
 	public LangTextHolder() {}
 	public LangTextHolder(String _text)
 	{
@@ -61,12 +65,30 @@ public class LangTextHolder
 	}
 	public void setText(String _text)
 	{
+		// START AGT#24 2026-10-18
+		if (_text == null ? this.text != null : !_text.equals(this.text)) {
+			revision++;
+		}
+		// END AGT#24 2026-10-18
 		this.text = _text;
 	}
 	public String getText()
 	{
 		return this.text;
 	}
+	// START AGT#24 2026-10-18
+	/**
+	 * Returns a counter that is incremented whenever the text of any LangTextHolder
+	 * changes (e.g. on a change of the language), such that message caches may detect
+	 * the necessity of a refresh.
+	 * @return the current text revision
+	 */
+	public static long getRevision()
+	{
+		return revision;
+	}
+	// END AGT#24 2026-10-18
+
 	/* (non-Javadoc)
 	 * @see java.lang.Object#toString()
 	 */
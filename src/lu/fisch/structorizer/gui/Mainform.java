@@ -71,6 +71,7 @@ package lu.fisch.structorizer.gui;
  *                                      loading  preferences from explicitly chosen ini file. This is fixed now
  *      Kay Gürtzig     2018.06.25      Issue #551.1: The msgUpdateInfoHint shouldn't be given on webstart
  *      Kay Gürtzig     2018.07.09      Bugfix #555: Failing restoration of the previous comment popup status
+ *      agent           2026.10.18      AGT#25: Undo limits read from the ini file
  *
  ******************************************************************************************************
  *
@@ -776,6 +777,18 @@ public class Mainform  extends LangFrame implements NSDController, IRoutinePoolL
 				// END KGU#456 2017-11-05
 			}
 			// END KGU#2/KGU#78 2016-08-12
+			// START AGT#25 2026-10-18: Limits of the undo stacks (see also Root.saveToIni())
+			try
+			{
+				Root.setUndoLimits(
+						Integer.parseInt(ini.getProperty("undoMaxEntries", Integer.toString(Root.getUndoMaxEntries())).trim()),
+						Integer.parseInt(ini.getProperty("undoMaxMemory", Integer.toString(Root.getUndoMaxMemory())).trim()));
+			}
+			catch (NumberFormatException ex)
+			{
+				logger.log(Level.WARNING, "Ini: undo limits", ex);
+			}
+			// END AGT#25 2026-10-18
 			
 			doButtons();
 		}
@@ -44,6 +44,7 @@ package lu.fisch.structorizer.gui;
  *      Kay Gürtzig     2016.10.13      Enh. #277: Method setDisabled(boolean) implemented
  *      Kay Gürtzig     2016.11.17      Bugfix #114: isExecuted() revised (signatures too)
  *      Kay Gürtzig     2017.03.26      Enh. #380: Methods addElement() and insertElementAt() now substantially implemented
+ *      agent           2026.10.18      AGT#23: setDisabled() resets the cached variable retrieval results
  *
  ******************************************************************************************************
  *
@@ -641,6 +642,9 @@ public class SelectedSequence extends Element implements IElementSequence {
 		for (int i = 0; i < this.getSize(); i++)
 		{
 			this.getElement(i).disabled = disable;
+			// START AGT#23 2026-10-18
+			this.getElement(i).resetVarSummaryUp();
+			// END AGT#23 2026-10-18
 		}
 	}
 	// END KGU#277 2016-10-13
@@ -87,6 +87,7 @@ package lu.fisch.structorizer.parsers;
  *      Simon Sobisch   2017.12.15      Issues #493, #494 (related to SEARCH statement variants) fixed.
  *      Kay Gürtzig     2018.04.04      Fixed an inconvenience on importing DISPLAY statements (display clauses, KGU#513)
  *      Kay Gürtzig     2018.07.01      Enh. #553 - thread cancellation hooks added
+ *      agent           2026.10.18      AGT#23: Cached variable retrieval results reset on changes of the disabled flag
  *
  ******************************************************************************************************
  *
@@ -5062,6 +5063,9 @@ public class COBOLParser extends CodeParser
 				};
 				_ele.setColor(Color.WHITE);
 				_ele.disabled = false;
+				// START AGT#23 2026-10-18
+				_ele.resetVarSummaryUp();
+				// END AGT#23 2026-10-18
 			}
 			return true;
 		}
@@ -8974,6 +8978,9 @@ public class COBOLParser extends CodeParser
 				for (Call client: clients) {
 					client.getComment().add("The called " + (sop.isSection ? "section" : "paragraph") + " seems to be empty, corrupt, or vanished.");
 					client.disabled = true;
+					// START AGT#23 2026-10-18
+					client.resetVarSummaryUp();
+					// END AGT#23 2026-10-18
 				}
 			}
 			// END KGU#478 2017-12-10
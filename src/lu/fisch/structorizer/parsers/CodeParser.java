@@ -44,6 +44,7 @@ package lu.fisch.structorizer.parsers;
  *      Kay Gürtzig     2017.09.30      Enh. #420: Cleaning mechanism for the retrieved comments implemented
  *      Kay Gürtzig     2018.04.12      Issue #489: Fault tolerance improved.
  *      Kay Gürtzig     2018.06.29      Enh. #553: Listener management added
+ *      agent           2026.10.18      AGT#1: Keyword revision counter for dependent caches (Executor)
  *
  ******************************************************************************************************
  *
@@ -1279,6 +1280,14 @@ public abstract class CodeParser extends javax.swing.filechooser.FileFilter impl
 	//public static final HashMap<String, String> keywordMap = new LinkedHashMap<String, String>();
 	private static final HashMap<String, String> keywordMap = new LinkedHashMap<String, String>();
 	// END KGU#288 2016-11-06
+	// START AGT#1 2026-10-18: Allows caches of keyword-dependent text analysis to detect changes
+	/**
+	 * Modification counter of the keyword map, incremented on every effective keyword change.
+	 * Volatile because caches on background threads (analysis, grading jobs) compare it, whereas
+	 * only the thread changing the preferences increments it.
+	 */
+	private static volatile long keywordRevision = 0;
+	// END AGT#1 2026-10-18
 	static {
 		keywordMap.put("preAlt",     "");
 		keywordMap.put("postAlt",    "");
@@ -1341,6 +1350,9 @@ public abstract class CodeParser extends javax.swing.filechooser.FileFilter impl
 			// START KGU#165 2016-03-25: Enhancement configurable case awareness
 			ignoreCase = ini.getProperty("ParserIgnoreCase", "true").equalsIgnoreCase("true");
 			// END KGU#3 2016-03-25
+			// START AGT#1 2026-10-18
+			keywordRevision++;
+			// END AGT#1 2026-10-18
 			
 		}
 		catch (Exception e) 
@@ -1454,9 +1466,29 @@ public abstract class CodeParser extends javax.swing.filechooser.FileFilter impl
 		}
 		// Bugfix #281/#282
 		if (keywordMap.containsKey(_key)) {
-			keywordMap.put(_key, _keyword);
+			// START AGT#1 2026-10-18: Keep track of modifications
+			//keywordMap.put(_key, _keyword);
+			if (!_keyword.equals(keywordMap.put(_key, _keyword))) {
+				keywordRevision++;
+			}
+			// END AGT#1 2026-10-18
 		}
 	}
 	// END KGU#288 2016-11-06
 	
+	// START AGT#1 2026-10-18: Support for caches of keyword-dependent preprocessing results
+	/**
+	 * Returns the current modification count of the parser keywords. Any effective
+	 * change via {@link #setKeyword(String, String)} or {@link #loadFromINI()} increments
+	 * it, such that caches of keyword-dependent text analysis results (e.g. in the
+	 * Executor) may find out whether they are still valid.<br/>
+	 * Note: Changes of {@link #ignoreCase} are not reflected here.
+	 * @return the keyword revision number
+	 */
+	public static long getKeywordRevision()
+	{
+		return keywordRevision;
+	}
+	// END AGT#1 2026-10-18
+	
 }